@@ -0,0 +1,97 @@
+package org.osd.omot_app.data;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Bulk-inserts synthetic agent rows through one compiled statement in a single transaction, for
+ * tests that need a large table fast. The encrypted columns hold placeholder bytes that were
+ * never encrypted, so seeded rows must not be read back through decrypting DAO calls. Row
+ * {@code i} gets agent ID {@code OMOT-A<i>} and codename {@code agent-<i>} unless overridden.
+ */
+public class AgentSeeder {
+    private static final int BLOB_SIZE = 44;
+
+    private final DBHelper helper;
+    private IntFunction<String> agentIDs = i -> String.format(Locale.US, "OMOT-A%06d", i);
+    private IntFunction<String> codenames = i -> String.format(Locale.US, "agent-%06d", i);
+    private IntFunction<String> clearanceCodes = i -> "BETA";
+    private IntPredicate locked = i -> false;
+    private Random random;
+
+    public AgentSeeder(DBHelper helper) {
+        this.helper = helper;
+    }
+
+    public AgentSeeder agentIDs(IntFunction<String> agentIDs) {
+        this.agentIDs = agentIDs;
+        return this;
+    }
+
+    public AgentSeeder codenames(IntFunction<String> codenames) {
+        this.codenames = codenames;
+        return this;
+    }
+
+    public AgentSeeder clearanceCodes(IntFunction<String> clearanceCodes) {
+        this.clearanceCodes = clearanceCodes;
+        return this;
+    }
+
+    public AgentSeeder locked(IntPredicate locked) {
+        this.locked = locked;
+        return this;
+    }
+
+    /**
+     * Fills the encrypted columns with random bytes instead of zeros.
+     */
+    public AgentSeeder randomBlobs(Random random) {
+        this.random = random;
+        return this;
+    }
+
+    /**
+     * Inserts rows {@code 0} to {@code count - 1}.
+     */
+    public void insert(int count) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        byte[] blob = new byte[BLOB_SIZE];
+        try (SQLiteStatement insert = db.compileStatement("INSERT INTO "
+                + DBContract.AgentEntry.TABLE_NAME + " ("
+                + DBContract.AgentEntry.COLUMN_AGENT_ID + ", "
+                + DBContract.AgentEntry.COLUMN_CODENAME + ", "
+                + DBContract.AgentEntry.COLUMN_PASSWORD_HASH + ", "
+                + DBContract.AgentEntry.COLUMN_SALT + ", "
+                + DBContract.AgentEntry.COLUMN_CLEARANCE_CODE + ", "
+                + DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED
+                + ") VALUES (?, ?, ?, ?, ?, ?)")) {
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < count; i++) {
+                    if (random != null) random.nextBytes(blob);
+                    // The salt column is UNIQUE, so every row's blob carries its index
+                    blob[0] = (byte) i;
+                    blob[1] = (byte) (i >> 8);
+                    blob[2] = (byte) (i >> 16);
+                    blob[3] = (byte) (i >> 24);
+                    insert.bindString(1, agentIDs.apply(i));
+                    insert.bindString(2, codenames.apply(i));
+                    insert.bindBlob(3, blob);
+                    insert.bindBlob(4, blob);
+                    insert.bindString(5, clearanceCodes.apply(i));
+                    insert.bindLong(6, locked.test(i) ? 1 : 0);
+                    insert.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+}
\ No newline at end of file
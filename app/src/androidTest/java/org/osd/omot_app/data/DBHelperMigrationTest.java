@@ -0,0 +1,157 @@
+package org.osd.omot_app.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.dao.AgentDAOImpl;
+import org.osd.omot_app.data.dao.DossierDAOImpl;
+import org.osd.omot_app.data.dao.MissionDAOImpl;
+import org.osd.omot_app.data.migration.Migration;
+import org.osd.omot_app.data.migration.MigrationProgressListener;
+import org.osd.omot_app.data.migration.MissionCodeMigration;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.Dossier;
+import org.osd.omot_app.data.model.Mission;
+import org.osd.omot_app.security.CryptoManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades a populated version 1 database and checks that no agent or mission is lost.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DBHelperMigrationTest {
+    private static final String TEST_DB_NAME = "OMOT-migration-test.db";
+    private static final int AGENT_COUNT = 1200;   // spans several migration chunks
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB_NAME);
+        createVersion1Database();
+    }
+
+    @After
+    public void tearDown() {
+        if (helper != null) helper.close();
+        context.deleteDatabase(TEST_DB_NAME);
+    }
+
+    @Test
+    public void upgradeFromVersion1_keepsAgentsAndConvertsBlobs() {
+        helper = new DBHelper(context, TEST_DB_NAME, DBPerformanceProfile.DEFAULT);
+        AtomicLong lastProgress = new AtomicLong();
+        helper.setMigrationProgressListener(new MigrationProgressListener() {
+            @Override
+            public void onStepStarted(Migration migration) {
+            }
+
+            @Override
+            public void onRowsMigrated(Migration migration, long rowsProcessed, long totalRows) {
+                assertTrue(rowsProcessed > lastProgress.get());
+                assertEquals(AGENT_COUNT, totalRows);
+                lastProgress.set(rowsProcessed);
+            }
+
+            @Override
+            public void onStepFinished(Migration migration) {
+            }
+        });
+
+        SQLiteDatabase db = helper.getWritableDatabase();
+        assertEquals(AGENT_COUNT, DatabaseUtils.queryNumEntries(db, DBContract.AgentEntry.TABLE_NAME));
+
+        // Rows are readable while the rewrite is still pending
+        AgentDAOImpl agentDAO = new AgentDAOImpl(helper);
+        assertAgentReadable(agentDAO.getAgentByCodename("agent7"));
+
+        helper.runPendingMigrations();
+
+        assertEquals(AGENT_COUNT, lastProgress.get());
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, DBContract.AgentEntry.TABLE_NAME,
+                "typeof(" + DBContract.AgentEntry.COLUMN_SALT + ") != 'blob'"));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, DBContract.PendingMigrationEntry.TABLE_NAME));
+        assertAgentReadable(agentDAO.getAgentByCodename("agent7"));
+
+        // Mission status and priority text was converted to codes
+        MissionDAOImpl missionDAO = new MissionDAOImpl(helper);
+        Mission active = missionDAO.getMissionByID("M-001");
+        assertEquals(Mission.Status.ACTIVE, active.getStatus());
+        assertEquals(Mission.Priority.HIGH, active.getPriority());
+        Mission completed = missionDAO.getMissionByID("M-002");
+        assertEquals(Mission.Status.COMPLETED, completed.getStatus());
+        assertEquals(Mission.Priority.LOW, completed.getPriority());
+        assertEquals(Long.valueOf(3000), completed.getEndDate());
+        assertEquals("briefing.pdf", completed.getBriefingFilePath());
+
+        // The dossier table is created empty, with its clearance rank column
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, DBContract.DossierEntry.TABLE_NAME));
+        DossierDAOImpl dossierDAO = new DossierDAOImpl(helper);
+        assertTrue(dossierDAO.insertDossier(
+                new Dossier("D-001", "Harbor", ClearanceLevel.ALPHA, null, 1000)));
+        assertEquals(1, dossierDAO.getAccessibleDossiers(ClearanceLevel.OMEGA).size());
+        assertTrue(dossierDAO.getAccessibleDossiers(ClearanceLevel.BETA).isEmpty());
+    }
+
+    private void assertAgentReadable(Agent agent) {
+        assertNotNull(agent);
+        assertEquals("password-hash", agent.getPasswordHash());
+        assertEquals("salt-7", agent.getSalt());
+        assertEquals("What was the first safe house?", agent.getSecurityQuestion());
+    }
+
+    /**
+     * Builds the schema shipped with version 1, storing encrypted values as Base64 text.
+     */
+    private void createVersion1Database() {
+        CryptoManager cryptoManager = new CryptoManager(context);
+        String passwordHash = cryptoManager.encrypt("password-hash");
+        String question = cryptoManager.encrypt("What was the first safe house?");
+        String answerHash = cryptoManager.encrypt("answer-hash");
+
+        try (SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(
+                context.getDatabasePath(TEST_DB_NAME), null)) {
+            db.execSQL(DBContract.ClearanceLevelEntry.SQL_CREATE_TABLE);
+            db.execSQL(DBContract.AgentEntry.SQL_CREATE_TABLE);
+            db.execSQL(MissionCodeMigration.SQL_CREATE_LEGACY_TABLE);
+            db.execSQL("INSERT INTO " + DBContract.MissionEntry.TABLE_NAME
+                    + " VALUES ('M-001', 'Nightfall', 'Active', 'High', 1000, NULL, NULL),"
+                    + " ('M-002', 'Daybreak', 'Completed', 'Low', 2000, 3000, 'briefing.pdf')");
+            db.execSQL(DBContract.ClearanceLevelEntry.SQL_POPULATE_DATA);
+
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < AGENT_COUNT; i++) {
+                    ContentValues values = new ContentValues();
+                    values.put(DBContract.AgentEntry.COLUMN_AGENT_ID, String.format("AGENT-%03d", i + 1));
+                    values.put(DBContract.AgentEntry.COLUMN_CODENAME, "agent" + i);
+                    values.put(DBContract.AgentEntry.COLUMN_PASSWORD_HASH, passwordHash);
+                    values.put(DBContract.AgentEntry.COLUMN_SALT, cryptoManager.encrypt("salt-" + i));
+                    values.put(DBContract.AgentEntry.COLUMN_SECURITY_QUESTION, question);
+                    values.put(DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH, answerHash);
+                    values.put(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE, "BETA");
+                    db.insertOrThrow(DBContract.AgentEntry.TABLE_NAME, null, values);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            db.setVersion(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package org.osd.omot_app.data;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.dao.AgentDAOImpl;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Codename lookups while another thread keeps recording logins, under the stock rollback
+ * journal and under the WAL profile. Latency percentiles are logged; the test asserts that WAL
+ * readers stall less at the tail. Also checks that the profile reaches the extra connections
+ * WAL mode opens for readers, not just the primary one.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DBPerformanceProfileBenchmarkTest {
+    private static final String TAG = "DBProfileBenchmark";
+    private static final String TEST_DB_NAME = "OMOT-profile-bench.db";
+    private static final int AGENTS = 200;
+    private static final int READS = 2_000;
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        if (helper != null) helper.close();
+        context.deleteDatabase(TEST_DB_NAME);
+    }
+
+    @Test
+    public void walReaders_stallLessUnderConcurrentLogins() throws Exception {
+        Latency rollback = measureReadsUnderWriter(DBPerformanceProfile.CONSERVATIVE);
+        Latency wal = measureReadsUnderWriter(DBPerformanceProfile.DEFAULT);
+
+        Log.i(TAG, "Codename lookups during login writes, rollback journal: " + rollback
+                + "; WAL: " + wal);
+        assertTrue("WAL p99 " + wal.p99Micros + " us, rollback p99 " + rollback.p99Micros
+                + " us", wal.p99Micros <= rollback.p99Micros);
+    }
+
+    @Test
+    public void readerConnection_getsProfilePragmas() throws Exception {
+        // Older releases only configure the primary connection
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.R);
+        helper = new DBHelper(context, TEST_DB_NAME, new DBPerformanceProfile.Builder()
+                .setCacheSizeKiB(4096)
+                .setTempStoreInMemory(true)
+                .build());
+        SQLiteDatabase db = helper.getWritableDatabase();
+
+        // Hold the primary connection in a write transaction so reads go to another connection
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> transaction = writer.submit(() -> {
+                db.beginTransactionNonExclusive();
+                try {
+                    holding.countDown();
+                    release.await();
+                } finally {
+                    db.endTransaction();
+                }
+                return null;
+            });
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            assertEquals(-4096, DatabaseUtils.longForQuery(db,
+                    "SELECT cache_size FROM pragma_cache_size", null));
+            assertEquals(2, DatabaseUtils.longForQuery(db,
+                    "SELECT temp_store FROM pragma_temp_store", null));
+
+            release.countDown();
+            transaction.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            writer.shutdownNow();
+        }
+    }
+
+    private Latency measureReadsUnderWriter(DBPerformanceProfile profile) throws Exception {
+        if (helper != null) helper.close();
+        context.deleteDatabase(TEST_DB_NAME);
+        helper = new DBHelper(context, TEST_DB_NAME, profile);
+        AgentDAO agentDAO = new AgentDAOImpl(helper);
+        for (int i = 0; i < AGENTS; i++) {
+            assertNotNull(agentDAO.insertAgentWithNewID(new Agent(null, codename(i), "hash",
+                    "salt-" + i, "Favourite cipher?", "answer-hash", ClearanceLevel.BETA, false,
+                    0, 0, 0, false)));
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        long[] micros = new long[READS];
+        try {
+            Future<Integer> writes = writer.submit(() -> {
+                Random random = new Random(1);
+                int count = 0;
+                while (!stop.get()) {
+                    assertTrue(agentDAO.recordSuccessfulLogin(codename(random.nextInt(AGENTS)),
+                            System.currentTimeMillis()));
+                    count++;
+                }
+                return count;
+            });
+
+            Random random = new Random(2);
+            for (int i = 0; i < READS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                assertNotNull(agentDAO.getAgentByCodename(codename(random.nextInt(AGENTS))));
+                micros[i] = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+            }
+            stop.set(true);
+            assertTrue("Writer made no progress", writes.get(30, TimeUnit.SECONDS) > 0);
+        } finally {
+            stop.set(true);
+            writer.shutdownNow();
+        }
+        return new Latency(micros);
+    }
+
+    private static String codename(int i) {
+        return String.format(Locale.US, "agent-%04d", i);
+    }
+
+    private static class Latency {
+        final long p50Micros;
+        final long p99Micros;
+        final long maxMicros;
+
+        Latency(long[] micros) {
+            long[] sorted = micros.clone();
+            Arrays.sort(sorted);
+            p50Micros = sorted[sorted.length / 2];
+            p99Micros = sorted[sorted.length * 99 / 100];
+            maxMicros = sorted[sorted.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            return "p50 " + p50Micros + " us, p99 " + p99Micros + " us, max " + maxMicros + " us";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package org.osd.omot_app.data;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.Nullable;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.rules.ExternalResource;
+import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.dao.AgentDAOImpl;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Gives each test a fresh database: deletes it, opens it through a {@link DBHelper} and an
+ * {@link AgentDAOImpl} before the test, and closes and deletes it afterwards. Suites' own
+ * {@code @Before} and {@code @After} methods run inside that window.
+ */
+public class TestDatabase extends ExternalResource {
+    private final String name;
+    private final DBPerformanceProfile profile;
+    private final SQLiteDatabase.CursorFactory cursorFactory;
+
+    private Context context;
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+
+    public TestDatabase(String name) {
+        this(name, DBPerformanceProfile.DEFAULT);
+    }
+
+    public TestDatabase(String name, DBPerformanceProfile profile) {
+        this(name, profile, null);
+    }
+
+    /**
+     * @param cursorFactory Factory of every cursor opened on the database, or null for the
+     *                      default one.
+     */
+    public TestDatabase(String name, DBPerformanceProfile profile,
+                        @Nullable SQLiteDatabase.CursorFactory cursorFactory) {
+        this.name = name;
+        this.profile = profile;
+        this.cursorFactory = cursorFactory;
+    }
+
+    @Override
+    protected void before() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(name);
+        helper = new DBHelper(context, name, profile, cursorFactory);
+        agentDAO = new AgentDAOImpl(helper);
+    }
+
+    @Override
+    protected void after() {
+        helper.close();
+        context.deleteDatabase(name);
+    }
+
+    /**
+     * Closes the helper and opens a new helper and DAO on the same file, as after a process
+     * death.
+     *
+     * @return The closed helper.
+     */
+    public DBHelper reopen() {
+        DBHelper closed = helper;
+        closed.close();
+        helper = new DBHelper(context, name, profile, cursorFactory);
+        agentDAO = new AgentDAOImpl(helper);
+        return closed;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public DBHelper getHelper() {
+        return helper;
+    }
+
+    public AgentDAO getAgentDAO() {
+        return agentDAO;
+    }
+
+    /**
+     * @return An unsaved BETA agent with placeholder credentials. The salt column is UNIQUE, so
+     * the salt is derived from the codename.
+     */
+    public static Agent newAgent(String codename) {
+        return new Agent(null, codename, "hash", "salt-" + codename, "Favourite cipher?",
+                "answer-hash", ClearanceLevel.BETA, false, 0, 0, 0, false);
+    }
+
+    /**
+     * Inserts {@link #newAgent(String)} under a freshly allocated agent ID.
+     *
+     * @return The agent ID.
+     */
+    public String insertAgent(String codename) {
+        return insertAgent(newAgent(codename));
+    }
+
+    public String insertAgent(Agent agent) {
+        String agentID = agentDAO.insertAgentWithNewID(agent);
+        assertNotNull("Insert failed for " + agent.getCodename(), agentID);
+        return agentID;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package org.osd.omot_app.data.content;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.security.ChunkedFileCipher;
+import org.osd.omot_app.security.CryptoManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Opens a 100 MB dossier and compares time-to-page (open the container, read one page) through
+ * mapped and unmapped readers against decrypting the whole file, which is what a viewer
+ * without the page index would have to do. Timings are logged; the test asserts the pages
+ * read back correctly and that a single page beats the whole-file decrypt.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DossierContentBenchmarkTest {
+    private static final String TAG = "DossierContentBench";
+    private static final int PAGE_COUNT = 1_000;
+    private static final int PAGE_SIZE = 100 * 1024;    // 1,000 pages of 100 KiB = ~100 MB
+    private static final int RUNS = 5;
+
+    private File directory;
+    private ChunkedFileCipher cipher;
+    private DossierContentStore store;
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        directory = new File(context.getCacheDir(), "dossier-bench");
+        Assume.assumeTrue("Not enough free space",
+                context.getCacheDir().getUsableSpace() > 3L * PAGE_COUNT * PAGE_SIZE);
+        cipher = new ChunkedFileCipher(new CryptoManager(context));
+        store = new DossierContentStore(directory, cipher);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (DossierContentWriter writer = store.newWriter("D-BENCH")) {
+            byte[] page = new byte[PAGE_SIZE];
+            for (int i = 0; i < PAGE_COUNT; i++) {
+                fillPage(page, i);
+                writer.writePage(page);
+            }
+            path = writer.commit();
+        }
+        Log.i(TAG, String.format(Locale.US, "Wrote %d MB dossier in %d ms",
+                new File(path).length() / (1024 * 1024),
+                (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000));
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        directory.delete();
+    }
+
+    private static void fillPage(byte[] page, int number) {
+        new Random(number).nextBytes(page);
+    }
+
+    @Test
+    public void timeToPage_vsWholeFileDecrypt() throws IOException {
+        byte[] expected = new byte[PAGE_SIZE];
+        long mappedFirst = Long.MAX_VALUE;
+        long mappedMiddle = Long.MAX_VALUE;
+        long unmappedMiddle = Long.MAX_VALUE;
+        long wholeFile = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try (DossierContent content = store.open(path)) {
+                byte[] page = content.readPage(0);
+                mappedFirst = Math.min(mappedFirst, SystemClock.elapsedRealtimeNanos() - start);
+                fillPage(expected, 0);
+                assertTrue(Arrays.equals(expected, page));
+            }
+
+            int middle = PAGE_COUNT / 2;
+            start = SystemClock.elapsedRealtimeNanos();
+            try (DossierContent content = store.open(path)) {
+                byte[] page = content.readPage(middle);
+                mappedMiddle = Math.min(mappedMiddle, SystemClock.elapsedRealtimeNanos() - start);
+                fillPage(expected, middle);
+                assertTrue(Arrays.equals(expected, page));
+            }
+
+            start = SystemClock.elapsedRealtimeNanos();
+            try (DossierContent content =
+                         new DossierContent(cipher.newReader(new File(path), false))) {
+                byte[] page = content.readPage(middle);
+                unmappedMiddle = Math.min(unmappedMiddle,
+                        SystemClock.elapsedRealtimeNanos() - start);
+                assertTrue(Arrays.equals(expected, page));
+            }
+
+            start = SystemClock.elapsedRealtimeNanos();
+            try (InputStream in = cipher.newDecryptingStream(new FileInputStream(path))) {
+                byte[] buffer = new byte[ChunkedFileCipher.DEFAULT_CHUNK_SIZE];
+                while (in.read(buffer) >= 0) {
+                    // Decrypt and discard
+                }
+            }
+            wholeFile = Math.min(wholeFile, SystemClock.elapsedRealtimeNanos() - start);
+        }
+
+        Log.i(TAG, String.format(Locale.US,
+                "Best of %d: first page %.2f ms (mapped), middle page %.2f ms (mapped) / "
+                        + "%.2f ms (unmapped), whole-file decrypt %.1f ms",
+                RUNS, mappedFirst / 1e6, mappedMiddle / 1e6, unmappedMiddle / 1e6,
+                wholeFile / 1e6));
+        assertTrue("Page read should beat the whole-file decrypt", mappedMiddle < wholeFile);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.ContentValues;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.model.Agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Failed and successful login bookkeeping must be atomic under concurrent attempts.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentLoginBookkeepingTest {
+    private static final String TEST_DB_NAME = "OMOT-login-bookkeeping-test.db";
+    private static final String CODENAME = "raven";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+        database.insertAgent(CODENAME);
+    }
+
+    @Test
+    public void concurrentFailures_areAllCounted() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        assertTrue(agentDAO.recordFailedLoginAttempt(CODENAME) > 0);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) result.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Agent agent = agentDAO.getAgentByCodename(CODENAME);
+        assertEquals(threads * attemptsPerThread, agent.getFailedLoginAttempts());
+        assertTrue(agent.isAccountLocked());
+    }
+
+    @Test
+    public void failures_lockAtThreshold() {
+        for (int i = 1; i < AgentDAO.MAX_FAILED_ATTEMPTS; i++) {
+            assertEquals(i, agentDAO.recordFailedLoginAttempt(CODENAME));
+            assertFalse(agentDAO.getAgentByCodename(CODENAME).isAccountLocked());
+        }
+        assertEquals(AgentDAO.MAX_FAILED_ATTEMPTS, agentDAO.recordFailedLoginAttempt(CODENAME));
+        assertTrue(agentDAO.getAgentByCodename(CODENAME).isTemporarilyLocked());
+
+        assertTrue(agentDAO.recordSuccessfulLogin(CODENAME, 1234L));
+        Agent agent = agentDAO.getAgentByCodename(CODENAME);
+        assertEquals(0, agent.getFailedLoginAttempts());
+        assertFalse(agent.isAccountLocked());
+        assertEquals(1234L, agent.getLastLoginTimestamp());
+    }
+
+    @Test
+    public void failureAfterExpiredManualLock_unlocks() {
+        ContentValues values = new ContentValues();
+        values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, 1);
+        values.put(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP,
+                System.currentTimeMillis() - Agent.LOCKOUT_DURATION_MS - 1);
+        helper.getWritableDatabase().update(DBContract.AgentEntry.TABLE_NAME, values,
+                DBContract.AgentEntry.COLUMN_CODENAME + " = ?", new String[]{CODENAME});
+
+        assertEquals(1, agentDAO.recordFailedLoginAttempt(CODENAME));
+        assertFalse(agentDAO.getAgentByCodename(CODENAME).isAccountLocked());
+    }
+
+    @Test
+    public void unknownCodename_returnsMinusOne() {
+        assertEquals(-1, agentDAO.recordFailedLoginAttempt("ghost"));
+    }
+}
\ No newline at end of file
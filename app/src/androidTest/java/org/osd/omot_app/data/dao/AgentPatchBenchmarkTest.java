@@ -0,0 +1,120 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.DBPerformanceProfile;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.AgentPatch;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares a full-row updateAgent with the targeted partial updates: WAL frames appended
+ * (pages written) and latency per update. Automatic checkpoints are disabled so the WAL size
+ * reflects every page each variant wrote. Numbers are logged; the test asserts that the
+ * targeted updates never write more pages and that they change only their own columns.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentPatchBenchmarkTest {
+    private static final String TAG = "AgentPatchBenchmark";
+    private static final String TEST_DB_NAME = "OMOT-patch-bench.db";
+    private static final int ITERATIONS = 100;
+    private static final int WAL_HEADER_BYTES = 32;
+    private static final int WAL_FRAME_HEADER_BYTES = 24;
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME,
+            new DBPerformanceProfile.Builder().setWalAutoCheckpointPages(0).build());
+
+    private Context context;
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+    private Agent agent;
+
+    @Before
+    public void setUp() {
+        context = database.getContext();
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+        agent = TestDatabase.newAgent("raven");
+        database.insertAgent(agent);
+    }
+
+    @Test
+    public void targetedUpdates_writeLessThanFullRowUpdate() {
+        Result full = measure(() -> {
+            agent.setPasswordHash("hash-" + SystemClock.elapsedRealtimeNanos());
+            assertEquals(1, agentDAO.updateAgent(agent));
+        });
+        Result password = measure(() -> assertTrue(agentDAO.updatePasswordHash("raven",
+                "hash-" + SystemClock.elapsedRealtimeNanos())));
+        Result biometric = measure(() -> assertTrue(agentDAO.updateBiometricFlag("raven",
+                SystemClock.elapsedRealtimeNanos() % 2 == 0)));
+
+        Log.i(TAG, "updateAgent: " + full + "; updatePasswordHash: " + password
+                + "; updateBiometricFlag: " + biometric);
+        assertTrue(password.framesPerUpdate <= full.framesPerUpdate);
+        assertTrue(biometric.framesPerUpdate <= full.framesPerUpdate);
+    }
+
+    @Test
+    public void patch_leavesOtherColumnsUntouched() {
+        assertEquals(1, agentDAO.patchAgent(agent.getAgentID(), new AgentPatch()
+                .setClearanceLevel(ClearanceLevel.ALPHA)
+                .setSecurityQuestion("Favourite safehouse?")));
+        assertEquals(0, agentDAO.patchAgent(agent.getAgentID(), new AgentPatch()));
+
+        Agent patched = agentDAO.getAgentByCodename("raven");
+        assertEquals("ALPHA", patched.getClearanceLevel().getClearanceCode());
+        assertEquals("Favourite safehouse?", patched.getSecurityQuestion());
+        assertEquals("hash", patched.getPasswordHash());
+        assertEquals("salt-raven", patched.getSalt());
+        assertEquals("answer-hash", patched.getSecurityAnswerHash());
+    }
+
+    private Result measure(Runnable update) {
+        helper.checkpoint();    // Truncates the WAL
+        File wal = new File(context.getDatabasePath(TEST_DB_NAME).getPath() + "-wal");
+        long pageSize = DatabaseUtils.longForQuery(helper.getReadableDatabase(),
+                "PRAGMA page_size", null);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < ITERATIONS; i++) {
+            update.run();
+        }
+        long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+
+        long frames = Math.max(0, wal.length() - WAL_HEADER_BYTES)
+                / (pageSize + WAL_FRAME_HEADER_BYTES);
+        return new Result((double) frames / ITERATIONS, elapsed / ITERATIONS / 1000);
+    }
+
+    private static class Result {
+        final double framesPerUpdate;
+        final long microsPerUpdate;
+
+        Result(double framesPerUpdate, long microsPerUpdate) {
+            this.framesPerUpdate = framesPerUpdate;
+            this.microsPerUpdate = microsPerUpdate;
+        }
+
+        @Override
+        public String toString() {
+            return framesPerUpdate + " pages, " + microsPerUpdate + " us per update";
+        }
+    }
+}
\ No newline at end of file
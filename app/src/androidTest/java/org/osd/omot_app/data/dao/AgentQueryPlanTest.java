@@ -0,0 +1,132 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Query plan regression suite for AgentDAOImpl, checked with EXPLAIN QUERY PLAN. Reads that open
+ * a cursor are run through the DAO with a cursor factory that records their SQL. Statements the
+ * DAO compiles itself are explained from its SQL constants, and the updates and deletes that
+ * SQLiteDatabase builds are explained around the DAO's key conditions, which alone decide their
+ * plans. A keyed lookup, page or write that falls back to a full table scan or a temporary sort
+ * fails the suite; getAllAgents and getAgentCount read the whole table by design and are only
+ * checked for sorting.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentQueryPlanTest {
+    private static final String TEST_DB_NAME = "OMOT-query-plan-test.db";
+
+    private QueryPlanChecker plans;
+    private AgentDAOImpl agentDAO;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        plans = new QueryPlanChecker(context, TEST_DB_NAME, DBContract.AgentEntry.TABLE_NAME);
+        agentDAO = new AgentDAOImpl(plans.getHelper());
+    }
+
+    @After
+    public void tearDown() {
+        plans.close();
+    }
+
+    @Test
+    public void getAgentByCodename_usesIndex() {
+        plans.assertQueryIndexed(() -> agentDAO.getAgentByCodename("raven"), null);
+    }
+
+    @Test
+    public void getAgentByID_usesIndex() {
+        plans.assertQueryIndexed(() -> agentDAO.getAgentByID("AGENT-001"), null);
+    }
+
+    @Test
+    public void isCodenameAvailable_usesCoveringIndex() {
+        List<String> plan = plans.explainQuery(() -> agentDAO.isCodenameAvailable("raven"));
+        plans.assertIndexed(plan, null);
+        assertTrue(plan.toString(), plan.get(0).contains("COVERING INDEX"));
+    }
+
+    @Test
+    public void getMaxAgentIDNumber_usesExpressionIndex() {
+        plans.assertQueryIndexed(agentDAO::getMaxAgentIDNumber,
+                DBContract.AgentEntry.INDEX_AGENT_NUMBER);
+    }
+
+    @Test
+    public void agentPages_useIndexesWithoutSorting() {
+        plans.assertQueryIndexed(() -> agentDAO.getAgentsAfter(null, 50), null);
+        plans.assertQueryIndexed(() -> agentDAO.getAgentsAfter("raven", 50), null);
+        plans.assertQueryIndexed(() -> agentDAO.getAgentsByClearanceAfter("OMEGA", "raven", 50),
+                DBContract.AgentEntry.INDEX_CLEARANCE_CODENAME);
+        plans.assertQueryIndexed(() -> agentDAO.getAgentsByLockStatusAfter(true, "raven", 50),
+                DBContract.AgentEntry.INDEX_LOCKED_CODENAME);
+        plans.assertQueryIndexed(() -> agentDAO.forEachAgent(agent -> { }), null);
+    }
+
+    @Test
+    public void getAgentsLoggedInSince_usesPartialIndex() {
+        plans.assertQueryIndexed(() -> agentDAO.getAgentsLoggedInSince(0L, 50),
+                DBContract.AgentEntry.INDEX_RECENT_LOGIN);
+    }
+
+    @Test
+    public void forEachCodename_usesCoveringIndex() {
+        List<String> plan = plans.explainQuery(() -> agentDAO.forEachCodename(c -> { }));
+        plans.assertIndexed(plan, null);
+        assertTrue(plan.toString(), plan.toString().contains("COVERING INDEX"));
+    }
+
+    @Test
+    public void wholeTableReads_doNotSort() {
+        QueryPlanChecker.assertNotSorted(plans.explainQuery(agentDAO::getAllAgents));
+        // getAgentCount: DatabaseUtils.queryNumEntries compiles this rather than opening a cursor
+        QueryPlanChecker.assertNotSorted(
+                plans.explain("select count(*) from " + DBContract.AgentEntry.TABLE_NAME));
+    }
+
+    @Test
+    public void deleteAgent_codenameLookupUsesIndex() {
+        // Only looked up when someone listens for the removed codename
+        agentDAO.addChangeListener(new AgentDAO.ChangeListener() { });
+        plans.assertQueryIndexed(() -> agentDAO.deleteAgent("AGENT-001"), null);
+    }
+
+    @Test
+    public void compiledStatements_useIndexes() {
+        // recordFailedLoginAttempt and its read-back, updateLastLoginTimestamps
+        plans.assertIndexed(AgentDAOImpl.SQL_RECORD_FAILED_ATTEMPT, null);
+        plans.assertIndexed(AgentDAOImpl.SQL_SELECT_FAILED_ATTEMPTS, null);
+        plans.assertIndexed(AgentDAOImpl.SQL_UPDATE_LAST_LOGIN, null);
+    }
+
+    @Test
+    public void keyedUpdatesAndDeletes_useIndexes() {
+        // SQLiteDatabase.update and delete wrap the DAO's key condition; the SET list doesn't
+        // affect the plan
+        String update = "UPDATE " + DBContract.AgentEntry.TABLE_NAME + " SET "
+                + DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS + "=? WHERE ";
+
+        // recordSuccessfulLogin, setAccountLockStatus, updatePasswordHash and the other
+        // patches by codename
+        plans.assertIndexed(update + AgentDAOImpl.WHERE_CODENAME, null);
+        // updateAgent, patchAgent
+        plans.assertIndexed(update + AgentDAOImpl.WHERE_AGENT_ID, null);
+        // deleteAgent
+        plans.assertIndexed("DELETE FROM " + DBContract.AgentEntry.TABLE_NAME + " WHERE "
+                + AgentDAOImpl.WHERE_AGENT_ID, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package org.osd.omot_app.data.dao;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.AgentSeeder;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.model.Agent;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pages and streams through 100k synthetic agent rows. Encrypted columns hold random bytes;
+ * they are never read, so no KeyStore work happens.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentRosterPagingTest {
+    private static final String TEST_DB_NAME = "OMOT-roster-test.db";
+    private static final int ROW_COUNT = 100_000;
+    private static final int PAGE_SIZE = 500;
+    private static final String[] CLEARANCES = {"BETA", "ALPHA", "OMEGA", "SHADOW"};
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+
+        new AgentSeeder(helper)
+                // Codenames deliberately not in insertion order
+                .codenames(i -> String.format(Locale.US, "agent-%06d", (i * 7919) % ROW_COUNT))
+                .clearanceCodes(i -> CLEARANCES[i % CLEARANCES.length])
+                .locked(i -> i % 10 == 0)
+                .randomBlobs(new Random(7))
+                .insert(ROW_COUNT);
+    }
+
+    @Test
+    public void keysetPages_coverEveryAgentInOrder() {
+        int seen = 0;
+        String lastCodename = null;
+        List<Agent> page;
+        do {
+            page = agentDAO.getAgentsAfter(lastCodename, PAGE_SIZE);
+            for (Agent agent : page) {
+                if (lastCodename != null) {
+                    assertTrue(agent.getCodename().compareTo(lastCodename) > 0);
+                }
+                lastCodename = agent.getCodename();
+                seen++;
+            }
+        } while (page.size() == PAGE_SIZE);
+        assertEquals(ROW_COUNT, seen);
+    }
+
+    @Test
+    public void filteredPages_matchFilter() {
+        int omega = 0;
+        String lastCodename = null;
+        List<Agent> page;
+        do {
+            page = agentDAO.getAgentsByClearanceAfter("OMEGA", lastCodename, PAGE_SIZE);
+            for (Agent agent : page) {
+                assertEquals("OMEGA", agent.getClearanceLevel().getClearanceCode());
+                lastCodename = agent.getCodename();
+                omega++;
+            }
+        } while (page.size() == PAGE_SIZE);
+        assertEquals(ROW_COUNT / CLEARANCES.length, omega);
+
+        int locked = 0;
+        lastCodename = null;
+        do {
+            page = agentDAO.getAgentsByLockStatusAfter(true, lastCodename, PAGE_SIZE);
+            for (Agent agent : page) {
+                assertTrue(agent.isAccountLocked());
+                lastCodename = agent.getCodename();
+                locked++;
+            }
+        } while (page.size() == PAGE_SIZE);
+        assertEquals(ROW_COUNT / 10, locked);
+    }
+
+    @Test
+    public void forEachAgent_streamsEveryRow() {
+        AtomicInteger count = new AtomicInteger();
+        agentDAO.forEachAgent(agent -> count.incrementAndGet());
+        assertEquals(ROW_COUNT, count.get());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough timing of agent row mapping over a 10k-row table: a column name lookup per field
+ * per row (the old cursorToAgent) against indices resolved once per cursor.
+ * Decryption is left out so the numbers show the cursor access cost alone. Timings are
+ * logged, not asserted.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentRowMapperBenchmarkTest {
+    private static final String TAG = "AgentRowMapperBench";
+    private static final String TEST_DB_NAME = "OMOT-row-mapper-bench.db";
+    private static final int ROW_COUNT = 10_000;
+    private static final int ROUNDS = 5;
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+
+        SQLiteDatabase db = helper.getWritableDatabase();
+        Random random = new Random(42);
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                ContentValues values = new ContentValues();
+                values.put(DBContract.AgentEntry.COLUMN_AGENT_ID, String.format("OMOT-A%05d", i));
+                values.put(DBContract.AgentEntry.COLUMN_CODENAME, "agent" + i);
+                values.put(DBContract.AgentEntry.COLUMN_PASSWORD_HASH, randomBlob(random));
+                values.put(DBContract.AgentEntry.COLUMN_SALT, randomBlob(random));
+                values.put(DBContract.AgentEntry.COLUMN_SECURITY_QUESTION, randomBlob(random));
+                values.put(DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH, randomBlob(random));
+                values.put(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE, "BETA");
+                values.put(DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED, i % 2);
+                values.put(DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP, (long) i);
+                values.put(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS, i % 5);
+                values.put(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP, 0L);
+                values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, 0);
+                db.insertOrThrow(DBContract.AgentEntry.TABLE_NAME, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Test
+    public void resolvedIndices_matchPerRowLookup() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        long lookupChecksum = 0;
+        long resolvedChecksum = 0;
+        long lookupNanos = Long.MAX_VALUE;
+        long resolvedNanos = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            try (Cursor cursor = query(db)) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                lookupChecksum = readWithPerRowLookup(cursor);
+                lookupNanos = Math.min(lookupNanos, SystemClock.elapsedRealtimeNanos() - start);
+            }
+            try (Cursor cursor = query(db)) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                resolvedChecksum = readWithResolvedIndices(cursor);
+                resolvedNanos = Math.min(resolvedNanos, SystemClock.elapsedRealtimeNanos() - start);
+            }
+        }
+
+        Log.i(TAG, "Per-row lookup: " + lookupNanos / 1000 + " us, resolved once: "
+                + resolvedNanos / 1000 + " us (" + ROW_COUNT + " rows, best of " + ROUNDS + ")");
+        assertEquals(lookupChecksum, resolvedChecksum);
+    }
+
+    private static Cursor query(SQLiteDatabase db) {
+        return db.query(DBContract.AgentEntry.TABLE_NAME, AgentRowMapper.PROJECTION,
+                null, null, null, null, null);
+    }
+
+    private static long readWithPerRowLookup(Cursor cursor) {
+        long checksum = 0;
+        while (cursor.moveToNext()) {
+            checksum += cursor.getString(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_AGENT_ID)).hashCode();
+            checksum += cursor.getString(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_CODENAME)).hashCode();
+            checksum += cursor.getString(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_CLEARANCE_CODE)).hashCode();
+            checksum += cursor.getInt(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED));
+            checksum += cursor.getLong(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP));
+            checksum += cursor.getInt(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS));
+            checksum += cursor.getLong(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP));
+            checksum += cursor.getInt(cursor.getColumnIndexOrThrow(
+                    DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED));
+        }
+        return checksum;
+    }
+
+    private static long readWithResolvedIndices(Cursor cursor) {
+        int agentID = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_AGENT_ID);
+        int codename = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_CODENAME);
+        int clearance = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE);
+        int biometric = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED);
+        int lastLogin = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP);
+        int failed = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS);
+        int lastFailed = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP);
+        int locked = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED);
+
+        long checksum = 0;
+        while (cursor.moveToNext()) {
+            checksum += cursor.getString(agentID).hashCode();
+            checksum += cursor.getString(codename).hashCode();
+            checksum += cursor.getString(clearance).hashCode();
+            checksum += cursor.getInt(biometric);
+            checksum += cursor.getLong(lastLogin);
+            checksum += cursor.getInt(failed);
+            checksum += cursor.getLong(lastFailed);
+            checksum += cursor.getInt(locked);
+        }
+        return checksum;
+    }
+
+    private static byte[] randomBlob(Random random) {
+        byte[] blob = new byte[44];
+        random.nextBytes(blob);
+        return blob;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package org.osd.omot_app.data.dao;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.Dossier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Dossier rows: insert, clearance and access listings, content updates and the clearance
+ * foreign key.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DossierDAOTest {
+    private static final String TEST_DB_NAME = "OMOT-dossier-test.db";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private DossierDAO dossierDAO;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        dossierDAO = new DossierDAOImpl(helper);
+    }
+
+    @Test
+    public void insertAndQuery_newestFirstPerClearance() {
+        assertTrue(dossierDAO.insertDossier(
+                new Dossier("D-1", "Harbor", ClearanceLevel.ALPHA, null, 1_000)));
+        assertTrue(dossierDAO.insertDossier(
+                new Dossier("D-2", "Cipher", ClearanceLevel.ALPHA, null, 3_000)));
+        assertTrue(dossierDAO.insertDossier(
+                new Dossier("D-3", "Vault", ClearanceLevel.OMEGA, null, 2_000)));
+        assertFalse(dossierDAO.insertDossier(
+                new Dossier("D-1", "Duplicate", ClearanceLevel.BETA, null, 4_000)));
+
+        List<Dossier> alpha = dossierDAO.getDossiersByClearance("ALPHA");
+        assertEquals(2, alpha.size());
+        assertEquals("D-2", alpha.get(0).getDossierID());
+        assertEquals("D-1", alpha.get(1).getDossierID());
+        assertEquals(3, dossierDAO.getAllDossiers().size());
+
+        Dossier vault = dossierDAO.getDossierByID("D-3");
+        assertEquals("Vault", vault.getTitle());
+        assertEquals("OMEGA", vault.getClearanceRequired().getClearanceCode());
+        assertNull(vault.getContentFilePath());
+    }
+
+    @Test
+    public void accessibleDossiers_followHierarchy() {
+        long createdAt = 1_000;
+        for (ClearanceLevel level : new ClearanceLevel[]{ClearanceLevel.BETA,
+                ClearanceLevel.ALPHA, ClearanceLevel.OMEGA, ClearanceLevel.SHADOW}) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(dossierDAO.insertDossier(new Dossier(level.getClearanceCode() + "-" + i,
+                        "File " + i, level, null, createdAt++)));
+            }
+        }
+
+        assertEquals(3, dossierDAO.getAccessibleDossiers(ClearanceLevel.BETA).size());
+        assertEquals(3, dossierDAO.getAccessibleDossiers(ClearanceLevel.SHADOW).size());
+        assertEquals(12, dossierDAO.getAccessibleDossiers(ClearanceLevel.OMEGA).size());
+        assertTrue(dossierDAO.getAccessibleDossiers(null).isEmpty());
+
+        List<Dossier> alpha = dossierDAO.getAccessibleDossiers(ClearanceLevel.ALPHA);
+        assertEquals(6, alpha.size());
+        for (int i = 0; i < alpha.size(); i++) {
+            Dossier dossier = alpha.get(i);
+            assertTrue(ClearanceLevel.canAccess(ClearanceLevel.ALPHA,
+                    dossier.getClearanceRequired()));
+            if (i > 0) assertTrue(alpha.get(i - 1).getCreatedAt() > dossier.getCreatedAt());
+        }
+    }
+
+    @Test
+    public void accessibleDossiers_seekOnRankIndex() {
+        String sql = "SELECT * FROM " + DBContract.DossierEntry.TABLE_NAME + " WHERE "
+                + DossierDAOImpl.selectionForRanks(2);
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql,
+                new String[]{"0", "1"})) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detail));
+            }
+        }
+        assertTrue("Expected " + DBContract.DossierEntry.INDEX_RANK_CREATED + ": " + plan,
+                plan.toString().contains(DBContract.DossierEntry.INDEX_RANK_CREATED));
+    }
+
+    @Test
+    public void updateContent_andDelete() {
+        assertTrue(dossierDAO.insertDossier(
+                new Dossier("D-1", "Harbor", ClearanceLevel.BETA, null, 1_000)));
+        assertTrue(dossierDAO.updateDossierContent("D-1", "/data/D-1.dossier", 12));
+        assertFalse(dossierDAO.updateDossierContent("D-404", "/data/x.dossier", 1));
+
+        Dossier dossier = dossierDAO.getDossierByID("D-1");
+        assertEquals("/data/D-1.dossier", dossier.getContentFilePath());
+        assertEquals(12, dossier.getPageCount());
+
+        assertTrue(dossierDAO.deleteDossier("D-1"));
+        assertFalse(dossierDAO.deleteDossier("D-1"));
+        assertNull(dossierDAO.getDossierByID("D-1"));
+    }
+
+    @Test
+    public void unknownClearance_isRejected() {
+        ClearanceLevel unknown = new ClearanceLevel("GAMMA", "Unknown", null);
+        assertFalse(dossierDAO.insertDossier(new Dossier("D-1", "Ghost", unknown, null, 1_000)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package org.osd.omot_app.data.dao;
+
+import android.database.DatabaseUtils;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+
+import static org.junit.Assert.*;
+
+/**
+ * Coalescing, flushing and crash consistency of the login write-behind buffer.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoginTelemetryBufferTest {
+    private static final String TEST_DB_NAME = "OMOT-login-telemetry-test.db";
+    private static final long LONG_DELAY_MS = 60_000;
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+    private LoginTelemetryBuffer buffer;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+        for (String codename : new String[]{"raven", "kestrel", "poison"}) {
+            database.insertAgent(codename);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (buffer != null) buffer.close();
+    }
+
+    @Test
+    public void updates_areMergedPerAgentAndFlushedTogether() {
+        buffer = new LoginTelemetryBuffer(agentDAO, LONG_DELAY_MS, 64);
+        buffer.recordLogin("raven", 1000L);
+        buffer.recordLogin("raven", 3000L);
+        buffer.recordLogin("raven", 2000L);
+        buffer.recordLogin("kestrel", 500L);
+        assertEquals(0L, lastLogin("raven"));
+        assertEquals(Long.valueOf(3000L), buffer.getPendingLoginTimestamp("raven"));
+
+        buffer.flush();
+        assertEquals(3000L, lastLogin("raven"));
+        assertEquals(500L, lastLogin("kestrel"));
+        assertNull(buffer.getPendingLoginTimestamp("raven"));
+    }
+
+    @Test
+    public void sizeThreshold_triggersFlush() {
+        buffer = new LoginTelemetryBuffer(agentDAO, LONG_DELAY_MS, 2);
+        buffer.recordLogin("raven", 1000L);
+        buffer.recordLogin("kestrel", 1000L);
+
+        long deadline = SystemClock.elapsedRealtime() + 5_000;
+        while (lastLogin("kestrel") != 1000L && SystemClock.elapsedRealtime() < deadline) {
+            SystemClock.sleep(20);
+        }
+        assertEquals(1000L, lastLogin("raven"));
+        assertEquals(1000L, lastLogin("kestrel"));
+    }
+
+    @Test
+    public void crashBeforeFlush_losesOnlyTelemetry() {
+        buffer = new LoginTelemetryBuffer(agentDAO, LONG_DELAY_MS, 64);
+        buffer.recordLogin("raven", 1000L);
+        assertEquals(1, agentDAO.recordFailedLoginAttempt("kestrel"));
+
+        // Simulate a process death: reopen the database while the buffer is still unflushed
+        LoginTelemetryBuffer abandoned = buffer;
+        buffer = null;
+        DBHelper crashedHelper = database.reopen();
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+
+        assertEquals(0L, lastLogin("raven"));
+        assertEquals(1, agentDAO.getAgentByCodename("kestrel").getFailedLoginAttempts());
+
+        // Stop the abandoned buffer's timer so it can't fire during later tests
+        abandoned.close();
+        crashedHelper.close();
+    }
+
+    @Test
+    public void failedFlush_rollsBackWholeBatchAndRetries() {
+        helper.getWritableDatabase().execSQL("CREATE TEMP TRIGGER poison_login BEFORE UPDATE OF "
+                + DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + " ON "
+                + DBContract.AgentEntry.TABLE_NAME + " WHEN NEW."
+                + DBContract.AgentEntry.COLUMN_CODENAME + " = 'poison'"
+                + " BEGIN SELECT RAISE(ABORT, 'injected failure'); END");
+
+        buffer = new LoginTelemetryBuffer(agentDAO, LONG_DELAY_MS, 64);
+        buffer.recordLogin("raven", 1000L);
+        buffer.recordLogin("poison", 1000L);
+        buffer.flush();
+
+        // Nothing from the failed batch may be visible, and nothing may be dropped
+        assertEquals(0L, lastLogin("raven"));
+        assertEquals(Long.valueOf(1000L), buffer.getPendingLoginTimestamp("raven"));
+
+        helper.getWritableDatabase().execSQL("DROP TRIGGER poison_login");
+        buffer.flush();
+        assertEquals(1000L, lastLogin("raven"));
+        assertEquals(1000L, lastLogin("poison"));
+    }
+
+    @Test
+    public void lateFlush_neverMovesTimestampBackwards() {
+        buffer = new LoginTelemetryBuffer(agentDAO, LONG_DELAY_MS, 64);
+        buffer.recordLogin("raven", 1000L);
+        assertTrue(agentDAO.recordSuccessfulLogin("raven", 2000L));
+        buffer.flush();
+        assertEquals(2000L, lastLogin("raven"));
+    }
+
+    private long lastLogin(String codename) {
+        return DatabaseUtils.longForQuery(helper.getReadableDatabase(),
+                "SELECT " + DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + " FROM "
+                        + DBContract.AgentEntry.TABLE_NAME + " WHERE "
+                        + DBContract.AgentEntry.COLUMN_CODENAME + " = ?",
+                new String[]{codename});
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package org.osd.omot_app.data.dao;
+
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.model.Mission;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pages through the active mission board of a 50k mission table with the keyset queries and,
+ * for comparison, with LIMIT/OFFSET over the same index. Timings are logged; the test asserts
+ * that keyset paging returns every active mission exactly once, in board order.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MissionPagingBenchmarkTest {
+    private static final String TAG = "MissionPagingBenchmark";
+    private static final String TEST_DB_NAME = "OMOT-mission-paging-bench.db";
+    private static final int MISSION_COUNT = 50_000;
+    private static final int PAGE_SIZE = 50;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    // Board order: most urgent first, then newest, then mission ID descending
+    private static final Comparator<Mission> BOARD_ORDER = Comparator
+            .comparingInt((Mission m) -> m.getPriority().getCode()).reversed()
+            .thenComparing(Comparator.comparingLong(Mission::getStartDate).reversed())
+            .thenComparing(Comparator.comparing(Mission::getMissionID).reversed());
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private MissionDAO missionDAO;
+    private final List<Mission> activeMissions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        missionDAO = new MissionDAOImpl(helper);
+
+        Random random = new Random(42);
+        Mission.Status[] statuses = Mission.Status.values();
+        Mission.Priority[] priorities = Mission.Priority.values();
+        List<Mission> missions = new ArrayList<>(MISSION_COUNT);
+        for (int i = 0; i < MISSION_COUNT; i++) {
+            // Coarse dates so many missions share a start date and the ID tie-break matters
+            Mission mission = new Mission(String.format(Locale.US, "M-%05d", i),
+                    "Operation " + i,
+                    statuses[random.nextInt(statuses.length)],
+                    priorities[random.nextInt(priorities.length)],
+                    random.nextInt(365) * DAY_MS, null, null);
+            missions.add(mission);
+            if (mission.getStatus() == Mission.Status.ACTIVE) activeMissions.add(mission);
+        }
+        activeMissions.sort(BOARD_ORDER);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        assertEquals(MISSION_COUNT, missionDAO.insertMissions(missions));
+        Log.i(TAG, String.format(Locale.US, "Inserted %d missions in %d ms", MISSION_COUNT,
+                (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000));
+    }
+
+    @Test
+    public void keysetPaging_visitsActiveBoardInOrder() {
+        assertEquals(activeMissions.size(), missionDAO.countMissionsByStatus(Mission.Status.ACTIVE));
+
+        List<Mission> visited = new ArrayList<>(activeMissions.size());
+        long slowestPageNanos = 0;
+        long start = SystemClock.elapsedRealtimeNanos();
+        Mission last = null;
+        while (true) {
+            long pageStart = SystemClock.elapsedRealtimeNanos();
+            List<Mission> page = missionDAO.getMissionsByStatusAfter(Mission.Status.ACTIVE, last,
+                    PAGE_SIZE);
+            slowestPageNanos = Math.max(slowestPageNanos,
+                    SystemClock.elapsedRealtimeNanos() - pageStart);
+            if (page.isEmpty()) break;
+            visited.addAll(page);
+            last = page.get(page.size() - 1);
+        }
+        long keysetNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+        assertEquals(activeMissions.size(), visited.size());
+        for (int i = 0; i < visited.size(); i++) {
+            assertEquals("Position " + i, activeMissions.get(i).getMissionID(),
+                    visited.get(i).getMissionID());
+        }
+
+        long offsetNanos = pageWithOffset();
+        int pages = (activeMissions.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        Log.i(TAG, String.format(Locale.US,
+                "%d active missions in %d pages: keyset %d ms (slowest page %.2f ms), "
+                        + "LIMIT/OFFSET %d ms",
+                activeMissions.size(), pages, keysetNanos / 1_000_000,
+                slowestPageNanos / 1e6, offsetNanos / 1_000_000));
+    }
+
+    @Test
+    public void priorityAndRecentPages_matchFilters() {
+        List<Mission> high = missionDAO.getMissionsByStatusAndPriorityAfter(
+                Mission.Status.ACTIVE, Mission.Priority.HIGH, null, PAGE_SIZE);
+        List<Mission> next = missionDAO.getMissionsByStatusAndPriorityAfter(
+                Mission.Status.ACTIVE, Mission.Priority.HIGH, high.get(high.size() - 1), PAGE_SIZE);
+        assertEquals(PAGE_SIZE, high.size());
+        assertEquals(PAGE_SIZE, next.size());
+        // The board starts with the high priority missions, in the same order
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            assertEquals(activeMissions.get(i).getMissionID(), high.get(i).getMissionID());
+            assertEquals(activeMissions.get(PAGE_SIZE + i).getMissionID(),
+                    next.get(i).getMissionID());
+        }
+
+        Mission previous = null;
+        for (Mission mission : missionDAO.getRecentMissionsByStatusAfter(
+                Mission.Status.COMPLETED, null, PAGE_SIZE)) {
+            assertEquals(Mission.Status.COMPLETED, mission.getStatus());
+            if (previous != null) assertTrue(previous.getStartDate() >= mission.getStartDate());
+            previous = mission;
+        }
+    }
+
+    /** Pages the same board with LIMIT/OFFSET and returns the total time taken. */
+    private long pageWithOffset() {
+        String sql = "SELECT " + String.join(", ", MissionRowMapper.PROJECTION)
+                + " FROM " + DBContract.MissionEntry.TABLE_NAME
+                + " WHERE " + DBContract.MissionEntry.COLUMN_STATUS + " = ?"
+                + " ORDER BY " + DBContract.MissionEntry.COLUMN_PRIORITY + " DESC, "
+                + DBContract.MissionEntry.COLUMN_START_DATE + " DESC, "
+                + DBContract.MissionEntry.COLUMN_MISSION_ID + " DESC"
+                + " LIMIT " + PAGE_SIZE + " OFFSET ?";
+        String status = String.valueOf(Mission.Status.ACTIVE.getCode());
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int offset = 0; offset < activeMissions.size(); offset += PAGE_SIZE) {
+            try (Cursor cursor = helper.getReadableDatabase().rawQuery(sql,
+                    new String[]{status, String.valueOf(offset)})) {
+                MissionRowMapper mapper = new MissionRowMapper(cursor);
+                while (cursor.moveToNext()) mapper.map();
+            }
+        }
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.model.Mission;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Query plan regression suite for MissionDAOImpl, on the same harness as AgentQueryPlanTest:
+ * every page query must seek on a board index and never sort in a temporary b-tree.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MissionQueryPlanTest {
+    private static final String TEST_DB_NAME = "OMOT-mission-plan-test.db";
+    private static final Mission LAST = new Mission("M-00042", "Nightfall",
+            Mission.Status.ACTIVE, Mission.Priority.MEDIUM, 1_700_000_000_000L, null, null);
+
+    private QueryPlanChecker plans;
+    private MissionDAOImpl missionDAO;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        plans = new QueryPlanChecker(context, TEST_DB_NAME, DBContract.MissionEntry.TABLE_NAME);
+        missionDAO = new MissionDAOImpl(plans.getHelper());
+    }
+
+    @After
+    public void tearDown() {
+        plans.close();
+    }
+
+    @Test
+    public void boardPages_seekOnPriorityIndexWithoutSorting() {
+        for (String sql : plans.captureQueries(() -> missionDAO.getMissionsByStatusAfter(
+                Mission.Status.ACTIVE, null, 50))) {
+            plans.assertIndexed(sql, DBContract.MissionEntry.INDEX_STATUS_PRIORITY_START);
+        }
+        List<String> queries = plans.captureQueries(() -> missionDAO.getMissionsByStatusAfter(
+                Mission.Status.ACTIVE, LAST, 50));
+        assertEquals(2, queries.size());    // Rest of LAST's priority, then lower priorities
+        for (String sql : queries) {
+            plans.assertIndexed(sql, DBContract.MissionEntry.INDEX_STATUS_PRIORITY_START);
+        }
+        for (String sql : plans.captureQueries(() -> missionDAO.getMissionsByStatusAndPriorityAfter(
+                Mission.Status.ACTIVE, Mission.Priority.HIGH, LAST, 50))) {
+            plans.assertIndexed(sql, DBContract.MissionEntry.INDEX_STATUS_PRIORITY_START);
+        }
+    }
+
+    @Test
+    public void recentPages_seekOnStartDateIndexWithoutSorting() {
+        for (String sql : plans.captureQueries(() -> missionDAO.getRecentMissionsByStatusAfter(
+                Mission.Status.COMPLETED, LAST, 50))) {
+            plans.assertIndexed(sql, DBContract.MissionEntry.INDEX_STATUS_START);
+        }
+    }
+
+    @Test
+    public void getMissionByID_usesPrimaryKey() {
+        for (String sql : plans.captureQueries(() -> missionDAO.getMissionByID("M-00042"))) {
+            plans.assertIndexed(sql, null);
+        }
+    }
+}
\ No newline at end of file
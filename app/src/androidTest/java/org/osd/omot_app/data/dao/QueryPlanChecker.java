@@ -0,0 +1,140 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.DBPerformanceProfile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Shared harness of the query plan regression suites. Opens a fresh database whose cursor factory
+ * records the SQL of every query, so a DAO call can be run and the SELECTs it issued against one
+ * table explained with EXPLAIN QUERY PLAN.
+ */
+class QueryPlanChecker {
+    private static final String SQL_PREFIX = "SQLiteQuery: ";
+
+    private final Context context;
+    private final String dbName;
+    private final String tableName;
+    // "SCAN TABLE tb_x" on older SQLite, "SCAN tb_x" on newer; no "USING ... INDEX"
+    private final Pattern fullScan;
+    private final List<String> capturedSql = new ArrayList<>();
+    private final DBHelper helper;
+
+    /**
+     * @param dbName    Test database, deleted before it is opened and again on {@link #close()}.
+     * @param tableName Table whose queries are captured and checked for full scans.
+     */
+    QueryPlanChecker(Context context, String dbName, String tableName) {
+        this.context = context;
+        this.dbName = dbName;
+        this.tableName = tableName;
+        this.fullScan = Pattern.compile("^SCAN (TABLE )?" + tableName + "$");
+        context.deleteDatabase(dbName);
+        helper = new DBHelper(context, dbName, DBPerformanceProfile.DEFAULT,
+                (db, masterQuery, editTable, query) -> {
+                    synchronized (capturedSql) {
+                        capturedSql.add(query.toString());
+                    }
+                    return new SQLiteCursor(masterQuery, editTable, query);
+                });
+        helper.getWritableDatabase();
+    }
+
+    DBHelper getHelper() {
+        return helper;
+    }
+
+    void close() {
+        helper.close();
+        context.deleteDatabase(dbName);
+    }
+
+    /** Runs the DAO call and returns the SELECTs it issued against the table. */
+    List<String> captureQueries(Runnable daoCall) {
+        synchronized (capturedSql) {
+            capturedSql.clear();
+        }
+        daoCall.run();
+
+        List<String> tableQueries = new ArrayList<>();
+        synchronized (capturedSql) {
+            for (String sql : capturedSql) {
+                if (sql.startsWith(SQL_PREFIX)) sql = sql.substring(SQL_PREFIX.length());
+                if (sql.startsWith("SELECT") && sql.contains(tableName)) {
+                    tableQueries.add(sql);
+                }
+            }
+        }
+        assertFalse("No query captured against " + tableName, tableQueries.isEmpty());
+        return tableQueries;
+    }
+
+    /** Runs the DAO call and returns the single SELECT it issued against the table. */
+    String captureQuery(Runnable daoCall) {
+        List<String> queries = captureQueries(daoCall);
+        assertEquals(queries.toString(), 1, queries.size());
+        return queries.get(0);
+    }
+
+    /** Runs the DAO call and explains the single SELECT it issued against the table. */
+    List<String> explainQuery(Runnable daoCall) {
+        return explain(captureQuery(daoCall));
+    }
+
+    /** Explains {@code sql}, binding 0 to every parameter. */
+    List<String> explain(String sql) {
+        String[] args = new String[sql.length() - sql.replace("?", "").length()];
+        Arrays.fill(args, "0");
+
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql,
+                args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detail));
+            }
+        }
+        assertFalse("Empty plan for " + sql, plan.isEmpty());
+        return plan;
+    }
+
+    /** Runs the DAO call and checks the plan of the single SELECT it issued. */
+    void assertQueryIndexed(Runnable daoCall, String expectedIndex) {
+        assertIndexed(explainQuery(daoCall), expectedIndex);
+    }
+
+    void assertIndexed(String sql, String expectedIndex) {
+        assertIndexed(explain(sql), expectedIndex);
+    }
+
+    /**
+     * Fails on a full scan of the table or a temporary sort, and if {@code expectedIndex} is not
+     * null, unless the plan uses that index.
+     */
+    void assertIndexed(List<String> plan, String expectedIndex) {
+        for (String step : plan) {
+            assertFalse("Full table scan: " + plan, fullScan.matcher(step).matches());
+        }
+        assertNotSorted(plan);
+        if (expectedIndex != null) {
+            assertTrue("Expected " + expectedIndex + ": " + plan,
+                    plan.toString().contains(expectedIndex));
+        }
+    }
+
+    static void assertNotSorted(List<String> plan) {
+        for (String step : plan) {
+            assertFalse("Temporary sort: " + plan, step.contains("TEMP B-TREE"));
+        }
+    }
+}
\ No newline at end of file
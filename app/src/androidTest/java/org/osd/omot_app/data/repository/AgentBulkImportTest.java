@@ -0,0 +1,175 @@
+package org.osd.omot_app.data.repository;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.importer.AgentImportFormat;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.results.ImportResult;
+import org.osd.omot_app.security.LegacySha256PasswordHasher;
+import org.osd.omot_app.security.PasswordHashEngine;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bulk import must load every valid row, report every invalid one without stopping, and be
+ * much faster than registering the same agents one by one. Hashing uses the cheap legacy
+ * hasher so the numbers measure the import pipeline rather than PBKDF2.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentBulkImportTest {
+    private static final String TAG = "AgentBulkImportTest";
+    private static final String TEST_DB_NAME = "OMOT-bulk-import-test.db";
+    private static final int IMPORT_AGENTS = 10_000;
+    private static final int BASELINE_AGENTS = 1_000;
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+    private ExecutorService hashExecutor;
+    private AgentRepository repository;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+        hashExecutor = Executors.newFixedThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        PasswordHashEngine engine = new PasswordHashEngine(new LegacySha256PasswordHasher(),
+                null, PasswordHashEngine.DEFAULT_TARGET_MILLIS, hashExecutor) {
+            @Override
+            public int getCost() {
+                return 1;   // The legacy hasher ignores the cost; skip calibration
+            }
+        };
+        repository = new AgentRepository(agentDAO, Runnable::run, null, engine);
+    }
+
+    @After
+    public void tearDown() {
+        hashExecutor.shutdownNow();
+    }
+
+    private static InputStream csv(String prefix, int count) {
+        StringBuilder csv = new StringBuilder(
+                "codename,password,security_question,security_answer,clearance\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(prefix).append(i).append(",cipherkey-").append(i)
+                    .append(",\"Where were you recruited, agent?\",answer-").append(i)
+                    .append(i % 2 == 0 ? ",ALPHA\n" : ",\n");
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void import10kAgents_fasterThanRegisteringOneByOne() {
+        long start = System.nanoTime();
+        for (int i = 0; i < BASELINE_AGENTS; i++) {
+            assertTrue(repository.registerAgent("single-" + i, "cipherkey-" + i,
+                    "Where were you recruited, agent?", "answer-" + i, false).isSuccess());
+        }
+        double baselinePerSecond = BASELINE_AGENTS * 1e9 / (System.nanoTime() - start);
+
+        start = System.nanoTime();
+        ImportResult result = repository.importAgents(csv("bulk-", IMPORT_AGENTS),
+                AgentImportFormat.CSV);
+        double importPerSecond = IMPORT_AGENTS * 1e9 / (System.nanoTime() - start);
+
+        Log.i(TAG, String.format("registerAgent: %.0f agents/s, importAgents: %.0f agents/s",
+                baselinePerSecond, importPerSecond));
+        assertTrue(result.getFatalError(), result.isComplete());
+        assertEquals(IMPORT_AGENTS, result.getRowCount());
+        assertEquals(IMPORT_AGENTS, result.getImportedCount());
+        assertTrue(result.getRowErrors().isEmpty());
+        assertEquals(BASELINE_AGENTS + IMPORT_AGENTS, agentDAO.getAgentCount());
+        assertTrue("import " + importPerSecond + "/s vs " + baselinePerSecond + "/s",
+                importPerSecond > baselinePerSecond * 2);
+
+        Agent alpha = agentDAO.getAgentByCodename("bulk-0");
+        assertEquals(ClearanceLevel.ALPHA.getClearanceCode(),
+                alpha.getClearanceLevel().getClearanceCode());
+        Agent beta = agentDAO.getAgentByCodename("bulk-1");
+        assertEquals(ClearanceLevel.BETA.getClearanceCode(),
+                beta.getClearanceLevel().getClearanceCode());
+        assertNotNull(repository.loginAgent("bulk-" + (IMPORT_AGENTS - 1),
+                "cipherkey-" + (IMPORT_AGENTS - 1)));
+    }
+
+    @Test
+    public void invalidRows_areReportedAndSkipped() {
+        assertTrue(repository.registerAgent("existing", "cipherkey-0",
+                "Where were you recruited, agent?", "answer", false).isSuccess());
+
+        String json = "["
+                + "{\"codename\": \"raven\", \"password\": \"cipherkey-1\","
+                + " \"security_question\": \"Where were you recruited?\","
+                + " \"security_answer\": \"prague\", \"biometric\": true},"
+                + "{\"codename\": \"short\", \"password\": \"abc\","
+                + " \"security_question\": \"Where were you recruited?\","
+                + " \"security_answer\": \"prague\"},"
+                + "{\"codename\": \"raven\", \"password\": \"cipherkey-3\","
+                + " \"security_question\": \"Where were you recruited?\","
+                + " \"security_answer\": \"prague\"},"
+                + "{\"codename\": \"existing\", \"password\": \"cipherkey-4\","
+                + " \"security_question\": \"Where were you recruited?\","
+                + " \"security_answer\": \"prague\"},"
+                + "{\"codename\": \"falcon\", \"password\": \"cipherkey-5\","
+                + " \"security_question\": \"Where were you recruited?\","
+                + " \"security_answer\": \"prague\", \"clearance\": \"DELTA\"},"
+                + "\"not an object\","
+                + "{\"codename\": \"kestrel\", \"password\": \"cipherkey-7\","
+                + " \"security_question\": \"Where were you recruited?\","
+                + " \"security_answer\": \"prague\", \"clearance\": \"omega\"}"
+                + "]";
+        ImportResult result = repository.importAgents(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                AgentImportFormat.JSON);
+
+        assertTrue(result.getFatalError(), result.isComplete());
+        assertEquals(7, result.getRowCount());
+        assertEquals(2, result.getImportedCount());
+
+        List<ImportResult.RowError> errors = result.getRowErrors();
+        assertEquals(5, errors.size());
+        int[] expectedRows = { 2, 3, 4, 5, 6 };
+        for (int i = 0; i < expectedRows.length; i++) {
+            assertEquals(expectedRows[i], errors.get(i).getRowNumber());
+        }
+
+        assertTrue(agentDAO.getAgentByCodename("raven").isBiometricEnabled());
+        assertEquals(ClearanceLevel.OMEGA.getClearanceCode(),
+                agentDAO.getAgentByCodename("kestrel").getClearanceLevel().getClearanceCode());
+        assertNull(agentDAO.getAgentByCodename("falcon"));
+        assertFalse(repository.isCodenameAvailable("kestrel"));
+    }
+
+    @Test
+    public void unreadableFile_keepsEarlierChunks_andReportsFatalError() {
+        ImportResult result = repository.importAgents(new ByteArrayInputStream(
+                "[{\"codename\": \"raven\"".getBytes(StandardCharsets.UTF_8)),
+                AgentImportFormat.JSON);
+
+        assertFalse(result.isComplete());
+        assertNotNull(result.getFatalError());
+        assertEquals(0, result.getImportedCount());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package org.osd.omot_app.data.repository;
+
+import android.database.sqlite.SQLiteCursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.DBPerformanceProfile;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.dao.LoginTelemetryBuffer;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.security.LegacySha256PasswordHasher;
+import org.osd.omot_app.security.PasswordHashEngine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Agent lookups by codename and ID read through the projection cache. Every query opened against
+ * the test database is counted by its cursor factory.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentLookupCacheTest {
+    private static final String TEST_DB_NAME = "OMOT-lookup-cache-test.db";
+    private static final String CODENAME = "raven";
+    private static final int UNLOCKS = 100;
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME,
+            DBPerformanceProfile.DEFAULT, (db, masterQuery, editTable, query) -> {
+                queries.incrementAndGet();
+                return new SQLiteCursor(masterQuery, editTable, query);
+            });
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+    private AgentRepository repository;
+    private String agentID;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+        Agent agent = TestDatabase.newAgent(CODENAME);
+        agent.setClearanceLevel(ClearanceLevel.ALPHA);
+        agent.setBiometricEnabled(true);
+        agentID = database.insertAgent(agent);
+        repository = new AgentRepository(agentDAO, Runnable::run);
+    }
+
+    @Test
+    public void lookup_returnsAgentWithoutCredentials() {
+        Agent agent = repository.getAgentByCodename(CODENAME);
+        assertNotNull(agent);
+        assertEquals(agentID, agent.getAgentID());
+        assertEquals(ClearanceLevel.ALPHA, agent.getClearanceLevel());
+        assertTrue(agent.isBiometricEnabled());
+        assertNull(agent.getPasswordHash());
+        assertNull(agent.getSalt());
+        assertNull(agent.getSecurityAnswerHash());
+        assertNull(repository.getAgentByCodename("unknown"));
+    }
+
+    @Test
+    public void repeatedBiometricUnlocks_doNoDatabaseReadsAfterWarmUp() throws Exception {
+        // Warm-up: one miss that reads the row
+        assertNotNull(repository.getAgentByCodenameAsync(CODENAME).get());
+        int afterWarmUp = queries.get();
+
+        for (int i = 0; i < UNLOCKS; i++) {
+            Agent agent = repository.getAgentByCodenameAsync(CODENAME).get();
+            assertEquals(agentID, agent.getAgentID());
+            assertEquals(agentID, repository.getAgentByID(agentID).getAgentID());
+        }
+
+        assertEquals(0, queries.get() - afterWarmUp);
+        assertEquals(1, repository.getAgentCache().getMissCount());
+        assertEquals(2 * UNLOCKS, repository.getAgentCache().getHitCount());
+    }
+
+    @Test
+    public void daoWrites_invalidateCachedAgent() {
+        assertEquals(ClearanceLevel.ALPHA, repository.getAgentByCodename(CODENAME)
+                .getClearanceLevel());
+        assertTrue(agentDAO.updateClearance(CODENAME, ClearanceLevel.OMEGA));
+        assertEquals(ClearanceLevel.OMEGA, repository.getAgentByID(agentID).getClearanceLevel());
+
+        assertTrue(agentDAO.setAccountLockStatus(CODENAME, true));
+        assertTrue(repository.getAgentByCodename(CODENAME).isAccountLocked());
+
+        assertEquals(1, agentDAO.deleteAgent(agentID));
+        assertNull(repository.getAgentByCodename(CODENAME));
+        assertNull(repository.getAgentByID(agentID));
+    }
+
+    @Test
+    public void bufferedLogin_isVisibleBeforeAndAfterFlush() {
+        PasswordHashEngine engine = new PasswordHashEngine(new LegacySha256PasswordHasher(),
+                null, PasswordHashEngine.DEFAULT_TARGET_MILLIS, Runnable::run) {
+            @Override
+            public int getCost() {
+                return 1;   // The legacy hasher ignores the cost; skip calibration
+            }
+        };
+        LoginTelemetryBuffer telemetry = new LoginTelemetryBuffer(agentDAO, 60_000, 64);
+        try {
+            AgentRepository buffered = new AgentRepository(agentDAO, Runnable::run, telemetry,
+                    engine);
+            assertTrue(buffered.registerAgent("kestrel", "cipherkey", "Favourite cipher?",
+                    "answer", false).isSuccess());
+            String kestrelID = buffered.getAgentByCodename("kestrel").getAgentID();
+            assertEquals(0L, buffered.getAgentByID(kestrelID).getLastLoginTimestamp());
+
+            Agent loggedIn = buffered.loginAgent("kestrel", "cipherkey");
+            assertNotNull(loggedIn);
+            long loginTimestamp = loggedIn.getLastLoginTimestamp();
+            assertNotNull(telemetry.getPendingLoginTimestamp("kestrel"));
+            assertEquals(loginTimestamp,
+                    buffered.getAgentByCodename("kestrel").getLastLoginTimestamp());
+            assertEquals(loginTimestamp, buffered.getAgentByID(kestrelID).getLastLoginTimestamp());
+
+            // Cached before the flush; the flush must not leave an older copy behind
+            telemetry.flush();
+            assertNull(telemetry.getPendingLoginTimestamp("kestrel"));
+            assertEquals(loginTimestamp,
+                    buffered.getAgentByCodename("kestrel").getLastLoginTimestamp());
+            assertEquals(loginTimestamp, buffered.getAgentByID(kestrelID).getLastLoginTimestamp());
+            assertNotNull(buffered.getCachedSession("kestrel"));
+        } finally {
+            telemetry.close();
+        }
+    }
+
+    @Test
+    public void mutatingResult_doesNotChangeCache() {
+        repository.getAgentByCodename(CODENAME).setClearanceLevel(ClearanceLevel.OMEGA);
+        assertEquals(ClearanceLevel.ALPHA, repository.getAgentByCodename(CODENAME)
+                .getClearanceLevel());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package org.osd.omot_app.data.repository;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.AgentDAOImpl;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.utils.ThreadGuard;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that repository work never runs on the main looper.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentRepositoryThreadingTest {
+    private static final String TEST_DB_NAME = "OMOT-threading-test.db";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private ExecutorService executor;
+    private AgentRepository repository;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        executor = Executors.newSingleThreadExecutor();
+        repository = new AgentRepository(new AgentDAOImpl(helper), executor);
+        ThreadGuard.setStrict(true);
+    }
+
+    @After
+    public void tearDown() {
+        ThreadGuard.setStrict(false);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void blockingCallOnMainThread_isRejected() {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            try {
+                repository.agentExists("ghost");
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        assertTrue(failure.get() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void asyncCallFromMainThread_runsOnWorker() throws Exception {
+        AtomicReference<CompletableFuture<Boolean>> future = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                future.set(repository.agentExistsAsync("ghost")));
+
+        // The strict guard would have failed the future had the lookup run on the main looper
+        assertFalse(future.get().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void saturatedExecutor_failsFutureInsteadOfThrowing() throws Exception {
+        AgentRepository saturated = new AgentRepository(new AgentDAOImpl(helper), command -> {
+            throw new RejectedExecutionException("I/O queue full");
+        });
+        AtomicReference<CompletableFuture<Agent>> future = new AtomicReference<>();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            try {
+                future.set(saturated.loginAgentAsync("ghost", "cipherkey"));
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+
+        assertNull(thrown.get());
+        assertTrue(future.get().isCompletedExceptionally());
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> future.get().get());
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+    }
+}
\ No newline at end of file
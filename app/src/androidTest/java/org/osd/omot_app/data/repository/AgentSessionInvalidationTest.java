@@ -0,0 +1,120 @@
+package org.osd.omot_app.data.repository;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.model.AgentPatch;
+import org.osd.omot_app.data.model.AgentSession;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.results.RegistrationResult;
+import org.osd.omot_app.security.PasswordHashEngine;
+import org.osd.omot_app.security.Pbkdf2PasswordHasher;
+
+import static org.junit.Assert.*;
+
+/**
+ * A successful login caches the agent's session; any committed change to the agent drops it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AgentSessionInvalidationTest {
+    private static final String TEST_DB_NAME = "OMOT-session-cache-test.db";
+    private static final String CODENAME = "raven";
+    private static final String PASSWORD = "correct horse battery";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+    private AgentRepository repository;
+    private String agentID;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+
+        PasswordHashEngine.CostStore fixedCost = new PasswordHashEngine.CostStore() {
+            @Override
+            public int loadCost(String algorithm) {
+                return PasswordHashEngine.MIN_COST;
+            }
+
+            @Override
+            public void saveCost(String algorithm, int cost) {
+            }
+        };
+        repository = new AgentRepository(agentDAO, Runnable::run, null,
+                new PasswordHashEngine(new Pbkdf2PasswordHasher(), fixedCost,
+                        PasswordHashEngine.DEFAULT_TARGET_MILLIS, Runnable::run));
+
+        RegistrationResult result = repository.registerAgent(CODENAME, PASSWORD,
+                "Favourite cipher?", "vigenere", false);
+        assertTrue(result.getMessage(), result.isSuccess());
+        agentID = result.getAgentID();
+    }
+
+    private void login() {
+        assertNotNull(repository.loginAgent(CODENAME, PASSWORD));
+        assertNotNull(repository.getCachedSession(CODENAME));
+    }
+
+    @Test
+    public void login_cachesSessionWithoutSecrets() {
+        assertNull(repository.getCurrentSession());
+        login();
+
+        AgentSession session = repository.getCurrentSession();
+        assertEquals(agentID, session.getAgentID());
+        assertEquals(CODENAME, session.getCodename());
+        assertEquals(ClearanceLevel.BETA, session.getClearanceLevel());
+        assertTrue(session.getLastLoginTimestamp() > 0);
+        assertTrue(repository.getSessionCache().getHitCount() >= 2);
+    }
+
+    @Test
+    public void codenameKeyedWrites_invalidate() {
+        login();
+        assertTrue(agentDAO.updateClearance(CODENAME, ClearanceLevel.OMEGA));
+        assertNull(repository.getCachedSession(CODENAME));
+
+        login();
+        assertTrue(agentDAO.setAccountLockStatus(CODENAME, true));
+        assertNull(repository.getCachedSession(CODENAME));
+
+        assertTrue(agentDAO.setAccountLockStatus(CODENAME, false));
+        login();
+        assertTrue(agentDAO.recordFailedLoginAttempt(CODENAME) > 0);
+        assertNull(repository.getCachedSession(CODENAME));
+    }
+
+    @Test
+    public void idKeyedWrites_invalidate() {
+        login();
+        assertEquals(1, agentDAO.patchAgent(agentID, new AgentPatch().setBiometricEnabled(true)));
+        assertNull(repository.getCachedSession(CODENAME));
+
+        login();
+        assertEquals(1, agentDAO.updateAgent(agentDAO.getAgentByID(agentID)));
+        assertNull(repository.getCachedSession(CODENAME));
+
+        login();
+        assertEquals(1, agentDAO.deleteAgent(agentID));
+        assertNull(repository.getCachedSession(CODENAME));
+        assertNull(repository.getCurrentSession());
+    }
+
+    @Test
+    public void endSessions_clearsEverything() {
+        login();
+        repository.endSessions();
+        assertNull(repository.getCurrentSession());
+        assertNull(repository.getCachedSession(CODENAME));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package org.osd.omot_app.data.repository;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.AgentSeeder;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.AgentDAO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Builds the codename filter over 100k synthetic agents, reports how long that takes, and checks
+ * that inserts and deletes through the DAO keep it in sync.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CodenameFilterStartupTest {
+    private static final String TAG = "CodenameFilterStartupTest";
+    private static final String TEST_DB_NAME = "OMOT-codename-filter-test.db";
+    private static final int ROW_COUNT = 100_000;
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+
+        new AgentSeeder(helper).insert(ROW_COUNT);
+    }
+
+    @Test
+    public void startupBuild_coversEveryAgent() {
+        long start = System.nanoTime();
+        // A direct executor builds the filter inside the constructor, so this times the full scan
+        AgentRepository repository = new AgentRepository(agentDAO, Runnable::run);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, "Codename filter over " + ROW_COUNT + " agents built in " + buildMillis + " ms");
+
+        for (int i = 0; i < ROW_COUNT; i += 97) {
+            assertFalse(repository.isCodenameAvailable(String.format("agent-%06d", i)));
+        }
+        assertTrue(repository.isCodenameAvailable("agent-unknown"));
+        assertNull(repository.loginAgent("agent-unknown", "whatever"));
+    }
+
+    @Test
+    public void insertAndDelete_keepFilterInSync() {
+        AgentRepository repository = new AgentRepository(agentDAO, Runnable::run);
+        assertTrue(repository.isCodenameAvailable("raven"));
+
+        String agentID = database.insertAgent("raven");
+        assertFalse(repository.isCodenameAvailable("raven"));
+        assertTrue(repository.agentExists("raven"));
+
+        assertEquals(1, agentDAO.deleteAgent(agentID));
+        assertTrue(repository.isCodenameAvailable("raven"));
+        assertFalse(repository.agentExists("raven"));
+    }
+}
\ No newline at end of file
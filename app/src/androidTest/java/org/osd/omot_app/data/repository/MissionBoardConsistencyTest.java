@@ -0,0 +1,152 @@
+package org.osd.omot_app.data.repository;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.MissionDAO;
+import org.osd.omot_app.data.dao.MissionDAOImpl;
+import org.osd.omot_app.data.model.Mission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Property test against the real table: the board is loaded from a populated database, then
+ * random writes go through the DAO, and after every batch each board answer must match the
+ * equivalent SQL query.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MissionBoardConsistencyTest {
+    private static final String TEST_DB_NAME = "OMOT-mission-board-test.db";
+    private static final int INITIAL_MISSIONS = 2_000;
+    private static final int OPERATIONS = 1_000;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static final String COLUMN_END = DBContract.MissionEntry.COLUMN_END_DATE;
+    private static final String COLUMN_START = DBContract.MissionEntry.COLUMN_START_DATE;
+    private static final String COLUMN_STATUS = DBContract.MissionEntry.COLUMN_STATUS;
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private MissionDAO missionDAO;
+    private final Random random = new Random(42);
+    private final List<String> missionIDs = new ArrayList<>();
+    private int nextID;
+
+    @Before
+    public void setUp() {
+        helper = database.getHelper();
+        missionDAO = new MissionDAOImpl(helper);
+    }
+
+    private Mission newMission() {
+        String missionID = String.format(Locale.US, "M-%05d", nextID++);
+        missionIDs.add(missionID);
+        long start = random.nextInt(365) * DAY_MS;
+        Long end = random.nextInt(10) == 0 ? null : start + random.nextInt(30) * DAY_MS;
+        return new Mission(missionID, "Operation " + missionID,
+                Mission.Status.values()[random.nextInt(4)],
+                Mission.Priority.values()[random.nextInt(3)], start, end, null);
+    }
+
+    @Test
+    public void boardMatchesSql_afterLoadAndRandomWrites() {
+        List<Mission> initial = new ArrayList<>();
+        for (int i = 0; i < INITIAL_MISSIONS; i++) initial.add(newMission());
+        assertEquals(INITIAL_MISSIONS, missionDAO.insertMissions(initial));
+
+        MissionBoard board = new MissionBoard();
+        board.load(missionDAO);
+        assertTrue(board.isLoaded());
+        assertMatchesSql(board);
+
+        for (int op = 1; op <= OPERATIONS; op++) {
+            int kind = random.nextInt(10);
+            if (kind < 4) {
+                assertTrue(missionDAO.insertMission(newMission()));
+            } else if (kind < 7) {
+                String missionID = missionIDs.get(random.nextInt(missionIDs.size()));
+                assertTrue(missionDAO.updateMissionStatus(missionID,
+                        Mission.Status.values()[random.nextInt(4)]));
+            } else if (kind < 9) {
+                String missionID = missionIDs.remove(random.nextInt(missionIDs.size()));
+                assertTrue(missionDAO.deleteMission(missionID));
+            } else {
+                List<Mission> batch = new ArrayList<>();
+                for (int i = 0; i < 5; i++) batch.add(newMission());
+                assertEquals(5, missionDAO.insertMissions(batch));
+            }
+
+            if (op % 100 == 0) assertMatchesSql(board);
+        }
+    }
+
+    private void assertMatchesSql(MissionBoard board) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertEquals(DatabaseUtils.queryNumEntries(db, DBContract.MissionEntry.TABLE_NAME),
+                board.size());
+
+        for (Mission.Status status : Mission.Status.values()) {
+            assertEquals(missionDAO.countMissionsByStatus(status), board.getCount(status));
+            for (Mission.Priority priority : Mission.Priority.values()) {
+                assertEquals(DatabaseUtils.queryNumEntries(db, DBContract.MissionEntry.TABLE_NAME,
+                        COLUMN_STATUS + " = ? AND " + DBContract.MissionEntry.COLUMN_PRIORITY
+                                + " = ?",
+                        new String[]{String.valueOf(status.getCode()),
+                                String.valueOf(priority.getCode())}),
+                        board.getCount(status, priority));
+            }
+        }
+
+        long now = random.nextInt(400) * DAY_MS;
+        assertSameIDs(queryIDs(COLUMN_STATUS + " IN (?, ?) AND " + COLUMN_END + " >= ?",
+                        new String[]{String.valueOf(Mission.Status.ACTIVE.getCode()),
+                                String.valueOf(Mission.Status.PENDING.getCode()),
+                                String.valueOf(now)},
+                        COLUMN_END + ", " + DBContract.MissionEntry.COLUMN_MISSION_ID, "20"),
+                board.getUpcomingDeadlines(now, 20));
+
+        long from = random.nextInt(400) * DAY_MS - 20 * DAY_MS;
+        long to = from + random.nextInt(30) * DAY_MS;
+        assertSameIDs(queryIDs(COLUMN_START + " <= ? AND (" + COLUMN_END + " IS NULL OR "
+                                + COLUMN_END + " >= ?)",
+                        new String[]{String.valueOf(to), String.valueOf(from)},
+                        COLUMN_START + ", " + DBContract.MissionEntry.COLUMN_MISSION_ID, null),
+                board.getMissionsInRange(from, to));
+    }
+
+    private List<String> queryIDs(String selection, String[] selectionArgs, String orderBy,
+                                  String limit) {
+        List<String> ids = new ArrayList<>();
+        try (Cursor cursor = helper.getReadableDatabase().query(
+                DBContract.MissionEntry.TABLE_NAME,
+                new String[]{DBContract.MissionEntry.COLUMN_MISSION_ID},
+                selection, selectionArgs, null, null, orderBy, limit)) {
+            while (cursor.moveToNext()) ids.add(cursor.getString(0));
+        }
+        return ids;
+    }
+
+    private static void assertSameIDs(List<String> expected, List<Mission> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Position " + i, expected.get(i), actual.get(i).getMissionID());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package org.osd.omot_app.data.repository;
+
+import android.util.Base64;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.TestDatabase;
+import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.security.LegacySha256PasswordHasher;
+import org.osd.omot_app.security.PasswordHashEngine;
+import org.osd.omot_app.security.Pbkdf2PasswordHasher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Logins must accept legacy SHA-256 hashes and transparently replace them, and any hash made
+ * with a lower cost than the current one, with a PBKDF2 hash at the current cost.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PasswordRehashTest {
+    private static final String TEST_DB_NAME = "OMOT-password-rehash-test.db";
+    private static final String CODENAME = "raven";
+    private static final String PASSWORD = "correct horse battery";
+    private static final byte[] SALT = new byte[16];
+    private static final String SALT_BASE64 = Base64.encodeToString(SALT, Base64.NO_WRAP);
+
+    @Rule
+    public final TestDatabase database = new TestDatabase(TEST_DB_NAME);
+
+    private DBHelper helper;
+    private AgentDAO agentDAO;
+    private int storedCost;
+
+    @Before
+    public void setUp() throws Exception {
+        helper = database.getHelper();
+        agentDAO = database.getAgentDAO();
+        storedCost = PasswordHashEngine.MIN_COST;
+
+        byte[] legacy = new LegacySha256PasswordHasher().derive(
+                PASSWORD.getBytes(StandardCharsets.UTF_8), SALT, 1);
+        Agent agent = TestDatabase.newAgent(CODENAME);
+        agent.setPasswordHash(Base64.encodeToString(legacy, Base64.NO_WRAP));
+        agent.setSalt(SALT_BASE64);
+        database.insertAgent(agent);
+    }
+
+    private AgentRepository repository(Executor hashExecutor) {
+        PasswordHashEngine.CostStore costStore = new PasswordHashEngine.CostStore() {
+            @Override
+            public int loadCost(String algorithm) {
+                return storedCost;
+            }
+
+            @Override
+            public void saveCost(String algorithm, int cost) {
+                storedCost = cost;
+            }
+        };
+        PasswordHashEngine engine = new PasswordHashEngine(new Pbkdf2PasswordHasher(), costStore,
+                PasswordHashEngine.DEFAULT_TARGET_MILLIS, hashExecutor);
+        return new AgentRepository(agentDAO, Runnable::run, null, engine);
+    }
+
+    private String storedHash() {
+        return agentDAO.getAgentByCodename(CODENAME).getPasswordHash();
+    }
+
+    @Test
+    public void legacyHash_isUpgradedOnLogin() {
+        AgentRepository repository = repository(Runnable::run);
+
+        Agent agent = repository.loginAgent(CODENAME, PASSWORD);
+        assertNotNull(agent);
+        String upgraded = storedHash();
+        assertTrue(upgraded, upgraded.startsWith("$pbkdf2-sha256$" + storedCost + "$"));
+        assertEquals(upgraded, agent.getPasswordHash());
+
+        // The upgraded hash verifies and is left alone
+        assertNotNull(repository.loginAgent(CODENAME, PASSWORD));
+        assertEquals(upgraded, storedHash());
+    }
+
+    @Test
+    public void wrongPassword_keepsLegacyHash() {
+        String legacy = storedHash();
+        assertNull(repository(Runnable::run).loginAgent(CODENAME, "wrong password"));
+        assertEquals(legacy, storedHash());
+        assertEquals(1, agentDAO.getAgentByCodename(CODENAME).getFailedLoginAttempts());
+    }
+
+    @Test
+    public void raisedCost_upgradesOnNextLogin() {
+        assertNotNull(repository(Runnable::run).loginAgent(CODENAME, PASSWORD));
+
+        storedCost = PasswordHashEngine.MIN_COST * 2;
+        assertNotNull(repository(Runnable::run).loginAgent(CODENAME, PASSWORD));
+        assertTrue(storedHash().startsWith("$pbkdf2-sha256$" + storedCost + "$"));
+    }
+
+    @Test
+    public void saturatedHashExecutor_failsWithoutCountingAnAttempt() {
+        Executor saturated = command -> {
+            throw new RejectedExecutionException("hash queue full");
+        };
+
+        assertNull(repository(saturated).loginAgent(CODENAME, PASSWORD));
+        assertEquals(0, agentDAO.getAgentByCodename(CODENAME).getFailedLoginAttempts());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package org.osd.omot_app.security;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Encrypts and decrypts briefing-sized files from 1 MB to 500 MB with the KeyStore-backed
+ * cipher and logs the throughput of each direction plus the cost of random chunk reads.
+ * Plaintext is generated on the fly and checked by digest, so only the encrypted file touches
+ * the disk; sizes that would not fit in a third of the free cache space are skipped.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChunkedFileCipherBenchmarkTest {
+    private static final String TAG = "ChunkedFileCipherBench";
+    private static final int MB = 1024 * 1024;
+    private static final int[] SIZES_MB = {1, 10, 100, 500};
+    private static final int WRITE_SIZE = 8 * 1024;
+    private static final int RANDOM_READS = 1_000;
+
+    private ChunkedFileCipher cipher;
+    private File encryptedFile;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        cipher = new ChunkedFileCipher(new CryptoManager(context));
+        encryptedFile = new File(context.getCacheDir(), "briefing-bench.enc");
+    }
+
+    @After
+    public void tearDown() {
+        encryptedFile.delete();
+    }
+
+    @Test
+    public void throughputFromOneToFiveHundredMegabytes() throws Exception {
+        long freeBytes = encryptedFile.getParentFile().getUsableSpace();
+        for (int sizeMb : SIZES_MB) {
+            long size = (long) sizeMb * MB;
+            if (size > freeBytes / 3) {
+                Log.w(TAG, String.format(Locale.US, "Skipping %d MB: only %d MB free",
+                        sizeMb, freeBytes / MB));
+                continue;
+            }
+            benchmark(size);
+        }
+    }
+
+    private void benchmark(long size) throws IOException, NoSuchAlgorithmException {
+        Random random = new Random(size);
+        byte[] buffer = new byte[WRITE_SIZE];
+        MessageDigest written = MessageDigest.getInstance("SHA-256");
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (OutputStream out = cipher.newEncryptingStream(new FileOutputStream(encryptedFile))) {
+            for (long remaining = size; remaining > 0; remaining -= buffer.length) {
+                random.nextBytes(buffer);
+                int n = (int) Math.min(buffer.length, remaining);
+                written.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+            }
+        }
+        long encryptNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+        MessageDigest read = MessageDigest.getInstance("SHA-256");
+        start = SystemClock.elapsedRealtimeNanos();
+        try (InputStream in = cipher.newDecryptingStream(new FileInputStream(encryptedFile))) {
+            int n;
+            while ((n = in.read(buffer)) >= 0) read.update(buffer, 0, n);
+        }
+        long decryptNanos = SystemClock.elapsedRealtimeNanos() - start;
+        assertTrue("Decrypted content differs", Arrays.equals(written.digest(), read.digest()));
+
+        long randomNanos;
+        try (EncryptedFileChannelReader reader = cipher.newReader(encryptedFile)) {
+            assertEquals(size, reader.size());
+            ByteBuffer page = ByteBuffer.allocate(4 * 1024);
+            start = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < RANDOM_READS; i++) {
+                page.clear();
+                long position = (long) (random.nextDouble() * (size - page.capacity()));
+                assertEquals(page.capacity(), reader.read(page, position));
+            }
+            randomNanos = SystemClock.elapsedRealtimeNanos() - start;
+        }
+
+        double mb = (double) size / MB;
+        Log.i(TAG, String.format(Locale.US,
+                "%4.0f MB: encrypt %.1f MB/s, decrypt %.1f MB/s, random 4 KiB read %.1f us, "
+                        + "overhead %d bytes",
+                mb, mb * 1e9 / encryptNanos, mb * 1e9 / decryptNanos,
+                randomNanos / 1e3 / RANDOM_READS, encryptedFile.length() - size));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package org.osd.omot_app.security;
+
+import android.security.keystore.KeyPermanentlyInvalidatedException;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.*;
+
+/**
+ * A permanently invalidated key puts the manager in a failed state that later calls report
+ * instead of retrying, until the key is explicitly deleted and regenerated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CryptoManagerKeyInvalidationTest {
+
+    @Test
+    public void invalidatedKey_failsUntilReset() throws Exception {
+        InvalidatedKeySource keySource = new InvalidatedKeySource();
+        CryptoManager cryptoManager = new CryptoManager(keySource);
+
+        assertNull(cryptoManager.encrypt("Favourite cipher?"));
+        assertTrue(cryptoManager.isKeyPermanentlyInvalidated());
+
+        // Later calls fail without going back to the KeyStore
+        assertNull(cryptoManager.encrypt("Favourite cipher?"));
+        assertFalse(cryptoManager.isSecurityKeyAvailable());
+        assertThrows(GeneralSecurityException.class, () -> cryptoManager.wrapKey(new byte[32]));
+        assertEquals(1, keySource.loads);
+
+        cryptoManager.resetKey();
+        assertEquals(1, keySource.deletes);
+        assertFalse(cryptoManager.isKeyPermanentlyInvalidated());
+        assertTrue(cryptoManager.isSecurityKeyAvailable());
+    }
+
+    /** Reports the key as invalidated until it has been deleted. */
+    private static class InvalidatedKeySource implements CryptoManager.KeySource {
+        private final SecretKey key = new SecretKeySpec(new byte[32], "AES");
+        int loads;
+        int deletes;
+
+        @Override
+        public SecretKey loadOrGenerate() throws GeneralSecurityException {
+            loads++;
+            if (deletes == 0) {
+                throw new KeyPermanentlyInvalidatedException();
+            }
+            return key;
+        }
+
+        @Override
+        public void delete() {
+            deletes++;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package org.osd.omot_app.security;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bulk hashing must share the hash pool with logins: a verify submitted during a large batch
+ * waits for about one small task, and a pool whose queue is full doesn't fail the batch.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PasswordHashEngineSchedulingTest {
+    private static final String TAG = "HashEngineScheduling";
+    private static final long HASH_MILLIS = 20;
+    private static final byte[] SALT = new byte[16];
+
+    private ThreadPoolExecutor pool;
+
+    /** Stands in for a calibrated KDF: a fixed delay per hash, then SHA-256. */
+    private static final class SlowHasher implements PasswordHasher {
+        private final LegacySha256PasswordHasher digest = new LegacySha256PasswordHasher();
+
+        @Override
+        public String getAlgorithm() {
+            return "slow";
+        }
+
+        @Override
+        public byte[] derive(byte[] password, byte[] salt, int cost)
+                throws GeneralSecurityException {
+            try {
+                Thread.sleep(HASH_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GeneralSecurityException(e);
+            }
+            return digest.derive(password, salt, cost);
+        }
+    }
+
+    private PasswordHashEngine engine(int threads, int queueCapacity) {
+        pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        return new PasswordHashEngine(new SlowHasher(), null,
+                PasswordHashEngine.DEFAULT_TARGET_MILLIS, pool) {
+            @Override
+            public int getCost() {
+                return 1;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    private static String[] secrets(int count) {
+        String[] secrets = new String[count];
+        for (int i = 0; i < count; i++) secrets[i] = "secret-" + i;
+        return secrets;
+    }
+
+    private static byte[][] salts(int count) {
+        byte[][] salts = new byte[count][];
+        Arrays.fill(salts, SALT);
+        return salts;
+    }
+
+    @Test
+    public void verifyDuringBatch_waitsForOneTaskAtMost() throws Exception {
+        PasswordHashEngine engine = engine(2, 64);
+        String stored = engine.hash("cipherkey", SALT);
+
+        int count = 400;    // About four seconds of hashing on two threads
+        CompletableFuture<String[]> batch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return engine.hashAll(secrets(count), salts(count));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(500);
+        assertFalse(batch.isDone());
+
+        long start = System.nanoTime();
+        assertTrue(engine.verify("cipherkey", SALT, stored).matches());
+        long waitMillis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, String.format(Locale.US, "verify during a %d-hash batch took %d ms",
+                count, waitMillis));
+
+        // The verify itself, plus at most one import task ahead of it
+        assertTrue("verify waited " + waitMillis + " ms",
+                waitMillis < (PasswordHashEngine.HASHES_PER_TASK + 1) * HASH_MILLIS * 4);
+        String[] hashes = batch.get(30, TimeUnit.SECONDS);
+        for (String hash : hashes) assertNotNull(hash);
+    }
+
+    @Test
+    public void fullQueue_hashesOnCallingThread() throws Exception {
+        PasswordHashEngine engine = engine(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        pool.execute(() -> { });    // Fills the queue
+
+        String[] hashes = engine.hashAll(secrets(6), salts(6));
+        release.countDown();
+        for (String hash : hashes) assertNotNull(hash);
+    }
+}
\ No newline at end of file
@@ -69,6 +69,39 @@ public final class DBContract {
                 + "FOREIGN KEY (" + COLUMN_CLEARANCE_CODE + ") REFERENCES "
                 + ClearanceLevelEntry.TABLE_NAME + "(" + ClearanceLevelEntry.COLUMN_CLEARANCE_CODE + ")"
                 + ");";
+
+        // Roster indexes: keyset pages ordered by codename, filtered by clearance or lock status.
+        // Unfiltered pages use the implicit index behind the UNIQUE codename constraint.
+        public static final String INDEX_CLEARANCE_CODENAME = "idx_agents_clearance_codename";
+        public static final String INDEX_LOCKED_CODENAME = "idx_agents_locked_codename";
+
+        public static final String SQL_CREATE_INDEX_CLEARANCE_CODENAME =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_CLEARANCE_CODENAME + " ON " + TABLE_NAME
+                + " (" + COLUMN_CLEARANCE_CODE + ", " + COLUMN_CODENAME + ");";
+
+        public static final String SQL_CREATE_INDEX_LOCKED_CODENAME =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_LOCKED_CODENAME + " ON " + TABLE_NAME
+                + " (" + COLUMN_ACCOUNT_LOCKED + ", " + COLUMN_CODENAME + ");";
+
+        // Agent IDs are handed out from SequenceEntry.SEQUENCE_AGENT_ID
+        public static final String AGENT_ID_FORMAT = "AGENT-%03d";
+
+        // Numeric part of "AGENT-001" style IDs; queries must use this exact expression to hit the index
+        public static final String EXPR_AGENT_NUMBER =
+                "CAST(substr(" + COLUMN_AGENT_ID + ", 7) AS INTEGER)";
+
+        public static final String INDEX_AGENT_NUMBER = "idx_agents_number";
+        public static final String INDEX_RECENT_LOGIN = "idx_agents_recent_login";
+
+        public static final String SQL_CREATE_INDEX_AGENT_NUMBER =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_AGENT_NUMBER + " ON " + TABLE_NAME
+                + " (" + EXPR_AGENT_NUMBER + ");";
+
+        // Partial: agents who never logged in (timestamp 0) are left out of the index
+        public static final String SQL_CREATE_INDEX_RECENT_LOGIN =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_RECENT_LOGIN + " ON " + TABLE_NAME
+                + " (" + COLUMN_LAST_LOGIN_TIMESTAMP + ") WHERE "
+                + COLUMN_LAST_LOGIN_TIMESTAMP + " > 0;";
     }
 
     /* Inner class that defines the Mission table contents */
@@ -82,15 +115,103 @@ public final class DBContract {
         public static final String COLUMN_END_DATE = "end_date";
         public static final String COLUMN_BRIEFING_FILE = "briefing_file";
 
+        // Status and priority hold Mission.Status / Mission.Priority codes
         public static final String SQL_CREATE_TABLE =
                 "CREATE TABLE " + TABLE_NAME + " ("
                 + COLUMN_MISSION_ID + " TEXT PRIMARY KEY NOT NULL,"
                 + COLUMN_TITLE + " TEXT NOT NULL,"
-                + COLUMN_STATUS + " TEXT NOT NULL CHECK(" + COLUMN_STATUS + " IN ('Active', 'Completed', 'Deactivated', 'Pending')),"
-                + COLUMN_PRIORITY + " TEXT NOT NULL CHECK(" + COLUMN_PRIORITY + " IN ('High', 'Medium', 'Low')),"
+                + COLUMN_STATUS + " INTEGER NOT NULL CHECK(" + COLUMN_STATUS + " BETWEEN 0 AND 3),"
+                + COLUMN_PRIORITY + " INTEGER NOT NULL CHECK(" + COLUMN_PRIORITY + " BETWEEN 1 AND 3),"
                 + COLUMN_START_DATE + " INTEGER NOT NULL,"
                 + COLUMN_END_DATE + " INTEGER,"
                 + COLUMN_BRIEFING_FILE + " TEXT"
                 + ");";
+
+        // Board indexes: keyset pages within one status, either most urgent then newest first,
+        // or newest first regardless of priority. mission_id breaks ties between equal dates.
+        public static final String INDEX_STATUS_PRIORITY_START = "idx_missions_status_priority_start";
+        public static final String INDEX_STATUS_START = "idx_missions_status_start";
+
+        public static final String SQL_CREATE_INDEX_STATUS_PRIORITY_START =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_STATUS_PRIORITY_START + " ON " + TABLE_NAME
+                + " (" + COLUMN_STATUS + ", " + COLUMN_PRIORITY + ", " + COLUMN_START_DATE + ", "
+                + COLUMN_MISSION_ID + ");";
+
+        public static final String SQL_CREATE_INDEX_STATUS_START =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_STATUS_START + " ON " + TABLE_NAME
+                + " (" + COLUMN_STATUS + ", " + COLUMN_START_DATE + ", " + COLUMN_MISSION_ID + ");";
+    }
+
+    /* Inner class that defines the Dossier table contents */
+    public static class DossierEntry {
+        public static final String TABLE_NAME = "tb_dossiers";
+        public static final String COLUMN_DOSSIER_ID = "dossier_id";
+        public static final String COLUMN_TITLE = "title";
+        public static final String COLUMN_CLEARANCE_REQUIRED = "clearance_required";
+        public static final String COLUMN_CLEARANCE_RANK = "clearance_rank";
+        public static final String COLUMN_CONTENT_FILE = "content_file";
+        public static final String COLUMN_PAGE_COUNT = "page_count";
+        public static final String COLUMN_CREATED_AT = "created_at";
+
+        // content_file points at an encrypted container written by DossierContentStore.
+        // clearance_rank mirrors ClearanceLevel.getRank() of clearance_required.
+        public static final String SQL_CREATE_TABLE =
+                "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " ("
+                + COLUMN_DOSSIER_ID + " TEXT PRIMARY KEY NOT NULL,"
+                + COLUMN_TITLE + " TEXT NOT NULL,"
+                + COLUMN_CLEARANCE_REQUIRED + " TEXT NOT NULL,"
+                + COLUMN_CLEARANCE_RANK + " INTEGER NOT NULL DEFAULT -1,"
+                + COLUMN_CONTENT_FILE + " TEXT,"
+                + COLUMN_PAGE_COUNT + " INTEGER NOT NULL DEFAULT 0,"
+                + COLUMN_CREATED_AT + " INTEGER NOT NULL,"
+                + "FOREIGN KEY (" + COLUMN_CLEARANCE_REQUIRED + ") REFERENCES "
+                + ClearanceLevelEntry.TABLE_NAME + "(" + ClearanceLevelEntry.COLUMN_CLEARANCE_CODE + ")"
+                + ");";
+
+        // Dossier lists per clearance, newest first
+        public static final String INDEX_CLEARANCE_CREATED = "idx_dossiers_clearance_created";
+        // Dossiers an agent may see: one range per accessible rank
+        public static final String INDEX_RANK_CREATED = "idx_dossiers_rank_created";
+
+        public static final String SQL_CREATE_INDEX_CLEARANCE_CREATED =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_CLEARANCE_CREATED + " ON " + TABLE_NAME
+                + " (" + COLUMN_CLEARANCE_REQUIRED + ", " + COLUMN_CREATED_AT + ");";
+
+        public static final String SQL_CREATE_INDEX_RANK_CREATED =
+                "CREATE INDEX IF NOT EXISTS " + INDEX_RANK_CREATED + " ON " + TABLE_NAME
+                + " (" + COLUMN_CLEARANCE_RANK + ", " + COLUMN_CREATED_AT + ");";
+    }
+
+    /* Inner class that defines the named ID sequences table */
+    public static class SequenceEntry {
+        public static final String TABLE_NAME = "tb_sequences";
+        public static final String COLUMN_SEQUENCE_NAME = "sequence_name";
+        public static final String COLUMN_NEXT_VALUE = "next_value";
+
+        public static final String SEQUENCE_AGENT_ID = "agent_id";
+
+        public static final String SQL_CREATE_TABLE =
+                "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " ("
+                + COLUMN_SEQUENCE_NAME + " TEXT PRIMARY KEY NOT NULL,"
+                + COLUMN_NEXT_VALUE + " INTEGER NOT NULL"
+                + ");";
+
+        // Starts the agent ID sequence after the highest existing agent number
+        public static final String SQL_SEED_AGENT_ID =
+                "INSERT OR IGNORE INTO " + TABLE_NAME + " ("
+                + COLUMN_SEQUENCE_NAME + ", " + COLUMN_NEXT_VALUE + ") "
+                + "SELECT '" + SEQUENCE_AGENT_ID + "', COALESCE(MAX(" + AgentEntry.EXPR_AGENT_NUMBER
+                + "), 0) + 1 FROM " + AgentEntry.TABLE_NAME + ";";
+    }
+
+    /* Inner class that defines the table tracking deferred row-rewriting migrations */
+    public static class PendingMigrationEntry {
+        public static final String TABLE_NAME = "tb_pending_migrations";
+        public static final String COLUMN_MIGRATION_NAME = "migration_name";
+
+        public static final String SQL_CREATE_TABLE =
+                "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " ("
+                + COLUMN_MIGRATION_NAME + " TEXT PRIMARY KEY NOT NULL"
+                + ");";
     }
 }
\ No newline at end of file
@@ -5,11 +5,30 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
+import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
+import org.osd.omot_app.data.migration.AgentLookupIndexMigration;
+import org.osd.omot_app.data.migration.AgentRosterIndexMigration;
+import org.osd.omot_app.data.migration.AgentSequenceMigration;
+import org.osd.omot_app.data.migration.DossierClearanceRankMigration;
+import org.osd.omot_app.data.migration.DossierTableMigration;
+import org.osd.omot_app.data.migration.EncryptedBlobMigration;
+import org.osd.omot_app.data.migration.Migration;
+import org.osd.omot_app.data.migration.MigrationProgressListener;
+import org.osd.omot_app.data.migration.MigrationRunner;
+import org.osd.omot_app.data.migration.MissionCodeMigration;
 import org.osd.omot_app.security.CryptoManager;
+import org.osd.omot_app.security.DataKeyWrapper;
+import org.osd.omot_app.security.FieldCipher;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Manages the OMOT application database creation, version management, and provides access.
@@ -18,14 +37,60 @@ import org.osd.omot_app.security.CryptoManager;
 public class DBHelper extends SQLiteOpenHelper {
     private static final String TAG = "DBHelper";
 
-    private static final int DB_VERSION = 1;
+    private static final int DB_VERSION = 8;
     private static final String DB_NAME = "OMOT.db";
 
+    private static final String[] SENSITIVE_FIELDS = {
+            DBContract.AgentEntry.COLUMN_PASSWORD_HASH,
+            DBContract.AgentEntry.COLUMN_SALT,
+            DBContract.AgentEntry.COLUMN_SECURITY_QUESTION,
+            DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH
+    };
+
     private final CryptoManager cryptoManager;
+    private final MigrationRunner migrationRunner;
+    private final DBPerformanceProfile profile;
 
     public DBHelper(Context context) {
-        super(context, DB_NAME, null, DB_VERSION);
+        this(context, DBPerformanceProfile.DEFAULT);
+    }
+
+    public DBHelper(Context context, DBPerformanceProfile profile) {
+        this(context, DB_NAME, profile);
+    }
+
+    @VisibleForTesting
+    public DBHelper(Context context, String name, DBPerformanceProfile profile) {
+        this(context, name, profile, null);
+    }
+
+    /**
+     * @param cursorFactory Factory for query cursors, e.g. to capture the SQL a DAO runs.
+     */
+    @VisibleForTesting
+    public DBHelper(Context context, String name, DBPerformanceProfile profile,
+                    @Nullable SQLiteDatabase.CursorFactory cursorFactory) {
+        super(context, name, cursorFactory, DB_VERSION);
         this.cryptoManager = new CryptoManager(context);
+        this.migrationRunner = new MigrationRunner(buildMigrations());
+        this.profile = profile;
+        // Must be set before the first connection is opened
+        setWriteAheadLoggingEnabled(profile.isWriteAheadLoggingEnabled());
+    }
+
+    /**
+     * Every schema step, one per version bump. Add new steps here when DB_VERSION increases.
+     */
+    private static List<Migration> buildMigrations() {
+        return Arrays.asList(
+                new EncryptedBlobMigration(),       // 1 -> 2
+                new AgentRosterIndexMigration(),    // 2 -> 3
+                new AgentLookupIndexMigration(),    // 3 -> 4
+                new AgentSequenceMigration(),       // 4 -> 5
+                new MissionCodeMigration(),         // 5 -> 6
+                new DossierTableMigration(),        // 6 -> 7
+                new DossierClearanceRankMigration() // 7 -> 8
+        );
     }
 
     @Override
@@ -34,8 +99,20 @@ public class DBHelper extends SQLiteOpenHelper {
         try {
             db.execSQL(DBContract.ClearanceLevelEntry.SQL_CREATE_TABLE);
             db.execSQL(DBContract.AgentEntry.SQL_CREATE_TABLE);
+            db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_CLEARANCE_CODENAME);
+            db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_LOCKED_CODENAME);
+            db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_AGENT_NUMBER);
+            db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_RECENT_LOGIN);
             db.execSQL(DBContract.MissionEntry.SQL_CREATE_TABLE);
-            // TODO: Execute other table creation SQL statements (Dossiers, SecureCommunications, etc.)
+            db.execSQL(DBContract.MissionEntry.SQL_CREATE_INDEX_STATUS_PRIORITY_START);
+            db.execSQL(DBContract.MissionEntry.SQL_CREATE_INDEX_STATUS_START);
+            db.execSQL(DBContract.DossierEntry.SQL_CREATE_TABLE);
+            db.execSQL(DBContract.DossierEntry.SQL_CREATE_INDEX_CLEARANCE_CREATED);
+            db.execSQL(DBContract.DossierEntry.SQL_CREATE_INDEX_RANK_CREATED);
+            db.execSQL(DBContract.PendingMigrationEntry.SQL_CREATE_TABLE);
+            db.execSQL(DBContract.SequenceEntry.SQL_CREATE_TABLE);
+            db.execSQL(DBContract.SequenceEntry.SQL_SEED_AGENT_ID);
+            // TODO: Execute other table creation SQL statements (SecureCommunications, etc.)
 
             // Populate the ClearanceLevel table with default data
             db.execSQL(DBContract.ClearanceLevelEntry.SQL_POPULATE_DATA);
@@ -50,13 +127,7 @@ public class DBHelper extends SQLiteOpenHelper {
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
-        // Drop tables if they exist
-        db.execSQL("DROP TABLE IF EXISTS " + DBContract.ClearanceLevelEntry.TABLE_NAME);
-        db.execSQL("DROP TABLE IF EXISTS " + DBContract.AgentEntry.TABLE_NAME);
-        db.execSQL("DROP TABLE IF EXISTS " + DBContract.MissionEntry.TABLE_NAME);
-
-        // Create table again
-        onCreate(db);
+        migrationRunner.upgrade(db, oldVersion, newVersion);
     }
 
     @Override
@@ -64,26 +135,86 @@ public class DBHelper extends SQLiteOpenHelper {
         super.onConfigure(db);
         // Enable foreign key constraints
         db.setForeignKeyConstraintsEnabled(true);
+        applyPerformanceProfile(db);
+    }
+
+    public DBPerformanceProfile getPerformanceProfile() {
+        return profile;
     }
 
     /**
-     * Helper method to encrypt a value before inserting it into the database.
-     * Returns null if encryption fails.
+     * Forces a full WAL checkpoint and truncates the WAL file. Useful after bulk writes or before
+     * the app goes to the background. Does nothing outside WAL mode.
      */
-    @Nullable
-    public String encryptField(String plaintext) {
-        if (plaintext == null) return null;
-        return cryptoManager.encrypt(plaintext);
+    public void checkpoint() {
+        if (!profile.isWriteAheadLoggingEnabled()) return;
+        applyPragma(getWritableDatabase(), "wal_checkpoint(TRUNCATE)");
     }
 
     /**
-     * Helper method to decrypt a value after reading it from the database.
-     * Returns null if decryption fails.
+     * Applies the connection settings of the active profile. onConfigure only runs on the
+     * primary connection, which performs every write and checkpoint, so the write-side PRAGMAs
+     * only need to be set there. The read-side ones also matter on the extra connections WAL
+     * mode opens for readers: API 30+ registers them for every connection, while older releases
+     * leave those readers on SQLite's defaults.
      */
-    @Nullable
-    public String decryptField(String encryptedText) {
-        if (encryptedText == null) return null;
-        return cryptoManager.decrypt(encryptedText);
+    private void applyPerformanceProfile(SQLiteDatabase db) {
+        applyPragma(db, "synchronous = " + profile.getSyncMode().name());
+        if (profile.isWriteAheadLoggingEnabled()) {
+            applyPragma(db, "wal_autocheckpoint = " + profile.getWalAutoCheckpointPages());
+            applyPragma(db, "journal_size_limit = " + profile.getJournalSizeLimitBytes());
+        }
+        if (profile.getCacheSizeKiB() > 0) {
+            // Negative values are interpreted by SQLite as KiB rather than pages
+            applyPerConnectionPragma(db, "cache_size = -" + profile.getCacheSizeKiB());
+        }
+        applyPerConnectionPragma(db, "mmap_size = " + profile.getMmapSizeBytes());
+        applyPerConnectionPragma(db,
+                "temp_store = " + (profile.isTempStoreInMemory() ? "MEMORY" : "DEFAULT"));
+    }
+
+    /**
+     * Applies a PRAGMA to every current and future connection where the platform supports it,
+     * otherwise to the primary connection only.
+     */
+    private static void applyPerConnectionPragma(SQLiteDatabase db, String pragma) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            try {
+                db.execPerConnectionSQL("PRAGMA " + pragma, null);
+                return;
+            } catch (Exception e) {
+                // Not registered; fall back to the primary connection
+                Log.w(TAG, "Could not apply PRAGMA " + pragma + " to every connection", e);
+            }
+        }
+        applyPragma(db, pragma);
+    }
+
+    /**
+     * Runs a PRAGMA through rawQuery, since several PRAGMAs return a row and execSQL rejects
+     * statements that produce results.
+     */
+    private static void applyPragma(SQLiteDatabase db, String pragma) {
+        try (Cursor cursor = db.rawQuery("PRAGMA " + pragma, null)) {
+            cursor.moveToFirst();
+        } catch (Exception e) {
+            Log.w(TAG, "Could not apply PRAGMA " + pragma, e);
+        }
+    }
+
+    /**
+     * Registers a listener notified while migrations run, e.g. to drive a progress indicator.
+     */
+    public void setMigrationProgressListener(@Nullable MigrationProgressListener listener) {
+        migrationRunner.setProgressListener(listener);
+    }
+
+    /**
+     * Finishes row rewrites left pending by a schema upgrade, one small transaction per chunk.
+     * Must be called off the main thread. Does nothing when no rewrite is pending.
+     */
+    public void runPendingMigrations() {
+        migrationRunner.runPendingRowMigrations(getWritableDatabase());
     }
 
     /**
@@ -107,22 +238,100 @@ public class DBHelper extends SQLiteOpenHelper {
         return cryptoManager.isSecurityKeyAvailable();
     }
 
-    private void encryptSensitiveFields(ContentValues values) {
-        String[] sensitiveFields = {
-                DBContract.AgentEntry.COLUMN_PASSWORD_HASH,
-                DBContract.AgentEntry.COLUMN_SALT,
-                DBContract.AgentEntry.COLUMN_SECURITY_QUESTION,
-                DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH
-        };
-
-        for (String field : sensitiveFields) {
-            if (values.containsKey(field)) {
-                String value = values.getAsString(field);
-                if (value != null) {
-                    String encryptedValue = encryptField(value);
-                    values.put(field, encryptedValue);
-                }
+    /**
+     * Tells a permanently invalidated KeyStore key apart from other self-check failures. Once
+     * true, the encrypted columns can't be read again; see {@link CryptoManager#resetKey()}.
+     * @return true if the encryption key has been permanently invalidated.
+     */
+    public boolean isEncryptionKeyInvalidated() {
+        return cryptoManager.isKeyPermanentlyInvalidated();
+    }
+
+    /**
+     * Deletes every agent row, since their encrypted columns can't be read without the lost key,
+     * then replaces the key. Nothing encrypted under the old key is recovered. Only call this
+     * once {@link #isEncryptionKeyInvalidated()} is true and the user has accepted the loss.
+     * @return The number of agent rows deleted.
+     */
+    public int resetEncryptionKey() throws GeneralSecurityException {
+        int deleted = getWritableDatabase().delete(DBContract.AgentEntry.TABLE_NAME, null, null);
+        cryptoManager.resetKey();
+        Log.w(TAG, "Encryption key reset; deleted " + deleted + " unreadable agent rows");
+        return deleted;
+    }
+
+    /**
+     * Reads and decrypts the given BLOB columns of the cursor's current row in one batch.
+     * Values still stored as Base64 text by schema version 1 are decoded transparently,
+     * since {@link EncryptedBlobMigration} rewrites existing rows in the background.
+     * @param cursor The cursor positioned on the row to read.
+     * @param columnIndices The indices of the encrypted columns.
+     * @return The decrypted values, in the same order as {@code columnIndices}.
+     */
+    public String[] decryptRow(Cursor cursor, int... columnIndices) {
+        return cryptoManager.decryptBlobs(readEncryptedBlobs(cursor, columnIndices));
+    }
+
+    /**
+     * Reads the given encrypted columns of the cursor's current row without decrypting them.
+     * Values still stored as Base64 text by schema version 1 are decoded to raw blobs.
+     * @param cursor The cursor positioned on the row to read.
+     * @param columnIndices The indices of the encrypted columns.
+     * @return The raw IV + ciphertext blobs, in the same order as {@code columnIndices}.
+     */
+    public byte[][] readEncryptedBlobs(Cursor cursor, int... columnIndices) {
+        byte[][] blobs = new byte[columnIndices.length][];
+        for (int i = 0; i < columnIndices.length; i++) {
+            blobs[i] = readEncryptedBlob(cursor, columnIndices[i]);
+        }
+        return blobs;
+    }
+
+    /**
+     * @return The cipher used for sensitive agent columns, for decrypting blobs read with
+     *         {@link #readEncryptedBlobs(Cursor, int...)} later on.
+     */
+    public FieldCipher getFieldCipher() {
+        return cryptoManager;
+    }
+
+    /**
+     * @return The KeyStore-backed wrapper for per-file data keys.
+     */
+    public DataKeyWrapper getDataKeyWrapper() {
+        return cryptoManager;
+    }
+
+    /**
+     * Encrypts every sensitive agent column present in the row in a single batch and
+     * replaces the plaintext strings with raw encrypted blobs.
+     * @param values The row about to be inserted or updated.
+     */
+    public void encryptSensitiveFields(ContentValues values) {
+        String[] plaintexts = new String[SENSITIVE_FIELDS.length];
+        for (int i = 0; i < SENSITIVE_FIELDS.length; i++) {
+            if (values.containsKey(SENSITIVE_FIELDS[i])) {
+                plaintexts[i] = values.getAsString(SENSITIVE_FIELDS[i]);
+            }
+        }
+
+        byte[][] encryptedValues = cryptoManager.encryptToBlobs(plaintexts);
+        for (int i = 0; i < SENSITIVE_FIELDS.length; i++) {
+            if (plaintexts[i] != null) {
+                values.put(SENSITIVE_FIELDS[i], encryptedValues[i]);
             }
         }
     }
+
+    @Nullable
+    private static byte[] readEncryptedBlob(Cursor cursor, int columnIndex) {
+        switch (cursor.getType(columnIndex)) {
+            case Cursor.FIELD_TYPE_NULL:
+                return null;
+            case Cursor.FIELD_TYPE_STRING:
+                return Base64.decode(cursor.getString(columnIndex), Base64.NO_WRAP);
+            default:
+                return cursor.getBlob(columnIndex);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package org.osd.omot_app.data;
+
+/**
+ * Connection-level SQLite settings applied by {@link DBHelper} every time the database is opened.
+ * Use {@link #DEFAULT} unless a device class needs different trade-offs; build custom profiles
+ * with {@link Builder}.
+ */
+public final class DBPerformanceProfile {
+
+    /** Values for {@code PRAGMA synchronous}. */
+    public enum SyncMode { OFF, NORMAL, FULL }
+
+    /**
+     * WAL with NORMAL sync: readers never block on the login writes, and commits skip the
+     * per-transaction fsync while staying durable across app crashes.
+     */
+    public static final DBPerformanceProfile DEFAULT = new Builder().build();
+
+    /**
+     * Rollback journal with FULL sync, matching SQLite's stock behaviour. Useful for diagnosing
+     * issues suspected to be caused by the tuned settings.
+     */
+    public static final DBPerformanceProfile CONSERVATIVE = new Builder()
+            .setWriteAheadLoggingEnabled(false)
+            .setSyncMode(SyncMode.FULL)
+            .setCacheSizeKiB(0)
+            .setMmapSizeBytes(0)
+            .setTempStoreInMemory(false)
+            .build();
+
+    private final boolean writeAheadLoggingEnabled;
+    private final int walAutoCheckpointPages;
+    private final long journalSizeLimitBytes;
+    private final SyncMode syncMode;
+    private final int cacheSizeKiB;
+    private final long mmapSizeBytes;
+    private final boolean tempStoreInMemory;
+    private final long loginWriteBehindDelayMs;
+    private final int loginWriteBehindMaxPending;
+
+    private DBPerformanceProfile(Builder builder) {
+        this.writeAheadLoggingEnabled = builder.writeAheadLoggingEnabled;
+        this.walAutoCheckpointPages = builder.walAutoCheckpointPages;
+        this.journalSizeLimitBytes = builder.journalSizeLimitBytes;
+        this.syncMode = builder.syncMode;
+        this.cacheSizeKiB = builder.cacheSizeKiB;
+        this.mmapSizeBytes = builder.mmapSizeBytes;
+        this.tempStoreInMemory = builder.tempStoreInMemory;
+        this.loginWriteBehindDelayMs = builder.loginWriteBehindDelayMs;
+        this.loginWriteBehindMaxPending = builder.loginWriteBehindMaxPending;
+    }
+
+    public boolean isWriteAheadLoggingEnabled() {
+        return writeAheadLoggingEnabled;
+    }
+
+    /** Pages written to the WAL before SQLite checkpoints automatically. */
+    public int getWalAutoCheckpointPages() {
+        return walAutoCheckpointPages;
+    }
+
+    /** Size the WAL file is truncated back to after a checkpoint, or -1 for no limit. */
+    public long getJournalSizeLimitBytes() {
+        return journalSizeLimitBytes;
+    }
+
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    /** Page cache size per connection in KiB, or 0 to keep SQLite's default. */
+    public int getCacheSizeKiB() {
+        return cacheSizeKiB;
+    }
+
+    /** Bytes of the database file read through mmap, or 0 to disable memory mapping. */
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    /** Whether temporary tables and indices (sorts, DISTINCT) are kept in memory. */
+    public boolean isTempStoreInMemory() {
+        return tempStoreInMemory;
+    }
+
+    /**
+     * Whether last login timestamps are buffered and written in batches instead of on every
+     * login. Off by default; meant for shared devices with bursts of logins.
+     */
+    public boolean isLoginWriteBehindEnabled() {
+        return loginWriteBehindDelayMs > 0;
+    }
+
+    /** Maximum time a buffered login timestamp waits before being written. */
+    public long getLoginWriteBehindDelayMs() {
+        return loginWriteBehindDelayMs;
+    }
+
+    /** Number of agents with buffered logins that triggers an early write. */
+    public int getLoginWriteBehindMaxPending() {
+        return loginWriteBehindMaxPending;
+    }
+
+    public static final class Builder {
+        private boolean writeAheadLoggingEnabled = true;
+        private int walAutoCheckpointPages = 1000;
+        private long journalSizeLimitBytes = 4L * 1024 * 1024;
+        private SyncMode syncMode = SyncMode.NORMAL;
+        private int cacheSizeKiB = 2048;
+        private long mmapSizeBytes = 8L * 1024 * 1024;
+        private boolean tempStoreInMemory = true;
+        private long loginWriteBehindDelayMs = 0;
+        private int loginWriteBehindMaxPending = 64;
+
+        public Builder setWriteAheadLoggingEnabled(boolean enabled) {
+            this.writeAheadLoggingEnabled = enabled;
+            return this;
+        }
+
+        public Builder setWalAutoCheckpointPages(int pages) {
+            this.walAutoCheckpointPages = pages;
+            return this;
+        }
+
+        public Builder setJournalSizeLimitBytes(long bytes) {
+            this.journalSizeLimitBytes = bytes;
+            return this;
+        }
+
+        public Builder setSyncMode(SyncMode syncMode) {
+            this.syncMode = syncMode;
+            return this;
+        }
+
+        public Builder setCacheSizeKiB(int kib) {
+            this.cacheSizeKiB = kib;
+            return this;
+        }
+
+        public Builder setMmapSizeBytes(long bytes) {
+            this.mmapSizeBytes = bytes;
+            return this;
+        }
+
+        public Builder setTempStoreInMemory(boolean inMemory) {
+            this.tempStoreInMemory = inMemory;
+            return this;
+        }
+
+        /**
+         * Enables the login write-behind buffer.
+         * @param flushDelayMs Maximum delay before buffered timestamps are written; 0 disables.
+         * @param maxPendingAgents Number of agents with buffered logins that forces a write.
+         */
+        public Builder setLoginWriteBehind(long flushDelayMs, int maxPendingAgents) {
+            this.loginWriteBehindDelayMs = flushDelayMs;
+            this.loginWriteBehindMaxPending = maxPendingAgents;
+            return this;
+        }
+
+        public DBPerformanceProfile build() {
+            if (syncMode == null) {
+                throw new IllegalArgumentException("Sync mode cannot be null");
+            }
+            if (cacheSizeKiB < 0 || mmapSizeBytes < 0 || walAutoCheckpointPages < 0) {
+                throw new IllegalArgumentException("Cache, mmap and checkpoint sizes cannot be negative");
+            }
+            if (loginWriteBehindDelayMs < 0 || loginWriteBehindMaxPending <= 0) {
+                throw new IllegalArgumentException("Invalid login write-behind settings");
+            }
+            return new DBPerformanceProfile(this);
+        }
+    }
+}
\ No newline at end of file
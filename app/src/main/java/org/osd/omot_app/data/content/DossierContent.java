@@ -0,0 +1,102 @@
+package org.osd.omot_app.data.content;
+
+import org.osd.omot_app.security.EncryptedFileChannelReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An open dossier container. Opening decrypts only the chunks holding the page index; reading
+ * a page decrypts only the chunks that page spans, so the first page of a large dossier shows
+ * up without decrypting the rest. Not thread-safe.
+ */
+public class DossierContent implements Closeable {
+    private final EncryptedFileChannelReader reader;
+    private final long[] offsets;
+
+    DossierContent(EncryptedFileChannelReader reader) throws IOException {
+        this.reader = reader;
+        long size = reader.size();
+        if (size < DossierContentFormat.FOOTER_BYTES) throw corrupt();
+
+        ByteBuffer footer = ByteBuffer.allocate(DossierContentFormat.FOOTER_BYTES);
+        readFully(footer, size - DossierContentFormat.FOOTER_BYTES);
+        int pageCount = footer.getInt(0);
+        if (footer.getInt(4) != DossierContentFormat.MAGIC || pageCount < 0) throw corrupt();
+
+        long indexBytes = DossierContentFormat.indexBytes(pageCount);
+        long indexStart = size - DossierContentFormat.FOOTER_BYTES - indexBytes;
+        if (indexStart < 0) throw corrupt();
+        ByteBuffer index = ByteBuffer.allocate((int) indexBytes);
+        readFully(index, indexStart);
+
+        offsets = new long[pageCount + 1];
+        long previous = 0;
+        for (int i = 0; i <= pageCount; i++) {
+            offsets[i] = index.getLong(8 * i);
+            if (offsets[i] < previous) throw corrupt();
+            previous = offsets[i];
+        }
+        if (offsets[pageCount] != indexStart) throw corrupt();
+    }
+
+    public int getPageCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return The size of a page in bytes.
+     */
+    public long getPageSize(int page) {
+        checkPage(page);
+        return offsets[page + 1] - offsets[page];
+    }
+
+    /**
+     * Decrypts one page into a new array.
+     */
+    public byte[] readPage(int page) throws IOException {
+        long size = getPageSize(page);
+        if (size > Integer.MAX_VALUE) throw new IOException("Page too large for an array");
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        readFully(buffer, offsets[page]);
+        return buffer.array();
+    }
+
+    /**
+     * Decrypts the start of a page into {@code dst}, letting a viewer reuse one buffer.
+     * @return The number of bytes read: the page size or the space left in dst, if smaller.
+     */
+    public int readPage(int page, ByteBuffer dst) throws IOException {
+        long size = getPageSize(page);
+        ByteBuffer target = dst.slice();
+        target.limit((int) Math.min(target.limit(), size));
+        readFully(target, offsets[page]);
+        dst.position(dst.position() + target.limit());
+        return target.limit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void checkPage(int page) {
+        if (page < 0 || page >= getPageCount()) {
+            throw new IndexOutOfBoundsException("Page " + page + " of " + getPageCount());
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = reader.read(buffer, position);
+            if (n < 0) throw corrupt();
+            position += n;
+        }
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Corrupt dossier page index");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.osd.omot_app.data.content;
+
+/**
+ * Layout of the plaintext inside a dossier container, which is itself encrypted with the
+ * chunked file format:
+ * <pre>
+ * page 0 | page 1 | ... | page N-1 | offsets[N+1] (longs) | page count (int) | magic (int)
+ * </pre>
+ * offsets[i] is where page i starts and offsets[N] where the index starts. The index and
+ * footer sit at the end so pages can be streamed in without knowing their sizes up front, and
+ * a reader finds them by decrypting only the last chunk or two.
+ */
+final class DossierContentFormat {
+    static final int MAGIC = 0x4F445058;    // "ODPX"
+    static final int FOOTER_BYTES = 8;
+
+    private DossierContentFormat() {
+    }
+
+    /**
+     * @return The size of the index for {@code pageCount} pages.
+     */
+    static long indexBytes(int pageCount) {
+        return 8L * (pageCount + 1);
+    }
+}
\ No newline at end of file
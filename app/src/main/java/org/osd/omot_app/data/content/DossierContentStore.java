@@ -0,0 +1,109 @@
+package org.osd.omot_app.data.content;
+
+import org.osd.omot_app.security.ChunkedFileCipher;
+import org.osd.omot_app.security.EncryptedFileChannelReader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.List;
+
+/**
+ * Keeps dossier content in encrypted, page-indexed container files in one private directory.
+ * <p>
+ * Containers are written to a temporary file and renamed into place, and are never changed
+ * after that: replacing a dossier's content renames a new file over the old one, which leaves
+ * any open reader on the old file intact. That is what makes it safe to decrypt the store's
+ * own files from memory-mapped windows. Files outside the store are read through ordinary
+ * positional reads instead.
+ * <p>
+ * All methods do file I/O and must be called off the main thread.
+ */
+public class DossierContentStore {
+    private static final String FILE_SUFFIX = ".dossier";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final ChunkedFileCipher cipher;
+
+    public DossierContentStore(File directory, ChunkedFileCipher cipher) {
+        this.directory = directory;
+        this.cipher = cipher;
+    }
+
+    /**
+     * Starts writing the content of a dossier, replacing any existing content on commit.
+     */
+    public DossierContentWriter newWriter(String dossierID) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File target = new File(directory, fileNameFor(dossierID));
+        File tempFile = File.createTempFile("dossier", TEMP_SUFFIX, directory);
+        try {
+            FileOutputStream file = new FileOutputStream(tempFile);
+            try {
+                return new DossierContentWriter(tempFile, target, file, cipher);
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a dossier's pages in one go.
+     * @return The path of the container, for {@link org.osd.omot_app.data.model.Dossier#setContentFilePath}.
+     */
+    public String write(String dossierID, List<byte[]> pages) throws IOException {
+        try (DossierContentWriter writer = newWriter(dossierID)) {
+            for (byte[] page : pages) {
+                writer.writePage(page);
+            }
+            return writer.commit();
+        }
+    }
+
+    /**
+     * Opens a container for page reads.
+     * @param contentFilePath The path returned when the content was written.
+     */
+    public DossierContent open(String contentFilePath) throws IOException {
+        File file = new File(contentFilePath);
+        EncryptedFileChannelReader reader = cipher.newReader(file, isOwnFile(file));
+        try {
+            return new DossierContent(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();     // Corrupt index or footer
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes a container. Readers that still have it open keep working until closed.
+     * @return true if the file existed and was deleted.
+     */
+    public boolean delete(String contentFilePath) {
+        return new File(contentFilePath).delete();
+    }
+
+    private boolean isOwnFile(File file) throws IOException {
+        File parent = file.getCanonicalFile().getParentFile();
+        return parent != null && parent.equals(directory.getCanonicalFile())
+                && file.getName().endsWith(FILE_SUFFIX);
+    }
+
+    private static String fileNameFor(String dossierID) {
+        try {
+            // Escapes path separators and anything else unsafe in a file name
+            return URLEncoder.encode(dossierID, "UTF-8") + FILE_SUFFIX;
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
\ No newline at end of file
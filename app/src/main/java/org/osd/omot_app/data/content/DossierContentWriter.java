@@ -0,0 +1,146 @@
+package org.osd.omot_app.data.content;
+
+import org.osd.omot_app.security.ChunkedFileCipher;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes a dossier container one page at a time, in constant memory apart from the 8-byte
+ * index entry kept per page. Content goes to a temporary file that {@link #commit()} renames
+ * into place, so a finished container is never modified again; closing without committing
+ * discards it. The temporary file is synced to disk before the rename, so a crash can't leave
+ * a committed container with missing data.
+ */
+public class DossierContentWriter implements Closeable {
+    private final File tempFile;
+    private final File target;
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+    private long[] offsets = new long[64];
+    private int pageCount;
+    private long position;
+    private boolean finished;
+
+    /**
+     * @param file Open stream on {@code tempFile}. The writer closes it, but not if this
+     *             constructor throws.
+     */
+    DossierContentWriter(File tempFile, File target, FileOutputStream file,
+                         ChunkedFileCipher cipher) throws IOException {
+        this.tempFile = tempFile;
+        this.target = target;
+        this.file = file;
+        this.out = new DataOutputStream(cipher.newEncryptingStream(new KeepOpenStream(file)));
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void writePage(byte[] page) throws IOException {
+        writePage(page, 0, page.length);
+    }
+
+    public void writePage(byte[] page, int offset, int length) throws IOException {
+        startPage();
+        out.write(page, offset, length);
+        position += length;
+    }
+
+    /**
+     * Copies a page from a stream, for pages too large to hold in memory.
+     */
+    public void writePage(InputStream page) throws IOException {
+        startPage();
+        byte[] buffer = new byte[8 * 1024];
+        int n;
+        while ((n = page.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+            position += n;
+        }
+    }
+
+    private void startPage() throws IOException {
+        if (finished) throw new IOException("Writer closed");
+        if (pageCount == offsets.length) offsets = Arrays.copyOf(offsets, pageCount * 2);
+        offsets[pageCount++] = position;
+    }
+
+    /**
+     * Writes the page index and moves the container into place.
+     * @return The path of the finished container.
+     */
+    public String commit() throws IOException {
+        if (finished) throw new IOException("Writer closed");
+        finished = true;
+        try {
+            for (int i = 0; i < pageCount; i++) {
+                out.writeLong(offsets[i]);
+            }
+            out.writeLong(position);
+            out.writeInt(pageCount);
+            out.writeInt(DossierContentFormat.MAGIC);
+            out.close();    // Writes the last chunk; the file itself stays open
+            file.getFD().sync();
+            file.close();
+            if (!tempFile.renameTo(target)) {
+                throw new IOException("Could not move dossier content to " + target);
+            }
+        } catch (IOException e) {
+            try {
+                file.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            tempFile.delete();
+            throw e;
+        }
+        return target.getAbsolutePath();
+    }
+
+    /**
+     * Discards the container unless it was committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (finished) return;
+        finished = true;
+        try {
+            out.close();
+        } finally {
+            try {
+                file.close();
+            } finally {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Passes writes through to the file but leaves it open on close, so {@link #commit()} can
+     * sync it after the cipher stream has written its last chunk.
+     */
+    private static class KeepOpenStream extends FilterOutputStream {
+        KeepOpenStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
\ No newline at end of file
@@ -1,8 +1,14 @@
 package org.osd.omot_app.data.dao;
 
+import androidx.annotation.Nullable;
+
 import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.AgentPatch;
+import org.osd.omot_app.data.model.ClearanceLevel;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) for the Agent table.
@@ -10,6 +16,41 @@ import java.util.List;
  */
 public interface AgentDAO {
 
+    /** Consecutive failed login attempts after which an account is locked automatically. */
+    int MAX_FAILED_ATTEMPTS = 5;
+
+    /**
+     * Notified after a write to the agent table has been committed.
+     * Called on the writing thread, so implementations must be quick and thread-safe.
+     */
+    interface ChangeListener {
+        /** An agent was inserted, or renamed to this codename. */
+        default void onCodenameAdded(String codename) {
+        }
+
+        /** An agent was deleted, or renamed away from this codename. */
+        default void onCodenameRemoved(String codename) {
+        }
+
+        /**
+         * Columns of an existing agent changed, including its lock state. Writes keyed by agent
+         * ID pass a null codename and vice versa.
+         */
+        default void onAgentUpdated(@Nullable String agentID, @Nullable String codename) {
+        }
+
+        /**
+         * Only the agent's last login timestamp changed, through a buffered batch write. The
+         * agent's session and lock state are untouched, so {@link #onAgentUpdated} is not called.
+         */
+        default void onLastLoginUpdated(String codename) {
+        }
+    }
+
+    void addChangeListener(ChangeListener listener);
+
+    void removeChangeListener(ChangeListener listener);
+
     /**
      * Inserts a new agent into the database.
      * @param agent The agent to insert.
@@ -17,6 +58,32 @@ public interface AgentDAO {
      */
     long insertAgent(Agent agent);
 
+    /**
+     * Inserts a new agent under the next free agent ID. The ID is allocated inside the
+     * insert transaction, so concurrent registrations never receive the same ID and a
+     * failed insert does not consume one.
+     * @param agent The agent to insert; its agent ID is ignored and set on success.
+     * @return The allocated agent ID, or null if the insert failed.
+     */
+    String insertAgentWithNewID(Agent agent);
+
+    /**
+     * Inserts many new agents under freshly allocated agent IDs, in chunked transactions.
+     * A row that violates a constraint (e.g. a duplicate codename) is skipped without
+     * consuming an ID or aborting the rest of the batch.
+     * @param agents The agents to insert; each one's agent ID is set on success.
+     * @return The allocated agent IDs in the same order, with null for rows that failed.
+     */
+    List<String> insertAgents(List<Agent> agents);
+
+    /**
+     * Reserves a block of consecutive agent ID numbers, e.g. for a bulk import.
+     * Numbers are formatted with {@link org.osd.omot_app.data.DBContract.AgentEntry#AGENT_ID_FORMAT}.
+     * @param count How many numbers to reserve.
+     * @return The first number of the block, or -1 if an error occurred.
+     */
+    long reserveAgentIDNumbers(int count);
+
     /**
      * Retrieves an agent by their unique codename.
      * @param codename The agent's codename.
@@ -33,10 +100,67 @@ public interface AgentDAO {
 
     /**
      * Retrieves all agents from the database.
+     * Loads the whole table into memory; rosters should use {@link #getAgentsAfter(String, int)}
+     * or {@link #forEachAgent(Consumer)} instead.
      * @return A list of all agents.
      */
     List<Agent> getAllAgents();
 
+    /**
+     * Retrieves one page of agents ordered by codename, starting after the given codename.
+     * @param lastCodename The last codename of the previous page, or null for the first page.
+     * @param limit The maximum number of agents to return.
+     * @return Up to {@code limit} agents; fewer (possibly none) on the last page.
+     */
+    List<Agent> getAgentsAfter(@Nullable String lastCodename, int limit);
+
+    /**
+     * Retrieves one page of agents with the given clearance, ordered by codename.
+     * @param clearanceCode The clearance code to filter by (e.g., "OMEGA").
+     * @param lastCodename The last codename of the previous page, or null for the first page.
+     * @param limit The maximum number of agents to return.
+     * @return Up to {@code limit} agents; fewer (possibly none) on the last page.
+     */
+    List<Agent> getAgentsByClearanceAfter(String clearanceCode, @Nullable String lastCodename,
+                                          int limit);
+
+    /**
+     * Retrieves one page of locked or unlocked agents, ordered by codename.
+     * @param locked true for locked accounts, false for unlocked ones.
+     * @param lastCodename The last codename of the previous page, or null for the first page.
+     * @param limit The maximum number of agents to return.
+     * @return Up to {@code limit} agents; fewer (possibly none) on the last page.
+     */
+    List<Agent> getAgentsByLockStatusAfter(boolean locked, @Nullable String lastCodename, int limit);
+
+    /**
+     * Retrieves the agents who logged in at or after the given time, most recent first.
+     * Agents who have never logged in are not included.
+     * @param sinceTimestamp The earliest login time to include, in milliseconds since the epoch.
+     * @param limit The maximum number of agents to return.
+     * @return Up to {@code limit} agents.
+     */
+    List<Agent> getAgentsLoggedInSince(long sinceTimestamp, int limit);
+
+    /**
+     * Streams every agent, ordered by codename, to the consumer one row at a time
+     * without building a list.
+     * @param consumer Receives each agent; runs on the calling thread while the cursor is open.
+     */
+    void forEachAgent(Consumer<Agent> consumer);
+
+    /**
+     * Streams every codename to the consumer. Reads only the codename index, so nothing is
+     * decrypted and no agent objects are built.
+     * @param consumer Receives each codename; runs on the calling thread while the cursor is open.
+     */
+    void forEachCodename(Consumer<String> consumer);
+
+    /**
+     * @return The number of agents in the table.
+     */
+    long getAgentCount();
+
     /**
      * Checks if a codename is already taken by another agent.
      * @param codename The codename to check.
@@ -45,7 +169,8 @@ public interface AgentDAO {
     boolean isCodenameAvailable(String codename);
 
     /**
-     * Gets the highest agent ID number to generate the next sequential ID.
+     * Gets the highest agent ID number currently in use.
+     * New IDs come from {@link #insertAgentWithNewID(Agent)} and {@link #reserveAgentIDNumbers(int)}.
      * @return The highest numeric part of agent IDs, or 0 if no agents exist.
      */
     int getMaxAgentIDNumber();
@@ -57,6 +182,39 @@ public interface AgentDAO {
      */
     int updateAgent(Agent agent);
 
+    /**
+     * Writes only the fields set in the patch, in a single UPDATE. Sensitive fields in the
+     * patch are encrypted; the others are left untouched.
+     * @param agentID The ID of the agent to update.
+     * @param patch The changed fields.
+     * @return The number of rows affected (should be 1 if successful, 0 for an empty patch).
+     */
+    int patchAgent(String agentID, AgentPatch patch);
+
+    /**
+     * Replaces an agent's password hash; nothing else is written or re-encrypted.
+     * @param codename The codename of the agent.
+     * @param passwordHash The new password hash (plaintext, encrypted before storage).
+     * @return true if the operation was successful, false otherwise.
+     */
+    boolean updatePasswordHash(String codename, String passwordHash);
+
+    /**
+     * Enables or disables biometric authentication for an agent.
+     * @param codename The codename of the agent.
+     * @param enabled The new biometric flag.
+     * @return true if the operation was successful, false otherwise.
+     */
+    boolean updateBiometricFlag(String codename, boolean enabled);
+
+    /**
+     * Changes an agent's clearance level.
+     * @param codename The codename of the agent.
+     * @param clearanceLevel The new clearance level.
+     * @return true if the operation was successful, false otherwise.
+     */
+    boolean updateClearance(String codename, ClearanceLevel clearanceLevel);
+
     /**
      * Deletes an agent from the database.
      * @param agentID The ID of the agent to delete.
@@ -66,17 +224,31 @@ public interface AgentDAO {
 
     /**
      * Increments the failed login attempts counter for an agent and timestamps the attempt.
+     * The account is locked once the counter reaches {@link #MAX_FAILED_ATTEMPTS}, and an
+     * expired lock is lifted otherwise. The update is a single statement, so concurrent
+     * failures are never lost.
      * @param codename The codename of the agent who failed to log in.
-     * @return true if the operation was successful, false otherwise.
+     * @return The new failed attempts count, or -1 if no agent has that codename.
      */
-    boolean recordFailedLoginAttempt(String codename);
+    int recordFailedLoginAttempt(String codename);
 
     /**
-     * Resets the failed login attempts counter and updates the last login timestamp upon successful login.
+     * Resets the failed login attempts counter, unlocks the account and updates the last login
+     * timestamp upon successful login.
      * @param codename The codename of the agent who successfully logged in.
+     * @param loginTimestamp The time of the login, in milliseconds since the epoch.
      * @return true if the operation was successful, false otherwise.
      */
-    boolean recordSuccessfulLogin(String codename);
+    boolean recordSuccessfulLogin(String codename, long loginTimestamp);
+
+    /**
+     * Writes buffered last login timestamps for several agents in one transaction.
+     * A stored timestamp is never moved backwards. Listeners get
+     * {@link ChangeListener#onLastLoginUpdated(String)} per codename after the commit.
+     * @param loginTimestamps Latest login time per codename.
+     * @return true if the transaction committed, false if it was rolled back.
+     */
+    boolean updateLastLoginTimestamps(Map<String, Long> loginTimestamps);
 
     /**
      * Locks or unlocks an agent's account.
@@ -2,32 +2,315 @@ package org.osd.omot_app.data.dao;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteConstraintException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
 import org.osd.omot_app.data.DBContract;
 import org.osd.omot_app.data.DBHelper;
 import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.AgentPatch;
 import org.osd.omot_app.data.model.ClearanceLevel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Concrete implementation of the AgentDAO interface using SQLite.
  */
 public class AgentDAOImpl implements AgentDAO {
     private static final String TAG = "AgentDAOImpl";
+
+    // Key conditions of the single-row reads, updates and deletes; the query plan test checks
+    // the statements built from them
+    @VisibleForTesting
+    static final String WHERE_CODENAME = DBContract.AgentEntry.COLUMN_CODENAME + " = ?";
+    @VisibleForTesting
+    static final String WHERE_AGENT_ID = DBContract.AgentEntry.COLUMN_AGENT_ID + " = ?";
+
+    // Right-hand sides see the row's old values, so "failed_attempts + 1" is the new count
+    @VisibleForTesting
+    static final String SQL_RECORD_FAILED_ATTEMPT =
+            "UPDATE " + DBContract.AgentEntry.TABLE_NAME + " SET "
+            + DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS + " = "
+            + DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS + " + 1, "
+            + DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP + " = ?, "
+            + DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED + " = CASE"
+            + " WHEN " + DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS + " + 1 >= ? THEN 1"
+            + " WHEN " + DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP + " <= ? THEN 0"    // Lockout expired
+            + " ELSE " + DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED + " END"
+            + " WHERE " + WHERE_CODENAME;
+
+    @VisibleForTesting
+    static final String SQL_SELECT_FAILED_ATTEMPTS =
+            "SELECT " + DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS
+            + " FROM " + DBContract.AgentEntry.TABLE_NAME
+            + " WHERE " + WHERE_CODENAME;
+
+    // MAX() keeps a late flush from overwriting a newer synchronous write
+    @VisibleForTesting
+    static final String SQL_UPDATE_LAST_LOGIN =
+            "UPDATE " + DBContract.AgentEntry.TABLE_NAME + " SET "
+            + DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + " = MAX(COALESCE("
+            + DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + ", 0), ?)"
+            + " WHERE " + WHERE_CODENAME;
+
+    // Column order of SQL_INSERT_AGENT; the sensitive ones are bound as encrypted blobs
+    private static final String SQL_INSERT_AGENT =
+            "INSERT INTO " + DBContract.AgentEntry.TABLE_NAME + " ("
+            + DBContract.AgentEntry.COLUMN_AGENT_ID + ", "
+            + DBContract.AgentEntry.COLUMN_CODENAME + ", "
+            + DBContract.AgentEntry.COLUMN_PASSWORD_HASH + ", "
+            + DBContract.AgentEntry.COLUMN_SALT + ", "
+            + DBContract.AgentEntry.COLUMN_SECURITY_QUESTION + ", "
+            + DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH + ", "
+            + DBContract.AgentEntry.COLUMN_CLEARANCE_CODE + ", "
+            + DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED + ", "
+            + DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + ", "
+            + DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS + ", "
+            + DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP + ", "
+            + DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Rows per transaction in insertAgents: large enough to amortise the journal sync,
+    // small enough that readers aren't held off for long
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final int ENCRYPTED_FIELDS_PER_AGENT = 4;
+
     private final DBHelper helper;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     public AgentDAOImpl(DBHelper helper) {
         this.helper = helper;
     }
 
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void notifyCodenameAdded(String codename) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onCodenameAdded(codename);
+        }
+    }
+
+    private void notifyCodenameRemoved(String codename) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onCodenameRemoved(codename);
+        }
+    }
+
+    private void notifyAgentUpdated(@Nullable String agentID, @Nullable String codename) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onAgentUpdated(agentID, codename);
+        }
+    }
+
+    private void notifyLastLoginUpdated(String codename) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onLastLoginUpdated(codename);
+        }
+    }
+
     @Override
     public long insertAgent(Agent agent) {
+        // The DBHelper's insertAgent method handles the encryption
+        long rowID = helper.insertAgent(toInsertValues(agent));
+        if (rowID != -1) notifyCodenameAdded(agent.getCodename());
+        return rowID;
+    }
+
+    @Override
+    public String insertAgentWithNewID(Agent agent) {
         SQLiteDatabase db = helper.getWritableDatabase();
 
+        // Encrypt before taking the write lock so KeyStore work doesn't hold up other writers
+        ContentValues values = toInsertValues(agent);
+        helper.encryptSensitiveFields(values);
+
+        String agentID;
+        db.beginTransaction();
+        try {
+            agentID = String.format(Locale.US, DBContract.AgentEntry.AGENT_ID_FORMAT,
+                    reserveAgentIDNumbers(db, 1));
+            values.put(DBContract.AgentEntry.COLUMN_AGENT_ID, agentID);
+
+            // A failed insert rolls the reservation back with it, so no number is burnt
+            if (db.insert(DBContract.AgentEntry.TABLE_NAME, null, values) == -1) return null;
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error inserting agent with new ID: " + agent.getCodename(), e);
+            return null;
+        } finally {
+            db.endTransaction();
+        }
+
+        agent.setAgentID(agentID);
+        notifyCodenameAdded(agent.getCodename());
+        return agentID;
+    }
+
+    @Override
+    public List<String> insertAgents(List<Agent> agents) {
+        List<String> agentIDs = new ArrayList<>(agents.size());
+        for (int start = 0; start < agents.size(); start += INSERT_BATCH_SIZE) {
+            List<Agent> batch = agents.subList(start,
+                    Math.min(start + INSERT_BATCH_SIZE, agents.size()));
+            agentIDs.addAll(insertBatch(batch));
+        }
+        return agentIDs;
+    }
+
+    private List<String> insertBatch(List<Agent> batch) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+
+        // One cipher call for the whole batch, outside the write lock
+        String[] plaintexts = new String[batch.size() * ENCRYPTED_FIELDS_PER_AGENT];
+        for (int i = 0; i < batch.size(); i++) {
+            Agent agent = batch.get(i);
+            int offset = i * ENCRYPTED_FIELDS_PER_AGENT;
+            plaintexts[offset] = agent.getPasswordHash();
+            plaintexts[offset + 1] = agent.getSalt();
+            plaintexts[offset + 2] = agent.getSecurityQuestion();
+            plaintexts[offset + 3] = agent.getSecurityAnswerHash();
+        }
+        byte[][] encrypted = helper.getFieldCipher().encryptToBlobs(plaintexts);
+
+        String[] agentIDs = new String[batch.size()];
+        db.beginTransaction();
+        try (SQLiteStatement insert = db.compileStatement(SQL_INSERT_AGENT)) {
+            long first = reserveAgentIDNumbers(db, batch.size());
+            long next = first;
+            for (int i = 0; i < batch.size(); i++) {
+                Agent agent = batch.get(i);
+                String agentID = String.format(Locale.US,
+                        DBContract.AgentEntry.AGENT_ID_FORMAT, next);
+                int offset = i * ENCRYPTED_FIELDS_PER_AGENT;
+
+                insert.clearBindings();
+                insert.bindString(1, agentID);
+                insert.bindString(2, agent.getCodename());
+                for (int field = 0; field < ENCRYPTED_FIELDS_PER_AGENT; field++) {
+                    bindBlobOrNull(insert, 3 + field, encrypted[offset + field]);
+                }
+                insert.bindString(7, agent.getClearanceLevel().getClearanceCode());
+                insert.bindLong(8, agent.isBiometricEnabled() ? 1 : 0);
+                insert.bindLong(9, agent.getLastLoginTimestamp());
+                insert.bindLong(10, agent.getFailedLoginAttempts());
+                insert.bindLong(11, agent.getLastFailedLoginTimestamp());
+                insert.bindLong(12, agent.isAccountLocked() ? 1 : 0);
+
+                try {
+                    insert.executeInsert();
+                    agentIDs[i] = agentID;
+                    next++;
+                } catch (SQLiteConstraintException e) {
+                    Log.w(TAG, "Skipping agent that violates a constraint: "
+                            + agent.getCodename());
+                }
+            }
+
+            // Hand back the numbers skipped rows didn't use, so no ID is burnt
+            if (next != first + batch.size()) setNextAgentIDNumber(db, next);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error inserting batch of " + batch.size() + " agents", e);
+            return Arrays.asList(new String[batch.size()]);
+        } finally {
+            db.endTransaction();
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (agentIDs[i] == null) continue;
+            batch.get(i).setAgentID(agentIDs[i]);
+            notifyCodenameAdded(batch.get(i).getCodename());
+        }
+        return Arrays.asList(agentIDs);
+    }
+
+    private static void bindBlobOrNull(SQLiteStatement statement, int index,
+                                       @Nullable byte[] value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindBlob(index, value);
+        }
+    }
+
+    @Override
+    public long reserveAgentIDNumbers(int count) {
+        if (count <= 0) throw new IllegalArgumentException("Count must be positive: " + count);
+
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            long first = reserveAgentIDNumbers(db, count);
+            db.setTransactionSuccessful();
+            return first;
+        } catch (Exception e) {
+            Log.e(TAG, "Error reserving " + count + " agent ID numbers", e);
+            return -1;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Advances the agent ID sequence by {@code count}. Must run inside a write transaction,
+     * which serialises concurrent allocations; the cost is one primary key lookup and update
+     * regardless of how many agents exist.
+     * @return The first reserved number.
+     */
+    private static long reserveAgentIDNumbers(SQLiteDatabase db, int count) {
+        String selection = DBContract.SequenceEntry.COLUMN_SEQUENCE_NAME + " = ?";
+        String[] selectionArgs = { DBContract.SequenceEntry.SEQUENCE_AGENT_ID };
+
+        long first;
+        try (Cursor cursor = db.query(
+                DBContract.SequenceEntry.TABLE_NAME,
+                new String[]{DBContract.SequenceEntry.COLUMN_NEXT_VALUE},
+                selection,
+                selectionArgs,
+                null, null, null
+        )) {
+            if (cursor == null || !cursor.moveToFirst()) {
+                throw new IllegalStateException("Agent ID sequence is missing");
+            }
+            first = cursor.getLong(0);
+        }
+
+        ContentValues values = new ContentValues();
+        values.put(DBContract.SequenceEntry.COLUMN_NEXT_VALUE, first + count);
+        db.update(DBContract.SequenceEntry.TABLE_NAME, values, selection, selectionArgs);
+        return first;
+    }
+
+    private static void setNextAgentIDNumber(SQLiteDatabase db, long next) {
+        ContentValues values = new ContentValues();
+        values.put(DBContract.SequenceEntry.COLUMN_NEXT_VALUE, next);
+        db.update(DBContract.SequenceEntry.TABLE_NAME, values,
+                DBContract.SequenceEntry.COLUMN_SEQUENCE_NAME + " = ?",
+                new String[]{DBContract.SequenceEntry.SEQUENCE_AGENT_ID});
+    }
+
+    // Sensitive fields are still plaintext here; they are encrypted right before the insert
+    private static ContentValues toInsertValues(Agent agent) {
         ContentValues values = new ContentValues();
         values.put(DBContract.AgentEntry.COLUMN_AGENT_ID, agent.getAgentID());
         values.put(DBContract.AgentEntry.COLUMN_CODENAME, agent.getCodename());
@@ -43,9 +326,7 @@ public class AgentDAOImpl implements AgentDAO {
         values.put(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS, agent.getFailedLoginAttempts());
         values.put(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP, agent.getLastFailedLoginTimestamp());
         values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, agent.isAccountLocked() ? 1 : 0);
-
-        // The DBHelper's insertAgent method handles the encryption
-        return helper.insertAgent(values);
+        return values;
     }
 
     @Override
@@ -53,18 +334,18 @@ public class AgentDAOImpl implements AgentDAO {
         SQLiteDatabase db = helper.getReadableDatabase();
         Agent agent = null;
 
-        String selection = DBContract.AgentEntry.COLUMN_CODENAME + " = ?";
+        String selection = WHERE_CODENAME;
         String[] selectionArgs = { codename };
 
         try (Cursor cursor = db.query(
                 DBContract.AgentEntry.TABLE_NAME,
-                null, // get all columns
+                AgentRowMapper.PROJECTION,
                 selection,
                 selectionArgs,
                 null, null, null
         )) {
             if (cursor != null && cursor.moveToFirst()) {
-                agent = cursorToAgent(cursor);
+                agent = new AgentRowMapper(helper, cursor).map();
             }
         } catch (Exception e) {
             Log.e(TAG, "Error getting agent by codename: " + codename, e);
@@ -77,18 +358,18 @@ public class AgentDAOImpl implements AgentDAO {
         SQLiteDatabase db = helper.getReadableDatabase();
         Agent agent = null;
 
-        String selection = DBContract.AgentEntry.COLUMN_AGENT_ID + " = ?";
+        String selection = WHERE_AGENT_ID;
         String[] selectionArgs = { agentID };
 
         try (Cursor cursor = db.query(
                 DBContract.AgentEntry.TABLE_NAME,
-                null, // get all columns
+                AgentRowMapper.PROJECTION,
                 selection,
                 selectionArgs,
                 null, null, null
         )) {
             if (cursor != null && cursor.moveToFirst()) {
-                agent = cursorToAgent(cursor);
+                agent = new AgentRowMapper(helper, cursor).map();
             }
         } catch (Exception e) {
             Log.e(TAG, "Error getting agent by ID: " + agentID, e);
@@ -103,15 +384,16 @@ public class AgentDAOImpl implements AgentDAO {
 
         try (Cursor cursor = db.query(
                 DBContract.AgentEntry.TABLE_NAME,
-                null,
+                AgentRowMapper.PROJECTION,
                 null,
                 null,
                 null, null, null
         )) {
             if (cursor != null && cursor.moveToFirst()) {
+                // Resolve column indices once for the whole result set
+                AgentRowMapper mapper = new AgentRowMapper(helper, cursor);
                 do {
-                    Agent agent = cursorToAgent(cursor);
-                    agentList.add(agent);
+                    agentList.add(mapper.map());
                 } while (cursor.moveToNext());
             }
         } catch (Exception e) {
@@ -120,18 +402,156 @@ public class AgentDAOImpl implements AgentDAO {
         return agentList;
     }
 
+    @Override
+    public List<Agent> getAgentsAfter(@Nullable String lastCodename, int limit) {
+        return queryPage(null, new String[0], lastCodename, limit);
+    }
+
+    @Override
+    public List<Agent> getAgentsByClearanceAfter(String clearanceCode, @Nullable String lastCodename,
+                                                 int limit) {
+        return queryPage(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE + " = ?",
+                new String[]{clearanceCode}, lastCodename, limit);
+    }
+
+    @Override
+    public List<Agent> getAgentsByLockStatusAfter(boolean locked, @Nullable String lastCodename,
+                                                  int limit) {
+        return queryPage(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED + " = ?",
+                new String[]{locked ? "1" : "0"}, lastCodename, limit);
+    }
+
+    @Override
+    public List<Agent> getAgentsLoggedInSince(long sinceTimestamp, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+
+        SQLiteDatabase db = helper.getReadableDatabase();
+        List<Agent> agents = new ArrayList<>(Math.min(limit, 256));
+
+        // The "> 0" term must stay literal so the partial recent-login index applies
+        String selection = DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + " > 0 AND "
+                + DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + " >= ?";
+        String[] selectionArgs = { String.valueOf(sinceTimestamp) };
+
+        try (Cursor cursor = db.query(
+                DBContract.AgentEntry.TABLE_NAME,
+                AgentRowMapper.PROJECTION,
+                selection,
+                selectionArgs,
+                null, null,
+                DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP + " DESC",
+                String.valueOf(limit)
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                AgentRowMapper mapper = new AgentRowMapper(helper, cursor);
+                do {
+                    agents.add(mapper.map());
+                } while (cursor.moveToNext());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting agents logged in since: " + sinceTimestamp, e);
+        }
+        return agents;
+    }
+
+    @Override
+    public void forEachAgent(Consumer<Agent> consumer) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+
+        try (Cursor cursor = db.query(
+                DBContract.AgentEntry.TABLE_NAME,
+                AgentRowMapper.PROJECTION,
+                null, null, null, null,
+                DBContract.AgentEntry.COLUMN_CODENAME
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                AgentRowMapper mapper = new AgentRowMapper(helper, cursor);
+                do {
+                    consumer.accept(mapper.map());
+                } while (cursor.moveToNext());
+            }
+        }
+    }
+
+    @Override
+    public void forEachCodename(Consumer<String> consumer) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+
+        try (Cursor cursor = db.query(
+                DBContract.AgentEntry.TABLE_NAME,
+                new String[]{DBContract.AgentEntry.COLUMN_CODENAME},    // Covered by the codename index
+                null, null, null, null, null
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                do {
+                    consumer.accept(cursor.getString(0));
+                } while (cursor.moveToNext());
+            }
+        }
+    }
+
+    @Override
+    public long getAgentCount() {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                DBContract.AgentEntry.TABLE_NAME);
+    }
+
+    /**
+     * Runs a keyset-paginated agent query: rows after {@code lastCodename} in codename order.
+     * Unlike OFFSET paging, each page costs an index seek no matter how deep it is.
+     * @param filter An optional extra WHERE condition, or null.
+     * @param filterArgs Arguments for {@code filter}.
+     */
+    private List<Agent> queryPage(@Nullable String filter, String[] filterArgs,
+                                  @Nullable String lastCodename, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Page limit must be positive: " + limit);
+
+        SQLiteDatabase db = helper.getReadableDatabase();
+        List<Agent> page = new ArrayList<>(Math.min(limit, 256));
+
+        StringBuilder selection = new StringBuilder();
+        List<String> selectionArgs = new ArrayList<>(Arrays.asList(filterArgs));
+        if (filter != null) selection.append(filter);
+        if (lastCodename != null) {
+            if (selection.length() > 0) selection.append(" AND ");
+            selection.append(DBContract.AgentEntry.COLUMN_CODENAME).append(" > ?");
+            selectionArgs.add(lastCodename);
+        }
+
+        try (Cursor cursor = db.query(
+                DBContract.AgentEntry.TABLE_NAME,
+                AgentRowMapper.PROJECTION,
+                selection.length() > 0 ? selection.toString() : null,
+                selectionArgs.toArray(new String[0]),
+                null, null,
+                DBContract.AgentEntry.COLUMN_CODENAME,
+                String.valueOf(limit)
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                AgentRowMapper mapper = new AgentRowMapper(helper, cursor);
+                do {
+                    page.add(mapper.map());
+                } while (cursor.moveToNext());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting agent page after: " + lastCodename, e);
+        }
+        return page;
+    }
+
     @Override
     public boolean isCodenameAvailable(String codename) {
         SQLiteDatabase db = helper.getReadableDatabase();
-        String selection = DBContract.AgentEntry.COLUMN_CODENAME + " = ?";
+        String selection = WHERE_CODENAME;
         String[] selectionArgs = { codename };
 
         try (Cursor cursor = db.query(
                 DBContract.AgentEntry.TABLE_NAME,
-                new String[]{DBContract.AgentEntry.COLUMN_AGENT_ID},
+                new String[]{DBContract.AgentEntry.COLUMN_CODENAME},    // Covered by the codename index
                 selection,
                 selectionArgs,
-                null, null, null
+                null, null, null,
+                "1"
         )) {
             return cursor == null || cursor.getCount() == 0;
         } catch (Exception e) {
@@ -147,9 +567,11 @@ public class AgentDAOImpl implements AgentDAO {
 
         try (Cursor cursor = db.query(
                 DBContract.AgentEntry.TABLE_NAME,
-                new String[]{"MAX(CAST(substr(" + DBContract.AgentEntry.COLUMN_AGENT_ID + ", 7) " +
-                        "AS INTEGER)) as max_id"},
-                null, null, null, null, null
+                new String[]{DBContract.AgentEntry.EXPR_AGENT_NUMBER},
+                null, null, null, null,
+                // Walks the expression index from the top instead of scanning the table for MAX()
+                DBContract.AgentEntry.EXPR_AGENT_NUMBER + " DESC",
+                "1"
         )) {
             if (cursor != null && cursor.moveToFirst()) {
                 maxID = cursor.getInt(0);
@@ -168,7 +590,7 @@ public class AgentDAOImpl implements AgentDAO {
 
         ContentValues values = new ContentValues();
         values.put(DBContract.AgentEntry.COLUMN_CODENAME, agent.getCodename());
-        values.put(DBContract.AgentEntry.COLUMN_PASSWORD_HASH, agent.getPasswordHash());    // Encryption handled in helper if we call a custom method
+        values.put(DBContract.AgentEntry.COLUMN_PASSWORD_HASH, agent.getPasswordHash());    // Will be encrypted
         values.put(DBContract.AgentEntry.COLUMN_SALT, agent.getSalt());
         values.put(DBContract.AgentEntry.COLUMN_SECURITY_QUESTION, agent.getSecurityQuestion());
         values.put(DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH,
@@ -181,113 +603,224 @@ public class AgentDAOImpl implements AgentDAO {
         values.put(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP, agent.getLastFailedLoginTimestamp());
         values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, agent.isAccountLocked() ? 1 : 0);
 
-        String whereClause = DBContract.AgentEntry.COLUMN_AGENT_ID + " = ?";
+        String whereClause = WHERE_AGENT_ID;
         String[] whereArgs = { agent.getAgentID() };
 
-        // For a robust update, we would need to encrypt the fields here as well.
-        // This is a simplified version. A better approach is to create an update method in DatabaseHelper.
-        return db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause, whereArgs);
+        // Sensitive fields are stored as encrypted BLOBs, same as on insert
+        helper.encryptSensitiveFields(values);
+
+        if (changeListeners.isEmpty()) {
+            return db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause, whereArgs);
+        }
+
+        // Listeners need to hear about a rename, so read the old codename under the same lock
+        String oldCodename;
+        int rowsAffected;
+        db.beginTransaction();
+        try {
+            oldCodename = selectCodename(db, agent.getAgentID());
+            rowsAffected = db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause,
+                    whereArgs);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (rowsAffected > 0) {
+            if (oldCodename != null && !oldCodename.equals(agent.getCodename())) {
+                notifyCodenameRemoved(oldCodename);
+                notifyCodenameAdded(agent.getCodename());
+            }
+            notifyAgentUpdated(agent.getAgentID(), agent.getCodename());
+        }
+        return rowsAffected;
+    }
+
+    @Override
+    public int patchAgent(String agentID, AgentPatch patch) {
+        int rowsAffected = patchWhere(WHERE_AGENT_ID, agentID, patch);
+        if (rowsAffected > 0) notifyAgentUpdated(agentID, null);
+        return rowsAffected;
+    }
+
+    @Override
+    public boolean updatePasswordHash(String codename, String passwordHash) {
+        return patchByCodename(codename, new AgentPatch().setPasswordHash(passwordHash));
+    }
+
+    @Override
+    public boolean updateBiometricFlag(String codename, boolean enabled) {
+        return patchByCodename(codename, new AgentPatch().setBiometricEnabled(enabled));
+    }
+
+    @Override
+    public boolean updateClearance(String codename, ClearanceLevel clearanceLevel) {
+        return patchByCodename(codename, new AgentPatch().setClearanceLevel(clearanceLevel));
+    }
+
+    private boolean patchByCodename(String codename, AgentPatch patch) {
+        int rowsAffected = patchWhere(WHERE_CODENAME, codename, patch);
+        if (rowsAffected > 0) notifyAgentUpdated(null, codename);
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Writes the patched columns of the row matching a single-key WHERE clause.
+     */
+    private int patchWhere(String whereClause, String whereArg, AgentPatch patch) {
+        if (patch.isEmpty()) return 0;
+
+        ContentValues values = new ContentValues();
+        if (patch.getPasswordHash() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_PASSWORD_HASH, patch.getPasswordHash());
+        }
+        if (patch.getSalt() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_SALT, patch.getSalt());
+        }
+        if (patch.getSecurityQuestion() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_SECURITY_QUESTION, patch.getSecurityQuestion());
+        }
+        if (patch.getSecurityAnswerHash() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH, patch.getSecurityAnswerHash());
+        }
+        if (patch.getClearanceLevel() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE,
+                    patch.getClearanceLevel().getClearanceCode());
+        }
+        if (patch.getBiometricEnabled() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED, patch.getBiometricEnabled() ? 1 : 0);
+        }
+        if (patch.getAccountLocked() != null) {
+            values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, patch.getAccountLocked() ? 1 : 0);
+        }
+
+        // Only the sensitive columns present in the patch are encrypted
+        helper.encryptSensitiveFields(values);
+
+        SQLiteDatabase db = helper.getWritableDatabase();
+        return db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause, new String[]{whereArg});
     }
 
     @Override
     public int deleteAgent(String agentID) {
         SQLiteDatabase db = helper.getWritableDatabase();
-        String whereClause = DBContract.AgentEntry.COLUMN_AGENT_ID + " = ?";
+        String whereClause = WHERE_AGENT_ID;
         String[] whereArgs = { agentID };
-        return db.delete(DBContract.AgentEntry.TABLE_NAME, whereClause, whereArgs);
+        if (changeListeners.isEmpty()) {
+            return db.delete(DBContract.AgentEntry.TABLE_NAME, whereClause, whereArgs);
+        }
+
+        String codename;
+        int rowsAffected;
+        db.beginTransaction();
+        try {
+            codename = selectCodename(db, agentID);
+            rowsAffected = db.delete(DBContract.AgentEntry.TABLE_NAME, whereClause, whereArgs);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (rowsAffected > 0 && codename != null) notifyCodenameRemoved(codename);
+        return rowsAffected;
     }
 
-    @Override
-    public boolean recordFailedLoginAttempt(String codename) {
-        Agent agent = getAgentByCodename(codename);
-        if (agent == null) return false;
+    @Nullable
+    private static String selectCodename(SQLiteDatabase db, String agentID) {
+        try (Cursor cursor = db.query(
+                DBContract.AgentEntry.TABLE_NAME,
+                new String[]{DBContract.AgentEntry.COLUMN_CODENAME},
+                WHERE_AGENT_ID,
+                new String[]{agentID},
+                null, null, null
+        )) {
+            return cursor != null && cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
 
-        int newFailedAttempts = agent.getFailedLoginAttempts() + 1;
+    @Override
+    public int recordFailedLoginAttempt(String codename) {
+        SQLiteDatabase db = helper.getWritableDatabase();
         long currentTimestamp = System.currentTimeMillis();
 
-        SQLiteDatabase db = helper.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS, newFailedAttempts);
-        values.put(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP, currentTimestamp);
+        // Same-transaction readback stands in for RETURNING, which needs SQLite 3.35+
+        int failedAttempts;
+        db.beginTransactionNonExclusive();
+        try (SQLiteStatement update = db.compileStatement(SQL_RECORD_FAILED_ATTEMPT);
+             SQLiteStatement readback = db.compileStatement(SQL_SELECT_FAILED_ATTEMPTS)) {
+            update.bindLong(1, currentTimestamp);
+            update.bindLong(2, MAX_FAILED_ATTEMPTS);
+            update.bindLong(3, currentTimestamp - Agent.LOCKOUT_DURATION_MS);
+            update.bindString(4, codename);
+            if (update.executeUpdateDelete() == 0) return -1;
+
+            readback.bindString(1, codename);
+            failedAttempts = (int) readback.simpleQueryForLong();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
 
-        // Auto-lock account after 5 failed attempts
-        if (newFailedAttempts >= 5) {
-            values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, 1);
+        if (failedAttempts >= MAX_FAILED_ATTEMPTS) {
             Log.w(TAG, "Account locked due to too many failed attempts: " + codename);
         }
-
-        String whereClause = DBContract.AgentEntry.COLUMN_CODENAME + " = ?";
-        String[] whereArgs = { codename };
-
-        int rowsAffected = db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause,
-                whereArgs);
-        return rowsAffected > 0;
+        notifyAgentUpdated(null, codename);
+        return failedAttempts;
     }
 
     @Override
-    public boolean recordSuccessfulLogin(String codename) {
+    public boolean recordSuccessfulLogin(String codename, long loginTimestamp) {
         SQLiteDatabase db = helper.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS, 0);    // Reset counter
-        values.put(DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP, System.currentTimeMillis());
+        values.put(DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP, loginTimestamp);
         values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, 0);     // Unlock account on success
 
-        String whereClause = DBContract.AgentEntry.COLUMN_CODENAME + " = ?";
+        String whereClause = WHERE_CODENAME;
         String[] whereArgs = { codename };
 
         int rowsAffected = db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause,
                 whereArgs);
+        if (rowsAffected > 0) notifyAgentUpdated(null, codename);
         return rowsAffected > 0;
     }
 
+    @Override
+    public boolean updateLastLoginTimestamps(Map<String, Long> loginTimestamps) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+
+        db.beginTransactionNonExclusive();
+        try (SQLiteStatement update = db.compileStatement(SQL_UPDATE_LAST_LOGIN)) {
+            for (Map.Entry<String, Long> entry : loginTimestamps.entrySet()) {
+                update.bindLong(1, entry.getValue());
+                update.bindString(2, entry.getKey());
+                update.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing " + loginTimestamps.size() + " login timestamps", e);
+            return false;
+        } finally {
+            db.endTransaction();
+        }
+        for (String codename : loginTimestamps.keySet()) {
+            notifyLastLoginUpdated(codename);
+        }
+        return true;
+    }
+
     @Override
     public boolean setAccountLockStatus(String codename, boolean locked) {
         SQLiteDatabase db = helper.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED, locked ? 1 : 0);
 
-        String whereClause = DBContract.AgentEntry.COLUMN_CODENAME + " = ?";
+        String whereClause = WHERE_CODENAME;
         String[] whereArgs = { codename };
 
         int rowsAffected = db.update(DBContract.AgentEntry.TABLE_NAME, values, whereClause,
                 whereArgs);
+        if (rowsAffected > 0) notifyAgentUpdated(null, codename);
         return rowsAffected > 0;
     }
-
-    /**
-     * Helper method to map a database Cursor row to an Agent object.
-     * This is where decryption of sensitive fields happens.
-     * @param cursor TheCursor pointing to the tow containing agent data.
-     * @return A fully populated Agent object.
-     */
-    private Agent cursorToAgent(Cursor cursor) {
-        // Decrypt the sensitive fields retrieved from the database
-        String decryptedPasswordHash =
-                helper.decryptField(cursor.getString((cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_PASSWORD_HASH))));
-        String decryptedSalt =
-                helper.decryptField(cursor.getString(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_SALT)));
-        String decryptedSecurityQuestion =
-                helper.decryptField(cursor.getString(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_SECURITY_QUESTION)));
-        String decryptedSecurityAnswerHash =
-                helper.decryptField(cursor.getString(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH)));
-
-        String clearanceCode =
-                cursor.getString(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE));
-        ClearanceLevel clearanceLevel = ClearanceLevel.fromCode(clearanceCode);
-
-        return new Agent(
-                cursor.getString(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_AGENT_ID)),
-                cursor.getString(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_CODENAME)),
-                decryptedPasswordHash,
-                decryptedSalt,
-                decryptedSecurityQuestion,
-                decryptedSecurityAnswerHash,
-                clearanceLevel,
-                cursor.getInt(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED)) == 1,
-                cursor.getLong(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP)),
-                cursor.getInt(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS)),
-                cursor.getLong(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP)),
-                cursor.getInt(cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED)) == 1
-        );
-    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package org.osd.omot_app.data.dao;
+
+import android.database.Cursor;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.SensitiveAgentFields;
+
+/**
+ * Maps agent rows to Agent objects. Column indices are resolved once when the mapper is
+ * created, so mapping a row is a plain positional read instead of a name lookup per field.
+ * A mapper is only valid for the cursor it was created with.
+ */
+final class AgentRowMapper {
+
+    /** The columns needed to build a full Agent, in the order used by every agent query. */
+    static final String[] PROJECTION = {
+            DBContract.AgentEntry.COLUMN_AGENT_ID,
+            DBContract.AgentEntry.COLUMN_CODENAME,
+            DBContract.AgentEntry.COLUMN_PASSWORD_HASH,
+            DBContract.AgentEntry.COLUMN_SALT,
+            DBContract.AgentEntry.COLUMN_SECURITY_QUESTION,
+            DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH,
+            DBContract.AgentEntry.COLUMN_CLEARANCE_CODE,
+            DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED,
+            DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP,
+            DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS,
+            DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP,
+            DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED
+    };
+
+    private final DBHelper helper;
+    private final Cursor cursor;
+
+    private final int agentIDIndex;
+    private final int codenameIndex;
+    private final int clearanceCodeIndex;
+    private final int biometricEnabledIndex;
+    private final int lastLoginIndex;
+    private final int failedAttemptsIndex;
+    private final int lastFailedIndex;
+    private final int accountLockedIndex;
+    // Password hash, salt, security question and answer hash, in SensitiveAgentFields order
+    private final int[] encryptedIndices;
+
+    AgentRowMapper(DBHelper helper, Cursor cursor) {
+        this.helper = helper;
+        this.cursor = cursor;
+
+        agentIDIndex = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_AGENT_ID);
+        codenameIndex = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_CODENAME);
+        clearanceCodeIndex = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_CLEARANCE_CODE);
+        biometricEnabledIndex =
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_BIOMETRIC_ENABLED);
+        lastLoginIndex =
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_LAST_LOGIN_TIMESTAMP);
+        failedAttemptsIndex = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_FAILED_ATTEMPTS);
+        lastFailedIndex =
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_LAST_FAILED_TIMESTAMP);
+        accountLockedIndex = cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_ACCOUNT_LOCKED);
+        encryptedIndices = new int[]{
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_PASSWORD_HASH),
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_SALT),
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_SECURITY_QUESTION),
+                cursor.getColumnIndexOrThrow(DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH)
+        };
+    }
+
+    /**
+     * Maps the row the cursor is currently positioned on.
+     * Sensitive fields are copied as ciphertext and only decrypted when the Agent first reads them.
+     * @return A fully populated Agent object.
+     */
+    Agent map() {
+        byte[][] encrypted = helper.readEncryptedBlobs(cursor, encryptedIndices);
+        SensitiveAgentFields sensitiveFields = new SensitiveAgentFields(helper.getFieldCipher(),
+                encrypted[0], encrypted[1], encrypted[2], encrypted[3]);
+
+        return new Agent(
+                cursor.getString(agentIDIndex),
+                cursor.getString(codenameIndex),
+                sensitiveFields,
+                ClearanceLevel.fromCode(cursor.getString(clearanceCodeIndex)),
+                cursor.getInt(biometricEnabledIndex) == 1,
+                cursor.getLong(lastLoginIndex),
+                cursor.getInt(failedAttemptsIndex),
+                cursor.getLong(lastFailedIndex),
+                cursor.getInt(accountLockedIndex) == 1
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package org.osd.omot_app.data.dao;
+
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.Dossier;
+
+import java.util.List;
+
+/**
+ * Data Access Object for dossier records. Dossier content lives in encrypted files managed by
+ * {@link org.osd.omot_app.data.content.DossierContentStore}; rows only point at them.
+ */
+public interface DossierDAO {
+
+    /**
+     * Inserts a new dossier.
+     * @param dossier The dossier to insert, with its ID and required clearance set.
+     * @return true if the dossier was inserted.
+     */
+    boolean insertDossier(Dossier dossier);
+
+    /**
+     * @param dossierID The dossier's ID.
+     * @return The dossier, or null if not found.
+     */
+    Dossier getDossierByID(String dossierID);
+
+    /**
+     * @param clearanceCode The required clearance code, e.g. "ALPHA".
+     * @return The dossiers requiring that clearance, newest first.
+     */
+    List<Dossier> getDossiersByClearance(String clearanceCode);
+
+    /**
+     * Lists the dossiers an agent may open, filtering on the indexed clearance rank so rows
+     * above the agent's clearance are never read.
+     * @param agentLevel The agent's clearance.
+     * @return The accessible dossiers, newest first; empty for a null or unknown clearance.
+     */
+    List<Dossier> getAccessibleDossiers(ClearanceLevel agentLevel);
+
+    /**
+     * @return Every dossier, newest first.
+     */
+    List<Dossier> getAllDossiers();
+
+    /**
+     * Points a dossier at new content.
+     * @return true if the dossier exists and was updated.
+     */
+    boolean updateDossierContent(String dossierID, String contentFilePath, int pageCount);
+
+    /**
+     * Deletes the dossier row. The content file is left to the caller.
+     * @return true if the dossier existed and was deleted.
+     */
+    boolean deleteDossier(String dossierID);
+}
\ No newline at end of file
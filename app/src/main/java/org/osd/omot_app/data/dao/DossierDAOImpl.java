@@ -0,0 +1,152 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.Dossier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Concrete implementation of the DossierDAO interface using SQLite.
+ */
+public class DossierDAOImpl implements DossierDAO {
+    private static final String TAG = "DossierDAOImpl";
+
+    private static final String SELECTION_ID = DBContract.DossierEntry.COLUMN_DOSSIER_ID + " = ?";
+    private static final String ORDER_NEWEST_FIRST =
+            DBContract.DossierEntry.COLUMN_CREATED_AT + " DESC, "
+            + DBContract.DossierEntry.COLUMN_DOSSIER_ID + " DESC";
+
+    private final DBHelper helper;
+
+    public DossierDAOImpl(DBHelper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public boolean insertDossier(Dossier dossier) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(DBContract.DossierEntry.COLUMN_DOSSIER_ID, dossier.getDossierID());
+        values.put(DBContract.DossierEntry.COLUMN_TITLE, dossier.getTitle());
+        values.put(DBContract.DossierEntry.COLUMN_CLEARANCE_REQUIRED,
+                dossier.getClearanceRequired().getClearanceCode());
+        values.put(DBContract.DossierEntry.COLUMN_CLEARANCE_RANK,
+                dossier.getClearanceRequired().getRank());
+        values.put(DBContract.DossierEntry.COLUMN_CONTENT_FILE, dossier.getContentFilePath());
+        values.put(DBContract.DossierEntry.COLUMN_PAGE_COUNT, dossier.getPageCount());
+        values.put(DBContract.DossierEntry.COLUMN_CREATED_AT, dossier.getCreatedAt());
+
+        try {
+            return db.insertOrThrow(DBContract.DossierEntry.TABLE_NAME, null, values) != -1;
+        } catch (Exception e) {
+            Log.e(TAG, "Error inserting dossier: " + dossier.getDossierID(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public Dossier getDossierByID(String dossierID) {
+        List<Dossier> dossiers = queryDossiers(SELECTION_ID, new String[]{dossierID}, "1");
+        return dossiers.isEmpty() ? null : dossiers.get(0);
+    }
+
+    @Override
+    public List<Dossier> getDossiersByClearance(String clearanceCode) {
+        return queryDossiers(DBContract.DossierEntry.COLUMN_CLEARANCE_REQUIRED + " = ?",
+                new String[]{clearanceCode}, null);
+    }
+
+    @Override
+    public List<Dossier> getAccessibleDossiers(ClearanceLevel agentLevel) {
+        int mask = agentLevel == null ? 0 : agentLevel.getAccessMask();
+        if (mask == 0) return Collections.emptyList();
+
+        String[] ranks = new String[Integer.bitCount(mask)];
+        for (int i = 0, rest = mask; rest != 0; i++, rest &= rest - 1) {
+            ranks[i] = String.valueOf(Integer.numberOfTrailingZeros(rest));
+        }
+        return queryDossiers(selectionForRanks(ranks.length), ranks, null);
+    }
+
+    /**
+     * @return A selection matching any of {@code count} bound ranks.
+     */
+    static String selectionForRanks(int count) {
+        StringBuilder selection = new StringBuilder(DBContract.DossierEntry.COLUMN_CLEARANCE_RANK)
+                .append(" IN (?");
+        for (int i = 1; i < count; i++) {
+            selection.append(", ?");
+        }
+        return selection.append(')').toString();
+    }
+
+    @Override
+    public List<Dossier> getAllDossiers() {
+        return queryDossiers(null, null, null);
+    }
+
+    @Override
+    public boolean updateDossierContent(String dossierID, String contentFilePath, int pageCount) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(DBContract.DossierEntry.COLUMN_CONTENT_FILE, contentFilePath);
+        values.put(DBContract.DossierEntry.COLUMN_PAGE_COUNT, pageCount);
+
+        try {
+            return db.update(DBContract.DossierEntry.TABLE_NAME, values, SELECTION_ID,
+                    new String[]{dossierID}) > 0;
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating content of dossier: " + dossierID, e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteDossier(String dossierID) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        try {
+            return db.delete(DBContract.DossierEntry.TABLE_NAME, SELECTION_ID,
+                    new String[]{dossierID}) > 0;
+        } catch (Exception e) {
+            Log.e(TAG, "Error deleting dossier: " + dossierID, e);
+            return false;
+        }
+    }
+
+    private List<Dossier> queryDossiers(@Nullable String selection,
+                                        @Nullable String[] selectionArgs, @Nullable String limit) {
+        List<Dossier> dossiers = new ArrayList<>();
+        SQLiteDatabase db = helper.getReadableDatabase();
+
+        try (Cursor cursor = db.query(
+                DBContract.DossierEntry.TABLE_NAME,
+                DossierRowMapper.PROJECTION,
+                selection,
+                selectionArgs,
+                null, null,
+                ORDER_NEWEST_FIRST,
+                limit
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                DossierRowMapper mapper = new DossierRowMapper(cursor);
+                do {
+                    dossiers.add(mapper.map());
+                } while (cursor.moveToNext());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error querying dossiers: " + selection, e);
+        }
+        return dossiers;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package org.osd.omot_app.data.dao;
+
+import android.database.Cursor;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.Dossier;
+
+/**
+ * Maps dossier rows to Dossier objects. Column indices are resolved once when the mapper is
+ * created. A mapper is only valid for the cursor it was created with.
+ */
+final class DossierRowMapper {
+
+    /** The columns needed to build a Dossier, in the order used by every dossier query. */
+    static final String[] PROJECTION = {
+            DBContract.DossierEntry.COLUMN_DOSSIER_ID,
+            DBContract.DossierEntry.COLUMN_TITLE,
+            DBContract.DossierEntry.COLUMN_CLEARANCE_REQUIRED,
+            DBContract.DossierEntry.COLUMN_CONTENT_FILE,
+            DBContract.DossierEntry.COLUMN_PAGE_COUNT,
+            DBContract.DossierEntry.COLUMN_CREATED_AT
+    };
+
+    private final Cursor cursor;
+
+    private final int dossierIDIndex;
+    private final int titleIndex;
+    private final int clearanceIndex;
+    private final int contentFileIndex;
+    private final int pageCountIndex;
+    private final int createdAtIndex;
+
+    DossierRowMapper(Cursor cursor) {
+        this.cursor = cursor;
+
+        dossierIDIndex = cursor.getColumnIndexOrThrow(DBContract.DossierEntry.COLUMN_DOSSIER_ID);
+        titleIndex = cursor.getColumnIndexOrThrow(DBContract.DossierEntry.COLUMN_TITLE);
+        clearanceIndex =
+                cursor.getColumnIndexOrThrow(DBContract.DossierEntry.COLUMN_CLEARANCE_REQUIRED);
+        contentFileIndex = cursor.getColumnIndexOrThrow(DBContract.DossierEntry.COLUMN_CONTENT_FILE);
+        pageCountIndex = cursor.getColumnIndexOrThrow(DBContract.DossierEntry.COLUMN_PAGE_COUNT);
+        createdAtIndex = cursor.getColumnIndexOrThrow(DBContract.DossierEntry.COLUMN_CREATED_AT);
+    }
+
+    /**
+     * Maps the row the cursor is currently positioned on.
+     * @return A fully populated Dossier object.
+     */
+    Dossier map() {
+        String clearanceCode = cursor.getString(clearanceIndex);
+        ClearanceLevel clearance = ClearanceLevel.fromCode(clearanceCode);
+        if (clearance == null) {
+            // A level added to the reference table after this build; keep its code
+            clearance = new ClearanceLevel(clearanceCode, clearanceCode, null);
+        }
+
+        Dossier dossier = new Dossier(
+                cursor.getString(dossierIDIndex),
+                cursor.getString(titleIndex),
+                clearance,
+                cursor.getString(contentFileIndex),
+                cursor.getLong(createdAtIndex));
+        dossier.setPageCount(cursor.getInt(pageCountIndex));
+        return dossier;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package org.osd.omot_app.data.dao;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.utils.NamedThreadFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for login telemetry that doesn't affect security decisions, i.e. the
+ * last login timestamp. Updates are merged per agent in memory and written in one transaction
+ * after a delay, once too many agents are pending, or when {@link #flush()} is called
+ * (the provider does this when the app leaves the foreground).
+ * <p>
+ * Lockout state (failed attempts, account lock) never goes through this buffer. A crash can
+ * lose at most one flush delay's worth of login timestamps, never a failed attempt.
+ */
+public class LoginTelemetryBuffer {
+    private static final String TAG = "LoginTelemetryBuffer";
+
+    private final AgentDAO agentDAO;
+    private final long flushDelayMs;
+    private final int maxPendingAgents;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private Map<String, Long> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    /**
+     * @param agentDAO The DAO pending updates are flushed to.
+     * @param flushDelayMs How long the first buffered update may wait before it is written.
+     * @param maxPendingAgents Number of agents with pending updates that triggers an early flush.
+     */
+    public LoginTelemetryBuffer(AgentDAO agentDAO, long flushDelayMs, int maxPendingAgents) {
+        if (flushDelayMs <= 0 || maxPendingAgents <= 0) {
+            throw new IllegalArgumentException("Flush delay and pending limit must be positive");
+        }
+        this.agentDAO = agentDAO;
+        this.flushDelayMs = flushDelayMs;
+        this.maxPendingAgents = maxPendingAgents;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("omot-telemetry"));
+    }
+
+    /**
+     * Buffers a successful login. Only the latest timestamp per agent is kept.
+     */
+    public void recordLogin(String codename, long loginTimestamp) {
+        boolean writeThrough;
+        boolean flushNow = false;
+        synchronized (lock) {
+            writeThrough = closed;
+            if (!closed) {
+                pending.merge(codename, loginTimestamp, Math::max);
+                flushNow = pending.size() >= maxPendingAgents;
+                if (!flushNow) scheduleFlushLocked();
+            }
+        }
+
+        if (writeThrough) {
+            // Nothing will flush later, so write through
+            Map<String, Long> single = new HashMap<>();
+            single.put(codename, loginTimestamp);
+            agentDAO.updateLastLoginTimestamps(single);
+        } else if (flushNow) {
+            flushAsync();
+        }
+    }
+
+    /**
+     * @return The buffered login timestamp for the agent, or null if none is pending.
+     */
+    @Nullable
+    public Long getPendingLoginTimestamp(String codename) {
+        synchronized (lock) {
+            return pending.get(codename);
+        }
+    }
+
+    /**
+     * Writes every pending update in a single transaction on the calling thread.
+     * If the transaction fails, the updates are kept and retried on the next flush.
+     */
+    public void flush() {
+        Map<String, Long> batch;
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        if (!agentDAO.updateLastLoginTimestamps(batch)) {
+            synchronized (lock) {
+                for (Map.Entry<String, Long> entry : batch.entrySet()) {
+                    pending.merge(entry.getKey(), entry.getValue(), Math::max);
+                }
+                if (!closed) scheduleFlushLocked();
+            }
+            Log.w(TAG, "Flush failed, kept " + batch.size() + " login updates for retry");
+        }
+    }
+
+    /**
+     * Flushes on the buffer's own thread; safe to call from the main thread.
+     */
+    public void flushAsync() {
+        try {
+            scheduler.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // Closed: close() has already flushed or is flushing
+        }
+    }
+
+    /**
+     * Stops the timer and writes whatever is pending. Later logins are written through.
+     */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void scheduleFlushLocked() {
+        if (scheduledFlush != null) return;
+        try {
+            scheduledFlush = scheduler.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; close() flushes
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package org.osd.omot_app.data.dao;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.model.Mission;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Data Access Object for missions. Paged queries are keyset pages: pass the last mission of
+ * the previous page to get the next one, so every page costs an index seek however deep the
+ * caller has scrolled.
+ */
+public interface MissionDAO {
+
+    /**
+     * Notified after a write to the mission table has been committed.
+     * Called on the writing thread, so implementations must be quick and thread-safe.
+     * Notifications arrive in commit order, and a listener must not write missions itself.
+     */
+    interface ChangeListener {
+        /** A mission was inserted. The listener must not modify it. */
+        default void onMissionInserted(Mission mission) {
+        }
+
+        default void onMissionStatusChanged(String missionID, Mission.Status status) {
+        }
+
+        default void onMissionDeleted(String missionID) {
+        }
+    }
+
+    void addChangeListener(ChangeListener listener);
+
+    void removeChangeListener(ChangeListener listener);
+
+    /**
+     * Inserts a new mission.
+     * @param mission The mission to insert, with its ID set.
+     * @return true if the mission was inserted.
+     */
+    boolean insertMission(Mission mission);
+
+    /**
+     * Inserts many missions in chunked transactions. A mission that violates a constraint
+     * (e.g. a duplicate ID) is skipped without aborting the rest.
+     * @param missions The missions to insert.
+     * @return The number of missions inserted.
+     */
+    int insertMissions(List<Mission> missions);
+
+    /**
+     * @param missionID The mission's ID.
+     * @return The mission, or null if not found.
+     */
+    Mission getMissionByID(String missionID);
+
+    /**
+     * Moves a mission to a new status.
+     * @return true if the mission exists and was updated.
+     */
+    boolean updateMissionStatus(String missionID, Mission.Status status);
+
+    /**
+     * @return true if the mission existed and was deleted.
+     */
+    boolean deleteMission(String missionID);
+
+    /**
+     * @return The number of missions with the given status.
+     */
+    long countMissionsByStatus(Mission.Status status);
+
+    /**
+     * Streams every mission to the consumer one row at a time without building a list.
+     */
+    void forEachMission(Consumer<Mission> consumer);
+
+    /**
+     * Retrieves one page of missions with the given status, most urgent first and newest
+     * first within each priority, e.g. the active mission board.
+     * @param status The status to filter by.
+     * @param lastMission The last mission of the previous page, or null for the first page.
+     * @param limit The maximum number of missions to return.
+     * @return Up to {@code limit} missions; fewer (possibly none) on the last page.
+     */
+    List<Mission> getMissionsByStatusAfter(Mission.Status status, @Nullable Mission lastMission,
+                                           int limit);
+
+    /**
+     * Retrieves one page of missions with the given status and priority, newest first.
+     * @param status The status to filter by.
+     * @param priority The priority to filter by.
+     * @param lastMission The last mission of the previous page, or null for the first page.
+     * @param limit The maximum number of missions to return.
+     * @return Up to {@code limit} missions; fewer (possibly none) on the last page.
+     */
+    List<Mission> getMissionsByStatusAndPriorityAfter(Mission.Status status,
+                                                      Mission.Priority priority,
+                                                      @Nullable Mission lastMission, int limit);
+
+    /**
+     * Retrieves one page of missions with the given status, newest first regardless of priority.
+     * @param status The status to filter by.
+     * @param lastMission The last mission of the previous page, or null for the first page.
+     * @param limit The maximum number of missions to return.
+     * @return Up to {@code limit} missions; fewer (possibly none) on the last page.
+     */
+    List<Mission> getRecentMissionsByStatusAfter(Mission.Status status,
+                                                 @Nullable Mission lastMission, int limit);
+}
\ No newline at end of file
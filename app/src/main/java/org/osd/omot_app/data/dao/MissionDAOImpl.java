@@ -0,0 +1,352 @@
+package org.osd.omot_app.data.dao;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.model.Mission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Concrete implementation of the MissionDAO interface using SQLite.
+ * <p>
+ * Keyset pages seek on the board indexes. Row-value comparisons such as
+ * {@code (priority, start_date) < (?, ?)} need SQLite 3.15, newer than API 24 ships, so the
+ * "after this mission" condition is spelled out as a range on the index's leading columns
+ * plus a tie-break on the rest.
+ */
+public class MissionDAOImpl implements MissionDAO {
+    private static final String TAG = "MissionDAOImpl";
+
+    private static final String SQL_INSERT_MISSION =
+            "INSERT INTO " + DBContract.MissionEntry.TABLE_NAME + " ("
+            + DBContract.MissionEntry.COLUMN_MISSION_ID + ", "
+            + DBContract.MissionEntry.COLUMN_TITLE + ", "
+            + DBContract.MissionEntry.COLUMN_STATUS + ", "
+            + DBContract.MissionEntry.COLUMN_PRIORITY + ", "
+            + DBContract.MissionEntry.COLUMN_START_DATE + ", "
+            + DBContract.MissionEntry.COLUMN_END_DATE + ", "
+            + DBContract.MissionEntry.COLUMN_BRIEFING_FILE
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ORDER_NEWEST_FIRST =
+            DBContract.MissionEntry.COLUMN_START_DATE + " DESC, "
+            + DBContract.MissionEntry.COLUMN_MISSION_ID + " DESC";
+
+    private static final String ORDER_URGENT_THEN_NEWEST_FIRST =
+            DBContract.MissionEntry.COLUMN_PRIORITY + " DESC, " + ORDER_NEWEST_FIRST;
+
+    // Missions after (start_date, mission_id) in newest-first order; the "<=" term is the seek
+    private static final String SELECTION_OLDER_THAN =
+            DBContract.MissionEntry.COLUMN_START_DATE + " <= ? AND ("
+            + DBContract.MissionEntry.COLUMN_START_DATE + " < ? OR "
+            + DBContract.MissionEntry.COLUMN_MISSION_ID + " < ?)";
+
+    private static final String SELECTION_STATUS = DBContract.MissionEntry.COLUMN_STATUS + " = ?";
+    private static final String SELECTION_STATUS_PRIORITY = SELECTION_STATUS + " AND "
+            + DBContract.MissionEntry.COLUMN_PRIORITY + " = ?";
+
+    // Rows per transaction in insertMissions
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final DBHelper helper;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // Held from each write until its listeners have returned, so notifications follow commit order
+    private final Object writeLock = new Object();
+
+    public MissionDAOImpl(DBHelper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void notifyMissionInserted(Mission mission) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onMissionInserted(mission);
+        }
+    }
+
+    @Override
+    public boolean insertMission(Mission mission) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        synchronized (writeLock) {
+            try {
+                if (db.insertOrThrow(DBContract.MissionEntry.TABLE_NAME, null,
+                        toValues(mission)) == -1) return false;
+            } catch (Exception e) {
+                Log.e(TAG, "Error inserting mission: " + mission.getMissionID(), e);
+                return false;
+            }
+            notifyMissionInserted(mission);
+            return true;
+        }
+    }
+
+    @Override
+    public int insertMissions(List<Mission> missions) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        synchronized (writeLock) {
+            return insertMissionsLocked(db, missions);
+        }
+    }
+
+    private int insertMissionsLocked(SQLiteDatabase db, List<Mission> missions) {
+        int inserted = 0;
+
+        for (int start = 0; start < missions.size(); start += INSERT_BATCH_SIZE) {
+            int end = Math.min(start + INSERT_BATCH_SIZE, missions.size());
+            boolean[] batchInserted = new boolean[end - start];
+            int batchCount = 0;
+            db.beginTransaction();
+            try (SQLiteStatement insert = db.compileStatement(SQL_INSERT_MISSION)) {
+                for (int i = start; i < end; i++) {
+                    Mission mission = missions.get(i);
+                    insert.clearBindings();
+                    bindMission(insert, mission);
+                    try {
+                        insert.executeInsert();
+                        batchInserted[i - start] = true;
+                        batchCount++;
+                    } catch (SQLiteConstraintException e) {
+                        Log.w(TAG, "Skipping mission that violates a constraint: "
+                                + mission.getMissionID());
+                    }
+                }
+                db.setTransactionSuccessful();
+            } catch (Exception e) {
+                Log.e(TAG, "Error inserting batch of " + (end - start) + " missions", e);
+                continue;
+            } finally {
+                db.endTransaction();
+            }
+
+            inserted += batchCount;
+            if (changeListeners.isEmpty()) continue;
+            for (int i = start; i < end; i++) {
+                if (batchInserted[i - start]) notifyMissionInserted(missions.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    private static void bindMission(SQLiteStatement statement, Mission mission) {
+        statement.bindString(1, mission.getMissionID());
+        statement.bindString(2, mission.getTitle());
+        statement.bindLong(3, mission.getStatus().getCode());
+        statement.bindLong(4, mission.getPriority().getCode());
+        statement.bindLong(5, mission.getStartDate());
+        if (mission.getEndDate() != null) {
+            statement.bindLong(6, mission.getEndDate());
+        } else {
+            statement.bindNull(6);
+        }
+        if (mission.getBriefingFilePath() != null) {
+            statement.bindString(7, mission.getBriefingFilePath());
+        } else {
+            statement.bindNull(7);
+        }
+    }
+
+    private static ContentValues toValues(Mission mission) {
+        ContentValues values = new ContentValues();
+        values.put(DBContract.MissionEntry.COLUMN_MISSION_ID, mission.getMissionID());
+        values.put(DBContract.MissionEntry.COLUMN_TITLE, mission.getTitle());
+        values.put(DBContract.MissionEntry.COLUMN_STATUS, mission.getStatus().getCode());
+        values.put(DBContract.MissionEntry.COLUMN_PRIORITY, mission.getPriority().getCode());
+        values.put(DBContract.MissionEntry.COLUMN_START_DATE, mission.getStartDate());
+        values.put(DBContract.MissionEntry.COLUMN_END_DATE, mission.getEndDate());
+        values.put(DBContract.MissionEntry.COLUMN_BRIEFING_FILE, mission.getBriefingFilePath());
+        return values;
+    }
+
+    @Override
+    public Mission getMissionByID(String missionID) {
+        List<Mission> missions = new ArrayList<>(1);
+        queryMissions(DBContract.MissionEntry.COLUMN_MISSION_ID + " = ?",
+                new String[]{missionID}, null, 1, missions);
+        return missions.isEmpty() ? null : missions.get(0);
+    }
+
+    @Override
+    public boolean updateMissionStatus(String missionID, Mission.Status status) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(DBContract.MissionEntry.COLUMN_STATUS, status.getCode());
+
+        synchronized (writeLock) {
+            try {
+                if (db.update(DBContract.MissionEntry.TABLE_NAME, values,
+                        DBContract.MissionEntry.COLUMN_MISSION_ID + " = ?",
+                        new String[]{missionID}) == 0) return false;
+            } catch (Exception e) {
+                Log.e(TAG, "Error updating status of mission: " + missionID, e);
+                return false;
+            }
+            for (ChangeListener listener : changeListeners) {
+                listener.onMissionStatusChanged(missionID, status);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteMission(String missionID) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        synchronized (writeLock) {
+            try {
+                if (db.delete(DBContract.MissionEntry.TABLE_NAME,
+                        DBContract.MissionEntry.COLUMN_MISSION_ID + " = ?",
+                        new String[]{missionID}) == 0) return false;
+            } catch (Exception e) {
+                Log.e(TAG, "Error deleting mission: " + missionID, e);
+                return false;
+            }
+            for (ChangeListener listener : changeListeners) {
+                listener.onMissionDeleted(missionID);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void forEachMission(Consumer<Mission> consumer) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        try (Cursor cursor = db.query(
+                DBContract.MissionEntry.TABLE_NAME,
+                MissionRowMapper.PROJECTION,
+                null, null, null, null, null
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                MissionRowMapper mapper = new MissionRowMapper(cursor);
+                do {
+                    consumer.accept(mapper.map());
+                } while (cursor.moveToNext());
+            }
+        }
+    }
+
+    @Override
+    public long countMissionsByStatus(Mission.Status status) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        return DatabaseUtils.queryNumEntries(db, DBContract.MissionEntry.TABLE_NAME,
+                SELECTION_STATUS, new String[]{String.valueOf(status.getCode())});
+    }
+
+    @Override
+    public List<Mission> getMissionsByStatusAfter(Mission.Status status,
+                                                  @Nullable Mission lastMission, int limit) {
+        checkLimit(limit);
+        List<Mission> page = new ArrayList<>(Math.min(limit, 256));
+        String statusCode = String.valueOf(status.getCode());
+
+        if (lastMission == null) {
+            queryMissions(SELECTION_STATUS, new String[]{statusCode},
+                    ORDER_URGENT_THEN_NEWEST_FIRST, limit, page);
+            return page;
+        }
+
+        // Finish the previous page's priority, then continue with the less urgent ones
+        int priorityCode = lastMission.getPriority().getCode();
+        queryOlderThan(SELECTION_STATUS_PRIORITY,
+                new String[]{statusCode, String.valueOf(priorityCode)}, lastMission, limit, page);
+        if (page.size() < limit) {
+            queryMissions(SELECTION_STATUS + " AND " + DBContract.MissionEntry.COLUMN_PRIORITY
+                            + " < ?", new String[]{statusCode, String.valueOf(priorityCode)},
+                    ORDER_URGENT_THEN_NEWEST_FIRST, limit - page.size(), page);
+        }
+        return page;
+    }
+
+    @Override
+    public List<Mission> getMissionsByStatusAndPriorityAfter(Mission.Status status,
+                                                             Mission.Priority priority,
+                                                             @Nullable Mission lastMission,
+                                                             int limit) {
+        checkLimit(limit);
+        List<Mission> page = new ArrayList<>(Math.min(limit, 256));
+        String[] filterArgs = {
+                String.valueOf(status.getCode()), String.valueOf(priority.getCode())
+        };
+        queryOlderThan(SELECTION_STATUS_PRIORITY, filterArgs, lastMission, limit, page);
+        return page;
+    }
+
+    @Override
+    public List<Mission> getRecentMissionsByStatusAfter(Mission.Status status,
+                                                        @Nullable Mission lastMission,
+                                                        int limit) {
+        checkLimit(limit);
+        List<Mission> page = new ArrayList<>(Math.min(limit, 256));
+        queryOlderThan(SELECTION_STATUS, new String[]{String.valueOf(status.getCode())},
+                lastMission, limit, page);
+        return page;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+
+    /**
+     * Appends missions matching the filter, newest first, that come after {@code lastMission}.
+     */
+    private void queryOlderThan(String filter, String[] filterArgs, @Nullable Mission lastMission,
+                                int limit, List<Mission> into) {
+        if (lastMission == null) {
+            queryMissions(filter, filterArgs, ORDER_NEWEST_FIRST, limit, into);
+            return;
+        }
+
+        String[] args = new String[filterArgs.length + 3];
+        System.arraycopy(filterArgs, 0, args, 0, filterArgs.length);
+        String startDate = String.valueOf(lastMission.getStartDate());
+        args[filterArgs.length] = startDate;
+        args[filterArgs.length + 1] = startDate;
+        args[filterArgs.length + 2] = lastMission.getMissionID();
+        queryMissions(filter + " AND " + SELECTION_OLDER_THAN, args, ORDER_NEWEST_FIRST, limit,
+                into);
+    }
+
+    private void queryMissions(String selection, String[] selectionArgs, @Nullable String orderBy,
+                               int limit, List<Mission> into) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+
+        try (Cursor cursor = db.query(
+                DBContract.MissionEntry.TABLE_NAME,
+                MissionRowMapper.PROJECTION,
+                selection,
+                selectionArgs,
+                null, null,
+                orderBy,
+                String.valueOf(limit)
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                MissionRowMapper mapper = new MissionRowMapper(cursor);
+                do {
+                    into.add(mapper.map());
+                } while (cursor.moveToNext());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error querying missions: " + selection, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package org.osd.omot_app.data.dao;
+
+import android.database.Cursor;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.model.Mission;
+
+/**
+ * Maps mission rows to Mission objects. Column indices are resolved once when the mapper is
+ * created, and status and priority codes are decoded through the enums' lookup tables rather
+ * than by parsing text. A mapper is only valid for the cursor it was created with.
+ */
+final class MissionRowMapper {
+
+    /** The columns needed to build a Mission, in the order used by every mission query. */
+    static final String[] PROJECTION = {
+            DBContract.MissionEntry.COLUMN_MISSION_ID,
+            DBContract.MissionEntry.COLUMN_TITLE,
+            DBContract.MissionEntry.COLUMN_STATUS,
+            DBContract.MissionEntry.COLUMN_PRIORITY,
+            DBContract.MissionEntry.COLUMN_START_DATE,
+            DBContract.MissionEntry.COLUMN_END_DATE,
+            DBContract.MissionEntry.COLUMN_BRIEFING_FILE
+    };
+
+    private final Cursor cursor;
+
+    private final int missionIDIndex;
+    private final int titleIndex;
+    private final int statusIndex;
+    private final int priorityIndex;
+    private final int startDateIndex;
+    private final int endDateIndex;
+    private final int briefingFileIndex;
+
+    MissionRowMapper(Cursor cursor) {
+        this.cursor = cursor;
+
+        missionIDIndex = cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_MISSION_ID);
+        titleIndex = cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_TITLE);
+        statusIndex = cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_STATUS);
+        priorityIndex = cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_PRIORITY);
+        startDateIndex = cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_START_DATE);
+        endDateIndex = cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_END_DATE);
+        briefingFileIndex =
+                cursor.getColumnIndexOrThrow(DBContract.MissionEntry.COLUMN_BRIEFING_FILE);
+    }
+
+    /**
+     * Maps the row the cursor is currently positioned on.
+     * @return A fully populated Mission object.
+     */
+    Mission map() {
+        return new Mission(
+                cursor.getString(missionIDIndex),
+                cursor.getString(titleIndex),
+                Mission.Status.fromCode(cursor.getInt(statusIndex)),
+                Mission.Priority.fromCode(cursor.getInt(priorityIndex)),
+                cursor.getLong(startDateIndex),
+                cursor.isNull(endDateIndex) ? null : cursor.getLong(endDateIndex),
+                cursor.getString(briefingFileIndex)
+        );
+    }
+}
\ No newline at end of file
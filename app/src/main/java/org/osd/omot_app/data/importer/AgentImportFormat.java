@@ -0,0 +1,20 @@
+package org.osd.omot_app.data.importer;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * File formats accepted by the bulk agent import. Input is read as UTF-8.
+ */
+public enum AgentImportFormat {
+    CSV,
+    JSON;
+
+    public AgentRecordReader open(InputStream input) {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8));
+        return this == CSV ? new CsvAgentRecordReader(reader) : new JsonAgentRecordReader(reader);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package org.osd.omot_app.data.importer;
+
+import androidx.annotation.Nullable;
+
+/**
+ * One agent as read from an import file, before validation. Field names follow the
+ * registration form; {@code clearance} and {@code biometric} are optional.
+ */
+public class AgentImportRecord {
+    public static final String FIELD_CODENAME = "codename";
+    public static final String FIELD_PASSWORD = "password";
+    public static final String FIELD_SECURITY_QUESTION = "security_question";
+    public static final String FIELD_SECURITY_ANSWER = "security_answer";
+    public static final String FIELD_CLEARANCE = "clearance";
+    public static final String FIELD_BIOMETRIC = "biometric";
+
+    private final int rowNumber;
+    private String codename;
+    private String password;
+    private String securityQuestion;
+    private String securityAnswer;
+    private String clearanceCode;
+    private String biometric;
+    // Set when the row itself could not be read, e.g. a CSV line with too few columns
+    private String parseError;
+
+    public AgentImportRecord(int rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    /**
+     * Sets a field by its import name. Unknown names are ignored.
+     */
+    public void setField(String name, @Nullable String value) {
+        switch (name) {
+            case FIELD_CODENAME: codename = value; break;
+            case FIELD_PASSWORD: password = value; break;
+            case FIELD_SECURITY_QUESTION: securityQuestion = value; break;
+            case FIELD_SECURITY_ANSWER: securityAnswer = value; break;
+            case FIELD_CLEARANCE: clearanceCode = value; break;
+            case FIELD_BIOMETRIC: biometric = value; break;
+            default: break;
+        }
+    }
+
+    /** 1-based position of the record in the file, not counting a header. */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public String getCodename() {
+        return codename;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getSecurityQuestion() {
+        return securityQuestion;
+    }
+
+    public String getSecurityAnswer() {
+        return securityAnswer;
+    }
+
+    @Nullable
+    public String getClearanceCode() {
+        return clearanceCode;
+    }
+
+    @Nullable
+    public String getBiometric() {
+        return biometric;
+    }
+
+    @Nullable
+    public String getParseError() {
+        return parseError;
+    }
+
+    public void setParseError(String parseError) {
+        this.parseError = parseError;
+    }
+}
\ No newline at end of file
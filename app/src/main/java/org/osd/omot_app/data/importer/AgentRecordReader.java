@@ -0,0 +1,20 @@
+package org.osd.omot_app.data.importer;
+
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams agent records out of an import file one at a time, so the whole file never has to be
+ * in memory.
+ */
+public interface AgentRecordReader extends Closeable {
+
+    /**
+     * @return The next record, or null at the end of the input.
+     * @throws IOException If the input can't be read or is malformed beyond the current record.
+     */
+    @Nullable
+    AgentImportRecord next() throws IOException;
+}
\ No newline at end of file
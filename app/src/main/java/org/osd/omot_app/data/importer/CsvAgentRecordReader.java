@@ -0,0 +1,107 @@
+package org.osd.omot_app.data.importer;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads agents from RFC 4180 CSV. The first record is a header naming the columns (see
+ * {@link AgentImportRecord} for the names, matched case-insensitively); quoted fields may contain
+ * commas, doubled quotes and line breaks. Blank lines are skipped.
+ */
+public class CsvAgentRecordReader implements AgentRecordReader {
+    private final BufferedReader reader;
+    private String[] header;
+    private int rowNumber;
+
+    public CsvAgentRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Nullable
+    @Override
+    public AgentImportRecord next() throws IOException {
+        if (header == null) {
+            List<String> names = readRow();
+            if (names == null) return null;
+            header = new String[names.size()];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = names.get(i).trim().toLowerCase(Locale.US);
+            }
+        }
+
+        List<String> values;
+        do {
+            values = readRow();
+            if (values == null) return null;
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        AgentImportRecord record = new AgentImportRecord(++rowNumber);
+        if (values.size() != header.length) {
+            record.setParseError("Expected " + header.length + " columns, found "
+                    + values.size());
+            return record;
+        }
+        for (int i = 0; i < header.length; i++) {
+            record.setField(header[i], values.get(i));
+        }
+        return record;
+    }
+
+    /**
+     * @return The fields of the next record, or null at the end of the input.
+     */
+    @Nullable
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field in record "
+                        + (rowNumber + 1));
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');      // Escaped quote
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') reader.reset();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package org.osd.omot_app.data.importer;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * Reads agents from a JSON array of objects whose keys are the field names of
+ * {@link AgentImportRecord}. Values may be strings, booleans, numbers or null; unknown keys
+ * and nested values are skipped. The array is streamed, never parsed as a whole.
+ */
+public class JsonAgentRecordReader implements AgentRecordReader {
+    private final JsonReader reader;
+    private boolean started;
+    private int rowNumber;
+
+    public JsonAgentRecordReader(Reader reader) {
+        this.reader = new JsonReader(reader);
+    }
+
+    @Nullable
+    @Override
+    public AgentImportRecord next() throws IOException {
+        if (!started) {
+            reader.beginArray();
+            started = true;
+        }
+        if (!reader.hasNext()) {
+            reader.endArray();
+            return null;
+        }
+
+        AgentImportRecord record = new AgentImportRecord(++rowNumber);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            record.setParseError("Expected an object");
+            return record;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName().toLowerCase(Locale.US);
+            switch (reader.peek()) {
+                case STRING:
+                case NUMBER:
+                    record.setField(name, reader.nextString());
+                    break;
+                case BOOLEAN:
+                    record.setField(name, String.valueOf(reader.nextBoolean()));
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.osd.omot_app.data.DBContract;
+
+/**
+ * v3 -> v4: indexes the numeric part of agent IDs (used to allocate the next ID) and
+ * the last login time of agents who have logged in at least once.
+ */
+public class AgentLookupIndexMigration extends Migration {
+
+    public AgentLookupIndexMigration() {
+        super(3, 4);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_AGENT_NUMBER);
+        db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_RECENT_LOGIN);
+    }
+}
\ No newline at end of file
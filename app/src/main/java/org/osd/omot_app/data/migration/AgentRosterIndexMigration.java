@@ -0,0 +1,21 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.osd.omot_app.data.DBContract;
+
+/**
+ * v2 -> v3: adds the composite indexes behind the paged agent roster queries.
+ */
+public class AgentRosterIndexMigration extends Migration {
+
+    public AgentRosterIndexMigration() {
+        super(2, 3);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_CLEARANCE_CODENAME);
+        db.execSQL(DBContract.AgentEntry.SQL_CREATE_INDEX_LOCKED_CODENAME);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.osd.omot_app.data.DBContract;
+
+/**
+ * v4 -> v5: adds the sequence table agent IDs are allocated from, seeded past the
+ * highest existing agent number.
+ */
+public class AgentSequenceMigration extends Migration {
+
+    public AgentSequenceMigration() {
+        super(4, 5);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL(DBContract.SequenceEntry.SQL_CREATE_TABLE);
+        db.execSQL(DBContract.SequenceEntry.SQL_SEED_AGENT_ID);
+    }
+}
\ No newline at end of file
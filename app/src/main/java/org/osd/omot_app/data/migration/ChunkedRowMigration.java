@@ -0,0 +1,121 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * A migration step that rewrites existing rows of a table.
+ * <p>
+ * Only {@link #migrate(SQLiteDatabase)} runs inside the upgrade transaction. The row rewrite
+ * itself is deferred: {@link MigrationRunner} records it as pending and later processes it in
+ * small chunks, each in its own short transaction, so large tables never hold the write lock
+ * for long. Readers must therefore accept both the old and the new row format until the step
+ * has finished, and {@link #getPendingRowsSelection()} must only match rows still in the old
+ * format so that an interrupted rewrite can safely resume after a restart.
+ */
+public abstract class ChunkedRowMigration extends Migration {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final int chunkSize;
+
+    protected ChunkedRowMigration(int startVersion, int endVersion) {
+        this(startVersion, endVersion, DEFAULT_CHUNK_SIZE);
+    }
+
+    protected ChunkedRowMigration(int startVersion, int endVersion, int chunkSize) {
+        super(startVersion, endVersion);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Schema changes that must be applied inside the upgrade transaction. None by default.
+     */
+    @Override
+    public void migrate(SQLiteDatabase db) {
+    }
+
+    /**
+     * @return The table whose rows are rewritten.
+     */
+    protected abstract String getTableName();
+
+    /**
+     * @return The columns needed to rewrite a row. The cursor passed to
+     *         {@link #bindRewrite(Cursor, SQLiteStatement)} has {@code rowid} at index 0
+     *         followed by these columns.
+     */
+    protected abstract String[] getColumns();
+
+    /**
+     * @return A WHERE clause matching only rows that still need rewriting.
+     */
+    protected abstract String getPendingRowsSelection();
+
+    /**
+     * @return The UPDATE statement applied to each row, normally keyed by {@code rowid}.
+     */
+    protected abstract String getRewriteStatement();
+
+    /**
+     * Binds every argument of the rewrite statement for the cursor's current row.
+     * @return false to leave this row untouched.
+     */
+    protected abstract boolean bindRewrite(Cursor cursor, SQLiteStatement statement);
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Counts the rows still waiting to be rewritten.
+     */
+    public long countPendingRows(SQLiteDatabase db) {
+        return DatabaseUtils.queryNumEntries(db, getTableName(), getPendingRowsSelection());
+    }
+
+    /**
+     * Rewrites the next chunk of pending rows whose rowid is greater than {@code afterRowID}.
+     * The caller is responsible for the surrounding transaction.
+     * @return The number of rows visited and the last rowid reached.
+     */
+    public Chunk migrateChunk(SQLiteDatabase db, long afterRowID) {
+        String[] columns = getColumns();
+        String[] projection = new String[columns.length + 1];
+        projection[0] = "rowid";
+        System.arraycopy(columns, 0, projection, 1, columns.length);
+
+        String selection = "rowid > ? AND (" + getPendingRowsSelection() + ")";
+        int rowCount = 0;
+        long lastRowID = afterRowID;
+
+        try (SQLiteStatement statement = db.compileStatement(getRewriteStatement());
+             Cursor cursor = db.query(getTableName(), projection, selection,
+                     new String[]{String.valueOf(afterRowID)}, null, null, "rowid",
+                     String.valueOf(chunkSize))) {
+            while (cursor.moveToNext()) {
+                rowCount++;
+                lastRowID = cursor.getLong(0);
+                statement.clearBindings();
+                if (bindRewrite(cursor, statement)) {
+                    statement.executeUpdateDelete();
+                }
+            }
+        }
+        return new Chunk(rowCount, lastRowID);
+    }
+
+    /**
+     * Outcome of a single {@link #migrateChunk(SQLiteDatabase, long)} call.
+     */
+    public static final class Chunk {
+        public final int rowCount;
+        public final long lastRowID;
+
+        Chunk(int rowCount, long lastRowID) {
+            this.rowCount = rowCount;
+            this.lastRowID = lastRowID;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+/**
+ * v7 -> v8: adds the integer clearance rank to dossiers, filled from their clearance codes, and
+ * indexes it so access-filtered listings are answered from the index.
+ */
+public class DossierClearanceRankMigration extends Migration {
+
+    public DossierClearanceRankMigration() {
+        super(7, 8);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + DBContract.DossierEntry.TABLE_NAME + " ADD COLUMN "
+                + DBContract.DossierEntry.COLUMN_CLEARANCE_RANK + " INTEGER NOT NULL DEFAULT "
+                + ClearanceLevel.RANK_UNKNOWN);
+        db.execSQL("UPDATE " + DBContract.DossierEntry.TABLE_NAME
+                + " SET " + DBContract.DossierEntry.COLUMN_CLEARANCE_RANK + " = CASE "
+                + DBContract.DossierEntry.COLUMN_CLEARANCE_REQUIRED
+                + " WHEN 'BETA' THEN " + ClearanceLevel.RANK_BETA
+                + " WHEN 'ALPHA' THEN " + ClearanceLevel.RANK_ALPHA
+                + " WHEN 'OMEGA' THEN " + ClearanceLevel.RANK_OMEGA
+                + " WHEN 'SHADOW' THEN " + ClearanceLevel.RANK_SHADOW
+                + " ELSE " + ClearanceLevel.RANK_UNKNOWN + " END");
+        db.execSQL(DBContract.DossierEntry.SQL_CREATE_INDEX_RANK_CREATED);
+    }
+}
\ No newline at end of file
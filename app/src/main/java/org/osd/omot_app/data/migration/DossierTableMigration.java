@@ -0,0 +1,35 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.osd.omot_app.data.DBContract;
+
+/**
+ * v6 -> v7: adds the dossier table and its per-clearance listing index.
+ */
+public class DossierTableMigration extends Migration {
+
+    /** The dossier table as of version 7, before the clearance rank column. */
+    public static final String SQL_CREATE_TABLE_V7 =
+            "CREATE TABLE IF NOT EXISTS " + DBContract.DossierEntry.TABLE_NAME + " ("
+            + "dossier_id TEXT PRIMARY KEY NOT NULL,"
+            + "title TEXT NOT NULL,"
+            + "clearance_required TEXT NOT NULL,"
+            + "content_file TEXT,"
+            + "page_count INTEGER NOT NULL DEFAULT 0,"
+            + "created_at INTEGER NOT NULL,"
+            + "FOREIGN KEY (clearance_required) REFERENCES "
+            + DBContract.ClearanceLevelEntry.TABLE_NAME + "("
+            + DBContract.ClearanceLevelEntry.COLUMN_CLEARANCE_CODE + ")"
+            + ");";
+
+    public DossierTableMigration() {
+        super(6, 7);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL(SQL_CREATE_TABLE_V7);
+        db.execSQL(DBContract.DossierEntry.SQL_CREATE_INDEX_CLEARANCE_CREATED);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Base64;
+import android.util.Log;
+
+import org.osd.omot_app.data.DBContract;
+
+/**
+ * v1 -> v2: encrypted agent columns hold raw IV + ciphertext BLOBs instead of Base64 text.
+ * Only the encoding changes, so no KeyStore access is needed.
+ */
+public class EncryptedBlobMigration extends ChunkedRowMigration {
+    private static final String TAG = "EncryptedBlobMigration";
+
+    private static final String[] COLUMNS = {
+            DBContract.AgentEntry.COLUMN_PASSWORD_HASH,
+            DBContract.AgentEntry.COLUMN_SALT,
+            DBContract.AgentEntry.COLUMN_SECURITY_QUESTION,
+            DBContract.AgentEntry.COLUMN_SECURITY_ANSWER_HASH
+    };
+
+    public EncryptedBlobMigration() {
+        super(1, 2);
+    }
+
+    @Override
+    protected String getTableName() {
+        return DBContract.AgentEntry.TABLE_NAME;
+    }
+
+    @Override
+    protected String[] getColumns() {
+        return COLUMNS;
+    }
+
+    @Override
+    protected String getPendingRowsSelection() {
+        StringBuilder selection = new StringBuilder();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) selection.append(" OR ");
+            selection.append("typeof(").append(COLUMNS[i]).append(") = 'text'");
+        }
+        return selection.toString();
+    }
+
+    @Override
+    protected String getRewriteStatement() {
+        StringBuilder update = new StringBuilder("UPDATE ")
+                .append(DBContract.AgentEntry.TABLE_NAME).append(" SET ");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) update.append(", ");
+            update.append(COLUMNS[i]).append(" = ?");
+        }
+        return update.append(" WHERE rowid = ?").toString();
+    }
+
+    @Override
+    protected boolean bindRewrite(Cursor cursor, SQLiteStatement statement) {
+        try {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                int columnIndex = i + 1;
+                switch (cursor.getType(columnIndex)) {
+                    case Cursor.FIELD_TYPE_NULL:
+                        statement.bindNull(i + 1);
+                        break;
+                    case Cursor.FIELD_TYPE_STRING:
+                        statement.bindBlob(i + 1,
+                                Base64.decode(cursor.getString(columnIndex), Base64.NO_WRAP));
+                        break;
+                    default:
+                        statement.bindBlob(i + 1, cursor.getBlob(columnIndex));
+                        break;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Skipping agent row " + cursor.getLong(0) + ": invalid Base64", e);
+            return false;
+        }
+        statement.bindLong(COLUMNS.length + 1, cursor.getLong(0));
+        return true;
+    }
+}
\ No newline at end of file
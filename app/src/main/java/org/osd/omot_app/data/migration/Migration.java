@@ -0,0 +1,43 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * A single, ordered step that moves the OMOT database schema from one version to the next.
+ * Steps run inside the upgrade transaction opened by {@link android.database.sqlite.SQLiteOpenHelper},
+ * so a failing step rolls back the whole upgrade and leaves the old version in place.
+ */
+public abstract class Migration {
+    private final int startVersion;
+    private final int endVersion;
+
+    protected Migration(int startVersion, int endVersion) {
+        if (endVersion <= startVersion) {
+            throw new IllegalArgumentException("Migration must move to a newer version: "
+                    + startVersion + " -> " + endVersion);
+        }
+        this.startVersion = startVersion;
+        this.endVersion = endVersion;
+    }
+
+    /**
+     * Applies the schema changes for this step.
+     * @param db The database being upgraded, already inside a transaction.
+     */
+    public abstract void migrate(SQLiteDatabase db);
+
+    public int getStartVersion() {
+        return startVersion;
+    }
+
+    public int getEndVersion() {
+        return endVersion;
+    }
+
+    /**
+     * Stable identifier used to track deferred work for this step across app restarts.
+     */
+    public String getName() {
+        return "v" + startVersion + "_to_v" + endVersion;
+    }
+}
\ No newline at end of file
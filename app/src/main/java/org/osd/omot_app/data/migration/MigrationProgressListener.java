@@ -0,0 +1,29 @@
+package org.osd.omot_app.data.migration;
+
+/**
+ * Receives progress updates while database migrations run.
+ * Callbacks are delivered on the thread running the migration. For a {@link ChunkedRowMigration}
+ * the start and finish callbacks bracket the deferred row rewrite rather than the schema change.
+ */
+public interface MigrationProgressListener {
+
+    /**
+     * Called before a migration step starts.
+     * @param migration The step about to run.
+     */
+    void onStepStarted(Migration migration);
+
+    /**
+     * Called after each chunk of a row-rewriting migration has been committed.
+     * @param migration The step being run.
+     * @param rowsProcessed The number of rows processed so far.
+     * @param totalRows The number of rows that needed rewriting when the step started.
+     */
+    void onRowsMigrated(Migration migration, long rowsProcessed, long totalRows);
+
+    /**
+     * Called once a migration step has completed.
+     * @param migration The step that finished.
+     */
+    void onStepFinished(Migration migration);
+}
\ No newline at end of file
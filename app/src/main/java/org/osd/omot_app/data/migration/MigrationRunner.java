@@ -0,0 +1,149 @@
+package org.osd.omot_app.data.migration;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.DBContract;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies {@link Migration} steps in version order and drives deferred row rewrites.
+ */
+public class MigrationRunner {
+    private static final String TAG = "MigrationRunner";
+
+    private final List<Migration> migrations;
+    private volatile MigrationProgressListener listener;
+
+    public MigrationRunner(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        Collections.sort(sorted, (a, b) -> Integer.compare(a.getStartVersion(), b.getStartVersion()));
+        this.migrations = Collections.unmodifiableList(sorted);
+    }
+
+    public void setProgressListener(@Nullable MigrationProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Runs every step between {@code oldVersion} and {@code newVersion}.
+     * Must be called from {@code onUpgrade}, inside the helper's upgrade transaction.
+     * Row rewrites of {@link ChunkedRowMigration} steps are only recorded here;
+     * call {@link #runPendingRowMigrations(SQLiteDatabase)} once the database is open.
+     * @throws IllegalStateException if no chain of steps connects the two versions.
+     */
+    public void upgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL(DBContract.PendingMigrationEntry.SQL_CREATE_TABLE);
+
+        for (Migration migration : findPath(oldVersion, newVersion)) {
+            Log.i(TAG, "Applying migration " + migration.getName());
+            if (migration instanceof ChunkedRowMigration) {
+                // Progress for row rewrites is reported when the deferred rewrite runs
+                migration.migrate(db);
+                ContentValues values = new ContentValues();
+                values.put(DBContract.PendingMigrationEntry.COLUMN_MIGRATION_NAME, migration.getName());
+                db.insertWithOnConflict(DBContract.PendingMigrationEntry.TABLE_NAME, null, values,
+                        SQLiteDatabase.CONFLICT_IGNORE);
+                continue;
+            }
+
+            MigrationProgressListener currentListener = listener;
+            if (currentListener != null) currentListener.onStepStarted(migration);
+            migration.migrate(db);
+            if (currentListener != null) currentListener.onStepFinished(migration);
+        }
+    }
+
+    /**
+     * Processes the row rewrites recorded by earlier upgrades, one chunk per transaction.
+     * Safe to call repeatedly; does nothing when no rewrite is pending.
+     * Should be called from a background thread after the database has been opened.
+     */
+    public synchronized void runPendingRowMigrations(SQLiteDatabase db) {
+        Set<String> pending = loadPendingNames(db);
+        if (pending.isEmpty()) return;
+
+        for (Migration migration : migrations) {
+            if (!(migration instanceof ChunkedRowMigration) || !pending.contains(migration.getName())) {
+                continue;
+            }
+            runRowMigration(db, (ChunkedRowMigration) migration);
+        }
+    }
+
+    private void runRowMigration(SQLiteDatabase db, ChunkedRowMigration migration) {
+        MigrationProgressListener currentListener = listener;
+        long totalRows = migration.countPendingRows(db);
+        long rowsProcessed = 0;
+        long lastRowID = 0;
+        Log.i(TAG, "Rewriting " + totalRows + " rows for migration " + migration.getName());
+        if (currentListener != null) currentListener.onStepStarted(migration);
+
+        while (true) {
+            ChunkedRowMigration.Chunk chunk;
+            db.beginTransactionNonExclusive();
+            try {
+                chunk = migration.migrateChunk(db, lastRowID);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            rowsProcessed += chunk.rowCount;
+            lastRowID = chunk.lastRowID;
+            if (chunk.rowCount > 0 && currentListener != null) {
+                currentListener.onRowsMigrated(migration, rowsProcessed, totalRows);
+            }
+            if (chunk.rowCount < migration.getChunkSize()) break;
+        }
+
+        db.delete(DBContract.PendingMigrationEntry.TABLE_NAME,
+                DBContract.PendingMigrationEntry.COLUMN_MIGRATION_NAME + " = ?",
+                new String[]{migration.getName()});
+        Log.i(TAG, "Finished migration " + migration.getName() + " (" + rowsProcessed + " rows)");
+        if (currentListener != null) currentListener.onStepFinished(migration);
+    }
+
+    private Set<String> loadPendingNames(SQLiteDatabase db) {
+        Set<String> names = new HashSet<>();
+        try (Cursor cursor = db.query(DBContract.PendingMigrationEntry.TABLE_NAME,
+                new String[]{DBContract.PendingMigrationEntry.COLUMN_MIGRATION_NAME},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+        }
+        return names;
+    }
+
+    private List<Migration> findPath(int oldVersion, int newVersion) {
+        List<Migration> path = new ArrayList<>();
+        int version = oldVersion;
+        while (version < newVersion) {
+            Migration next = null;
+            for (Migration migration : migrations) {
+                if (migration.getStartVersion() == version
+                        && migration.getEndVersion() <= newVersion
+                        && (next == null || migration.getEndVersion() > next.getEndVersion())) {
+                    next = migration;
+                }
+            }
+            if (next == null) {
+                throw new IllegalStateException("No migration path from database version "
+                        + version + " to " + newVersion);
+            }
+            path.add(next);
+            version = next.getEndVersion();
+        }
+        return path;
+    }
+}
\ No newline at end of file
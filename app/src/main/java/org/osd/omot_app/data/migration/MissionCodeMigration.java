@@ -0,0 +1,66 @@
+package org.osd.omot_app.data.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.osd.omot_app.data.DBContract;
+import org.osd.omot_app.data.model.Mission;
+
+/**
+ * v5 -> v6: stores mission status and priority as integer codes instead of display text, and
+ * adds the indexes behind the paged mission queries. SQLite can't change a column's type or
+ * CHECK constraint in place, so the table is rebuilt and its rows copied across.
+ */
+public class MissionCodeMigration extends Migration {
+    private static final String LEGACY_TABLE_NAME = DBContract.MissionEntry.TABLE_NAME + "_v5";
+
+    /** The mission table as created by schema versions 1 to 5. */
+    public static final String SQL_CREATE_LEGACY_TABLE =
+            "CREATE TABLE " + DBContract.MissionEntry.TABLE_NAME + " ("
+            + DBContract.MissionEntry.COLUMN_MISSION_ID + " TEXT PRIMARY KEY NOT NULL,"
+            + DBContract.MissionEntry.COLUMN_TITLE + " TEXT NOT NULL,"
+            + DBContract.MissionEntry.COLUMN_STATUS + " TEXT NOT NULL CHECK("
+            + DBContract.MissionEntry.COLUMN_STATUS + " IN ('Active', 'Completed', 'Deactivated', 'Pending')),"
+            + DBContract.MissionEntry.COLUMN_PRIORITY + " TEXT NOT NULL CHECK("
+            + DBContract.MissionEntry.COLUMN_PRIORITY + " IN ('High', 'Medium', 'Low')),"
+            + DBContract.MissionEntry.COLUMN_START_DATE + " INTEGER NOT NULL,"
+            + DBContract.MissionEntry.COLUMN_END_DATE + " INTEGER,"
+            + DBContract.MissionEntry.COLUMN_BRIEFING_FILE + " TEXT"
+            + ");";
+
+    public MissionCodeMigration() {
+        super(5, 6);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + DBContract.MissionEntry.TABLE_NAME
+                + " RENAME TO " + LEGACY_TABLE_NAME);
+        db.execSQL(DBContract.MissionEntry.SQL_CREATE_TABLE);
+        db.execSQL("INSERT INTO " + DBContract.MissionEntry.TABLE_NAME + " ("
+                + DBContract.MissionEntry.COLUMN_MISSION_ID + ", "
+                + DBContract.MissionEntry.COLUMN_TITLE + ", "
+                + DBContract.MissionEntry.COLUMN_STATUS + ", "
+                + DBContract.MissionEntry.COLUMN_PRIORITY + ", "
+                + DBContract.MissionEntry.COLUMN_START_DATE + ", "
+                + DBContract.MissionEntry.COLUMN_END_DATE + ", "
+                + DBContract.MissionEntry.COLUMN_BRIEFING_FILE + ") SELECT "
+                + DBContract.MissionEntry.COLUMN_MISSION_ID + ", "
+                + DBContract.MissionEntry.COLUMN_TITLE + ", "
+                + "CASE " + DBContract.MissionEntry.COLUMN_STATUS
+                + " WHEN 'Active' THEN " + Mission.Status.ACTIVE.getCode()
+                + " WHEN 'Completed' THEN " + Mission.Status.COMPLETED.getCode()
+                + " WHEN 'Deactivated' THEN " + Mission.Status.DEACTIVATED.getCode()
+                + " ELSE " + Mission.Status.PENDING.getCode() + " END, "
+                + "CASE " + DBContract.MissionEntry.COLUMN_PRIORITY
+                + " WHEN 'High' THEN " + Mission.Priority.HIGH.getCode()
+                + " WHEN 'Medium' THEN " + Mission.Priority.MEDIUM.getCode()
+                + " ELSE " + Mission.Priority.LOW.getCode() + " END, "
+                + DBContract.MissionEntry.COLUMN_START_DATE + ", "
+                + DBContract.MissionEntry.COLUMN_END_DATE + ", "
+                + DBContract.MissionEntry.COLUMN_BRIEFING_FILE
+                + " FROM " + LEGACY_TABLE_NAME);
+        db.execSQL("DROP TABLE " + LEGACY_TABLE_NAME);
+        db.execSQL(DBContract.MissionEntry.SQL_CREATE_INDEX_STATUS_PRIORITY_START);
+        db.execSQL(DBContract.MissionEntry.SQL_CREATE_INDEX_STATUS_START);
+    }
+}
\ No newline at end of file
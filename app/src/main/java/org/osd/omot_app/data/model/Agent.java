@@ -5,6 +5,9 @@ package org.osd.omot_app.data.model;
  * This is the main user entity for authentication and authorization.
  */
 public class Agent {
+    /** How long an account stays locked after the last failed login attempt. */
+    public static final long LOCKOUT_DURATION_MS = 10 * 60 * 1000; // 10 minutes in milliseconds
+
     private String agentID;
     private String codename;
     private String passwordHash;
@@ -17,6 +20,8 @@ public class Agent {
     private int failedLoginAttempts;
     private long lastFailedLoginTimestamp;
     private boolean accountLocked;
+    // Encrypted credentials, decrypted per field on first access; null for eagerly built agents
+    private SensitiveAgentFields sensitiveFields;
 
     public Agent() {
     }
@@ -36,12 +41,33 @@ public class Agent {
         this.accountLocked = accountLocked;
     }
 
+    /**
+     * Creates an agent whose password hash, salt, security question and security answer hash
+     * are each decrypted only when first read.
+     */
+    public Agent(String agentID, String codename, SensitiveAgentFields sensitiveFields, ClearanceLevel clearanceLevel, boolean biometricEnabled, long lastLoginTimestamp, int failedLoginAttempts, long lastFailedLoginTimestamp, boolean accountLocked) {
+        this(agentID, codename, null, null, null, null, clearanceLevel, biometricEnabled,
+                lastLoginTimestamp, failedLoginAttempts, lastFailedLoginTimestamp, accountLocked);
+        this.sensitiveFields = sensitiveFields;
+    }
+
     // Helper method to check if the account is temporarily locked due to failed attempts
     public boolean isTemporarilyLocked() {
         if (!accountLocked) return false;
-        // Check if the lockout period (e.g., 10 minutes) has expired since the last failed attempt
-        long lockedDurationMs = 10 * 60 * 1000; // 10 minutes in milliseconds
-        return (System.currentTimeMillis() - lastFailedLoginTimestamp) < lockedDurationMs;
+        // Check if the lockout period has expired since the last failed attempt
+        return (System.currentTimeMillis() - lastFailedLoginTimestamp) < LOCKOUT_DURATION_MS;
+    }
+
+    /**
+     * Drops the decrypted credentials and zeroes their ciphertext once the caller is done with
+     * them. The credential getters return null afterwards.
+     */
+    public void clearSensitiveFields() {
+        if (sensitiveFields != null) sensitiveFields.clear();
+        passwordHash = null;
+        salt = null;
+        securityQuestion = null;
+        securityAnswerHash = null;
     }
 
     public String getAgentID() {
@@ -61,34 +87,54 @@ public class Agent {
     }
 
     public String getPasswordHash() {
+        if (sensitiveFields != null) return sensitiveFields.get(SensitiveAgentFields.PASSWORD_HASH);
         return passwordHash;
     }
 
     public void setPasswordHash(String passwordHash) {
+        if (sensitiveFields != null) {
+            sensitiveFields.set(SensitiveAgentFields.PASSWORD_HASH, passwordHash);
+            return;
+        }
         this.passwordHash = passwordHash;
     }
 
     public String getSalt() {
+        if (sensitiveFields != null) return sensitiveFields.get(SensitiveAgentFields.SALT);
         return salt;
     }
 
     public void setSalt(String salt) {
+        if (sensitiveFields != null) {
+            sensitiveFields.set(SensitiveAgentFields.SALT, salt);
+            return;
+        }
         this.salt = salt;
     }
 
     public String getSecurityQuestion() {
+        if (sensitiveFields != null) return sensitiveFields.get(SensitiveAgentFields.SECURITY_QUESTION);
         return securityQuestion;
     }
 
     public void setSecurityQuestion(String securityQuestion) {
+        if (sensitiveFields != null) {
+            sensitiveFields.set(SensitiveAgentFields.SECURITY_QUESTION, securityQuestion);
+            return;
+        }
         this.securityQuestion = securityQuestion;
     }
 
     public String getSecurityAnswerHash() {
+        if (sensitiveFields != null) return sensitiveFields.get(SensitiveAgentFields.SECURITY_ANSWER_HASH);
         return securityAnswerHash;
     }
 
     public void setSecurityAnswerHash(String securityAnswerHash) {
+        if (sensitiveFields != null) {
+            sensitiveFields.set(SensitiveAgentFields.SECURITY_ANSWER_HASH, securityAnswerHash);
+            return;
+        }
         this.securityAnswerHash = securityAnswerHash;
     }
 
@@ -0,0 +1,86 @@
+package org.osd.omot_app.data.model;
+
+/**
+ * A set of changed agent fields for a partial update. Only the fields that were set are
+ * written, and only the sensitive ones among them are re-encrypted.
+ */
+public class AgentPatch {
+    private String passwordHash;
+    private String salt;
+    private String securityQuestion;
+    private String securityAnswerHash;
+    private ClearanceLevel clearanceLevel;
+    private Boolean biometricEnabled;
+    private Boolean accountLocked;
+
+    public AgentPatch setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+        return this;
+    }
+
+    public AgentPatch setSalt(String salt) {
+        this.salt = salt;
+        return this;
+    }
+
+    public AgentPatch setSecurityQuestion(String securityQuestion) {
+        this.securityQuestion = securityQuestion;
+        return this;
+    }
+
+    public AgentPatch setSecurityAnswerHash(String securityAnswerHash) {
+        this.securityAnswerHash = securityAnswerHash;
+        return this;
+    }
+
+    public AgentPatch setClearanceLevel(ClearanceLevel clearanceLevel) {
+        this.clearanceLevel = clearanceLevel;
+        return this;
+    }
+
+    public AgentPatch setBiometricEnabled(boolean biometricEnabled) {
+        this.biometricEnabled = biometricEnabled;
+        return this;
+    }
+
+    public AgentPatch setAccountLocked(boolean accountLocked) {
+        this.accountLocked = accountLocked;
+        return this;
+    }
+
+    // Getters return null for fields that are not part of the patch
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public String getSalt() {
+        return salt;
+    }
+
+    public String getSecurityQuestion() {
+        return securityQuestion;
+    }
+
+    public String getSecurityAnswerHash() {
+        return securityAnswerHash;
+    }
+
+    public ClearanceLevel getClearanceLevel() {
+        return clearanceLevel;
+    }
+
+    public Boolean getBiometricEnabled() {
+        return biometricEnabled;
+    }
+
+    public Boolean getAccountLocked() {
+        return accountLocked;
+    }
+
+    public boolean isEmpty() {
+        return passwordHash == null && salt == null && securityQuestion == null
+                && securityAnswerHash == null && clearanceLevel == null
+                && biometricEnabled == null && accountLocked == null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package org.osd.omot_app.data.model;
+
+/**
+ * The identity of an authenticated agent, as screens and permission checks need it.
+ * Immutable, and deliberately holds no password hash, salt or security answer.
+ */
+public final class AgentSession {
+    private final String agentID;
+    private final String codename;
+    private final ClearanceLevel clearanceLevel;
+    private final boolean biometricEnabled;
+    private final long lastLoginTimestamp;
+
+    public AgentSession(String agentID, String codename, ClearanceLevel clearanceLevel,
+                        boolean biometricEnabled, long lastLoginTimestamp) {
+        this.agentID = agentID;
+        this.codename = codename;
+        this.clearanceLevel = clearanceLevel;
+        this.biometricEnabled = biometricEnabled;
+        this.lastLoginTimestamp = lastLoginTimestamp;
+    }
+
+    /**
+     * Copies the non-secret fields of an agent. Reads no sensitive field, so a lazily decrypted
+     * agent stays encrypted.
+     */
+    public static AgentSession from(Agent agent) {
+        return new AgentSession(agent.getAgentID(), agent.getCodename(), agent.getClearanceLevel(),
+                agent.isBiometricEnabled(), agent.getLastLoginTimestamp());
+    }
+
+    public String getAgentID() {
+        return agentID;
+    }
+
+    public String getCodename() {
+        return codename;
+    }
+
+    public ClearanceLevel getClearanceLevel() {
+        return clearanceLevel;
+    }
+
+    public boolean isBiometricEnabled() {
+        return biometricEnabled;
+    }
+
+    public long getLastLoginTimestamp() {
+        return lastLoginTimestamp;
+    }
+}
\ No newline at end of file
@@ -5,11 +5,31 @@ import androidx.annotation.NonNull;
 /**
  * Represents an agent's access level within the Obsidian Directorate.
  * This is a reference entity stored in the database.
+ * <p>
+ * Each known level has a rank, persisted alongside its code, and an access mask with bit
+ * {@code r} set for every rank it may read. The hierarchy is OMEGA > ALPHA > BETA; SHADOW
+ * operatives are confined to SHADOW material, which only OMEGA can also read. Levels with an
+ * unknown code get {@link #RANK_UNKNOWN} and can access nothing.
  */
 public class ClearanceLevel {
+    public static final int RANK_UNKNOWN = -1;
+    public static final int RANK_BETA = 0;
+    public static final int RANK_ALPHA = 1;
+    public static final int RANK_OMEGA = 2;
+    public static final int RANK_SHADOW = 3;
+
+    // Indexed by the agent's rank: the ranks that agent may access
+    private static final int[] ACCESS_MASKS = {
+            1 << RANK_BETA,                                                 // BETA
+            1 << RANK_BETA | 1 << RANK_ALPHA,                               // ALPHA
+            1 << RANK_BETA | 1 << RANK_ALPHA | 1 << RANK_OMEGA | 1 << RANK_SHADOW, // OMEGA
+            1 << RANK_SHADOW                                                // SHADOW
+    };
+
     private String clearanceCode;
     private String name;
     private String description;
+    private int rank = RANK_UNKNOWN;
 
     public ClearanceLevel() {
     }
@@ -18,6 +38,7 @@ public class ClearanceLevel {
         this.clearanceCode = clearanceCode;
         this.name = name;
         this.description = description;
+        this.rank = rankOf(clearanceCode);
     }
 
     public String getClearanceCode() {
@@ -32,8 +53,23 @@ public class ClearanceLevel {
         return description;
     }
 
+    /**
+     * @return The persisted rank of this level, or {@link #RANK_UNKNOWN}.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return A mask with bit {@code r} set for every rank this level may access.
+     */
+    public int getAccessMask() {
+        return rank == RANK_UNKNOWN ? 0 : ACCESS_MASKS[rank];
+    }
+
     public void setClearanceCode(String clearanceCode) {
         this.clearanceCode = clearanceCode;
+        this.rank = rankOf(clearanceCode);
     }
 
     public void setName(String name) {
@@ -50,19 +86,60 @@ public class ClearanceLevel {
     public static final ClearanceLevel OMEGA = new ClearanceLevel("OMEGA", "Command Authority", "Full app access, manage agents, override");
     public static final ClearanceLevel SHADOW = new ClearanceLevel("SHADOW", "Rogue Operative", "Special conditions, monitored access");
 
+    // Indexed by rank
+    private static final ClearanceLevel[] BY_RANK = {BETA, ALPHA, OMEGA, SHADOW};
+
     /**
      * Helper method to get a ClearanceLevel from its code.
      * @param code The clearance code (e.g., "BETA")
      * @return The corresponding ClearanceLevel, or null if not found.
      */
     public static ClearanceLevel fromCode(String code) {
-        if (code == null) return null;
+        return fromRank(rankOf(code));
+    }
+
+    /**
+     * @param rank A rank as returned by {@link #getRank()}.
+     * @return The corresponding ClearanceLevel, or null if not found.
+     */
+    public static ClearanceLevel fromRank(int rank) {
+        return rank >= 0 && rank < BY_RANK.length ? BY_RANK[rank] : null;
+    }
+
+    /**
+     * Maps a code to its rank. Codes are only parsed here, at the edges; access checks and
+     * queries work on ranks.
+     */
+    public static int rankOf(String code) {
+        if (code == null) return RANK_UNKNOWN;
         switch (code) {
-            case "BETA": return BETA;
-            case "ALPHA": return ALPHA;
-            case "OMEGA": return OMEGA;
-            case "SHADOW": return SHADOW;
-            default: return null;
+            case "BETA": return RANK_BETA;
+            case "ALPHA": return RANK_ALPHA;
+            case "OMEGA": return RANK_OMEGA;
+            case "SHADOW": return RANK_SHADOW;
+            default: return RANK_UNKNOWN;
         }
     }
+
+    /**
+     * Checks the clearance hierarchy with a single table lookup.
+     * @param agentLevel The agent's clearance.
+     * @param requiredLevel The clearance a resource requires.
+     * @return true if an agent holding agentLevel may access the resource. False if either
+     *         level is null or unknown.
+     */
+    public static boolean canAccess(ClearanceLevel agentLevel, ClearanceLevel requiredLevel) {
+        if (agentLevel == null || requiredLevel == null) return false;
+        return canAccess(agentLevel.rank, requiredLevel.rank);
+    }
+
+    /**
+     * Rank form of {@link #canAccess(ClearanceLevel, ClearanceLevel)}.
+     */
+    public static boolean canAccess(int agentRank, int requiredRank) {
+        if (agentRank < 0 || agentRank >= ACCESS_MASKS.length) return false;
+        // Shift counts wrap modulo 32, so an out-of-range rank would alias a real one
+        if (requiredRank < 0 || requiredRank >= BY_RANK.length) return false;
+        return (ACCESS_MASKS[agentRank] & (1 << requiredRank)) != 0;
+    }
 }
\ No newline at end of file
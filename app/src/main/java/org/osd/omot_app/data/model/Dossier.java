@@ -8,6 +8,7 @@ public class Dossier {
     private String title;
     private ClearanceLevel clearanceRequired;
     private String contentFilePath;             // Path to encrypted content
+    private int pageCount;
     private long createdAt;                     // Unix timestamp
 
     public Dossier() {
@@ -21,15 +22,13 @@ public class Dossier {
         this.createdAt = createdAt;
     }
 
-    // Helper method to check if an agent has sufficient clarance to view this dossier
+    /**
+     * Checks whether an agent's clearance reaches this dossier's, following the hierarchy in
+     * {@link ClearanceLevel}.
+     */
     public boolean canBeAccessedBy(Agent agent) {
-        // Logic to determine access based on clearance level hierarchy
-        // This is a placeholder. Implement your clearance hierarchy logic here.
-        // For example, OMEGA > ALPHA > BETA. SHADOW might have special rules.
-        if (agent == null || agent.getClearanceLevel() == null) return false;
-        // Simple implementation: Check if the agent's clearance code matches or is higher
-        // This requires defining a hierarchy order.
-        return agent.getClearanceLevel().getClearanceCode().equals(clearanceRequired.getClearanceCode());
+        return agent != null
+                && ClearanceLevel.canAccess(agent.getClearanceLevel(), clearanceRequired);
     }
 
     public String getDossierID() {
@@ -64,6 +63,14 @@ public class Dossier {
         this.contentFilePath = contentFilePath;
     }
 
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
     public long getCreatedAt() {
         return createdAt;
     }
@@ -4,8 +4,67 @@ package org.osd.omot_app.data.model;
  * Represents a mission or operation undertaken by the Directorate.
  */
 public class Mission {
-    public enum Status { ACTIVE, COMPLETED, DEACTIVATED, PENDING }
-    public enum Priority { HIGH, MEDIUM, LOW }
+    /**
+     * Mission state. Stored as {@link #getCode()}; codes are persisted and must never change.
+     */
+    public enum Status {
+        ACTIVE(0), COMPLETED(1), DEACTIVATED(2), PENDING(3);
+
+        // values() clones the array on every call; decoding a row must not allocate
+        private static final Status[] BY_CODE = new Status[4];
+
+        static {
+            for (Status status : values()) BY_CODE[status.code] = status;
+        }
+
+        private final int code;
+
+        Status(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @return The status stored under the code, or null if the code is unknown.
+         */
+        public static Status fromCode(int code) {
+            return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        }
+    }
+
+    /**
+     * Mission urgency. Stored as {@link #getCode()}, higher codes being more urgent, so
+     * "most urgent first" is a plain descending sort; codes must never change.
+     */
+    public enum Priority {
+        HIGH(3), MEDIUM(2), LOW(1);
+
+        private static final Priority[] BY_CODE = new Priority[4];
+
+        static {
+            for (Priority priority : values()) BY_CODE[priority.code] = priority;
+        }
+
+        private final int code;
+
+        Priority(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @return The priority stored under the code, or null if the code is unknown.
+         */
+        public static Priority fromCode(int code) {
+            return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        }
+    }
 
     private String missionID;
     private String title;
@@ -0,0 +1,102 @@
+package org.osd.omot_app.data.model;
+
+import org.osd.omot_app.security.FieldCipher;
+
+import java.util.Arrays;
+
+/**
+ * Holds the encrypted password hash, salt, security question and security answer hash of
+ * an agent row and decrypts each one on first access.
+ * <p>
+ * Values are decrypted individually and memoized, so a login pays for the password hash and
+ * salt only, and paths that read none of them (listing agents, existence checks) pay no
+ * KeyStore cost at all. {@link #clear()} drops the plaintext and zeroes the ciphertext once
+ * the owner is done.
+ */
+public final class SensitiveAgentFields {
+    static final int PASSWORD_HASH = 0;
+    static final int SALT = 1;
+    static final int SECURITY_QUESTION = 2;
+    static final int SECURITY_ANSWER_HASH = 3;
+    private static final int FIELD_COUNT = 4;
+
+    private final FieldCipher cipher;
+    private final String[] plaintext = new String[FIELD_COUNT];
+    private final boolean[] resolved = new boolean[FIELD_COUNT];
+    private byte[][] ciphertext;
+
+    /**
+     * @param cipher The cipher used to decrypt the values on first access.
+     * @param passwordHash Encrypted password hash blob.
+     * @param salt Encrypted salt blob.
+     * @param securityQuestion Encrypted security question blob.
+     * @param securityAnswerHash Encrypted security answer hash blob.
+     */
+    public SensitiveAgentFields(FieldCipher cipher, byte[] passwordHash, byte[] salt,
+                                byte[] securityQuestion, byte[] securityAnswerHash) {
+        this.cipher = cipher;
+        this.ciphertext = new byte[][]{passwordHash, salt, securityQuestion, securityAnswerHash};
+    }
+
+    public String getPasswordHash() {
+        return get(PASSWORD_HASH);
+    }
+
+    public String getSalt() {
+        return get(SALT);
+    }
+
+    public String getSecurityQuestion() {
+        return get(SECURITY_QUESTION);
+    }
+
+    public String getSecurityAnswerHash() {
+        return get(SECURITY_ANSWER_HASH);
+    }
+
+    /**
+     * @return True if at least one value has been decrypted or replaced.
+     */
+    public synchronized boolean isDecrypted() {
+        for (boolean field : resolved) {
+            if (field) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the decrypted values and zeroes the ciphertext. Every getter returns null afterwards.
+     */
+    public synchronized void clear() {
+        if (ciphertext != null) {
+            for (byte[] value : ciphertext) {
+                if (value != null) Arrays.fill(value, (byte) 0);
+            }
+            ciphertext = null;
+        }
+        Arrays.fill(plaintext, null);
+        Arrays.fill(resolved, false);
+    }
+
+    /**
+     * Replaces a value without decrypting it; its ciphertext is zeroed.
+     */
+    synchronized void set(int field, String value) {
+        plaintext[field] = value;
+        resolved[field] = true;
+        if (ciphertext != null && ciphertext[field] != null) {
+            Arrays.fill(ciphertext[field], (byte) 0);
+            ciphertext[field] = null;
+        }
+    }
+
+    synchronized String get(int field) {
+        if (!resolved[field]) {
+            if (ciphertext == null) return null;    // Cleared
+            String[] decrypted = cipher.decryptBlobs(new byte[][]{ciphertext[field]});
+            plaintext[field] = decrypted != null ? decrypted[0] : null;
+            resolved[field] = true;
+        }
+        return plaintext[field];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package org.osd.omot_app.data.repository;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of agents without their credentials, keyed by codename and by agent ID.
+ * <p>
+ * Only non-secret columns are kept, and every read returns a fresh {@link Agent} copy whose
+ * password hash, salt and security fields are null, so nothing decrypted ever sits in memory here
+ * and callers can't modify cached state.
+ * <p>
+ * Loads race with writes: a reader may fetch a row just before another thread changes it. Every
+ * invalidation therefore bumps a generation counter, and {@link #put(Agent, long)} only stores
+ * a row loaded under the current generation.
+ */
+public class AgentProjectionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final LinkedHashMap<String, Projection> byCodename;
+    private final Map<String, String> codenameByID = new HashMap<>();
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /** The non-secret columns of one agent row. */
+    private static final class Projection {
+        final String agentID;
+        final String codename;
+        final ClearanceLevel clearanceLevel;
+        final boolean biometricEnabled;
+        final long lastLoginTimestamp;
+        final int failedLoginAttempts;
+        final long lastFailedLoginTimestamp;
+        final boolean accountLocked;
+
+        Projection(Agent agent) {
+            agentID = agent.getAgentID();
+            codename = agent.getCodename();
+            clearanceLevel = agent.getClearanceLevel();
+            biometricEnabled = agent.isBiometricEnabled();
+            lastLoginTimestamp = agent.getLastLoginTimestamp();
+            failedLoginAttempts = agent.getFailedLoginAttempts();
+            lastFailedLoginTimestamp = agent.getLastFailedLoginTimestamp();
+            accountLocked = agent.isAccountLocked();
+        }
+
+        Agent toAgent() {
+            return new Agent(agentID, codename, null, null, null, null, clearanceLevel,
+                    biometricEnabled, lastLoginTimestamp, failedLoginAttempts,
+                    lastFailedLoginTimestamp, accountLocked);
+        }
+    }
+
+    public AgentProjectionCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public AgentProjectionCache(int maxEntries) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive");
+        byCodename = new LinkedHashMap<String, Projection>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Projection> eldest) {
+                if (size() <= maxEntries) return false;
+                codenameByID.remove(eldest.getValue().agentID, eldest.getKey());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return A credential-free copy of the cached agent, or null on a miss.
+     */
+    @Nullable
+    public synchronized Agent getByCodename(String codename) {
+        return toResult(byCodename.get(codename));
+    }
+
+    /**
+     * @return A credential-free copy of the cached agent, or null on a miss.
+     */
+    @Nullable
+    public synchronized Agent getByID(String agentID) {
+        String codename = codenameByID.get(agentID);
+        return toResult(codename != null ? byCodename.get(codename) : null);
+    }
+
+    /**
+     * @return The generation to pass to {@link #put(Agent, long)} for a load starting now.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a freshly loaded agent, unless an invalidation happened since the load began.
+     * @return A credential-free copy of the agent.
+     */
+    public synchronized Agent put(Agent agent, long loadGeneration) {
+        Projection projection = new Projection(agent);
+        if (loadGeneration == generation) {
+            Projection previous = byCodename.put(projection.codename, projection);
+            if (previous != null) codenameByID.remove(previous.agentID, previous.codename);
+            codenameByID.put(projection.agentID, projection.codename);
+        }
+        return projection.toAgent();
+    }
+
+    public synchronized void invalidateCodename(String codename) {
+        generation++;
+        Projection removed = byCodename.remove(codename);
+        if (removed != null) codenameByID.remove(removed.agentID, removed.codename);
+    }
+
+    public synchronized void invalidateAgentID(String agentID) {
+        generation++;
+        String codename = codenameByID.remove(agentID);
+        if (codename != null) byCodename.remove(codename);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        byCodename.clear();
+        codenameByID.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return byCodename.size();
+    }
+
+    @Nullable
+    private Agent toResult(@Nullable Projection projection) {
+        if (projection == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return projection.toAgent();
+    }
+}
\ No newline at end of file
@@ -3,29 +3,349 @@ package org.osd.omot_app.data.repository;
 import android.util.Base64;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import org.osd.omot_app.data.dao.AgentDAO;
+import org.osd.omot_app.data.dao.LoginTelemetryBuffer;
+import org.osd.omot_app.data.importer.AgentImportFormat;
+import org.osd.omot_app.data.importer.AgentImportRecord;
+import org.osd.omot_app.data.importer.AgentRecordReader;
 import org.osd.omot_app.data.model.Agent;
 import org.osd.omot_app.data.model.ClearanceLevel;
+import org.osd.omot_app.data.model.AgentPatch;
+import org.osd.omot_app.data.model.AgentSession;
+import org.osd.omot_app.data.results.ImportResult;
 import org.osd.omot_app.data.results.RegistrationResult;
-
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import org.osd.omot_app.security.LoginThrottle;
+import org.osd.omot_app.security.PasswordHashEngine;
+import org.osd.omot_app.security.Pbkdf2PasswordHasher;
+import org.osd.omot_app.utils.ThreadGuard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class AgentRepository {
     private static final String TAG = "AgentRepository";
-    private static final String HASH_ALGORITHM = "SHA-256";
     private static final int SALT_LENGTH = 16;  // 16 bytes for the salt
+    // Records hashed and inserted together during an import; matches the DAO's insert batch
+    private static final int IMPORT_CHUNK_SIZE = 500;
 
     private final AgentDAO agentDAO;
+    private final Executor ioExecutor;
+    @Nullable
+    private final LoginTelemetryBuffer loginTelemetry;
+    private final PasswordHashEngine passwordHashEngine;
+    @Nullable
+    private final LoginThrottle loginThrottle;
     private final SecureRandom secureRandom;
+    // Replaced wholesale on rebuild; never null, but not ready until its first scan completes
+    private volatile CodenameFilter codenameFilter;
+    private final AtomicBoolean codenameFilterRebuildPending = new AtomicBoolean();
+    private final AgentSessionCache sessionCache = new AgentSessionCache();
+    private final AgentProjectionCache agentCache = new AgentProjectionCache();
+
+    public AgentRepository(AgentDAO agentDAO, Executor ioExecutor) {
+        this(agentDAO, ioExecutor, null);
+    }
+
+    /**
+     * Hashes passwords on the calling thread with a cost calibrated on first use.
+     */
+    public AgentRepository(AgentDAO agentDAO, Executor ioExecutor,
+                           @Nullable LoginTelemetryBuffer loginTelemetry) {
+        this(agentDAO, ioExecutor, loginTelemetry, new PasswordHashEngine(
+                new Pbkdf2PasswordHasher(), null, PasswordHashEngine.DEFAULT_TARGET_MILLIS,
+                Runnable::run));
+    }
+
+    public AgentRepository(AgentDAO agentDAO, Executor ioExecutor,
+                           @Nullable LoginTelemetryBuffer loginTelemetry,
+                           PasswordHashEngine passwordHashEngine) {
+        this(agentDAO, ioExecutor, loginTelemetry, passwordHashEngine, null);
+    }
 
-    public AgentRepository(AgentDAO agentDAO) {
+    /**
+     * @param agentDAO           The DAO used for all agent storage.
+     * @param ioExecutor         The executor running the {@code ...Async} variants. Every
+     *                           blocking method of this class touches SQLite and the KeyStore, so
+     *                           none of them may be called on the main thread.
+     * @param loginTelemetry     Buffer for last login timestamps, or null to write them on every
+     *                           login.
+     * @param passwordHashEngine Hashes and verifies passwords and security answers.
+     * @param loginThrottle      Rate limit for login attempts per codename, or null for none.
+     */
+    public AgentRepository(AgentDAO agentDAO, Executor ioExecutor,
+                           @Nullable LoginTelemetryBuffer loginTelemetry,
+                           PasswordHashEngine passwordHashEngine,
+                           @Nullable LoginThrottle loginThrottle) {
         this.agentDAO = agentDAO;
+        this.ioExecutor = ioExecutor;
+        this.loginTelemetry = loginTelemetry;
+        this.passwordHashEngine = passwordHashEngine;
+        this.loginThrottle = loginThrottle;
         this.secureRandom = new SecureRandom();
+        this.codenameFilter = new CodenameFilter(0, CodenameFilter.DEFAULT_FALSE_POSITIVE_RATE);
+
+        agentDAO.addChangeListener(new AgentDAO.ChangeListener() {
+            @Override
+            public void onCodenameAdded(String codename) {
+                CodenameFilter filter = codenameFilter;
+                filter.add(codename);
+                if (filter.isReady() && filter.isOverCapacity()) scheduleCodenameFilterBuild();
+            }
+
+            @Override
+            public void onCodenameRemoved(String codename) {
+                codenameFilter.remove(codename);
+                sessionCache.invalidate(codename);
+                agentCache.invalidateCodename(codename);
+            }
+
+            @Override
+            public void onAgentUpdated(@Nullable String agentID, @Nullable String codename) {
+                if (codename != null) {
+                    sessionCache.invalidate(codename);
+                    agentCache.invalidateCodename(codename);
+                }
+                if (agentID != null) {
+                    sessionCache.invalidateAgentID(agentID);
+                    agentCache.invalidateAgentID(agentID);
+                }
+            }
+
+            @Override
+            public void onLastLoginUpdated(String codename) {
+                // Sessions already carry the login; a cached row loaded before the commit may not
+                agentCache.invalidateCodename(codename);
+            }
+        });
+        scheduleCodenameFilterBuild();
+    }
+
+    // -------------------------------------
+    // ---------- Sessions -----------------
+    // -------------------------------------
+
+    /**
+     * Returns the session of an agent that logged in recently, from memory only. Safe to call on
+     * the main thread.
+     *
+     * @param codename The agent's codename.
+     * @return The session, or null if the agent has no valid cached session.
+     */
+    @Nullable
+    public AgentSession getCachedSession(String codename) {
+        return sessionCache.get(codename);
+    }
+
+    /**
+     * Returns the session of the most recent successful login, from memory only. Safe to call on
+     * the main thread.
+     *
+     * @return The session, or null if it expired, was invalidated, or nobody logged in yet.
+     */
+    @Nullable
+    public AgentSession getCurrentSession() {
+        return sessionCache.getCurrent();
+    }
+
+    /**
+     * Forgets all cached sessions, e.g. on logout.
+     */
+    public void endSessions() {
+        sessionCache.invalidateAll();
+    }
+
+    /**
+     * Exposes hit and miss counts of the session cache.
+     */
+    public AgentSessionCache getSessionCache() {
+        return sessionCache;
+    }
+
+    /**
+     * Exposes hit, miss and eviction counts of the agent lookup cache.
+     */
+    public AgentProjectionCache getAgentCache() {
+        return agentCache;
+    }
+
+    /**
+     * Forgets every cached agent and session after all agent rows were deleted outside the DAO,
+     * and rebuilds the codename filter.
+     */
+    void onAllAgentsDeleted() {
+        sessionCache.invalidateAll();
+        agentCache.invalidateAll();
+        scheduleCodenameFilterBuild();
+    }
+
+    // -------------------------------------
+    // ------- Codename membership ---------
+    // -------------------------------------
+
+    /**
+     * Fills a fresh codename filter from a codename-only scan on the I/O executor. Lookups go to
+     * the database until it is ready. Inserts and deletes arriving during the scan go straight
+     * into the new filter.
+     */
+    private void scheduleCodenameFilterBuild() {
+        if (!codenameFilterRebuildPending.compareAndSet(false, true)) return;
+        try {
+            ioExecutor.execute(this::buildCodenameFilter);
+        } catch (RejectedExecutionException e) {
+            codenameFilterRebuildPending.set(false);
+            Log.w(TAG, "Codename filter build rejected; lookups keep using the database", e);
+        }
+    }
+
+    private void buildCodenameFilter() {
+        try {
+            long start = System.nanoTime();
+            long agentCount = agentDAO.getAgentCount();
+            // Headroom so a growing roster doesn't trigger another rebuild right away
+            CodenameFilter filter = new CodenameFilter(
+                    (int) Math.min(Integer.MAX_VALUE / 2, agentCount + agentCount / 4),
+                    CodenameFilter.DEFAULT_FALSE_POSITIVE_RATE);
+            codenameFilter = filter;
+            agentDAO.forEachCodename(filter::add);
+            filter.markReady();
+            Log.i(TAG, "Codename filter built: " + filter.size() + " codenames, "
+                    + filter.getMemoryBytes() / 1024 + " KiB, "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            Log.e(TAG, "Codename filter build failed; lookups keep using the database", e);
+        } finally {
+            codenameFilterRebuildPending.set(false);
+        }
+    }
+
+    /**
+     * @return false if no agent can have this codename, answered from memory. true means the
+     * database has to be asked.
+     */
+    private boolean mightBeRegistered(String codename) {
+        return codename != null && codenameFilter.mightContain(codename);
+    }
+
+    // -------------------------------------
+    // ---------- Async variants -----------
+    // -------------------------------------
+
+    /**
+     * Runs the task on the I/O executor. A full or shut down executor fails the returned future
+     * instead of throwing at the caller, which is usually the main thread.
+     */
+    private <T> CompletableFuture<T> supplyOnIoExecutor(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, ioExecutor);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "I/O executor rejected a repository call", e);
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * Runs {@link #loginAgent(String, String)} on the I/O executor.
+     */
+    public CompletableFuture<Agent> loginAgentAsync(String codename, String password) {
+        return supplyOnIoExecutor(() -> loginAgent(codename, password));
+    }
+
+    /**
+     * Runs {@link #registerAgent(String, String, String, String, boolean)} on the I/O executor.
+     */
+    public CompletableFuture<RegistrationResult> registerAgentAsync(String codename, String password,
+                                                                    String securityQuestion,
+                                                                    String securityAnswer,
+                                                                    boolean enableBiometric) {
+        return supplyOnIoExecutor(() -> registerAgent(codename, password,
+                securityQuestion, securityAnswer, enableBiometric));
+    }
+
+    /**
+     * Runs {@link #importAgents(InputStream, AgentImportFormat)} on the I/O executor.
+     */
+    public CompletableFuture<ImportResult> importAgentsAsync(InputStream input,
+                                                             AgentImportFormat format) {
+        return supplyOnIoExecutor(() -> importAgents(input, format));
+    }
+
+    /**
+     * Runs {@link #getAgentByCodename(String)} on the I/O executor. A cache hit completes
+     * immediately on the calling thread.
+     */
+    public CompletableFuture<Agent> getAgentByCodenameAsync(String codename) {
+        Agent cached = agentCache.getByCodename(codename);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        return supplyOnIoExecutor(() -> loadAgentByCodename(codename));
+    }
+
+    /**
+     * Runs {@link #getAgentByID(String)} on the I/O executor. A cache hit completes
+     * immediately on the calling thread.
+     */
+    public CompletableFuture<Agent> getAgentByIDAsync(String agentID) {
+        Agent cached = agentCache.getByID(agentID);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        return supplyOnIoExecutor(() -> loadAgentByID(agentID));
+    }
+
+    /**
+     * Runs {@link #initiatePasswordRecovery(String, String)} on the I/O executor.
+     */
+    public CompletableFuture<String> initiatePasswordRecoveryAsync(String codename,
+                                                                   String securityAnswer) {
+        return supplyOnIoExecutor(() -> initiatePasswordRecovery(codename,
+                securityAnswer));
     }
 
+    /**
+     * Runs {@link #resetPassword(String, String)} on the I/O executor.
+     */
+    public CompletableFuture<Boolean> resetPasswordAsync(String codename, String newPassword) {
+        return supplyOnIoExecutor(() -> resetPassword(codename, newPassword));
+    }
+
+    /**
+     * Runs {@link #setBiometricEnabled(String, boolean)} on the I/O executor.
+     */
+    public CompletableFuture<Boolean> setBiometricEnabledAsync(String codename, boolean enabled) {
+        return supplyOnIoExecutor(() -> setBiometricEnabled(codename, enabled));
+    }
+
+    /**
+     * Runs {@link #isCodenameAvailable(String)} on the I/O executor.
+     */
+    public CompletableFuture<Boolean> isCodenameAvailableAsync(String codename) {
+        return supplyOnIoExecutor(() -> isCodenameAvailable(codename));
+    }
+
+    /**
+     * Runs {@link #agentExists(String)} on the I/O executor.
+     */
+    public CompletableFuture<Boolean> agentExistsAsync(String codename) {
+        return supplyOnIoExecutor(() -> agentExists(codename));
+    }
+
+    // -------------------------------------
+    // ---------- Blocking methods ---------
+    // -------------------------------------
+
     /**
      * Attempts to authenticate an agent using their codename and password.
      * Handles all security logic: account lock checks, password hashing, and attempt tracking.
@@ -35,7 +355,29 @@ public class AgentRepository {
      * @return The authenticated Agent object if successful, null otherwise.
      */
     public Agent loginAgent(String codename, String password) {
-        // 1. Retrieve the agent from the database
+        ThreadGuard.assertNotMainThread("loginAgent");
+
+        // 1. Most unknown codenames are ruled out from memory
+        if (!mightBeRegistered(codename)) {
+            Log.w(TAG, "Login failed: Agent not found with codename: " + codename);
+
+            return null;
+        }
+
+        // 2. Codenames out of attempts are rejected before any I/O or crypto. This only peeks:
+        // a bucket is created once the database has confirmed the codename, so made-up names
+        // that get past the filter (false positives, or before it is built) take no slot
+        if (loginThrottle != null) {
+            long retryAfterMillis = loginThrottle.getRetryAfterMillis(codename);
+            if (retryAfterMillis > 0) {
+                Log.w(TAG, "Login failed: Too many attempts for: " + codename + ", retry in "
+                        + retryAfterMillis + " ms");
+
+                return null;
+            }
+        }
+
+        // 3. Retrieve the agent from the database
         Agent agent = agentDAO.getAgentByCodename(codename);
         if (agent == null) {
             Log.w(TAG, "Login failed: Agent not found with codename: " + codename);
@@ -43,39 +385,72 @@ public class AgentRepository {
             return null;    // Agent doesn't exist
         }
 
-        // 2. Check if account is locked
-        if (agent.isAccountLocked()) {
+        // The decrypted credentials are only needed for verification; none outlive this call
+        try {
+            // 4. Take the attempt from the codename's bucket. Racing attempts that all passed the
+            // peek are settled here, before any hashing
+            if (loginThrottle != null && !loginThrottle.tryAcquire(codename)) {
+                Log.w(TAG, "Login failed: Too many attempts for: " + codename + ", retry in "
+                        + loginThrottle.getRetryAfterMillis(codename) + " ms");
+
+                return null;
+            }
+
+            // 5. Check if account is locked. An expired lock needs no separate write: the
+            // bookkeeping update below clears it either way
             if (agent.isTemporarilyLocked()) {
                 Log.w(TAG, "Login failed: Account temporarily locked fo: " + codename);
 
                 return null;
-            } else {
-                // Lockout period has expired, auto-unlock the account
-                agentDAO.setAccountLockStatus(codename, false);
-                agent = agentDAO.getAgentByCodename(codename);  // Refresh agent object
-
-                if (agent == null) return null;
             }
-        }
-
-        // 3. Hash the input password with the stored salt
-        String hashedInputPassword = hashPassword(password, agent.getSalt());
 
-        // 4. Compare the hashed input with the stored hash
-        if (hashedInputPassword != null && hashedInputPassword.equals(agent.getPasswordHash())) {
-            // 5. Password matches - record successful login
-            boolean success = agentDAO.recordSuccessfulLogin(codename);
-            if (success) {
-                Log.i(TAG, "Login successful for agent: " + codename);
-                return agentDAO.getAgentByCodename(codename);   // Return refreshed agent object
+            // 6. Hash the input password with the stored salt and parameters, and compare
+            PasswordHashEngine.Verification verification =
+                    verifyHash(password, agent.getSalt(), agent.getPasswordHash());
+            // Null means hashing itself failed; not a wrong password
+            if (verification == null) return null;
+
+            if (verification.matches()) {
+                // 7. Stored with outdated parameters: replace it while the plaintext is at hand
+                String upgradedHash = verification.getUpgradedHash();
+                if (upgradedHash != null && agentDAO.updatePasswordHash(codename, upgradedHash)) {
+                    Log.i(TAG, "Password hash upgraded for agent: " + codename);
+                }
+
+                // 8. Password matches - record successful login
+                long loginTimestamp = System.currentTimeMillis();
+                boolean success;
+                if (loginTelemetry != null && agent.getFailedLoginAttempts() == 0
+                        && !agent.isAccountLocked()) {
+                    // No lockout state to reset, only the timestamp changes: that write can wait.
+                    // Reloads until the flush pick the timestamp up from the buffer.
+                    loginTelemetry.recordLogin(codename, loginTimestamp);
+                    agentCache.invalidateCodename(codename);
+                    success = true;
+                } else {
+                    success = agentDAO.recordSuccessfulLogin(codename, loginTimestamp);
+                }
+                if (success) {
+                    Log.i(TAG, "Login successful for agent: " + codename);
+
+                    // Apply the same changes the update made instead of re-reading the row
+                    agent.setLastLoginTimestamp(loginTimestamp);
+                    agent.setFailedLoginAttempts(0);
+                    agent.setAccountLocked(false);
+                    // Stored after the write, whose change notification drops any older session
+                    sessionCache.put(AgentSession.from(agent));
+                    return agent;
+                }
+            } else {
+                // 9. Password doesn't match - record failed attempt
+                Log.w(TAG, "Login failed: Invalid credentials for: " + codename);
+                agentDAO.recordFailedLoginAttempt(codename);
             }
-        } else {
-            // 6. Password doesn't match - record failed attempt
-            Log.w(TAG, "Login failed: Invalid credentials for: " + codename);
-            agentDAO.recordFailedLoginAttempt(codename);
-        }
 
-        return null;    // Authentication failed
+            return null;    // Authentication failed
+        } finally {
+            agent.clearSensitiveFields();
+        }
     }
 
     /**
@@ -91,65 +466,39 @@ public class AgentRepository {
     public RegistrationResult registerAgent(String codename, String password,
                                             String securityQuestion, String securityAnswer,
                                             boolean enableBiometric) {
+        ThreadGuard.assertNotMainThread("registerAgent");
+
         try {
             // 1. Validate input parameters
-            if (codename == null || codename.trim().isEmpty()) {
-                return new RegistrationResult(false, "Codename can't be empty");
-            }
-
-            if (codename.length() < 3) {
-                return new RegistrationResult(false, "Codename must be at least 3 characters");
-            }
-
-            if (password == null || password.length() < 8) {
-                return new RegistrationResult(false, "Cipher key must be at least 8 characters");
-            }
-
-            if (securityQuestion == null || securityQuestion.trim().isEmpty()) {
-                return new RegistrationResult(false, "Security question cannot be empty");
-            }
-
-            if (securityQuestion.length() < 10) {
-                return new RegistrationResult(false, "Security question must be more specific");
-            }
-
-            if (securityAnswer == null || securityAnswer.trim().isEmpty()) {
-                return new RegistrationResult(false, "Security answer cannot be empty");
-            }
-
-            if (securityAnswer.length() < 3) {
-                return new RegistrationResult(false, "Security answer too short");
+            String validationError = validateRegistration(codename, password, securityQuestion,
+                    securityAnswer);
+            if (validationError != null) {
+                return new RegistrationResult(false, validationError);
             }
 
             // 2. Check if codename is already taken
-            if (!agentDAO.isCodenameAvailable(codename)) {
+            if (!isCodenameAvailable(codename)) {
                 return new RegistrationResult(false, "Codename already taken. Choose another");
             }
 
-            // 3. Generate unique agent ID
-            String agentID = generateAgentID();
-            if (agentID == null) {
-                return new RegistrationResult(false, "Failed to generate agent ID");
-            }
-
-            // 4. Generate a unique salt for this agent
+            // 3. Generate a unique salt for this agent
             String salt = generateSalt();
 
-            // 5. Hash the password with the generated salt
-            String hashedPassword = hashPassword(password, salt);
+            // 4. Hash the password with the generated salt
+            String hashedPassword = hashSecret(password, salt);
             if (hashedPassword == null) {
                 return new RegistrationResult(false, "Password hashing failed");
             }
 
-            // 6. Hash the security answer (using the same salt for simplicity)
-            String hashedSecurityAnswer = hashPassword(securityAnswer, salt);
+            // 5. Hash the security answer (using the same salt for simplicity)
+            String hashedSecurityAnswer = hashSecret(securityAnswer, salt);
             if (hashedSecurityAnswer == null) {
                 return new RegistrationResult(false, "Security answer hashing failed");
             }
 
-            // 7. Create the new Agent object with BETA clearance (default for new agents)
+            // 6. Create the new Agent object with BETA clearance (default for new agents)
             Agent newAgent = new Agent(
-                    agentID,
+                    null,   // agent_id, allocated on insert
                     codename.trim(),
                     hashedPassword,
                     salt,
@@ -163,11 +512,10 @@ public class AgentRepository {
                     false  // account_locked
             );
 
-            // 8. Insert into database
-            long result = agentDAO.insertAgent(newAgent);
-            boolean success = result != -1;
+            // 7. Insert into database under a freshly allocated agent ID
+            String agentID = agentDAO.insertAgentWithNewID(newAgent);
 
-            if (success) {
+            if (agentID != null) {
                 Log.i(TAG, "Agent registered successfully: " + codename + " (ID: " + agentID + ")");
                 return new RegistrationResult(true, "Registration successful", agentID, codename);
             } else {
@@ -181,21 +529,276 @@ public class AgentRepository {
         }
     }
 
+    /**
+     * Checks registration input. Shared by the registration form and bulk imports.
+     *
+     * @return A message describing the first problem found, or null if the input is valid.
+     */
+    @Nullable
+    private static String validateRegistration(String codename, String password,
+                                               String securityQuestion, String securityAnswer) {
+        if (codename == null || codename.trim().isEmpty()) {
+            return "Codename can't be empty";
+        }
+
+        if (codename.length() < 3) {
+            return "Codename must be at least 3 characters";
+        }
+
+        if (password == null || password.length() < 8) {
+            return "Cipher key must be at least 8 characters";
+        }
+
+        if (securityQuestion == null || securityQuestion.trim().isEmpty()) {
+            return "Security question cannot be empty";
+        }
+
+        if (securityQuestion.length() < 10) {
+            return "Security question must be more specific";
+        }
+
+        if (securityAnswer == null || securityAnswer.trim().isEmpty()) {
+            return "Security answer cannot be empty";
+        }
+
+        if (securityAnswer.length() < 3) {
+            return "Security answer too short";
+        }
+        return null;
+    }
+
+    /**
+     * Registers every agent in an import file. Rows go through the same validation as
+     * {@link #registerAgent}, plus a check for codenames repeated within the file; rows that
+     * fail are reported in the result and skipped. Optional columns are {@code clearance}
+     * (a clearance code, BETA if absent) and {@code biometric} (true/false).
+     * <p>
+     * The file is streamed in chunks of 500 records. Each chunk's secrets are hashed in small
+     * tasks on the hash executor, interleaved with any logins, then its rows are encrypted in
+     * one batch and inserted through {@link AgentDAO#insertAgents(List)}, so neither the file
+     * nor its hashes are ever held in memory all at once.
+     *
+     * @param input  The import file; closed once the import ends.
+     * @param format The file's format.
+     * @return Counts of imported and rejected rows.
+     */
+    public ImportResult importAgents(InputStream input, AgentImportFormat format) {
+        ThreadGuard.assertNotMainThread("importAgents");
+
+        List<ImportResult.RowError> rowErrors = new ArrayList<>();
+        Set<String> seenCodenames = new HashSet<>();
+        List<AgentImportRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        int rowCount = 0;
+        int importedCount = 0;
+        long start = System.nanoTime();
+
+        try (AgentRecordReader reader = format.open(input)) {
+            AgentImportRecord record;
+            while ((record = reader.next()) != null) {
+                rowCount++;
+                String error = validateImportRecord(record, seenCodenames);
+                if (error != null) {
+                    rowErrors.add(new ImportResult.RowError(record.getRowNumber(),
+                            record.getCodename(), error));
+                    continue;
+                }
+
+                chunk.add(record);
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importedCount += importChunk(chunk, rowErrors);
+                    chunk.clear();
+                }
+            }
+            importedCount += importChunk(chunk, rowErrors);
+        } catch (IOException e) {
+            Log.e(TAG, "Import stopped after " + rowCount + " rows: unreadable file", e);
+            return new ImportResult(rowCount, importedCount, rowErrors,
+                    "Import file could not be read: " + e.getMessage());
+        } catch (GeneralSecurityException | RuntimeException e) {
+            Log.e(TAG, "Import stopped after " + rowCount + " rows", e);
+            return new ImportResult(rowCount, importedCount, rowErrors,
+                    "Unexpected error during import: " + e.getMessage());
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, "Imported " + importedCount + " of " + rowCount + " agents in "
+                + elapsedMillis + " ms");
+        return new ImportResult(rowCount, importedCount, rowErrors, null);
+    }
+
+    /**
+     * @return Why the record can't be imported, or null if it can.
+     */
+    @Nullable
+    private String validateImportRecord(AgentImportRecord record, Set<String> seenCodenames) {
+        if (record.getParseError() != null) return record.getParseError();
+
+        String codename = record.getCodename() != null ? record.getCodename().trim() : null;
+        String error = validateRegistration(codename, record.getPassword(),
+                record.getSecurityQuestion(), record.getSecurityAnswer());
+        if (error != null) return error;
+
+        String clearanceCode = record.getClearanceCode();
+        if (clearanceCode != null && !clearanceCode.trim().isEmpty()
+                && ClearanceLevel.fromCode(clearanceCode.trim().toUpperCase(Locale.US)) == null) {
+            return "Unknown clearance level: " + clearanceCode;
+        }
+        if (parseBiometric(record.getBiometric()) == null) {
+            return "Biometric must be true or false";
+        }
+
+        if (!seenCodenames.add(codename)) return "Codename appears more than once in the file";
+        if (!isCodenameAvailable(codename)) return "Codename already taken";
+        return null;
+    }
+
+    /**
+     * Hashes and inserts one chunk of validated records.
+     * @return The number of agents inserted.
+     */
+    private int importChunk(List<AgentImportRecord> records,
+                            List<ImportResult.RowError> rowErrors)
+            throws GeneralSecurityException {
+        if (records.isEmpty()) return 0;
+
+        // Password and security answer share the agent's salt, as in registerAgent
+        int count = records.size();
+        String[] salts = new String[count];
+        String[] secrets = new String[count * 2];
+        byte[][] secretSalts = new byte[count * 2][];
+        for (int i = 0; i < count; i++) {
+            AgentImportRecord record = records.get(i);
+            salts[i] = generateSalt();
+            byte[] saltBytes = Base64.decode(salts[i], Base64.NO_WRAP);
+            secrets[2 * i] = record.getPassword();
+            secrets[2 * i + 1] = record.getSecurityAnswer();
+            secretSalts[2 * i] = saltBytes;
+            secretSalts[2 * i + 1] = saltBytes;
+        }
+        String[] hashes = passwordHashEngine.hashAll(secrets, secretSalts);
+
+        List<Agent> agents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AgentImportRecord record = records.get(i);
+            String clearanceCode = record.getClearanceCode();
+            ClearanceLevel clearance = clearanceCode == null || clearanceCode.trim().isEmpty()
+                    ? ClearanceLevel.BETA
+                    : ClearanceLevel.fromCode(clearanceCode.trim().toUpperCase(Locale.US));
+            agents.add(new Agent(
+                    null,   // agent_id, allocated on insert
+                    record.getCodename().trim(),
+                    hashes[2 * i],
+                    salts[i],
+                    record.getSecurityQuestion().trim(),
+                    hashes[2 * i + 1],
+                    clearance,
+                    parseBiometric(record.getBiometric()),
+                    0, 0, 0, false
+            ));
+        }
+
+        List<String> agentIDs = agentDAO.insertAgents(agents);
+        int inserted = 0;
+        for (int i = 0; i < count; i++) {
+            if (agentIDs.get(i) != null) {
+                inserted++;
+            } else {
+                // Usually a codename registered by someone else since validation
+                rowErrors.add(new ImportResult.RowError(records.get(i).getRowNumber(),
+                        agents.get(i).getCodename(), "Database rejected the agent"));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * @return The flag, false if absent, or null if the value isn't a boolean.
+     */
+    @Nullable
+    private static Boolean parseBiometric(@Nullable String value) {
+        if (value == null || value.trim().isEmpty()) return false;
+        switch (value.trim().toLowerCase(Locale.US)) {
+            case "true":
+            case "1":
+            case "yes":
+                return true;
+            case "false":
+            case "0":
+            case "no":
+                return false;
+            default:
+                return null;
+        }
+    }
+
     /**
      * Retrieves an agent by their codename without performing authentication checks.
      * Useful for biometric authentication and profile management.
+     * <p>
+     * Reads through a cache of recently used agents, so repeated lookups don't touch the
+     * database. The returned agent carries no credentials: its password hash, salt and security
+     * question and answer are null.
      *
      * @param codename The agent's codename.
      * @return The Agent object if found, null otherwise.
      */
     public Agent getAgentByCodename(String codename) {
+        Agent cached = agentCache.getByCodename(codename);
+        return cached != null ? cached : loadAgentByCodename(codename);
+    }
+
+    private Agent loadAgentByCodename(String codename) {
+        ThreadGuard.assertNotMainThread("getAgentByCodename");
+        if (!mightBeRegistered(codename)) return null;
         try {
-            agentDAO.getAgentByCodename(codename);
+            long generation = agentCache.getGeneration();
+            Long pendingLogin = getPendingLoginTimestamp(codename);
+            Agent agent = agentDAO.getAgentByCodename(codename);
+            if (agent == null) return null;
+            applyPendingLogin(agent, pendingLogin);
+            return agentCache.put(agent, generation);
         } catch (Exception e) {
             Log.e(TAG, "Error retrieving agent by codename: " + codename, e);
             return null;
         }
-        return null;
+    }
+
+    /**
+     * Retrieves an agent by their agent ID, through the same cache and with the same
+     * credential-free result as {@link #getAgentByCodename(String)}.
+     *
+     * @param agentID The agent's ID.
+     * @return The Agent object if found, null otherwise.
+     */
+    public Agent getAgentByID(String agentID) {
+        Agent cached = agentCache.getByID(agentID);
+        return cached != null ? cached : loadAgentByID(agentID);
+    }
+
+    private Agent loadAgentByID(String agentID) {
+        ThreadGuard.assertNotMainThread("getAgentByID");
+        try {
+            long generation = agentCache.getGeneration();
+            Agent agent = agentDAO.getAgentByID(agentID);
+            if (agent == null) return null;
+            applyPendingLogin(agent, getPendingLoginTimestamp(agent.getCodename()));
+            return agentCache.put(agent, generation);
+        } catch (Exception e) {
+            Log.e(TAG, "Error retrieving agent by ID: " + agentID, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private Long getPendingLoginTimestamp(String codename) {
+        return loginTelemetry != null ? loginTelemetry.getPendingLoginTimestamp(codename) : null;
+    }
+
+    /** Overlays a login still waiting in the telemetry buffer onto a row read from disk. */
+    private static void applyPendingLogin(Agent agent, @Nullable Long pendingLogin) {
+        if (pendingLogin != null && pendingLogin > agent.getLastLoginTimestamp()) {
+            agent.setLastLoginTimestamp(pendingLogin);
+        }
     }
 
     /**
@@ -206,20 +809,31 @@ public class AgentRepository {
      * @return The security question if the agent exists and the answer is correct, null otherwise.
      */
     public String initiatePasswordRecovery(String codename, String securityAnswer) {
-        Agent agent = agentDAO.getAgentByCodename(codename);
+        ThreadGuard.assertNotMainThread("initiatePasswordRecovery");
+        Agent agent = mightBeRegistered(codename) ? agentDAO.getAgentByCodename(codename) : null;
         if (agent == null) {
             Log.w(TAG, "Recovery failed: Agent not found: " + codename);
             return null;
         }
 
-        // Hash the provided answer and compare with stored hash
-        String hashedInputAnswer = hashPassword(securityAnswer, agent.getSalt());
-        if (hashedInputAnswer != null && hashedInputAnswer.equals(agent.getSecurityAnswerHash())) {
-            Log.i(TAG, "Recovery question answered correctly for: " + codename);
-            return agent.getSecurityQuestion();
-        } else {
-            Log.w(TAG, "Recovery failed: Incorrect security answer for: " + codename);
-            return null;
+        try {
+            // Hash the provided answer and compare with stored hash
+            PasswordHashEngine.Verification verification =
+                    verifyHash(securityAnswer, agent.getSalt(), agent.getSecurityAnswerHash());
+            if (verification != null && verification.matches()) {
+                Log.i(TAG, "Recovery question answered correctly for: " + codename);
+                String upgradedHash = verification.getUpgradedHash();
+                if (upgradedHash != null) {
+                    agentDAO.patchAgent(agent.getAgentID(),
+                            new AgentPatch().setSecurityAnswerHash(upgradedHash));
+                }
+                return agent.getSecurityQuestion();
+            } else {
+                Log.w(TAG, "Recovery failed: Incorrect security answer for: " + codename);
+                return null;
+            }
+        } finally {
+            agent.clearSensitiveFields();
         }
     }
 
@@ -231,33 +845,18 @@ public class AgentRepository {
      * @return true if the password was reset successfully, false otherwise.
      */
     public boolean resetPassword(String codename, String newPassword) {
+        ThreadGuard.assertNotMainThread("resetPassword");
         Agent agent = agentDAO.getAgentByCodename(codename);
         if (agent == null) return false;
 
         // Use the existing salt to hash the new password
-        String newHashedPassword = hashPassword(newPassword, agent.getSalt());
+        String newHashedPassword = hashSecret(newPassword, agent.getSalt());
+        agent.clearSensitiveFields();
         if (newHashedPassword == null) return false;
 
-        // For a robust implementation, we would need an update method in the DAO that updates specific fields.
-        // This is a simplified approach creating a new agent object with updated password.
-        Agent updatedAgent = new Agent(
-                agent.getAgentID(),
-                agent.getCodename(),
-                newHashedPassword,
-                agent.getSalt(),
-                agent.getSecurityQuestion(),
-                agent.getSecurityAnswerHash(),
-                agent.getClearanceLevel(),
-                agent.isBiometricEnabled(),
-                agent.getLastLoginTimestamp(),
-                agent.getFailedLoginAttempts(),
-                agent.getLastFailedLoginTimestamp(),
-                agent.isAccountLocked()
-        );
-        
-        int rowsAffected = agentDAO.updateAgent(updatedAgent);
-        boolean success = rowsAffected > 0;
-        
+        // Only the password hash column is rewritten and re-encrypted
+        boolean success = agentDAO.updatePasswordHash(codename, newHashedPassword);
+
         if (success) {
             Log.i(TAG, "Password reset successfully for: " + codename);
         } else {
@@ -275,27 +874,9 @@ public class AgentRepository {
      * @return true if the operation was successful, false otherwise.
      */
     public boolean setBiometricEnabled(String codename, boolean enabled) {
-        Agent agent = agentDAO.getAgentByCodename(codename);
-        if (agent == null) return false;
-
-        // Create updated agent object
-        Agent updatedAgent = new Agent(
-                agent.getAgentID(),
-                agent.getCodename(),
-                agent.getPasswordHash(),
-                agent.getSalt(),
-                agent.getSecurityQuestion(),
-                agent.getSecurityAnswerHash(),
-                agent.getClearanceLevel(),
-                enabled,
-                agent.getLastLoginTimestamp(),
-                agent.getFailedLoginAttempts(),
-                agent.getLastFailedLoginTimestamp(),
-                agent.isAccountLocked()
-        );
-
-        int rowsAffected = agentDAO.updateAgent(updatedAgent);
-        return rowsAffected > 0;
+        ThreadGuard.assertNotMainThread("setBiometricEnabled");
+        // A single-column update; no need to read (and decrypt) the agent first
+        return agentDAO.updateBiometricFlag(codename, enabled);
     }
 
     /**
@@ -305,33 +886,55 @@ public class AgentRepository {
      * @return true if the agent exists, false otherwise.
      */
     public boolean agentExists(String codename) {
-        return agentDAO.getAgentByCodename(codename) != null;
+        ThreadGuard.assertNotMainThread("agentExists");
+        return !isCodenameAvailable(codename);
     }
 
     /**
-     * Hashes a password with a given salt using SHA-256.
+     * Checks whether a codename is still free. Cheap enough for live checks while typing: codenames
+     * that were never registered are answered from memory without touching the database.
      *
-     * @param password The plaintext password to hash.
-     * @param salt     The salt to use for hashing (Base64 encoded).
-     * @return The hashed password, or null if hashing failed.
+     * @param codename The codename to check.
+     * @return true if no agent has this codename.
      */
-    private String hashPassword(String password, String salt) {
+    public boolean isCodenameAvailable(String codename) {
+        ThreadGuard.assertNotMainThread("isCodenameAvailable");
+        return !mightBeRegistered(codename) || agentDAO.isCodenameAvailable(codename);
+    }
+
+    /**
+     * Hashes a password or security answer with the current hashing parameters.
+     *
+     * @param secret The plaintext to hash.
+     * @param salt   The salt to use for hashing (Base64 encoded).
+     * @return The encoded hash, or null if hashing failed.
+     */
+    private String hashSecret(String secret, String salt) {
         try {
-            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-            // Decode the salt from Base64 back to bytes
-            byte[] saltBytes = Base64.decode(salt, Base64.NO_WRAP);
-
-            // Combine password and salt bytes
-            digest.update(saltBytes);
-            byte[] hashedBytes = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-
-            // Return the hash as a Base64 string
-            return Base64.encodeToString(hashedBytes, Base64.NO_WRAP);
-        } catch (NoSuchAlgorithmException e) {
-            Log.e(TAG, "Hashing algorithm not available: " + HASH_ALGORITHM, e);
+            return passwordHashEngine.hash(secret, Base64.decode(salt, Base64.NO_WRAP));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            Log.e(TAG, "Hashing failed", e);
             return null;
-        } catch (IllegalArgumentException e) {
-            Log.e(TAG, "Invalid salt format", e);
+        }
+    }
+
+    /**
+     * Checks a password or security answer against a stored hash.
+     *
+     * @param secret     The plaintext to check.
+     * @param salt       The salt the stored hash was made with (Base64 encoded).
+     * @param storedHash The stored hash.
+     * @return The verification result, or null if hashing failed (including when the hash
+     *         executor is saturated).
+     */
+    @Nullable
+    private PasswordHashEngine.Verification verifyHash(String secret, String salt,
+                                                       String storedHash) {
+        try {
+            return passwordHashEngine.verify(secret, Base64.decode(salt, Base64.NO_WRAP),
+                    storedHash);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            Log.e(TAG, "Hash verification failed", e);
             return null;
         }
     }
@@ -346,15 +949,4 @@ public class AgentRepository {
         secureRandom.nextBytes(salt);
         return Base64.encodeToString(salt, Base64.NO_WRAP);
     }
-
-    private String generateAgentID() {
-        try {
-            int maxID = agentDAO.getMaxAgentIDNumber();
-            int nextID = maxID + 1;
-            return String.format("AGENT-%03d", nextID);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to generate agent ID", e);
-            return null;
-        }
-    }
 }
\ No newline at end of file
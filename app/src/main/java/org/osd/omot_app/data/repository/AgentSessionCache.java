@@ -0,0 +1,126 @@
+package org.osd.omot_app.data.repository;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.model.AgentSession;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Authenticated agent sessions kept in memory for a limited time, keyed by codename, so screens
+ * can read who is logged in without SQLite, the KeyStore or encrypted preferences.
+ * <p>
+ * Entries expire {@code ttlMillis} after the login that created them, and are dropped as soon as
+ * the agent's row changes. Lookups are lock-free.
+ */
+public class AgentSessionCache {
+    public static final long DEFAULT_TTL_MILLIS = 15 * 60 * 1000;   // 15 minutes
+    private static final int PURGE_THRESHOLD = 16;
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    @Nullable
+    private volatile String currentCodename;
+
+    private static final class Entry {
+        final AgentSession session;
+        final long expiresAtNanos;
+
+        Entry(AgentSession session, long expiresAtNanos) {
+            this.session = session;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    public AgentSessionCache() {
+        this(DEFAULT_TTL_MILLIS, System::nanoTime);
+    }
+
+    /**
+     * @param ttlMillis How long a session stays valid after it is stored.
+     * @param nanoClock Monotonic clock in nanoseconds.
+     */
+    public AgentSessionCache(long ttlMillis, LongSupplier nanoClock) {
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be positive");
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Stores a freshly authenticated session and makes it the current one.
+     */
+    public void put(AgentSession session) {
+        long now = nanoClock.getAsLong();
+        if (sessions.size() >= PURGE_THRESHOLD) purgeExpired(now);
+        sessions.put(session.getCodename(), new Entry(session, now + ttlNanos));
+        currentCodename = session.getCodename();
+    }
+
+    /**
+     * @return The session for the codename, or null if there is none or it expired.
+     */
+    @Nullable
+    public AgentSession get(String codename) {
+        Entry entry = sessions.get(codename);
+        if (entry != null && nanoClock.getAsLong() - entry.expiresAtNanos < 0) {
+            hits.incrementAndGet();
+            return entry.session;
+        }
+        if (entry != null) sessions.remove(codename, entry);
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @return The most recently stored session if it is still valid, otherwise null.
+     */
+    @Nullable
+    public AgentSession getCurrent() {
+        String codename = currentCodename;
+        if (codename == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        return get(codename);
+    }
+
+    public void invalidate(String codename) {
+        sessions.remove(codename);
+    }
+
+    public void invalidateAgentID(String agentID) {
+        // Only a handful of sessions exist at a time, so a scan beats a second index
+        sessions.values().removeIf(entry -> agentID.equals(entry.session.getAgentID()));
+    }
+
+    public void invalidateAll() {
+        sessions.clear();
+        currentCodename = null;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().expiresAtNanos >= 0) it.remove();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package org.osd.omot_app.data.repository;
+
+/**
+ * A counting Bloom filter over agent codenames, used to answer "no such agent" without a
+ * database query. {@link #mightContain} never returns false for a codename that was added and
+ * not removed; it returns true for a small fraction of unknown codenames as well, and those fall
+ * through to SQLite as before.
+ * <p>
+ * Counters are 4 bits, packed 16 to a long. A counter that reaches 15 is never decremented again,
+ * which can only leave extra false positives behind. Until {@link #markReady()} the filter is
+ * still being filled from the database: it answers true for everything and ignores removals,
+ * since removing a codename the scan hasn't added yet could clear another codename's counters.
+ */
+final class CodenameFilter {
+    static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long COUNTER_MAX = 15;
+
+    private final long[] counters;
+    private final long counterCount;
+    private final int hashCount;
+    private final int capacity;
+    private int size;
+    private volatile boolean ready;
+
+    /**
+     * @param expectedEntries   How many codenames the filter should hold at the target rate.
+     * @param falsePositiveRate The target false positive rate at {@code expectedEntries}.
+     */
+    CodenameFilter(int expectedEntries, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Rate must be in (0, 1): " + falsePositiveRate);
+        }
+        capacity = Math.max(MIN_CAPACITY, expectedEntries);
+
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        counters = new long[(int) ((m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD)];
+        counterCount = (long) counters.length * COUNTERS_PER_WORD;
+        hashCount = Math.max(1, (int) Math.round((double) counterCount / capacity * ln2));
+    }
+
+    synchronized void add(String codename) {
+        long hash = hash64(codename);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            long counter = counterAt(index);
+            if (counter < COUNTER_MAX) setCounter(index, counter + 1);
+        }
+        size++;
+    }
+
+    synchronized void remove(String codename) {
+        if (!ready) return;
+
+        long hash = hash64(codename);
+        for (int i = 0; i < hashCount; i++) {
+            if (counterAt(index(hash, i)) == 0) return;     // Never added; leave the counters be
+        }
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            long counter = counterAt(index);
+            if (counter < COUNTER_MAX) setCounter(index, counter - 1);
+        }
+        size--;
+    }
+
+    /**
+     * @return false only if the codename is definitely not stored.
+     */
+    synchronized boolean mightContain(String codename) {
+        if (!ready) return true;
+
+        long hash = hash64(codename);
+        for (int i = 0; i < hashCount; i++) {
+            if (counterAt(index(hash, i)) == 0) return false;
+        }
+        return true;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return true once more codenames were added than the filter was sized for, after which the
+     * false positive rate climbs and the filter should be rebuilt larger.
+     */
+    synchronized boolean isOverCapacity() {
+        return size > capacity;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getMemoryBytes() {
+        return (long) counters.length * Long.BYTES;
+    }
+
+    private long counterAt(long index) {
+        int shift = (int) (index % COUNTERS_PER_WORD) * 4;
+        return (counters[(int) (index / COUNTERS_PER_WORD)] >>> shift) & COUNTER_MASK;
+    }
+
+    private void setCounter(long index, long value) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = (int) (index % COUNTERS_PER_WORD) * 4;
+        counters[word] = (counters[word] & ~(COUNTER_MASK << shift)) | (value << shift);
+    }
+
+    /** Double hashing: the i-th position is h1 + i * h2, both halves of one 64-bit hash. */
+    private long index(long hash, int i) {
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        return (h1 + i * h2) % counterCount;
+    }
+
+    /** FNV-1a over the UTF-16 chars, then the SplitMix64 finalizer to spread the bits. */
+    private static long hash64(String codename) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < codename.length(); i++) {
+            h ^= codename.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,331 @@
+package org.osd.omot_app.data.repository;
+
+import androidx.annotation.Nullable;
+
+import org.osd.omot_app.data.dao.MissionDAO;
+import org.osd.omot_app.data.model.Mission;
+import org.osd.omot_app.utils.ThreadGuard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * An in-memory index of every mission, answering the command dashboard's questions without
+ * touching the database: counts by status and priority, upcoming deadlines, and the missions
+ * running during a date range.
+ * <p>
+ * {@link #load(MissionDAO)} reads the table once and subscribes to the DAO, which keeps the
+ * board current after every committed write. The DAO notifies in commit order, so updates to one
+ * mission are never applied out of order. The load holds the board's lock, so a write that lands
+ * during it is applied afterwards; every update is idempotent, so applying one the load has
+ * already seen is harmless.
+ * <p>
+ * Missions without an end date are treated as open-ended. Returned missions are copies.
+ */
+public class MissionBoard implements MissionDAO.ChangeListener {
+    private static final int CODE_SLOTS = 4;
+
+    private static final Comparator<Entry> BY_START = Comparator
+            .comparingLong((Entry e) -> e.startDate)
+            .thenComparing(e -> e.missionID);
+
+    private static final Comparator<Entry> BY_END = Comparator
+            .comparingLong((Entry e) -> e.endDate)
+            .thenComparing(e -> e.missionID);
+
+    private final Map<String, Entry> byID = new HashMap<>();
+    // Counts indexed by status code, then priority code
+    private final int[][] counts = new int[CODE_SLOTS][CODE_SLOTS];
+    // Range index: missions with an end date in an interval tree, open-ended ones by start date
+    private final IntervalTree boundedByStart = new IntervalTree();
+    private final TreeSet<Entry> openEndedByStart = new TreeSet<>(BY_START);
+    // Active and pending missions with an end date, soonest first
+    private final TreeSet<Entry> deadlines = new TreeSet<>(BY_END);
+    private boolean loaded;
+
+    /** One mission's columns, immutable so its position in the sorted sets never changes. */
+    private static final class Entry {
+        final String missionID;
+        final String title;
+        final Mission.Status status;
+        final Mission.Priority priority;
+        final long startDate;
+        final Long endDate;
+        final String briefingFilePath;
+
+        Entry(Mission mission) {
+            this(mission.getMissionID(), mission.getTitle(), mission.getStatus(),
+                    mission.getPriority(), mission.getStartDate(), mission.getEndDate(),
+                    mission.getBriefingFilePath());
+        }
+
+        Entry(String missionID, String title, Mission.Status status, Mission.Priority priority,
+              long startDate, Long endDate, String briefingFilePath) {
+            this.missionID = missionID;
+            this.title = title;
+            this.status = status;
+            this.priority = priority;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.briefingFilePath = briefingFilePath;
+        }
+
+        Entry withStatus(Mission.Status newStatus) {
+            return new Entry(missionID, title, newStatus, priority, startDate, endDate,
+                    briefingFilePath);
+        }
+
+        boolean hasOpenDeadline() {
+            return endDate != null
+                    && (status == Mission.Status.ACTIVE || status == Mission.Status.PENDING);
+        }
+
+        Mission toMission() {
+            return new Mission(missionID, title, status, priority, startDate, endDate,
+                    briefingFilePath);
+        }
+    }
+
+    /**
+     * Missions with an end date in start order, balanced as a treap. Every node also keeps the
+     * latest end date in its subtree, so a range query skips each subtree that ends before the
+     * range, and one long mission only keeps its own ancestors from being skipped.
+     */
+    private static final class IntervalTree {
+        private static final class Node {
+            final Entry entry;
+            final int priority;
+            long maxEnd;
+            Node left;
+            Node right;
+
+            Node(Entry entry, int priority) {
+                this.entry = entry;
+                this.priority = priority;
+                this.maxEnd = entry.endDate;
+            }
+
+            Node update() {
+                long max = entry.endDate;
+                if (left != null) max = Math.max(max, left.maxEnd);
+                if (right != null) max = Math.max(max, right.maxEnd);
+                maxEnd = max;
+                return this;
+            }
+        }
+
+        private final Random random = new Random();
+        private Node root;
+
+        void add(Entry entry) {
+            root = insert(root, new Node(entry, random.nextInt()));
+        }
+
+        void remove(Entry entry) {
+            root = remove(root, entry);
+        }
+
+        /** Adds the missions bounded {@code [from, to]} to {@code out}, in start order. */
+        void collectOverlapping(long from, long to, List<Entry> out) {
+            collect(root, from, to, out);
+        }
+
+        private static Node insert(Node node, Node added) {
+            if (node == null) return added;
+            if (BY_START.compare(added.entry, node.entry) < 0) {
+                node.left = insert(node.left, added);
+                if (node.left.priority > node.priority) return rotateRight(node);
+            } else {
+                node.right = insert(node.right, added);
+                if (node.right.priority > node.priority) return rotateLeft(node);
+            }
+            return node.update();
+        }
+
+        private static Node remove(Node node, Entry entry) {
+            if (node == null) return null;
+            int order = BY_START.compare(entry, node.entry);
+            if (order == 0) return merge(node.left, node.right);
+            if (order < 0) {
+                node.left = remove(node.left, entry);
+            } else {
+                node.right = remove(node.right, entry);
+            }
+            return node.update();
+        }
+
+        /** Joins two treaps whose keys are all smaller on the left. */
+        private static Node merge(Node left, Node right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                return left.update();
+            }
+            right.left = merge(left, right.left);
+            return right.update();
+        }
+
+        private static Node rotateRight(Node node) {
+            Node pivot = node.left;
+            node.left = pivot.right;
+            pivot.right = node.update();
+            return pivot.update();
+        }
+
+        private static Node rotateLeft(Node node) {
+            Node pivot = node.right;
+            node.right = pivot.left;
+            pivot.left = node.update();
+            return pivot.update();
+        }
+
+        private static void collect(Node node, long from, long to, List<Entry> out) {
+            while (node != null && node.maxEnd >= from) {
+                collect(node.left, from, to, out);
+                if (node.entry.startDate > to) return;
+                if (node.entry.endDate >= from) out.add(node.entry);
+                node = node.right;
+            }
+        }
+    }
+
+    /** A key for seeking in the sorted sets; sorts before every mission at the same time. */
+    private static Entry probe(long startDate, long endDate) {
+        return new Entry("", null, null, null, startDate, endDate, null);
+    }
+
+    /**
+     * Loads every mission and subscribes to the DAO's writes. Blocks; call from a background
+     * thread, once.
+     */
+    public void load(MissionDAO missionDAO) {
+        ThreadGuard.assertNotMainThread("MissionBoard.load");
+        synchronized (this) {
+            missionDAO.addChangeListener(this);
+            missionDAO.forEachMission(this::putLocked);
+            loaded = true;
+        }
+    }
+
+    /** @return true once {@link #load(MissionDAO)} has finished. */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public synchronized void onMissionInserted(Mission mission) {
+        putLocked(mission);
+    }
+
+    @Override
+    public synchronized void onMissionStatusChanged(String missionID, Mission.Status status) {
+        Entry entry = byID.get(missionID);
+        if (entry == null || entry.status == status) return;
+        removeLocked(entry);
+        addLocked(entry.withStatus(status));
+    }
+
+    @Override
+    public synchronized void onMissionDeleted(String missionID) {
+        Entry entry = byID.get(missionID);
+        if (entry != null) removeLocked(entry);
+    }
+
+    private void putLocked(Mission mission) {
+        Entry existing = byID.get(mission.getMissionID());
+        if (existing != null) removeLocked(existing);
+        addLocked(new Entry(mission));
+    }
+
+    private void addLocked(Entry entry) {
+        byID.put(entry.missionID, entry);
+        counts[entry.status.getCode()][entry.priority.getCode()]++;
+        if (entry.endDate == null) {
+            openEndedByStart.add(entry);
+        } else {
+            boundedByStart.add(entry);
+        }
+        if (entry.hasOpenDeadline()) deadlines.add(entry);
+    }
+
+    private void removeLocked(Entry entry) {
+        byID.remove(entry.missionID);
+        counts[entry.status.getCode()][entry.priority.getCode()]--;
+        if (entry.endDate == null) {
+            openEndedByStart.remove(entry);
+        } else {
+            boundedByStart.remove(entry);
+        }
+        if (entry.hasOpenDeadline()) deadlines.remove(entry);
+    }
+
+    public synchronized int size() {
+        return byID.size();
+    }
+
+    /** @return A copy of the mission, or null if there is none with this ID. */
+    @Nullable
+    public synchronized Mission getMission(String missionID) {
+        Entry entry = byID.get(missionID);
+        return entry != null ? entry.toMission() : null;
+    }
+
+    public synchronized int getCount(Mission.Status status) {
+        int total = 0;
+        for (int count : counts[status.getCode()]) total += count;
+        return total;
+    }
+
+    public synchronized int getCount(Mission.Priority priority) {
+        int total = 0;
+        for (int[] byPriority : counts) total += byPriority[priority.getCode()];
+        return total;
+    }
+
+    public synchronized int getCount(Mission.Status status, Mission.Priority priority) {
+        return counts[status.getCode()][priority.getCode()];
+    }
+
+    /**
+     * Returns the active and pending missions whose end date is still ahead, soonest first.
+     * @param now The current time; missions ending exactly now are included.
+     * @param limit The maximum number of missions to return.
+     */
+    public synchronized List<Mission> getUpcomingDeadlines(long now, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+        List<Mission> missions = new ArrayList<>(Math.min(limit, deadlines.size()));
+        for (Entry entry : deadlines.tailSet(probe(0, now), true)) {
+            if (missions.size() == limit) break;
+            missions.add(entry.toMission());
+        }
+        return missions;
+    }
+
+    /**
+     * Returns the missions running at some point in {@code [from, to]}: those starting no later
+     * than {@code to} and ending no earlier than {@code from}, or not at all. Ordered by start date.
+     */
+    public synchronized List<Mission> getMissionsInRange(long from, long to) {
+        List<Entry> bounded = new ArrayList<>();
+        boundedByStart.collectOverlapping(from, to, bounded);
+
+        // Both sides are already in start order, so merge rather than sort
+        List<Mission> missions = new ArrayList<>(bounded.size());
+        int next = 0;
+        for (Entry open : openEndedByStart) {
+            if (open.startDate > to) break;
+            while (next < bounded.size() && BY_START.compare(bounded.get(next), open) < 0) {
+                missions.add(bounded.get(next++).toMission());
+            }
+            missions.add(open.toMission());
+        }
+        while (next < bounded.size()) missions.add(bounded.get(next++).toMission());
+        return missions;
+    }
+}
\ No newline at end of file
@@ -1,55 +1,308 @@
 package org.osd.omot_app.data.repository;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.osd.omot_app.data.DBHelper;
+import org.osd.omot_app.data.DBPerformanceProfile;
+import org.osd.omot_app.data.content.DossierContentStore;
 import org.osd.omot_app.data.dao.AgentDAO;
 import org.osd.omot_app.data.dao.AgentDAOImpl;
 import org.osd.omot_app.data.dao.ClearanceLevelDAO;
 import org.osd.omot_app.data.dao.ClearanceLevelDAOImpl;
+import org.osd.omot_app.data.dao.DossierDAO;
+import org.osd.omot_app.data.dao.DossierDAOImpl;
+import org.osd.omot_app.data.dao.LoginTelemetryBuffer;
+import org.osd.omot_app.data.dao.MissionDAO;
+import org.osd.omot_app.data.dao.MissionDAOImpl;
+import org.osd.omot_app.security.ChunkedFileCipher;
+import org.osd.omot_app.security.LoginThrottle;
+import org.osd.omot_app.security.PasswordHashEngine;
+import org.osd.omot_app.security.Pbkdf2PasswordHasher;
 import org.osd.omot_app.security.SecurePreferencesManager;
+import org.osd.omot_app.security.SecurityChecker;
+import org.osd.omot_app.utils.NamedThreadFactory;
+import org.osd.omot_app.utils.ThreadGuard;
+
+import java.io.File;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides centralized access to repository instances.
  * This simplifies dependency throughout the application.
  */
 public class RepositoryProvider {
+    private static final String TAG = "RepositoryProvider";
+    private static final int IO_POOL_SIZE = 2;
+    private static final int IO_QUEUE_CAPACITY = 64;
+    private static final int HASH_QUEUE_CAPACITY = 16;
+    private static final String HASH_PREFS_NAME = "OMOT_Hash_Parameters";
+    private static final String KEY_HASH_COST_PREFIX = "hash_cost_";
+    private static final String DOSSIER_DIRECTORY = "dossiers";
+
     private static RepositoryProvider instance;
     private final Context context;
     private final DBHelper helper;
+    private final ThreadPoolExecutor ioExecutor;
+    private final ThreadPoolExecutor hashExecutor;
+    private final PasswordHashEngine passwordHashEngine;
+    private final LoginThrottle loginThrottle;
+    private final AgentDAO agentDAO;
+    private final MissionDAO missionDAO;
+    @Nullable
+    private final LoginTelemetryBuffer loginTelemetry;
 
     private AgentRepository agentRepository;
     private ClearanceLevelDAO clearanceLevelDAO;
+    private MissionBoard missionBoard;
+    private ChunkedFileCipher briefingCipher;
+    private DossierDAO dossierDAO;
+    private DossierContentStore dossierContentStore;
     private SecurePreferencesManager spManager;
 
-    private RepositoryProvider(Context context) {
+    private RepositoryProvider(Context context, DBPerformanceProfile profile) {
         this.context = context;
-        this.helper = new DBHelper(this.context);
+        this.helper = new DBHelper(this.context, profile);
+        this.ioExecutor = createIoExecutor();
+        this.hashExecutor = createHashExecutor();
+        this.passwordHashEngine = createPasswordHashEngine(context, hashExecutor);
+        this.loginThrottle = new LoginThrottle();
+        this.agentDAO = new AgentDAOImpl(helper);
+        this.missionDAO = new MissionDAOImpl(helper);
+        this.loginTelemetry = createLoginTelemetry(context, agentDAO, profile);
+        ThreadGuard.setStrict(SecurityChecker.isDebugBuild(context));
+        startPendingMigrations();
+    }
+
+    /**
+     * Creates the login write-behind buffer if the profile enables it, and flushes it whenever
+     * the app's UI leaves the foreground so buffered timestamps don't wait on a killed process.
+     */
+    @Nullable
+    private static LoginTelemetryBuffer createLoginTelemetry(Context context, AgentDAO agentDAO,
+                                                             DBPerformanceProfile profile) {
+        if (!profile.isLoginWriteBehindEnabled()) return null;
+
+        LoginTelemetryBuffer buffer = new LoginTelemetryBuffer(agentDAO,
+                profile.getLoginWriteBehindDelayMs(), profile.getLoginWriteBehindMaxPending());
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_UI_HIDDEN) buffer.flushAsync();
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                buffer.flushAsync();
+            }
+        });
+        return buffer;
+    }
+
+    /**
+     * A small, bounded pool for SQLite and KeyStore work. Two threads let a read proceed while a
+     * write is in flight; the bounded queue surfaces runaway submissions as rejections instead
+     * of unbounded memory growth.
+     */
+    private static ThreadPoolExecutor createIoExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                IO_POOL_SIZE, IO_POOL_SIZE,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(IO_QUEUE_CAPACITY),
+                new NamedThreadFactory("omot-io"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Password hashing is deliberately CPU-bound, so it gets its own pool sized to half the cores:
+     * a burst of logins queues here instead of starving the UI and the I/O pool. A full queue
+     * rejects the login rather than piling up more work.
+     */
+    private static ThreadPoolExecutor createHashExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(HASH_QUEUE_CAPACITY),
+                new NamedThreadFactory("omot-hash"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * PBKDF2 calibrated to this device. The cost isn't secret, so it lives in plain preferences.
+     */
+    private static PasswordHashEngine createPasswordHashEngine(Context context, Executor executor) {
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(HASH_PREFS_NAME, Context.MODE_PRIVATE);
+        PasswordHashEngine.CostStore costStore = new PasswordHashEngine.CostStore() {
+            @Override
+            public int loadCost(String algorithm) {
+                return prefs.getInt(KEY_HASH_COST_PREFIX + algorithm, 0);
+            }
+
+            @Override
+            public void saveCost(String algorithm, int cost) {
+                prefs.edit().putInt(KEY_HASH_COST_PREFIX + algorithm, cost).apply();
+            }
+        };
+        return new PasswordHashEngine(new Pbkdf2PasswordHasher(), costStore,
+                PasswordHashEngine.DEFAULT_TARGET_MILLIS, executor);
     }
 
     public static synchronized RepositoryProvider getInstance(Context context) {
+        return getInstance(context, DBPerformanceProfile.DEFAULT);
+    }
+
+    /**
+     * Returns the provider, creating it with the given database profile on first use.
+     * The profile is ignored once the provider exists.
+     */
+    public static synchronized RepositoryProvider getInstance(Context context,
+                                                              DBPerformanceProfile profile) {
         if (instance == null) {
-            instance = new RepositoryProvider(context);
+            instance = new RepositoryProvider(context, profile);
         }
         return instance;
     }
 
-    public AgentRepository getAgentRepository() {
+    public DBPerformanceProfile getPerformanceProfile() {
+        return helper.getPerformanceProfile();
+    }
+
+    /**
+     * Flushes the WAL into the main database file. Call after bulk writes or when the app is
+     * about to be backgrounded.
+     */
+    public void checkpointDatabase() {
+        helper.checkpoint();
+    }
+
+    /**
+     * Writes any buffered login timestamps now. Blocks; call from a background thread.
+     */
+    public void flushPendingWrites() {
+        if (loginTelemetry != null) {
+            loginTelemetry.flush();
+        }
+    }
+
+    /**
+     * @return true if the database encryption key was permanently invalidated, for example
+     *         because the device's lock screen was removed. Every login and registration fails
+     *         until {@link #resetLostEncryptionKey()} has run.
+     */
+    public boolean isEncryptionKeyLost() {
+        return helper.isEncryptionKeyInvalidated();
+    }
+
+    /**
+     * Deletes every agent, whose credentials were encrypted under the lost key, and generates a
+     * new key so registration works again. Dossier and briefing files written under the old
+     * key stay unreadable. Blocks; call from a background thread.
+     */
+    public synchronized void resetLostEncryptionKey() throws GeneralSecurityException {
+        ThreadGuard.assertNotMainThread("resetLostEncryptionKey");
+        helper.resetEncryptionKey();
+        if (agentRepository != null) {
+            agentRepository.onAllAgentsDeleted();
+        }
+        getSpManager().clearLoginSession();
+    }
+
+    public synchronized AgentRepository getAgentRepository() {
         if (agentRepository == null) {
-            AgentDAO agentDAO = new AgentDAOImpl(helper);
-            agentRepository = new AgentRepository(agentDAO);
+            agentRepository = new AgentRepository(agentDAO, ioExecutor, loginTelemetry,
+                    passwordHashEngine, loginThrottle);
         }
         return agentRepository;
     }
 
-    public ClearanceLevelDAO getClearanceLevelDAO() {
+    /**
+     * The executor all database and crypto work should run on. Never the main thread.
+     */
+    public Executor getIoExecutor() {
+        return ioExecutor;
+    }
+
+    public synchronized ClearanceLevelDAO getClearanceLevelDAO() {
         if (clearanceLevelDAO == null) {
             clearanceLevelDAO = new ClearanceLevelDAOImpl(helper);
         }
         return clearanceLevelDAO;
     }
 
-    public SecurePreferencesManager getSpManager() {
+    /**
+     * The shared mission DAO. Writes must go through this instance to keep the mission board
+     * current.
+     */
+    public MissionDAO getMissionDAO() {
+        return missionDAO;
+    }
+
+    /**
+     * The in-memory mission board. It loads on the I/O executor the first time it is requested;
+     * check {@link MissionBoard#isLoaded()} before relying on its answers.
+     */
+    public synchronized MissionBoard getMissionBoard() {
+        if (missionBoard == null) {
+            MissionBoard board = new MissionBoard();
+            ioExecutor.execute(() -> {
+                try {
+                    board.load(missionDAO);
+                } catch (Exception e) {
+                    Log.e(TAG, "Mission board load failed", e);
+                }
+            });
+            missionBoard = board;
+        }
+        return missionBoard;
+    }
+
+    /**
+     * Encrypts and decrypts mission briefing files under the database KeyStore key.
+     */
+    public synchronized ChunkedFileCipher getBriefingCipher() {
+        if (briefingCipher == null) {
+            briefingCipher = new ChunkedFileCipher(helper.getDataKeyWrapper());
+        }
+        return briefingCipher;
+    }
+
+    public synchronized DossierDAO getDossierDAO() {
+        if (dossierDAO == null) {
+            dossierDAO = new DossierDAOImpl(helper);
+        }
+        return dossierDAO;
+    }
+
+    /**
+     * Encrypted dossier content in the app's private files directory.
+     */
+    public synchronized DossierContentStore getDossierContentStore() {
+        if (dossierContentStore == null) {
+            dossierContentStore = new DossierContentStore(
+                    new File(context.getFilesDir(), DOSSIER_DIRECTORY), getBriefingCipher());
+        }
+        return dossierContentStore;
+    }
+
+    public synchronized SecurePreferencesManager getSpManager() {
         if (spManager == null) {
             try {
                 spManager = new SecurePreferencesManager(context);
@@ -60,10 +313,28 @@ public class RepositoryProvider {
         return spManager;
     }
 
+    /**
+     * Finishes any row rewrites left behind by a schema upgrade without blocking the caller.
+     */
+    private void startPendingMigrations() {
+        ioExecutor.execute(() -> {
+            try {
+                helper.runPendingMigrations();
+            } catch (Exception e) {
+                Log.e(TAG, "Deferred database migration failed", e);
+            }
+        });
+    }
+
     /**
      * Close the database connection. Call this when the application is terminating.
      */
     public void close() {
+        if (loginTelemetry != null) {
+            loginTelemetry.close();
+        }
+        ioExecutor.shutdown();
+        hashExecutor.shutdown();
         if (helper != null) {
             helper.close();
         }
@@ -0,0 +1,78 @@
+package org.osd.omot_app.data.results;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result class for bulk agent imports. Invalid rows are reported individually and don't stop
+ * the import; only an unreadable file or a failing hash or database layer sets a fatal error,
+ * in which case rows imported before the failure stay imported.
+ */
+public class ImportResult {
+
+    /**
+     * A row that was not imported, and why.
+     */
+    public static class RowError {
+        private final int rowNumber;
+        private final String codename;
+        private final String message;
+
+        public RowError(int rowNumber, @Nullable String codename, String message) {
+            this.rowNumber = rowNumber;
+            this.codename = codename;
+            this.message = message;
+        }
+
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        @Nullable
+        public String getCodename() {
+            return codename;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final int rowCount;
+    private final int importedCount;
+    private final List<RowError> rowErrors;
+    private final String fatalError;
+
+    public ImportResult(int rowCount, int importedCount, List<RowError> rowErrors,
+                        @Nullable String fatalError) {
+        this.rowCount = rowCount;
+        this.importedCount = importedCount;
+        this.rowErrors = Collections.unmodifiableList(rowErrors);
+        this.fatalError = fatalError;
+    }
+
+    /** @return true if the whole file was processed, even if some rows were rejected. */
+    public boolean isComplete() {
+        return fatalError == null;
+    }
+
+    /** @return The number of records read from the file. */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public List<RowError> getRowErrors() {
+        return rowErrors;
+    }
+
+    @Nullable
+    public String getFatalError() {
+        return fatalError;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package org.osd.omot_app.security;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The chunked file encryption format and the per-file cipher state.
+ * <p>
+ * Layout: a header of magic "OMEF", format version, chunk size (int), wrapped key length
+ * (unsigned short) and the wrapped data key, followed by the chunks. Every chunk but the last
+ * holds exactly {@code chunkSize} plaintext bytes; the last holds 0 to {@code chunkSize}, so a
+ * file always ends with a chunk marked last. Each chunk is sealed separately with AES-GCM under
+ * the file's random data key:
+ * <ul>
+ *     <li>the 12-byte nonce is the chunk index plus a last-chunk flag, so chunks can't be
+ *     reordered and the file can't be truncated at a chunk boundary unnoticed;</li>
+ *     <li>the whole header is the associated data, binding every chunk to its file's key and
+ *     chunk size.</li>
+ * </ul>
+ * Nonces are deterministic, which is safe because each data key encrypts exactly one file.
+ * Instances hold a Cipher and are not thread-safe.
+ */
+final class ChunkedCipherFormat {
+    static final int TAG_BYTES = 16;
+    static final int MIN_CHUNK_SIZE = 4 * 1024;
+    static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    static final int FIXED_HEADER_BYTES = 4 + 1 + 4 + 2;
+
+    private static final byte[] MAGIC = {'O', 'M', 'E', 'F'};
+    private static final byte VERSION = 1;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int DATA_KEY_BYTES = 32;
+    private static final int NONCE_BYTES = 12;
+    private static final int MAX_WRAPPED_KEY_BYTES = 0xFFFF;
+
+    private final int chunkSize;
+    private final byte[] header;
+    private final byte[] dataKey;
+    private final SecretKeySpec keySpec;
+    private final Cipher cipher;
+    private final byte[] nonce = new byte[NONCE_BYTES];
+
+    private ChunkedCipherFormat(int chunkSize, byte[] header, byte[] dataKey)
+            throws GeneralSecurityException {
+        this.chunkSize = chunkSize;
+        this.header = header;
+        this.dataKey = dataKey;
+        this.keySpec = new SecretKeySpec(dataKey, "AES");
+        this.cipher = Cipher.getInstance(TRANSFORMATION);
+    }
+
+    /**
+     * Starts a new file: generates its data key and wraps it.
+     */
+    static ChunkedCipherFormat create(DataKeyWrapper keyWrapper, int chunkSize,
+                                      SecureRandom random) throws IOException {
+        checkChunkSize(chunkSize);
+        byte[] dataKey = new byte[DATA_KEY_BYTES];
+        random.nextBytes(dataKey);
+
+        byte[] wrappedKey;
+        try {
+            wrappedKey = keyWrapper.wrapKey(dataKey);
+        } catch (GeneralSecurityException e) {
+            Arrays.fill(dataKey, (byte) 0);
+            throw new IOException("Could not wrap the file key", e);
+        }
+        if (wrappedKey.length > MAX_WRAPPED_KEY_BYTES) {
+            throw new IOException("Wrapped key too long: " + wrappedKey.length);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES + wrappedKey.length);
+        header.put(MAGIC).put(VERSION).putInt(chunkSize).putShort((short) wrappedKey.length)
+                .put(wrappedKey);
+        try {
+            return new ChunkedCipherFormat(chunkSize, header.array(), dataKey);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("AES-GCM unavailable", e);
+        }
+    }
+
+    /**
+     * Validates the fixed part of a header.
+     * @return The length of the wrapped key that follows it.
+     */
+    static int readWrappedKeyLength(byte[] fixedHeader) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(fixedHeader);
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not an encrypted file");
+        byte version = buffer.get();
+        if (version != VERSION) throw new IOException("Unsupported format version " + version);
+        checkChunkSize(buffer.getInt());
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    /**
+     * Opens an existing file from its complete header.
+     */
+    static ChunkedCipherFormat open(byte[] fixedHeader, byte[] wrappedKey,
+                                    DataKeyWrapper keyWrapper) throws IOException {
+        int chunkSize = ByteBuffer.wrap(fixedHeader).getInt(MAGIC.length + 1);
+        byte[] header = Arrays.copyOf(fixedHeader, FIXED_HEADER_BYTES + wrappedKey.length);
+        System.arraycopy(wrappedKey, 0, header, FIXED_HEADER_BYTES, wrappedKey.length);
+        try {
+            return new ChunkedCipherFormat(chunkSize, header, keyWrapper.unwrapKey(wrappedKey));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not unwrap the file key", e);
+        }
+    }
+
+    private static void checkChunkSize(int chunkSize) throws IOException {
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IOException("Chunk size out of range: " + chunkSize);
+        }
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /** Sealed size of a full chunk. */
+    int getSealedChunkSize() {
+        return chunkSize + TAG_BYTES;
+    }
+
+    byte[] getHeader() {
+        return header;
+    }
+
+    /**
+     * @param bodyLength The file length minus the header.
+     * @return The number of chunks in a well-formed body of that length.
+     */
+    long chunkCount(long bodyLength) throws IOException {
+        long sealed = getSealedChunkSize();
+        long count = (bodyLength + sealed - 1) / sealed;
+        if (count == 0 || bodyLength - (count - 1) * sealed < TAG_BYTES) {
+            throw new IOException("Encrypted file is truncated");
+        }
+        return count;
+    }
+
+    /**
+     * @return The plaintext length of a well-formed body of that length.
+     */
+    long plaintextLength(long bodyLength) throws IOException {
+        return bodyLength - chunkCount(bodyLength) * TAG_BYTES;
+    }
+
+    /**
+     * Encrypts one chunk into {@code output}, which needs {@code length + TAG_BYTES} bytes.
+     * @return The number of bytes written.
+     */
+    int seal(long index, boolean last, byte[] input, int length, byte[] output)
+            throws GeneralSecurityException {
+        cipher.init(Cipher.ENCRYPT_MODE, keySpec, nonceFor(index, last));
+        cipher.updateAAD(header);
+        return cipher.doFinal(input, 0, length, output, 0);
+    }
+
+    /**
+     * Decrypts and authenticates one sealed chunk into {@code output}.
+     * @return The number of plaintext bytes written.
+     */
+    int open(long index, boolean last, byte[] input, int length, byte[] output)
+            throws GeneralSecurityException {
+        cipher.init(Cipher.DECRYPT_MODE, keySpec, nonceFor(index, last));
+        cipher.updateAAD(header);
+        return cipher.doFinal(input, 0, length, output, 0);
+    }
+
+    /**
+     * Decrypts and authenticates the sealed chunk between {@code input}'s position and limit,
+     * e.g. straight out of a mapped file.
+     * @return The number of plaintext bytes written.
+     */
+    int open(long index, boolean last, ByteBuffer input, byte[] output)
+            throws GeneralSecurityException {
+        cipher.init(Cipher.DECRYPT_MODE, keySpec, nonceFor(index, last));
+        cipher.updateAAD(header);
+        return cipher.doFinal(input, ByteBuffer.wrap(output));
+    }
+
+    private GCMParameterSpec nonceFor(long index, boolean last) {
+        // Bytes 0-2 stay zero; 3-10 hold the index, 11 the last-chunk flag
+        for (int i = 0; i < 8; i++) {
+            nonce[10 - i] = (byte) (index >>> (8 * i));
+        }
+        nonce[NONCE_BYTES - 1] = (byte) (last ? 1 : 0);
+        return new GCMParameterSpec(TAG_BYTES * 8, nonce);
+    }
+
+    /**
+     * Clears the raw data key. The key spec keeps its own copy, which the platform can't erase.
+     */
+    void destroy() {
+        Arrays.fill(dataKey, (byte) 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package org.osd.omot_app.security;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Decrypts a chunked file as a stream, holding one chunk in memory at a time. Every chunk is
+ * authenticated before any of its bytes are returned; a tampered, reordered or truncated file
+ * fails with an IOException at the first bad chunk.
+ */
+public class ChunkedCipherInputStream extends InputStream {
+    private final InputStream in;
+    private final ChunkedCipherFormat format;
+    private final byte[] sealed;
+    private final byte[] plain;
+    private int position;
+    private int limit;
+    private long chunkIndex;
+    /** One byte read past a full chunk to tell whether it was the last; -1 if none. */
+    private int lookahead = -1;
+    private boolean finished;
+    private boolean closed;
+
+    ChunkedCipherInputStream(InputStream in, DataKeyWrapper keyWrapper) throws IOException {
+        this.in = in;
+        DataInputStream data = new DataInputStream(in);
+        byte[] fixedHeader = new byte[ChunkedCipherFormat.FIXED_HEADER_BYTES];
+        data.readFully(fixedHeader);
+        byte[] wrappedKey = new byte[ChunkedCipherFormat.readWrappedKeyLength(fixedHeader)];
+        data.readFully(wrappedKey);
+        this.format = ChunkedCipherFormat.open(fixedHeader, wrappedKey, keyWrapper);
+        this.sealed = new byte[format.getSealedChunkSize()];
+        this.plain = new byte[format.getChunkSize()];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) return -1;
+        return plain[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) throw new IndexOutOfBoundsException();
+        if (len == 0) return 0;
+        if (!fill()) return -1;
+        int n = Math.min(len, limit - position);
+        System.arraycopy(plain, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        Arrays.fill(plain, (byte) 0);
+        format.destroy();
+        in.close();
+    }
+
+    /**
+     * @return false at the end of the plaintext.
+     */
+    private boolean fill() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        while (position == limit) {
+            if (finished) return false;
+            readChunk();
+        }
+        return true;
+    }
+
+    private void readChunk() throws IOException {
+        int length = 0;
+        if (lookahead >= 0) {
+            sealed[length++] = (byte) lookahead;
+            lookahead = -1;
+        }
+        while (length < sealed.length) {
+            int n = in.read(sealed, length, sealed.length - length);
+            if (n < 0) break;
+            length += n;
+        }
+
+        boolean last = length < sealed.length || (lookahead = in.read()) < 0;
+        if (last && length < ChunkedCipherFormat.TAG_BYTES) {
+            throw new IOException("Encrypted file is truncated");
+        }
+        try {
+            limit = format.open(chunkIndex, last, sealed, length, plain);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Chunk " + chunkIndex + " failed authentication", e);
+        }
+        position = 0;
+        chunkIndex++;
+        finished = last;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package org.osd.omot_app.security;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Encrypts everything written to it into the chunked format, holding one chunk in memory at a
+ * time. The final chunk is only written by {@link #close()}, so a stream that is never closed
+ * produces a file that fails to decrypt rather than one that silently loses its tail.
+ */
+public class ChunkedCipherOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final ChunkedCipherFormat format;
+    private final byte[] plain;
+    private final byte[] sealed;
+    private int count;
+    private long chunkIndex;
+    private boolean closed;
+
+    ChunkedCipherOutputStream(OutputStream out, ChunkedCipherFormat format) throws IOException {
+        this.out = out;
+        this.format = format;
+        this.plain = new byte[format.getChunkSize()];
+        this.sealed = new byte[format.getSealedChunkSize()];
+        out.write(format.getHeader());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        plain[count++] = (byte) b;
+        if (count == plain.length) writeChunk(false);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) throw new IndexOutOfBoundsException();
+        while (len > 0) {
+            int n = Math.min(len, plain.length - count);
+            System.arraycopy(b, off, plain, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == plain.length) writeChunk(false);
+        }
+    }
+
+    /**
+     * Flushes the underlying stream. Buffered plaintext stays buffered until its chunk is full
+     * or the stream is closed, since a chunk can't be sealed twice.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            writeChunk(true);
+        } finally {
+            Arrays.fill(plain, (byte) 0);
+            format.destroy();
+            out.close();
+        }
+    }
+
+    private void writeChunk(boolean last) throws IOException {
+        int length;
+        try {
+            length = format.seal(chunkIndex, last, plain, count, sealed);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to encrypt chunk " + chunkIndex, e);
+        }
+        out.write(sealed, 0, length);
+        chunkIndex++;
+        count = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package org.osd.omot_app.security;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.security.SecureRandom;
+
+/**
+ * Encrypts files of any size, such as mission briefings, in constant memory.
+ * <p>
+ * Each file gets a random AES-256 data key, wrapped by the {@link DataKeyWrapper} and stored in
+ * the file header, so the KeyStore is touched once per file rather than once per block. The
+ * body is split into fixed-size chunks that are authenticated independently; see
+ * {@link ChunkedCipherFormat} for the layout. Streams and readers returned here are
+ * single-threaded, but this class itself is thread-safe.
+ */
+public class ChunkedFileCipher {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final DataKeyWrapper keyWrapper;
+    private final int chunkSize;
+    private final SecureRandom random = new SecureRandom();
+
+    public ChunkedFileCipher(DataKeyWrapper keyWrapper) {
+        this(keyWrapper, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Plaintext bytes per chunk, between 4 KiB and 16 MiB. Larger chunks
+     *                  stream faster; smaller ones make random reads cheaper.
+     */
+    public ChunkedFileCipher(DataKeyWrapper keyWrapper, int chunkSize) {
+        if (chunkSize < ChunkedCipherFormat.MIN_CHUNK_SIZE
+                || chunkSize > ChunkedCipherFormat.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size out of range: " + chunkSize);
+        }
+        this.keyWrapper = keyWrapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes the header to {@code out} and returns a stream that encrypts into it.
+     * The file is only complete once the returned stream is closed.
+     */
+    public ChunkedCipherOutputStream newEncryptingStream(OutputStream out) throws IOException {
+        return new ChunkedCipherOutputStream(out,
+                ChunkedCipherFormat.create(keyWrapper, chunkSize, random));
+    }
+
+    /**
+     * Reads the header from {@code in} and returns a stream of the authenticated plaintext.
+     * The chunk size is taken from the header, not from this cipher.
+     */
+    public ChunkedCipherInputStream newDecryptingStream(InputStream in) throws IOException {
+        return new ChunkedCipherInputStream(in, keyWrapper);
+    }
+
+    /**
+     * Opens an encrypted file for random access through its channel.
+     */
+    public EncryptedFileChannelReader newReader(FileChannel channel) throws IOException {
+        return new EncryptedFileChannelReader(channel, keyWrapper, false);
+    }
+
+    public EncryptedFileChannelReader newReader(File file) throws IOException {
+        return newReader(file, false);
+    }
+
+    /**
+     * Opens an encrypted file for random access.
+     * @param memoryMapped Decrypt from mapped memory instead of reading into a buffer. Only
+     *                     safe for files that won't be truncated or rewritten while open.
+     */
+    public EncryptedFileChannelReader newReader(File file, boolean memoryMapped)
+            throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            return new EncryptedFileChannelReader(channel, keyWrapper, memoryMapped);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Encrypts {@code source} into {@code target}, replacing it. If encryption fails, the
+     * target is deleted rather than left truncated or holding part of the ciphertext.
+     */
+    public void encryptFile(File source, File target) throws IOException {
+        try (InputStream in = new FileInputStream(source)) {
+            try (OutputStream file = new FileOutputStream(target);
+                 OutputStream out = newEncryptingStream(file)) {
+                copy(in, out);
+            } catch (IOException | RuntimeException e) {
+                deleteAfterFailure(target, e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Decrypts {@code source} into {@code target}. If authentication fails part-way, the
+     * target is deleted rather than left holding a prefix of the plaintext.
+     */
+    public void decryptFile(File source, File target) throws IOException {
+        try (InputStream file = new FileInputStream(source);
+             InputStream in = newDecryptingStream(file);
+             OutputStream out = new FileOutputStream(target)) {
+            copy(in, out);
+        } catch (IOException e) {
+            deleteAfterFailure(target, e);
+            throw e;
+        }
+    }
+
+    private static void deleteAfterFailure(File target, Exception failure) {
+        if (!target.delete() && target.exists()) {
+            failure.addSuppressed(new IOException("Could not delete " + target));
+        }
+    }
+
+    private void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[chunkSize];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.osd.omot_app.security;
 
 import android.content.Context;
 import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyPermanentlyInvalidatedException;
 import android.security.keystore.KeyProperties;
 import android.util.Base64;
 import android.util.Log;
@@ -10,12 +11,15 @@ import androidx.annotation.Nullable;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
 
 import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
@@ -23,57 +27,177 @@ import javax.crypto.spec.GCMParameterSpec;
 /**
  * Handle encryption and decryption of sensitive data using AES-GCM stored in the Android KeyStore.
  * This provides a secure way to manage the encryption key.
+ * <p>
+ * The resolved key handle is cached after the first KeyStore lookup and each thread keeps its own
+ * Cipher instance, so bulk reads don't pay a KeyStore round trip and provider lookup per field.
  */
-public class CryptoManager {
+public class CryptoManager implements FieldCipher, DataKeyWrapper {
     private static final String TAG = "CryptoManager";
     private static final String ANDROID_KEYSTORE = "AndroidKeyStore";
     private static final String KEY_ALIAS = "OMOT_Database_Encryption_Key";
     private static final String TRANSFORMATION = "AES/GCM/NoPadding";
     private static final int IV_LENGTH = 12;    // 12 bytes is recommended for GCM
     private static final int TAG_LENGTH = 128;  // 128 bits is standard for GCM
+    private static final int DEFAULT_SCRATCH_SIZE = 256;
+    private static final int MAX_POOLED_SCRATCH_SIZE = 64 * 1024;
 
-    private final KeyStore keyStore;
-    private final Context context;
+    private final KeySource keySource;
+
+    // Resolved KeyStore key handle. Cleared on rotation or permanent invalidation.
+    private volatile SecretKey cachedSecretKey;
+    // Set once the KeyStore reports the key permanently invalidated. Cleared only by resetKey().
+    private volatile boolean keyInvalidated;
+    // Cipher objects are not thread-safe, so every thread gets its own reusable instance.
+    private final ThreadLocal<Cipher> cipherPool = new ThreadLocal<>();
+    // Per-thread output buffer reused across encrypt/decrypt calls and whole batches.
+    private final ThreadLocal<byte[]> scratchPool = new ThreadLocal<>();
+
+    /**
+     * Where the AES key lives: the Android KeyStore in the app, a software key in JVM tests.
+     */
+    interface KeySource {
+        SecretKey loadOrGenerate() throws GeneralSecurityException;
+
+        /** Deletes the key so the next {@link #loadOrGenerate()} creates a new one. */
+        void delete() throws GeneralSecurityException;
+    }
 
     public CryptoManager(Context context) {
-        this.context = context.getApplicationContext();
-        try {
-            keyStore = KeyStore.getInstance(ANDROID_KEYSTORE);
-            keyStore.load(null);
-        } catch (KeyStoreException | CertificateException | IOException | NoSuchAlgorithmException e) {
-            throw new RuntimeException("Failed to initialize KeyStore", e);
+        this(new AndroidKeyStoreSource());
+    }
+
+    CryptoManager(KeySource keySource) {
+        this.keySource = keySource;
+    }
+
+    private SecretKey getOrCreateSecretKey() throws GeneralSecurityException {
+        SecretKey secretKey = cachedSecretKey;
+        if (secretKey != null) {
+            return secretKey;
+        }
+        synchronized (this) {
+            if (cachedSecretKey == null) {
+                cachedSecretKey = keySource.loadOrGenerate();
+            }
+            return cachedSecretKey;
         }
     }
 
-    private SecretKey getOrCreateSecretKey() {
-        try {
-            // First, try to retrieve the existing key
-            if (keyStore.containsAlias(KEY_ALIAS)) {
-                KeyStore.SecretKeyEntry secretKeyEntry =
-                        (KeyStore.SecretKeyEntry) keyStore.getEntry(KEY_ALIAS, null);
-                if (secretKeyEntry != null) {
-                    return secretKeyEntry.getSecretKey();
+    /**
+     * The key under {@link #KEY_ALIAS} in the Android KeyStore.
+     */
+    private static class AndroidKeyStoreSource implements KeySource {
+        private final KeyStore keyStore;
+
+        AndroidKeyStoreSource() {
+            try {
+                keyStore = KeyStore.getInstance(ANDROID_KEYSTORE);
+                keyStore.load(null);
+            } catch (KeyStoreException | CertificateException | IOException
+                     | NoSuchAlgorithmException e) {
+                throw new RuntimeException("Failed to initialize KeyStore", e);
+            }
+        }
+
+        @Override
+        public SecretKey loadOrGenerate() {
+            try {
+                // First, try to retrieve the existing key
+                if (keyStore.containsAlias(KEY_ALIAS)) {
+                    KeyStore.SecretKeyEntry secretKeyEntry =
+                            (KeyStore.SecretKeyEntry) keyStore.getEntry(KEY_ALIAS, null);
+                    if (secretKeyEntry != null) {
+                        return secretKeyEntry.getSecretKey();
+                    }
                 }
+                // If the key doesn't exist, generate a new one
+                KeyGenParameterSpec keyGenParameterSpec = new KeyGenParameterSpec.Builder(
+                        KEY_ALIAS,
+                        KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT
+                )
+                        .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                        .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                        .setKeySize(256)
+                        .setUserAuthenticationRequired(false) // Key is available without user auth
+                        .build();
+
+                KeyGenerator keyGenerator = KeyGenerator.getInstance(
+                        KeyProperties.KEY_ALGORITHM_AES, ANDROID_KEYSTORE);
+                keyGenerator.init(keyGenParameterSpec);
+                return keyGenerator.generateKey();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to get or create secret key", e);
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void delete() throws KeyStoreException {
+            keyStore.deleteEntry(KEY_ALIAS);
+        }
+    }
+
+    /**
+     * Drops the cached key handle so the next operation resolves it from the KeyStore again.
+     * Call this after the KeyStore entry has been rotated or deleted.
+     */
+    public void invalidateKeyCache() {
+        synchronized (this) {
+            cachedSecretKey = null;
+        }
+        cipherPool.remove();
+        Log.i(TAG, "Encryption key cache invalidated");
+    }
+
+    /**
+     * @return true once the KeyStore has reported the key permanently invalidated, for example
+     *         after the device's lock screen was removed. Every encrypt and decrypt fails from
+     *         then on, until {@link #resetKey()} is called.
+     */
+    public boolean isKeyPermanentlyInvalidated() {
+        return keyInvalidated;
+    }
+
+    /**
+     * Deletes the KeyStore key so the next operation generates a new one, and clears the
+     * invalidated state. This does not recover anything: every value encrypted under the old
+     * key, including the sensitive agent columns and wrapped file keys, stays unreadable for
+     * good. Only call it once that data has been given up.
+     */
+    public void resetKey() throws GeneralSecurityException {
+        synchronized (this) {
+            keySource.delete();
+            cachedSecretKey = null;
+            keyInvalidated = false;
+        }
+        cipherPool.remove();
+        Log.w(TAG, "Encryption key deleted; data encrypted under the old key is lost");
+    }
+
+    /**
+     * Returns the calling thread's Cipher instance, creating it on first use.
+     */
+    private Cipher obtainCipher() throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Cipher cipher = cipherPool.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(TRANSFORMATION);
+            cipherPool.set(cipher);
+        }
+        return cipher;
+    }
+
+    /**
+     * Returns the calling thread's scratch buffer, growing it to at least {@code size} bytes.
+     */
+    private byte[] obtainScratch(int size) {
+        byte[] scratch = scratchPool.get();
+        if (scratch == null || scratch.length < size) {
+            scratch = new byte[Math.max(size, DEFAULT_SCRATCH_SIZE)];
+            if (scratch.length <= MAX_POOLED_SCRATCH_SIZE) {
+                scratchPool.set(scratch);
             }
-            // If the key doesn't exist, generate a new one
-            KeyGenParameterSpec keyGenParameterSpec = new KeyGenParameterSpec.Builder(
-                    KEY_ALIAS,
-                    KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT
-            )
-                    .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
-                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
-                    .setKeySize(256)
-                    .setUserAuthenticationRequired(false)   // Key is available without user auth
-                    .build();
-
-            KeyGenerator keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES,
-                    ANDROID_KEYSTORE);
-            keyGenerator.init(keyGenParameterSpec);
-            return keyGenerator.generateKey();
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to get or create secret key", e);
-            throw new RuntimeException(e);
         }
+        return scratch;
     }
 
     /**
@@ -86,27 +210,7 @@ public class CryptoManager {
         if (plaintext == null || plaintext.isEmpty()) {
             return plaintext;
         }
-        try {
-            SecretKey secretKey = getOrCreateSecretKey();
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-
-            // Get the IV that was generated
-            byte[] iv = cipher.getIV();
-            // Perform the encryption
-            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
-
-            // Combine IV and ciphertext for storage
-            byte[] encryptedData = new byte[iv.length + ciphertext.length];
-            System.arraycopy(iv, 0, encryptedData, 0, iv.length);
-            System.arraycopy(ciphertext, 0, encryptedData, iv.length, ciphertext.length);
-
-            // Return as a Base64 string
-            return Base64.encodeToString(encryptedData, Base64.NO_WRAP);
-        } catch (Exception e) {
-            Log.e(TAG, "Encryption failed", e);
-            return null;
-        }
+        return encryptBatch(new String[]{plaintext})[0];
     }
 
     /**
@@ -119,31 +223,225 @@ public class CryptoManager {
         if (encryptedDataBase64 == null || encryptedDataBase64.isEmpty()) {
             return encryptedDataBase64;
         }
+        return decryptBatch(new String[]{encryptedDataBase64})[0];
+    }
 
-        try {
-            byte[] encryptedData = Base64.decode(encryptedDataBase64, Base64.NO_WRAP);
-            if (encryptedData.length < IV_LENGTH) {
-                throw new IllegalArgumentException("Encrypted data is too short");
+    /**
+     * Encrypts raw bytes.
+     * @param plaintext The bytes to encrypt.
+     * @return The IV followed by the ciphertext, or null if encryption failed.
+     */
+    @Nullable
+    public byte[] encryptBytes(byte[] plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        byte[][] results = new byte[1][];
+        runBatch(new byte[][]{plaintext}, results, this::seal, "Encryption");
+        return results[0];
+    }
+
+    /**
+     * Decrypts raw bytes previously produced by {@link #encryptBytes(byte[])}.
+     * @param encryptedData The IV followed by the ciphertext.
+     * @return The decrypted bytes, or null if decryption failed.
+     */
+    @Nullable
+    public byte[] decryptBytes(byte[] encryptedData) {
+        if (encryptedData == null) {
+            return null;
+        }
+        byte[][] results = new byte[1][];
+        runBatch(new byte[][]{encryptedData}, results, (cipher, secretKey, data) -> {
+            byte[] output = obtainScratch(data.length);
+            int written = open(cipher, secretKey, data, output);
+            try {
+                return Arrays.copyOf(output, written);
+            } finally {
+                Arrays.fill(output, 0, written, (byte) 0);
             }
+        }, "Decryption");
+        return results[0];
+    }
 
-            // Extract the IV (first IV_LENGTH bytes)
-            byte[] iv = new byte[IV_LENGTH];
-            System.arraycopy(encryptedData, 0, iv, 0, IV_LENGTH);
+    /**
+     * Wraps a file data key under the KeyStore key.
+     */
+    @Override
+    public byte[] wrapKey(byte[] dataKey) throws GeneralSecurityException {
+        byte[] wrapped = encryptBytes(dataKey);
+        if (wrapped == null) {
+            throw new GeneralSecurityException("Failed to wrap data key");
+        }
+        return wrapped;
+    }
 
-            // Extract the ciphertext (the rest)
-            byte[] ciphertext = new byte[encryptedData.length - IV_LENGTH];
-            System.arraycopy(encryptedData, IV_LENGTH, ciphertext, 0, ciphertext.length);
-            SecretKey secretKey = getOrCreateSecretKey();
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            GCMParameterSpec spec = new GCMParameterSpec(TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
+    /**
+     * Unwraps a data key produced by {@link #wrapKey(byte[])}.
+     */
+    @Override
+    public byte[] unwrapKey(byte[] wrappedKey) throws GeneralSecurityException {
+        byte[] dataKey = decryptBytes(wrappedKey);
+        if (dataKey == null) {
+            throw new GeneralSecurityException("Failed to unwrap data key");
+        }
+        return dataKey;
+    }
+
+    /**
+     * Encrypts several plaintext strings with a single key lookup, Cipher and scratch buffer.
+     * @param plaintexts The strings to encrypt. Null and empty entries are passed through unchanged.
+     * @return An array of the same length where each slot holds what {@link #encrypt(String)}
+     *         would return for the matching input (null if that entry failed).
+     */
+    public String[] encryptBatch(String[] plaintexts) {
+        String[] results = new String[plaintexts.length];
+        runBatch(plaintexts, results, (cipher, secretKey, plaintext) -> {
+            if (plaintext.isEmpty()) return plaintext;
+            return Base64.encodeToString(sealString(cipher, secretKey, plaintext), Base64.NO_WRAP);
+        }, "Encryption");
+        return results;
+    }
+
+    /**
+     * Decrypts several values with a single key lookup, Cipher and scratch buffer.
+     * @param encryptedValues Base64 encoded IV + ciphertext values. Null and empty entries are
+     *                        passed through unchanged.
+     * @return An array of the same length where each slot holds what {@link #decrypt(String)}
+     *         would return for the matching input (null if that entry failed).
+     */
+    public String[] decryptBatch(String[] encryptedValues) {
+        String[] results = new String[encryptedValues.length];
+        runBatch(encryptedValues, results, (cipher, secretKey, encryptedValue) -> {
+            if (encryptedValue.isEmpty()) return encryptedValue;
+            return openString(cipher, secretKey, Base64.decode(encryptedValue, Base64.NO_WRAP));
+        }, "Decryption");
+        return results;
+    }
+
+    /**
+     * Encrypts several strings into raw IV + ciphertext blobs, suitable for BLOB columns.
+     * @param plaintexts The strings to encrypt. Null entries stay null, empty strings become
+     *                   empty arrays.
+     * @return An array of the same length holding the encrypted blobs (null if that entry failed).
+     */
+    @Override
+    public byte[][] encryptToBlobs(String[] plaintexts) {
+        byte[][] results = new byte[plaintexts.length][];
+        runBatch(plaintexts, results, (cipher, secretKey, plaintext) -> {
+            if (plaintext.isEmpty()) return new byte[0];
+            return sealString(cipher, secretKey, plaintext);
+        }, "Encryption");
+        return results;
+    }
+
+    /**
+     * Decrypts several raw IV + ciphertext blobs back into strings.
+     * @param blobs Blobs produced by {@link #encryptToBlobs(String[])}. Null entries stay null,
+     *              empty arrays become empty strings.
+     * @return An array of the same length holding the plaintexts (null if that entry failed).
+     */
+    @Override
+    public String[] decryptBlobs(byte[][] blobs) {
+        String[] results = new String[blobs.length];
+        runBatch(blobs, results, (cipher, secretKey, blob) -> {
+            if (blob.length == 0) return "";
+            return openString(cipher, secretKey, blob);
+        }, "Decryption");
+        return results;
+    }
+
+    /**
+     * A single encrypt or decrypt step run with an already initialized key and Cipher.
+     */
+    private interface BatchOperation<I, O> {
+        O apply(Cipher cipher, SecretKey secretKey, I input) throws GeneralSecurityException;
+    }
 
-            byte[] decryptedBytes = cipher.doFinal(ciphertext);
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
+    /**
+     * Runs {@code operation} over every non-null input, resolving the key and Cipher only once.
+     * A failing entry leaves its slot null; a permanently invalidated key aborts the batch and
+     * every later one, see {@link #isKeyPermanentlyInvalidated()}.
+     */
+    private <I, O> void runBatch(I[] inputs, O[] results, BatchOperation<I, O> operation,
+                                 String operationName) {
+        if (keyInvalidated) {
+            Log.e(TAG, operationName + " refused: key permanently invalidated");
+            return;
+        }
+        try {
+            SecretKey secretKey = getOrCreateSecretKey();
+            Cipher cipher = obtainCipher();
+            for (int i = 0; i < inputs.length; i++) {
+                if (inputs[i] == null) continue;
+                try {
+                    results[i] = operation.apply(cipher, secretKey, inputs[i]);
+                } catch (KeyPermanentlyInvalidatedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    Log.e(TAG, operationName + " failed", e);
+                }
+            }
+        } catch (KeyPermanentlyInvalidatedException e) {
+            Log.e(TAG, operationName + " failed: key permanently invalidated", e);
+            keyInvalidated = true;
+            invalidateKeyCache();
         } catch (Exception e) {
-            Log.e(TAG, "Decryption failed", e);
-            return null;
+            Log.e(TAG, operationName + " failed", e);
+        }
+    }
+
+    private byte[] sealString(Cipher cipher, SecretKey secretKey, String plaintext)
+            throws GeneralSecurityException {
+        byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+        try {
+            return seal(cipher, secretKey, input);
+        } finally {
+            Arrays.fill(input, (byte) 0);
+        }
+    }
+
+    private String openString(Cipher cipher, SecretKey secretKey, byte[] encryptedData)
+            throws GeneralSecurityException {
+        byte[] output = obtainScratch(encryptedData.length);
+        int written = open(cipher, secretKey, encryptedData, output);
+        try {
+            return new String(output, 0, written, StandardCharsets.UTF_8);
+        } finally {
+            Arrays.fill(output, 0, written, (byte) 0);
+        }
+    }
+
+    /**
+     * Encrypts {@code input} and returns the IV followed by the ciphertext.
+     */
+    private byte[] seal(Cipher cipher, SecretKey secretKey, byte[] input)
+            throws GeneralSecurityException {
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey);
+
+        // Write IV + ciphertext into a single array for storage
+        byte[] iv = cipher.getIV();
+        byte[] output = new byte[iv.length + cipher.getOutputSize(input.length)];
+        System.arraycopy(iv, 0, output, 0, iv.length);
+        int written = cipher.doFinal(input, 0, input.length, output, iv.length);
+        return iv.length + written == output.length
+                ? output : Arrays.copyOf(output, iv.length + written);
+    }
+
+    /**
+     * Decrypts IV + ciphertext into {@code output} and returns the number of plaintext bytes.
+     */
+    private int open(Cipher cipher, SecretKey secretKey, byte[] encryptedData, byte[] output)
+            throws GeneralSecurityException {
+        if (encryptedData.length < IV_LENGTH) {
+            throw new IllegalArgumentException("Encrypted data is too short");
         }
+
+        // The IV is the first IV_LENGTH bytes, the ciphertext is the rest
+        GCMParameterSpec spec = new GCMParameterSpec(TAG_LENGTH, encryptedData, 0, IV_LENGTH);
+        cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
+        return cipher.doFinal(encryptedData, IV_LENGTH, encryptedData.length - IV_LENGTH,
+                output, 0);
     }
 
     /**
@@ -151,6 +449,7 @@ public class CryptoManager {
      * @return true if encryption/decryption is ready, false otherwise.
      */
     public boolean isSecurityKeyAvailable() {
+        if (keyInvalidated) return false;
         try {
             // Try a simple encrypt/decrypt cycle
             String testText = "OMOT_TEST_STRING";
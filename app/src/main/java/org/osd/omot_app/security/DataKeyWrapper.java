@@ -0,0 +1,23 @@
+package org.osd.omot_app.security;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * Wraps per-file data keys under a long-lived master key. Implemented by {@link CryptoManager}
+ * with the KeyStore key; kept as an interface so the file format does not depend on the Android
+ * KeyStore directly.
+ */
+public interface DataKeyWrapper {
+
+    /**
+     * @param dataKey The raw data key.
+     * @return The wrapped key, safe to store next to the data it protects.
+     */
+    byte[] wrapKey(byte[] dataKey) throws GeneralSecurityException;
+
+    /**
+     * @param wrappedKey A key produced by {@link #wrapKey(byte[])}.
+     * @return The raw data key.
+     */
+    byte[] unwrapKey(byte[] wrappedKey) throws GeneralSecurityException;
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package org.osd.omot_app.security;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Random access to the plaintext of a chunked file. A positional read decrypts only the chunks
+ * it covers, so seeking into a large briefing costs one chunk rather than the whole file. The
+ * most recently decrypted chunk is kept for sequential reads. Not thread-safe; closing the
+ * reader closes the channel.
+ * <p>
+ * A memory-mapped reader decrypts straight from windows of the file mapped into memory,
+ * skipping the copy into a heap buffer. Only use it for files that nobody truncates or rewrites
+ * in place while the reader is open: touching a mapped page that no longer exists crashes the
+ * process instead of throwing.
+ */
+public class EncryptedFileChannelReader implements Closeable {
+    // Chunks per mapped window, about 8 MiB with the default chunk size
+    private static final int CHUNKS_PER_WINDOW = 128;
+
+    private final FileChannel channel;
+    private final boolean memoryMapped;
+    private final long fileSize;
+    private final ChunkedCipherFormat format;
+    private final long bodyOffset;
+    private final long chunkCount;
+    private final long size;
+    private final ByteBuffer sealed;
+    private final byte[] plain;
+    private long cachedChunk = -1;
+    private int cachedLength;
+    private MappedByteBuffer window;
+    private long windowFirstChunk = -1;
+
+    EncryptedFileChannelReader(FileChannel channel, DataKeyWrapper keyWrapper,
+                               boolean memoryMapped) throws IOException {
+        this.channel = channel;
+        this.memoryMapped = memoryMapped;
+        byte[] fixedHeader = new byte[ChunkedCipherFormat.FIXED_HEADER_BYTES];
+        readFully(ByteBuffer.wrap(fixedHeader), 0);
+        byte[] wrappedKey = new byte[ChunkedCipherFormat.readWrappedKeyLength(fixedHeader)];
+        readFully(ByteBuffer.wrap(wrappedKey), fixedHeader.length);
+        this.format = ChunkedCipherFormat.open(fixedHeader, wrappedKey, keyWrapper);
+        this.bodyOffset = fixedHeader.length + wrappedKey.length;
+
+        this.fileSize = channel.size();
+        long bodyLength = fileSize - bodyOffset;
+        this.chunkCount = format.chunkCount(bodyLength);
+        this.size = format.plaintextLength(bodyLength);
+        this.sealed = ByteBuffer.allocate(format.getSealedChunkSize());
+        this.plain = new byte[format.getChunkSize()];
+    }
+
+    /**
+     * @return The plaintext length in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    public int getChunkSize() {
+        return format.getChunkSize();
+    }
+
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Reads plaintext starting at {@code position} into {@code dst}, like
+     * {@link FileChannel#read(ByteBuffer, long)}.
+     * @return The number of bytes read, or -1 if {@code position} is at or past the end.
+     */
+    public int read(ByteBuffer dst, long position) throws IOException {
+        if (position < 0) throw new IllegalArgumentException("Negative position");
+        if (position >= size) return -1;
+        int chunkSize = format.getChunkSize();
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            long index = position / chunkSize;
+            int offset = (int) (position % chunkSize);
+            decryptChunk(index);
+            int n = Math.min(dst.remaining(), cachedLength - offset);
+            dst.put(plain, offset, n);
+            position += n;
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Decrypts one whole chunk into {@code dst}.
+     * @return The number of plaintext bytes in the chunk.
+     */
+    public int readChunk(long index, ByteBuffer dst) throws IOException {
+        if (index < 0 || index >= chunkCount) {
+            throw new IndexOutOfBoundsException("Chunk " + index + " of " + chunkCount);
+        }
+        decryptChunk(index);
+        dst.put(plain, 0, cachedLength);
+        return cachedLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(plain, (byte) 0);
+        cachedChunk = -1;
+        window = null;
+        format.destroy();
+        channel.close();
+    }
+
+    private void decryptChunk(long index) throws IOException {
+        if (index == cachedChunk) return;
+        boolean last = index == chunkCount - 1;
+        try {
+            cachedLength = format.open(index, last, sealedChunk(index, last), plain);
+        } catch (GeneralSecurityException e) {
+            cachedChunk = -1;
+            throw new IOException("Chunk " + index + " failed authentication", e);
+        }
+        cachedChunk = index;
+    }
+
+    /**
+     * @return A buffer holding exactly the sealed bytes of the chunk.
+     */
+    private ByteBuffer sealedChunk(long index, boolean last) throws IOException {
+        int sealedSize = format.getSealedChunkSize();
+        long start = bodyOffset + index * sealedSize;
+        int length = last ? (int) (fileSize - start) : sealedSize;
+        if (!memoryMapped) {
+            sealed.clear();
+            sealed.limit(length);
+            readFully(sealed, start);
+            return sealed;
+        }
+
+        long firstChunk = index - index % CHUNKS_PER_WINDOW;
+        if (firstChunk != windowFirstChunk) {
+            long windowStart = bodyOffset + firstChunk * sealedSize;
+            long windowLength = Math.min((long) CHUNKS_PER_WINDOW * sealedSize,
+                    fileSize - windowStart);
+            // The previous window is unmapped once it is garbage collected
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            windowFirstChunk = firstChunk;
+        }
+        ByteBuffer chunk = window.duplicate();
+        int offset = (int) ((index - firstChunk) * sealedSize);
+        chunk.limit(offset + length);
+        chunk.position(offset);
+        return chunk;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) throw new EOFException("Encrypted file is truncated");
+            position += n;
+        }
+        buffer.flip();
+    }
+}
\ No newline at end of file
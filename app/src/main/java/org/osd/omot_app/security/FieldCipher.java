@@ -0,0 +1,23 @@
+package org.osd.omot_app.security;
+
+/**
+ * Encrypts and decrypts database field values as raw IV + ciphertext blobs.
+ * Implemented by {@link CryptoManager}; kept as an interface so code that only needs
+ * field-level crypto does not depend on the Android KeyStore directly.
+ */
+public interface FieldCipher {
+
+    /**
+     * Encrypts several strings into raw IV + ciphertext blobs.
+     * @param plaintexts The strings to encrypt. Null entries stay null.
+     * @return An array of the same length holding the encrypted blobs (null if that entry failed).
+     */
+    byte[][] encryptToBlobs(String[] plaintexts);
+
+    /**
+     * Decrypts several raw IV + ciphertext blobs back into strings.
+     * @param blobs The blobs to decrypt. Null entries stay null.
+     * @return An array of the same length holding the plaintexts (null if that entry failed).
+     */
+    String[] decryptBlobs(byte[][] blobs);
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.osd.omot_app.security;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * The original single-round SHA-256(salt || password) hash. Only used to verify hashes stored
+ * before {@link Pbkdf2PasswordHasher}; they are replaced on the agent's next successful login.
+ */
+public class LegacySha256PasswordHasher implements PasswordHasher {
+    public static final String ALGORITHM = "sha256";
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public byte[] derive(byte[] password, byte[] salt, int cost) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(salt);
+        return digest.digest(password);
+    }
+}
\ No newline at end of file
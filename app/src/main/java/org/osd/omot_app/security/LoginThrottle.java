@@ -0,0 +1,136 @@
+package org.osd.omot_app.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-codename token buckets that cap how fast login attempts are accepted. Each codename may
+ * burst up to {@code burstSize} attempts, then gets one more every {@code refillIntervalMillis}.
+ * {@link #getRetryAfterMillis(String)} only peeks, so a caller can turn away throttled codenames
+ * before any database or crypto work and create buckets only for codenames it has confirmed.
+ * <p>
+ * Buckets live in a fixed number of striped LRU maps, so memory stays bounded however many
+ * codenames are tried: once a stripe is full, its least recently used codename is forgotten.
+ * The stripe lock only covers the map lookup. The bucket itself is a single {@link AtomicLong}
+ * updated by compare-and-set (the GCRA form of a token bucket), so attempts on one codename never
+ * wait for each other.
+ */
+public class LoginThrottle {
+    public static final int DEFAULT_BURST_SIZE = 10;
+    public static final long DEFAULT_REFILL_INTERVAL_MILLIS = 6_000;    // 10 attempts a minute
+    public static final int DEFAULT_MAX_TRACKED_CODENAMES = 4096;
+    private static final int STRIPE_COUNT = 16;     // Power of two
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    public LoginThrottle() {
+        this(DEFAULT_BURST_SIZE, DEFAULT_REFILL_INTERVAL_MILLIS, DEFAULT_MAX_TRACKED_CODENAMES,
+                System::nanoTime);
+    }
+
+    /**
+     * @param burstSize            Attempts a codename may make back to back.
+     * @param refillIntervalMillis Time for one attempt to become available again.
+     * @param maxTrackedCodenames  Upper bound on codenames held in memory.
+     * @param nanoClock            Monotonic clock in nanoseconds.
+     */
+    public LoginThrottle(int burstSize, long refillIntervalMillis, int maxTrackedCodenames,
+                         LongSupplier nanoClock) {
+        if (burstSize < 1) throw new IllegalArgumentException("burstSize must be at least 1");
+        if (refillIntervalMillis < 1) {
+            throw new IllegalArgumentException("refillIntervalMillis must be positive");
+        }
+        if (maxTrackedCodenames < STRIPE_COUNT) {
+            throw new IllegalArgumentException("maxTrackedCodenames must be at least "
+                    + STRIPE_COUNT);
+        }
+        this.emissionIntervalNanos = refillIntervalMillis * 1_000_000L;
+        this.burstToleranceNanos = (burstSize - 1) * emissionIntervalNanos;
+        this.nanoClock = nanoClock;
+
+        int perStripe = (maxTrackedCodenames + STRIPE_COUNT - 1) / STRIPE_COUNT;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Takes one attempt from the codename's bucket.
+     * @return true if the attempt may proceed, false if the codename is throttled.
+     */
+    public boolean tryAcquire(String codename) {
+        AtomicLong bucket = stripeFor(codename).bucket(codename);
+        long now = nanoClock.getAsLong();
+        while (true) {
+            // The bucket holds the theoretical arrival time: when it would be full again
+            long tat = bucket.get();
+            long start = Math.max(tat, now);
+            if (start - now > burstToleranceNanos) return false;
+            if (bucket.compareAndSet(tat, start + emissionIntervalNanos)) return true;
+        }
+    }
+
+    /**
+     * Never creates a bucket; an untracked codename has its full burst available.
+     * @return How long until the codename's next attempt would be accepted, 0 if it would now.
+     */
+    public long getRetryAfterMillis(String codename) {
+        AtomicLong bucket = stripeFor(codename).peek(codename);
+        if (bucket == null) return 0;
+        long wait = bucket.get() - burstToleranceNanos - nanoClock.getAsLong();
+        return wait <= 0 ? 0 : (wait + 999_999) / 1_000_000;
+    }
+
+    /**
+     * @return The number of codenames currently tracked.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String codename) {
+        int h = codename.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    /** One LRU map of buckets and the lock guarding it. */
+    private final class Stripe {
+        private final LinkedHashMap<String, AtomicLong> buckets;
+
+        Stripe(int capacity) {
+            buckets = new LinkedHashMap<String, AtomicLong>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized AtomicLong bucket(String codename) {
+            AtomicLong bucket = buckets.get(codename);
+            if (bucket == null) {
+                // Starts full: the first attempt finds its arrival time in the past
+                bucket = new AtomicLong(Long.MIN_VALUE / 2);
+                buckets.put(codename, bucket);
+            }
+            return bucket;
+        }
+
+        synchronized AtomicLong peek(String codename) {
+            return buckets.get(codename);
+        }
+
+        synchronized int size() {
+            return buckets.size();
+        }
+    }
+}
\ No newline at end of file
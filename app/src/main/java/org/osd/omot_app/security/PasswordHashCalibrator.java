@@ -0,0 +1,56 @@
+package org.osd.omot_app.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Picks the cost for a {@link PasswordHasher} that makes one hash take about a given time on the
+ * current device. Assumes the hash time grows linearly with the cost, which holds for PBKDF2.
+ */
+public final class PasswordHashCalibrator {
+    private static final byte[] PROBE_PASSWORD = "calibration-probe".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PROBE_SALT = new byte[16];
+    private static final int INITIAL_PROBE_COST = 1_000;
+    private static final int WARMUP_ROUNDS = 10;
+
+    private PasswordHashCalibrator() {
+    }
+
+    /**
+     * @param hasher       The hasher to calibrate.
+     * @param targetMillis How long one hash should take.
+     * @param minCost      Lower bound, used however slow the device is.
+     * @param maxCost      Upper bound, used however fast the device is.
+     * @return The calibrated cost, within [minCost, maxCost].
+     */
+    public static int calibrate(PasswordHasher hasher, long targetMillis, int minCost, int maxCost)
+            throws GeneralSecurityException {
+        if (minCost < 1 || maxCost < minCost) throw new IllegalArgumentException("Invalid bounds");
+
+        // Let the JIT settle before timing anything
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            hasher.derive(PROBE_PASSWORD, PROBE_SALT, INITIAL_PROBE_COST);
+        }
+
+        // Double the probe until it runs long enough (an eighth of the budget) to time reliably
+        long targetNanos = targetMillis * 1_000_000L;
+        int probeCost = INITIAL_PROBE_COST;
+        long elapsed = measureNanos(hasher, probeCost);
+        while (elapsed < targetNanos / 8 && probeCost < maxCost) {
+            probeCost = (int) Math.min((long) probeCost * 2, maxCost);
+            elapsed = measureNanos(hasher, probeCost);
+        }
+
+        long cost = (long) ((double) probeCost * targetNanos / Math.max(elapsed, 1));
+        return (int) Math.max(minCost, Math.min(maxCost, cost));
+    }
+
+    /**
+     * @return The wall-clock time of a single hash at the given cost, in nanoseconds.
+     */
+    public static long measureNanos(PasswordHasher hasher, int cost) throws GeneralSecurityException {
+        long start = System.nanoTime();
+        hasher.derive(PROBE_PASSWORD, PROBE_SALT, cost);
+        return System.nanoTime() - start;
+    }
+}
\ No newline at end of file
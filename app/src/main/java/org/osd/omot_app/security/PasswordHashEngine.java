@@ -0,0 +1,295 @@
+package org.osd.omot_app.security;
+
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hashes and verifies passwords on a dedicated executor.
+ * <p>
+ * New hashes are stored as {@code $<algorithm>$<cost>$<Base64 hash>} so every agent keeps the
+ * parameters it was hashed with. Hashes without that prefix are legacy single-round SHA-256.
+ * A successful {@link #verify} also reports a replacement hash when the stored one is legacy or
+ * cheaper than the device's calibrated cost, so callers can upgrade it transparently.
+ * <p>
+ * All blocking methods hand the work to the hash executor and wait for it. Keeping that executor
+ * small and bounded caps how many key derivations run at once, however many logins arrive.
+ */
+public class PasswordHashEngine {
+    private static final String TAG = "PasswordHashEngine";
+    private static final char SEPARATOR = '$';
+
+    public static final long DEFAULT_TARGET_MILLIS = 250;
+    public static final int MIN_COST = 50_000;
+    public static final int MAX_COST = 2_000_000;
+    // Hashes per task in hashAll; small, so a login never waits long behind an import
+    static final int HASHES_PER_TASK = 2;
+
+    /**
+     * Persists the calibrated cost, so calibration runs once per device rather than per launch.
+     */
+    public interface CostStore {
+        /** @return The stored cost for the algorithm, or 0 if none. */
+        int loadCost(String algorithm);
+
+        void saveCost(String algorithm, int cost);
+    }
+
+    /**
+     * The outcome of {@link #verify}.
+     */
+    public static final class Verification {
+        private static final Verification MISMATCH = new Verification(false, null);
+
+        private final boolean matches;
+        @Nullable
+        private final String upgradedHash;
+
+        private Verification(boolean matches, @Nullable String upgradedHash) {
+            this.matches = matches;
+            this.upgradedHash = upgradedHash;
+        }
+
+        public boolean matches() {
+            return matches;
+        }
+
+        /**
+         * @return A hash of the same password with current parameters, or null if the stored
+         * hash is already up to date (or did not match).
+         */
+        @Nullable
+        public String getUpgradedHash() {
+            return upgradedHash;
+        }
+    }
+
+    private final PasswordHasher hasher;
+    private final PasswordHasher legacyHasher = new LegacySha256PasswordHasher();
+    @Nullable
+    private final CostStore costStore;
+    private final long targetMillis;
+    private final Executor hashExecutor;
+
+    private volatile int cost;
+
+    /**
+     * @param hasher       The hasher used for all new hashes.
+     * @param costStore    Where the calibrated cost is kept, or null to calibrate once per instance.
+     * @param targetMillis The time one hash should take on this device.
+     * @param hashExecutor The executor all hashing runs on.
+     */
+    public PasswordHashEngine(PasswordHasher hasher, @Nullable CostStore costStore,
+                              long targetMillis, Executor hashExecutor) {
+        this.hasher = hasher;
+        this.costStore = costStore;
+        this.targetMillis = targetMillis;
+        this.hashExecutor = hashExecutor;
+    }
+
+    /**
+     * Hashes a password with the current algorithm and cost.
+     * @param password The plaintext password.
+     * @param salt     The agent's salt.
+     * @return The encoded hash.
+     */
+    public String hash(String password, byte[] salt) throws GeneralSecurityException {
+        return await(CompletableFuture.supplyAsync(() -> {
+            try {
+                return hashNow(password, salt);
+            } catch (GeneralSecurityException e) {
+                throw new HashingException(e);
+            }
+        }, hashExecutor));
+    }
+
+    /**
+     * Hashes many secrets at once, e.g. for a bulk import.
+     * <p>
+     * The work is submitted as small tasks of {@link #HASHES_PER_TASK} hashes, and no more tasks
+     * are in flight than the hash pool has threads. A login submitted meanwhile therefore waits
+     * for one task at most rather than for a whole share of the batch. If the pool's queue is
+     * full of other work, the calling thread hashes that task itself instead of failing.
+     * @param secrets The plaintext secrets.
+     * @param salts   The salt for each secret, in the same order.
+     * @return The encoded hashes, in the same order as {@code secrets}.
+     */
+    public String[] hashAll(String[] secrets, byte[][] salts) throws GeneralSecurityException {
+        if (secrets.length != salts.length) {
+            throw new IllegalArgumentException("Expected one salt per secret");
+        }
+        String[] hashes = new String[secrets.length];
+        if (secrets.length == 0) return hashes;
+
+        getCost();  // Calibrate once up front rather than in every task
+        Semaphore slots = new Semaphore(getPoolThreads());
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<Void>> tasks =
+                new ArrayList<>(secrets.length / HASHES_PER_TASK + 1);
+        try {
+            for (int from = 0; from < secrets.length && !failed.get(); from += HASHES_PER_TASK) {
+                int start = from;
+                int end = Math.min(secrets.length, from + HASHES_PER_TASK);
+                Runnable task = () -> {
+                    try {
+                        for (int i = start; i < end; i++) {
+                            hashes[i] = hashNow(secrets[i], salts[i]);
+                        }
+                    } catch (GeneralSecurityException e) {
+                        failed.set(true);
+                        throw new HashingException(e);
+                    } finally {
+                        slots.release();
+                    }
+                };
+
+                slots.acquire();
+                try {
+                    tasks.add(CompletableFuture.runAsync(task, hashExecutor));
+                } catch (RejectedExecutionException e) {
+                    tasks.add(CompletableFuture.runAsync(task, Runnable::run));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeneralSecurityException("Interrupted while hashing", e);
+        }
+        await(CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])));
+        return hashes;
+    }
+
+    /**
+     * @return The hash pool's thread count, or 1 if the executor is not a thread pool.
+     */
+    private int getPoolThreads() {
+        if (hashExecutor instanceof ThreadPoolExecutor) {
+            return Math.max(1, ((ThreadPoolExecutor) hashExecutor).getMaximumPoolSize());
+        }
+        return 1;
+    }
+
+    /**
+     * Checks a password against a stored hash, and rehashes it with current parameters when it
+     * matches and the stored hash is outdated.
+     * @param password   The plaintext password.
+     * @param salt       The agent's salt.
+     * @param storedHash The stored hash, in either the current or the legacy format.
+     */
+    public Verification verify(String password, byte[] salt, @Nullable String storedHash)
+            throws GeneralSecurityException {
+        if (storedHash == null) return Verification.MISMATCH;
+        return await(CompletableFuture.supplyAsync(() -> {
+            try {
+                return verifyNow(password, salt, storedHash);
+            } catch (GeneralSecurityException e) {
+                throw new HashingException(e);
+            }
+        }, hashExecutor));
+    }
+
+    /**
+     * @return The cost new hashes use, calibrating it first if it isn't known yet.
+     */
+    public int getCost() throws GeneralSecurityException {
+        int current = cost;
+        if (current > 0) return current;
+
+        synchronized (this) {
+            if (cost > 0) return cost;
+
+            String algorithm = hasher.getAlgorithm();
+            int stored = costStore != null ? costStore.loadCost(algorithm) : 0;
+            if (stored > 0) {
+                cost = Math.max(MIN_COST, stored);
+            } else {
+                long start = System.nanoTime();
+                cost = PasswordHashCalibrator.calibrate(hasher, targetMillis, MIN_COST, MAX_COST);
+                Log.i(TAG, "Calibrated " + algorithm + " to cost " + cost + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                if (costStore != null) costStore.saveCost(algorithm, cost);
+            }
+            return cost;
+        }
+    }
+
+    private String hashNow(String password, byte[] salt) throws GeneralSecurityException {
+        int currentCost = getCost();
+        byte[] derived = hasher.derive(password.getBytes(StandardCharsets.UTF_8), salt, currentCost);
+        return String.valueOf(SEPARATOR) + hasher.getAlgorithm() + SEPARATOR + currentCost
+                + SEPARATOR + Base64.encodeToString(derived, Base64.NO_WRAP);
+    }
+
+    private Verification verifyNow(String password, byte[] salt, String storedHash)
+            throws GeneralSecurityException {
+        PasswordHasher storedHasher;
+        int storedCost;
+        byte[] expected;
+        try {
+            if (storedHash.isEmpty() || storedHash.charAt(0) != SEPARATOR) {
+                storedHasher = legacyHasher;
+                storedCost = 1;
+                expected = Base64.decode(storedHash, Base64.NO_WRAP);
+            } else {
+                // "$alg$cost$hash" splits into "", alg, cost, hash
+                String[] parts = storedHash.split("\\$", -1);
+                if (parts.length != 4) return Verification.MISMATCH;
+                storedHasher = hasherFor(parts[1]);
+                storedCost = Integer.parseInt(parts[2]);
+                expected = Base64.decode(parts[3], Base64.NO_WRAP);
+            }
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Unreadable stored hash", e);
+            return Verification.MISMATCH;
+        }
+        if (storedHasher == null || storedCost < 1) return Verification.MISMATCH;
+
+        byte[] actual = storedHasher.derive(password.getBytes(StandardCharsets.UTF_8), salt,
+                storedCost);
+        if (!MessageDigest.isEqual(actual, expected)) return Verification.MISMATCH;
+
+        boolean outdated = storedHasher != hasher || storedCost < getCost();
+        return new Verification(true, outdated ? hashNow(password, salt) : null);
+    }
+
+    @Nullable
+    private PasswordHasher hasherFor(String algorithm) {
+        if (hasher.getAlgorithm().equals(algorithm)) return hasher;
+        if (legacyHasher.getAlgorithm().equals(algorithm)) return legacyHasher;
+        return null;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws GeneralSecurityException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeneralSecurityException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HashingException) throw (GeneralSecurityException) cause.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new GeneralSecurityException(cause);
+        }
+    }
+
+    /** Carries a checked exception out of a supplier running on the hash executor. */
+    private static final class HashingException extends RuntimeException {
+        HashingException(GeneralSecurityException cause) {
+            super(cause);
+        }
+    }
+}
\ No newline at end of file
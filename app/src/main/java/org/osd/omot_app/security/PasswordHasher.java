@@ -0,0 +1,24 @@
+package org.osd.omot_app.security;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * A password key-derivation function. Implementations are stateless and safe to share between
+ * threads; {@link PasswordHashEngine} takes care of encoding, verification and scheduling.
+ */
+public interface PasswordHasher {
+
+    /**
+     * @return The identifier stored in front of every hash this function produces.
+     */
+    String getAlgorithm();
+
+    /**
+     * Derives a hash from a password.
+     * @param password The UTF-8 bytes of the password.
+     * @param salt     The agent's salt.
+     * @param cost     The work factor (iteration count for PBKDF2). Ignored by fixed-cost hashers.
+     * @return The raw derived bytes.
+     */
+    byte[] derive(byte[] password, byte[] salt, int cost) throws GeneralSecurityException;
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.osd.omot_app.security;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * PBKDF2-HMAC-SHA256 (RFC 8018) with the iteration count as its cost.
+ * <p>
+ * Built directly on {@code HmacSHA256} because the {@code PBKDF2WithHmacSHA256} SecretKeyFactory
+ * only exists from API 26, while HMAC is available on every supported device.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    public static final String ALGORITHM = "pbkdf2-sha256";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int DEFAULT_KEY_LENGTH = 32;   // One HMAC-SHA256 block
+
+    private final int keyLength;
+
+    public Pbkdf2PasswordHasher() {
+        this(DEFAULT_KEY_LENGTH);
+    }
+
+    /**
+     * @param keyLength Length of the derived key in bytes.
+     */
+    public Pbkdf2PasswordHasher(int keyLength) {
+        if (keyLength <= 0) throw new IllegalArgumentException("keyLength must be positive");
+        this.keyLength = keyLength;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public byte[] derive(byte[] password, byte[] salt, int cost) throws GeneralSecurityException {
+        if (cost < 1) throw new IllegalArgumentException("cost must be at least 1");
+
+        // SecretKeySpec rejects empty keys. HMAC zero-pads short keys to the block size, so a
+        // single zero byte is the same key as an empty one
+        byte[] key = password.length == 0 ? new byte[1] : password;
+        Mac mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+
+        int blockLength = mac.getMacLength();
+        byte[] derived = new byte[keyLength];
+        byte[] u = new byte[blockLength];
+        byte[] t = new byte[blockLength];
+        int blocks = (keyLength + blockLength - 1) / blockLength;
+
+        for (int block = 1; block <= blocks; block++) {
+            // U1 = PRF(P, S || INT(i))
+            mac.update(salt);
+            mac.update((byte) (block >>> 24));
+            mac.update((byte) (block >>> 16));
+            mac.update((byte) (block >>> 8));
+            mac.update((byte) block);
+            mac.doFinal(u, 0);
+            System.arraycopy(u, 0, t, 0, blockLength);
+
+            // Uj = PRF(P, Uj-1), T = U1 ^ U2 ^ ... ^ Uc. Reuses u in place to keep the hot loop
+            // allocation-free
+            for (int i = 1; i < cost; i++) {
+                mac.update(u);
+                mac.doFinal(u, 0);
+                for (int j = 0; j < blockLength; j++) {
+                    t[j] ^= u[j];
+                }
+            }
+
+            int offset = (block - 1) * blockLength;
+            System.arraycopy(t, 0, derived, offset, Math.min(blockLength, keyLength - offset));
+        }
+        return derived;
+    }
+}
\ No newline at end of file
@@ -20,10 +20,13 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
 import org.osd.omot_app.R;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.AgentSession;
 import org.osd.omot_app.data.repository.RepositoryProvider;
 import org.osd.omot_app.security.SecurePreferencesManager;
 import org.osd.omot_app.security.SecurityChecker;
@@ -32,6 +35,7 @@ import org.osd.omot_app.utils.UIFeedback;
 
 import java.security.KeyStore;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
@@ -291,30 +295,26 @@ public class LoginActivity extends AppCompatActivity {
         btnAuthenticate.setEnabled(false);
         btnAuthenticate.setText(R.string.authenticating);
 
-        // Attempt authentication on a background thread to avoid blocking UI
-        new Thread(() -> {
-            try {
-                // Simulate network/database delay for realism
-                Thread.sleep(1000);
-
-                runOnUiThread(() -> {
-                    performAuthentication(codename, password);
-                });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                runOnUiThread(() -> {
-                    handleAuthenticationError();
-                });
-            }
-        }).start();
+        // Authenticate on the repository's I/O executor and deliver the result on the UI thread
+        provider.getAgentRepository().loginAgentAsync(codename, password)
+                .whenComplete((agent, error) -> runOnUiThread(() ->
+                        onAuthenticationResult(codename, agent, error)));
     }
 
-    private void performAuthentication(String codename, String password) {
-        try {
-            var agentRepository = provider.getAgentRepository();
-            var agent = agentRepository.loginAgent(codename, password);
+    private void onAuthenticationResult(String codename, Agent agent, Throwable error) {
+        if (isFinishing() || isDestroyed()) return;
+
+        if (error != null) {
+            Log.e(TAG, "Authentication error", error);
+            handleAuthenticationError();
+            return;
+        }
 
-            if (agent != null) {
+        try {
+            if (agent == null && provider.isEncryptionKeyLost()) {
+                // Every login fails from now on; only a reset makes the app usable again
+                showEncryptionKeyLostDialog();
+            } else if (agent != null) {
                 // Authentication successful
                 UIFeedback.showSuccessSnackbar(btnAuthenticate, getString(R.string.login_success));
                 Log.i(TAG, "Authentication successful for agent: " + codename);
@@ -325,9 +325,6 @@ public class LoginActivity extends AppCompatActivity {
                         getString(R.string.login_failed_credentials));
                 Log.w(TAG, "Authentication failed for agent: " + codename);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Authentication error", e);
-            handleAuthenticationError();
         } finally {
             // Restore button state
             btnAuthenticate.setEnabled(true);
@@ -336,11 +333,63 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void handleAuthenticationError() {
-        UIFeedback.showWarningSnackbar(btnAuthenticate, getString(R.string.login_error_generic));
+        if (provider.isEncryptionKeyLost()) {
+            showEncryptionKeyLostDialog();
+        } else {
+            UIFeedback.showWarningSnackbar(btnAuthenticate, getString(R.string.login_error_generic));
+        }
         btnAuthenticate.setEnabled(true);
         btnAuthenticate.setText(R.string.button_authenticate);
     }
 
+    /**
+     * Explains that the agent records can't be decrypted any more and offers to delete them
+     * and issue a new encryption key.
+     */
+    private void showEncryptionKeyLostDialog() {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.encryption_key_lost_title)
+                .setMessage(R.string.encryption_key_lost_message)
+                .setNegativeButton(R.string.button_cancel, null)
+                .setPositiveButton(R.string.encryption_key_reset, (dialog, which) ->
+                        resetLostEncryptionKey())
+                .show();
+    }
+
+    private void resetLostEncryptionKey() {
+        btnAuthenticate.setEnabled(false);
+        try {
+            provider.getIoExecutor().execute(() -> {
+                boolean reset;
+                try {
+                    provider.resetLostEncryptionKey();
+                    reset = true;
+                } catch (Exception e) {
+                    Log.e(TAG, "Encryption key reset failed", e);
+                    reset = false;
+                }
+                boolean success = reset;
+                runOnUiThread(() -> onEncryptionKeyReset(success));
+            });
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "Encryption key reset rejected", e);
+            onEncryptionKeyReset(false);
+        }
+    }
+
+    private void onEncryptionKeyReset(boolean success) {
+        if (isFinishing() || isDestroyed()) return;
+
+        btnAuthenticate.setEnabled(true);
+        if (success) {
+            UIFeedback.showSuccessSnackbar(btnAuthenticate,
+                    getString(R.string.encryption_key_reset_done));
+        } else {
+            UIFeedback.showErrorSnackbar(btnAuthenticate,
+                    getString(R.string.encryption_key_reset_failed));
+        }
+    }
+
     private void navigateToMain() {
         Intent intent = new Intent(LoginActivity.this, MainActivity.class);
         startActivity(intent);
@@ -415,25 +464,43 @@ public class LoginActivity extends AppCompatActivity {
     private void authWithBiometric() {
         String storedCodename = spManager.getAgentCodename();
         if (storedCodename != null) {
-            var agentRepository = provider.getAgentRepository();
-            var agent = agentRepository.getAgentByCodename(storedCodename);
-
-            if (agent != null) {
-                // Simulate successful authentication
-                spManager.saveLoginSession(
-                        agent.getAgentID(),
-                        agent.getCodename(),
-                        agent.getClearanceLevel().getClearanceCode(),
-                        agent.isBiometricEnabled()
-                );
-
+            // Still logged in from earlier: no database read needed
+            AgentSession session = provider.getAgentRepository().getCachedSession(storedCodename);
+            if (session != null) {
+                spManager.saveLoginSession(session.getAgentID(), session.getCodename(),
+                        session.getClearanceLevel().getClearanceCode(),
+                        session.isBiometricEnabled());
                 navigateToMain();
-            } else {
-                UIFeedback.showWarningSnackbar(btnAuthenticate, getString(R.string.store_session_failed));
-                spManager.clearLoginSession();
+                return;
             }
+
+            provider.getAgentRepository().getAgentByCodenameAsync(storedCodename)
+                    .whenComplete((agent, error) -> runOnUiThread(() ->
+                            onBiometricAgentLoaded(agent, error)));
         } else {
             UIFeedback.showWarningSnackbar(btnAuthenticate, getString(R.string.no_stored_credentials));
         }
     }
+
+    private void onBiometricAgentLoaded(Agent agent, Throwable error) {
+        if (isFinishing() || isDestroyed()) return;
+
+        if (error == null && agent != null) {
+            // Simulate successful authentication
+            spManager.saveLoginSession(
+                    agent.getAgentID(),
+                    agent.getCodename(),
+                    agent.getClearanceLevel().getClearanceCode(),
+                    agent.isBiometricEnabled()
+            );
+
+            navigateToMain();
+        } else {
+            if (error != null) {
+                Log.e(TAG, "Failed to load agent for biometric login", error);
+            }
+            UIFeedback.showWarningSnackbar(btnAuthenticate, getString(R.string.store_session_failed));
+            spManager.clearLoginSession();
+        }
+    }
 }
\ No newline at end of file
@@ -186,21 +186,11 @@ public class RegistrationActivity extends AppCompatActivity {
         // Show loading state
         setLoadingState(true);
 
-        // Attempt registration on background thread
-        new Thread(() -> {
-            try {
-                Thread.sleep(1500); // Simulate processing delay
-
-                runOnUiThread(() -> {
-                    performRegistration(codename, cipherKey, securityQuestion, securityAnswer, enableBiometric);
-                });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                runOnUiThread(() -> {
-                    handleRegistrationError(getString(R.string.registration_error_generic));
-                });
-            }
-        }).start();
+        // Register on the repository's I/O executor and deliver the result on the UI thread
+        agentRepository.registerAgentAsync(codename, cipherKey, securityQuestion, securityAnswer,
+                        enableBiometric)
+                .whenComplete((result, error) -> runOnUiThread(() ->
+                        onRegistrationResult(codename, result, error)));
     }
 
     private boolean validateInputs(String codename, String cipherKey, String confirmCipherKey,
@@ -274,19 +264,18 @@ public class RegistrationActivity extends AppCompatActivity {
         edLayoutAnswer.setError(null);
     }
 
-    private void performRegistration(String codename, String password, String securityQuestion,
-                                     String securityAnswer, boolean enableBiometric) {
-        try {
-            RegistrationResult result = agentRepository.registerAgent(codename, password,
-                    securityQuestion, securityAnswer, enableBiometric);
+    private void onRegistrationResult(String codename, RegistrationResult result, Throwable error) {
+        if (isFinishing() || isDestroyed()) return;
 
-            if (result.isSuccess()) {
+        try {
+            if (error == null && result != null && result.isSuccess()) {
                 handleRegistrationSuccess(codename, result.getAgentID());
+            } else if (provider.isEncryptionKeyLost()) {
+                // The reset is offered on the login screen
+                handleRegistrationError(getString(R.string.encryption_key_lost));
             } else {
                 handleRegistrationError(getString(R.string.registration_error_generic));
             }
-        } catch (Exception e) {
-            handleRegistrationError(getString(R.string.registration_error_generic));
         } finally {
             setLoadingState(false);
         }
@@ -14,6 +14,8 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
 import org.osd.omot_app.R;
+import org.osd.omot_app.data.model.AgentSession;
+import org.osd.omot_app.data.repository.AgentRepository;
 import org.osd.omot_app.data.repository.RepositoryProvider;
 import org.osd.omot_app.security.SecurePreferencesManager;
 import org.osd.omot_app.security.SecurityChecker;
@@ -25,6 +27,7 @@ public class MainActivity extends AppCompatActivity {
     private Button btnLogout;
 
     private SecurePreferencesManager spManager;
+    private AgentRepository agentRepository;
     private boolean isDevelopment = SecurityChecker.isDebugBuild(this) || SecurityChecker.isRunningOnEmulator();
 
     @Override
@@ -47,6 +50,7 @@ public class MainActivity extends AppCompatActivity {
 
         RepositoryProvider provider = RepositoryProvider.getInstance(this);
         spManager = provider.getSpManager();
+        agentRepository = provider.getAgentRepository();
 
         initializeViews();
         displayWelcomeMessage();
@@ -59,8 +63,11 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void displayWelcomeMessage() {
-        String codename = spManager.getAgentCodename();
-        String clearance = spManager.getAgentClearance();
+        // The session cached at login is a memory read; preferences are only the fallback
+        AgentSession session = agentRepository.getCurrentSession();
+        String codename = session != null ? session.getCodename() : spManager.getAgentCodename();
+        String clearance = session != null ? session.getClearanceLevel().getClearanceCode()
+                : spManager.getAgentClearance();
 
         String welcomeMessage = String.format("Welcome %s\nClearance: %s\nOMOT Terminal Online",
                 codename != null ? codename : "Agent", clearance != null ? clearance : "BETA");
@@ -72,6 +79,7 @@ public class MainActivity extends AppCompatActivity {
         btnLogout.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
+                agentRepository.endSessions();
                 spManager.clearLoginSession();
                 navigateToLogin();
             }
@@ -0,0 +1,39 @@
+package org.osd.omot_app.utils;
+
+import android.os.Process;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads named {@code <prefix>-<n>} running at background priority,
+ * so pool threads are easy to identify in traces and never compete with the UI thread.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final int threadPriority;
+    private final AtomicInteger counter = new AtomicInteger(1);
+
+    public NamedThreadFactory(String prefix) {
+        this(prefix, Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    /**
+     * @param prefix         The thread name prefix.
+     * @param threadPriority A Linux thread priority from {@link Process}.
+     */
+    public NamedThreadFactory(String prefix, int threadPriority) {
+        this.prefix = prefix;
+        this.threadPriority = threadPriority;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(threadPriority);
+            runnable.run();
+        }, prefix + "-" + counter.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
\ No newline at end of file
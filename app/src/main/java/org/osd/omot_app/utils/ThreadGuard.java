@@ -0,0 +1,43 @@
+package org.osd.omot_app.utils;
+
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * Detects database and crypto work running on the main looper.
+ * In strict mode a violation throws, otherwise it is only logged.
+ */
+public final class ThreadGuard {
+    private static final String TAG = "ThreadGuard";
+
+    private static volatile boolean strict = false;
+
+    // Private constructor to prevent instantiation.
+    private ThreadGuard() {}
+
+    /**
+     * Enables or disables strict mode. Strict mode is meant for debug builds and tests.
+     */
+    public static void setStrict(boolean enabled) {
+        strict = enabled;
+    }
+
+    public static boolean isMainThread() {
+        return Looper.getMainLooper().isCurrentThread();
+    }
+
+    /**
+     * Flags a blocking operation called on the main thread.
+     * @param operation A short description of the blocking work, used in the report.
+     * @throws IllegalStateException in strict mode when called on the main thread.
+     */
+    public static void assertNotMainThread(String operation) {
+        if (!isMainThread()) return;
+
+        String message = operation + " must not run on the main thread";
+        if (strict) {
+            throw new IllegalStateException(message);
+        }
+        Log.w(TAG, message, new Throwable());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package org.osd.omot_app.data.content;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osd.omot_app.security.ChunkedFileCipher;
+import org.osd.omot_app.security.SoftwareKeyWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Page reads from dossier containers, through mapped and unmapped readers.
+ */
+public class DossierContentStoreTest {
+    private final Random random = new Random(24);
+    private File directory;
+    private DossierContentStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("dossiers").toFile();
+        store = new DossierContentStore(directory,
+                new ChunkedFileCipher(new SoftwareKeyWrapper(), 4 * 1024));
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        directory.delete();
+    }
+
+    private List<byte[]> randomPages(int count, int maxSize) {
+        List<byte[]> pages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Include empty pages and pages larger than a chunk
+            byte[] page = new byte[i % 7 == 3 ? 0 : random.nextInt(maxSize)];
+            random.nextBytes(page);
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    private static void assertPages(List<byte[]> expected, DossierContent content)
+            throws IOException {
+        assertEquals(expected.size(), content.getPageCount());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i).length, content.getPageSize(i));
+            assertArrayEquals("page " + i, expected.get(i), content.readPage(i));
+        }
+    }
+
+    @Test
+    public void writtenPages_readBackInAnyOrder() throws IOException {
+        List<byte[]> pages = randomPages(120, 20_000);
+        String path = store.write("D-001", pages);
+        assertTrue(path.endsWith(".dossier"));
+
+        try (DossierContent content = store.open(path)) {
+            assertPages(pages, content);
+        }
+    }
+
+    @Test
+    public void fileOutsideStore_isReadWithoutMapping() throws IOException {
+        List<byte[]> pages = randomPages(40, 10_000);
+        String path = store.write("D-002", pages);
+        File copy = File.createTempFile("dossier-copy", ".bin");
+        try {
+            try (InputStream in = new FileInputStream(path);
+                 OutputStream out = new FileOutputStream(copy)) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) >= 0) out.write(buffer, 0, n);
+            }
+            try (DossierContent content = store.open(copy.getPath())) {
+                assertPages(pages, content);
+            }
+        } finally {
+            copy.delete();
+        }
+    }
+
+    @Test
+    public void readPageIntoBuffer_truncatesToSpaceLeft() throws IOException {
+        List<byte[]> pages = randomPages(3, 10_000);
+        pages.set(1, Arrays.copyOf(pages.get(1), 9_000));
+        try (DossierContent content = store.open(store.write("D-003", pages))) {
+            ByteBuffer buffer = ByteBuffer.allocate(5_000);
+            buffer.position(1_000);
+            assertEquals(4_000, content.readPage(1, buffer));
+            assertEquals(5_000, buffer.position());
+            assertArrayEquals(Arrays.copyOf(pages.get(1), 4_000),
+                    Arrays.copyOfRange(buffer.array(), 1_000, 5_000));
+        }
+    }
+
+    @Test
+    public void streamedPage_andEmptyDossier() throws IOException {
+        byte[] large = new byte[50_000];
+        random.nextBytes(large);
+        String path;
+        try (DossierContentWriter writer = store.newWriter("D-004")) {
+            writer.writePage(new ByteArrayInputStream(large));
+            writer.writePage(new byte[]{1, 2, 3});
+            path = writer.commit();
+        }
+        try (DossierContent content = store.open(path)) {
+            assertPages(Arrays.asList(large, new byte[]{1, 2, 3}), content);
+        }
+
+        try (DossierContent content = store.open(store.write("D-005", Collections.emptyList()))) {
+            assertEquals(0, content.getPageCount());
+        }
+    }
+
+    @Test
+    public void rewrite_keepsOpenReaderOnOldContent() throws IOException {
+        List<byte[]> first = randomPages(30, 10_000);
+        List<byte[]> second = randomPages(5, 10_000);
+        String path = store.write("D-006", first);
+        try (DossierContent old = store.open(path)) {
+            assertEquals(path, store.write("D-006", second));
+            assertPages(first, old);
+        }
+        try (DossierContent current = store.open(path)) {
+            assertPages(second, current);
+        }
+    }
+
+    @Test
+    public void abandonedWriter_leavesNoFiles() throws IOException {
+        try (DossierContentWriter writer = store.newWriter("D-007")) {
+            writer.writePage(new byte[100]);
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void unsafeIDs_stayInsideTheStore() throws IOException {
+        String path = store.write("../../escape/D-008", Collections.singletonList(new byte[10]));
+        assertEquals(directory.getCanonicalFile(), new File(path).getCanonicalFile().getParentFile());
+    }
+
+    @Test
+    public void tamperedIndex_isRejected() throws IOException {
+        String path = store.write("D-009", randomPages(10, 5_000));
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int b = file.read();
+            file.seek(last);
+            file.write(b ^ 1);
+        }
+        assertThrows(IOException.class, () -> store.open(path).close());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package org.osd.omot_app.data.importer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * RFC 4180 parsing of agent import files.
+ */
+public class CsvAgentRecordReaderTest {
+
+    private static CsvAgentRecordReader reader(String csv) {
+        return new CsvAgentRecordReader(new StringReader(csv));
+    }
+
+    @Test
+    public void headerMapsColumns_inAnyOrderAndCase() throws IOException {
+        CsvAgentRecordReader reader = reader(
+                "Password,CODENAME,security_question,security_answer\n"
+                + "cipherkey1,Raven,Where were you recruited?,Prague\n");
+
+        AgentImportRecord record = reader.next();
+        assertNotNull(record);
+        assertEquals(1, record.getRowNumber());
+        assertEquals("Raven", record.getCodename());
+        assertEquals("cipherkey1", record.getPassword());
+        assertEquals("Where were you recruited?", record.getSecurityQuestion());
+        assertEquals("Prague", record.getSecurityAnswer());
+        assertNull(record.getClearanceCode());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void quotedFields_keepCommasQuotesAndLineBreaks() throws IOException {
+        CsvAgentRecordReader reader = reader(
+                "codename,password,security_question,security_answer\r\n"
+                + "Raven,\"a,b\"\"c\",\"Line one\r\nline two\",x\r\n");
+
+        AgentImportRecord record = reader.next();
+        assertNotNull(record);
+        assertEquals("a,b\"c", record.getPassword());
+        assertEquals("Line one\r\nline two", record.getSecurityQuestion());
+        assertEquals("x", record.getSecurityAnswer());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void wrongColumnCount_isRowError_andReadingContinues() throws IOException {
+        CsvAgentRecordReader reader = reader(
+                "codename,password\n"
+                + "Raven\n"
+                + "\n"
+                + "Falcon,cipherkey2");
+
+        AgentImportRecord broken = reader.next();
+        assertNotNull(broken);
+        assertNotNull(broken.getParseError());
+
+        AgentImportRecord next = reader.next();
+        assertNotNull(next);
+        assertEquals(2, next.getRowNumber());
+        assertNull(next.getParseError());
+        assertEquals("Falcon", next.getCodename());
+        assertEquals("cipherkey2", next.getPassword());
+        assertNull(reader.next());
+    }
+
+    @Test(expected = IOException.class)
+    public void unterminatedQuote_failsTheFile() throws IOException {
+        CsvAgentRecordReader reader = reader("codename\n\"Raven\n");
+        reader.next();
+    }
+
+    @Test
+    public void emptyInput_hasNoRecords() throws IOException {
+        assertNull(reader("").next());
+        assertNull(reader("codename,password\n").next());
+    }
+}
\ No newline at end of file
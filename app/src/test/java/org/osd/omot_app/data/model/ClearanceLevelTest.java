@@ -0,0 +1,122 @@
+package org.osd.omot_app.data.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ranks are persisted, so they must round-trip; the access table must match the documented
+ * hierarchy, including for level copies built from their codes as the DAO builds them.
+ */
+public class ClearanceLevelTest {
+    private static final ClearanceLevel[] LEVELS = {
+            ClearanceLevel.BETA, ClearanceLevel.ALPHA, ClearanceLevel.OMEGA, ClearanceLevel.SHADOW
+    };
+
+    // The same hierarchy keyed by code, as a string-based implementation would hold it
+    private static final Map<String, Set<String>> STRING_HIERARCHY = new HashMap<>();
+
+    static {
+        STRING_HIERARCHY.put("BETA", Collections.singleton("BETA"));
+        STRING_HIERARCHY.put("ALPHA", new HashSet<>(Arrays.asList("BETA", "ALPHA")));
+        STRING_HIERARCHY.put("OMEGA",
+                new HashSet<>(Arrays.asList("BETA", "ALPHA", "OMEGA", "SHADOW")));
+        STRING_HIERARCHY.put("SHADOW", Collections.singleton("SHADOW"));
+    }
+
+    private static boolean canAccessByCode(ClearanceLevel agent, ClearanceLevel required) {
+        if (agent == null || required == null) return false;
+        Set<String> allowed = STRING_HIERARCHY.get(agent.getClearanceCode());
+        return allowed != null && allowed.contains(required.getClearanceCode());
+    }
+
+    @Test
+    public void ranks_roundTrip() {
+        Set<Integer> ranks = new HashSet<>();
+        for (ClearanceLevel level : LEVELS) {
+            assertTrue(ranks.add(level.getRank()));
+            assertSame(level, ClearanceLevel.fromRank(level.getRank()));
+            assertSame(level, ClearanceLevel.fromCode(level.getClearanceCode()));
+        }
+        // Levels loaded from the database resolve their rank from the code
+        assertEquals(ClearanceLevel.RANK_ALPHA,
+                new ClearanceLevel("ALPHA", "Senior Operative", null).getRank());
+    }
+
+    @Test
+    public void unknownLevels_accessNothing() {
+        ClearanceLevel unknown = new ClearanceLevel("GAMMA", "Unknown", null);
+        assertEquals(ClearanceLevel.RANK_UNKNOWN, unknown.getRank());
+        assertEquals(0, unknown.getAccessMask());
+        assertNull(ClearanceLevel.fromCode("GAMMA"));
+        assertNull(ClearanceLevel.fromCode(null));
+        assertNull(ClearanceLevel.fromRank(4));
+        for (ClearanceLevel level : LEVELS) {
+            assertFalse(ClearanceLevel.canAccess(unknown, level));
+            assertFalse(ClearanceLevel.canAccess(level, unknown));
+            assertFalse(ClearanceLevel.canAccess(level, null));
+            assertFalse(ClearanceLevel.canAccess(null, level));
+        }
+    }
+
+    @Test
+    public void accessTable_matchesHierarchy() {
+        for (ClearanceLevel agent : LEVELS) {
+            for (ClearanceLevel required : LEVELS) {
+                assertEquals(agent.getClearanceCode() + " -> " + required.getClearanceCode(),
+                        canAccessByCode(agent, required),
+                        ClearanceLevel.canAccess(agent, required));
+            }
+        }
+        assertTrue(ClearanceLevel.canAccess(ClearanceLevel.OMEGA, ClearanceLevel.BETA));
+        assertFalse(ClearanceLevel.canAccess(ClearanceLevel.ALPHA, ClearanceLevel.OMEGA));
+        assertFalse(ClearanceLevel.canAccess(ClearanceLevel.SHADOW, ClearanceLevel.BETA));
+    }
+
+    @Test
+    public void setClearanceCode_updatesRank() {
+        ClearanceLevel level = new ClearanceLevel();
+        assertEquals(ClearanceLevel.RANK_UNKNOWN, level.getRank());
+        level.setClearanceCode("OMEGA");
+        assertEquals(ClearanceLevel.RANK_OMEGA, level.getRank());
+    }
+
+    @Test
+    public void outOfRangeRanks_accessNothing() {
+        for (int rank = 0; rank < LEVELS.length; rank++) {
+            assertFalse(ClearanceLevel.canAccess(rank, -1));
+            assertFalse(ClearanceLevel.canAccess(rank, LEVELS.length));
+            // 1 << 35 == 1 << 3: would alias SHADOW without the bound
+            assertFalse(ClearanceLevel.canAccess(rank, ClearanceLevel.RANK_SHADOW + 32));
+            assertFalse(ClearanceLevel.canAccess(-1, rank));
+            assertFalse(ClearanceLevel.canAccess(LEVELS.length, rank));
+        }
+        assertTrue(ClearanceLevel.canAccess(ClearanceLevel.RANK_SHADOW,
+                ClearanceLevel.RANK_SHADOW));
+    }
+
+    @Test
+    public void tableLookup_matchesStringHierarchy_forCopies() {
+        // Copies, as the DAO builds them, so the string path can't short-circuit on identity
+        for (ClearanceLevel agent : LEVELS) {
+            for (ClearanceLevel required : LEVELS) {
+                ClearanceLevel agentCopy = copy(agent);
+                ClearanceLevel requiredCopy = copy(required);
+                assertEquals(canAccessByCode(agentCopy, requiredCopy),
+                        ClearanceLevel.canAccess(agentCopy, requiredCopy));
+            }
+        }
+    }
+
+    private static ClearanceLevel copy(ClearanceLevel level) {
+        return new ClearanceLevel(new String(level.getClearanceCode().toCharArray()),
+                level.getName(), level.getDescription());
+    }
+}
\ No newline at end of file
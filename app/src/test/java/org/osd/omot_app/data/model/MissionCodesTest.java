@@ -0,0 +1,41 @@
+package org.osd.omot_app.data.model;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Status and priority codes are persisted, so they must be unique, round-trip, and keep
+ * priorities ordered by urgency.
+ */
+public class MissionCodesTest {
+
+    @Test
+    public void statusCodes_roundTrip() {
+        Set<Integer> codes = new HashSet<>();
+        for (Mission.Status status : Mission.Status.values()) {
+            assertTrue(codes.add(status.getCode()));
+            assertSame(status, Mission.Status.fromCode(status.getCode()));
+        }
+    }
+
+    @Test
+    public void priorityCodes_roundTrip_andRiseWithUrgency() {
+        for (Mission.Priority priority : Mission.Priority.values()) {
+            assertSame(priority, Mission.Priority.fromCode(priority.getCode()));
+        }
+        assertTrue(Mission.Priority.HIGH.getCode() > Mission.Priority.MEDIUM.getCode());
+        assertTrue(Mission.Priority.MEDIUM.getCode() > Mission.Priority.LOW.getCode());
+    }
+
+    @Test
+    public void unknownCodes_decodeToNull() {
+        assertNull(Mission.Status.fromCode(-1));
+        assertNull(Mission.Status.fromCode(42));
+        assertNull(Mission.Priority.fromCode(0));
+        assertNull(Mission.Priority.fromCode(4));
+    }
+}
\ No newline at end of file
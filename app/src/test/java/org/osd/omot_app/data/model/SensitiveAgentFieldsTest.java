@@ -0,0 +1,116 @@
+package org.osd.omot_app.data.model;
+
+import org.junit.Test;
+import org.osd.omot_app.security.FieldCipher;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that each sensitive agent field is only decrypted when read, and only once.
+ */
+public class SensitiveAgentFieldsTest {
+
+    /** Test double that "decrypts" by decoding the bytes as UTF-8 and counts its calls. */
+    private static class CountingFieldCipher implements FieldCipher {
+        int decryptCalls;
+
+        @Override
+        public byte[][] encryptToBlobs(String[] plaintexts) {
+            byte[][] blobs = new byte[plaintexts.length][];
+            for (int i = 0; i < plaintexts.length; i++) {
+                if (plaintexts[i] != null) blobs[i] = plaintexts[i].getBytes(StandardCharsets.UTF_8);
+            }
+            return blobs;
+        }
+
+        @Override
+        public String[] decryptBlobs(byte[][] blobs) {
+            decryptCalls++;
+            String[] plaintexts = new String[blobs.length];
+            for (int i = 0; i < blobs.length; i++) {
+                if (blobs[i] != null) plaintexts[i] = new String(blobs[i], StandardCharsets.UTF_8);
+            }
+            return plaintexts;
+        }
+    }
+
+    private static SensitiveAgentFields fields(CountingFieldCipher cipher) {
+        byte[][] blobs = cipher.encryptToBlobs(
+                new String[]{"hash", "salt", "Favourite cipher?", "answer-hash"});
+        return new SensitiveAgentFields(cipher, blobs[0], blobs[1], blobs[2], blobs[3]);
+    }
+
+    private static Agent lazyAgent(CountingFieldCipher cipher) {
+        return new Agent("OMOT-A00001", "raven", fields(cipher), null, false,
+                0L, 0, 0L, false);
+    }
+
+    @Test
+    public void nonSensitiveAccess_neverDecrypts() {
+        CountingFieldCipher cipher = new CountingFieldCipher();
+        Agent agent = lazyAgent(cipher);
+
+        assertEquals("OMOT-A00001", agent.getAgentID());
+        assertEquals("raven", agent.getCodename());
+        assertFalse(agent.isAccountLocked());
+        assertEquals(0, cipher.decryptCalls);
+    }
+
+    @Test
+    public void loginAccess_decryptsOnlyPasswordHashAndSalt() {
+        CountingFieldCipher cipher = new CountingFieldCipher();
+        Agent agent = lazyAgent(cipher);
+
+        assertEquals("salt", agent.getSalt());
+        assertEquals("hash", agent.getPasswordHash());
+        assertEquals("salt", agent.getSalt());
+        assertEquals("hash", agent.getPasswordHash());
+        assertEquals(2, cipher.decryptCalls);
+
+        assertEquals("Favourite cipher?", agent.getSecurityQuestion());
+        assertEquals("answer-hash", agent.getSecurityAnswerHash());
+        assertEquals(4, cipher.decryptCalls);
+    }
+
+    @Test
+    public void setter_replacesWithoutDecrypting() {
+        CountingFieldCipher cipher = new CountingFieldCipher();
+        Agent agent = lazyAgent(cipher);
+
+        agent.setPasswordHash("new-hash");
+        assertEquals("new-hash", agent.getPasswordHash());
+        assertEquals(0, cipher.decryptCalls);
+        assertEquals("salt", agent.getSalt());
+        assertEquals(1, cipher.decryptCalls);
+    }
+
+    @Test
+    public void clear_dropsPlaintextAndZeroesCiphertext() {
+        CountingFieldCipher cipher = new CountingFieldCipher();
+        byte[] salt = "salt".getBytes(StandardCharsets.UTF_8);
+        SensitiveAgentFields fields = new SensitiveAgentFields(cipher, null, salt, null, null);
+
+        assertEquals("salt", fields.getSalt());
+        assertTrue(fields.isDecrypted());
+
+        fields.clear();
+        assertFalse(fields.isDecrypted());
+        assertNull(fields.getSalt());
+        assertArrayEquals(new byte[salt.length], salt);
+        assertEquals(1, cipher.decryptCalls);
+    }
+
+    @Test
+    public void agentClear_reachesTheHolder() {
+        CountingFieldCipher cipher = new CountingFieldCipher();
+        Agent agent = lazyAgent(cipher);
+
+        assertEquals("hash", agent.getPasswordHash());
+        agent.clearSensitiveFields();
+        assertNull(agent.getPasswordHash());
+        assertNull(agent.getSecurityQuestion());
+        assertEquals(1, cipher.decryptCalls);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package org.osd.omot_app.data.repository;
+
+import org.junit.Test;
+import org.osd.omot_app.data.model.Agent;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+import static org.junit.Assert.*;
+
+/**
+ * LRU bounds, dual-key lookup and stale-load protection of the agent projection cache.
+ */
+public class AgentProjectionCacheTest {
+
+    private static Agent agent(int n) {
+        return new Agent("AGENT-" + n, "agent-" + n, "hash", "salt", "question", "answer",
+                ClearanceLevel.BETA, false, 1_000L + n, 0, 0, false);
+    }
+
+    @Test
+    public void cachedAgent_isFoundByCodenameAndID_withoutCredentials() {
+        AgentProjectionCache cache = new AgentProjectionCache(8);
+        Agent stored = cache.put(agent(1), cache.getGeneration());
+        assertNull(stored.getPasswordHash());
+
+        Agent byCodename = cache.getByCodename("agent-1");
+        Agent byID = cache.getByID("AGENT-1");
+        assertEquals("AGENT-1", byCodename.getAgentID());
+        assertEquals("agent-1", byID.getCodename());
+        assertEquals(1_001L, byID.getLastLoginTimestamp());
+        assertNull(byCodename.getPasswordHash());
+        assertNull(byCodename.getSalt());
+        assertNull(byCodename.getSecurityQuestion());
+        assertNull(byCodename.getSecurityAnswerHash());
+        assertNotSame(byCodename, cache.getByCodename("agent-1"));
+        assertEquals(3, cache.getHitCount());
+    }
+
+    @Test
+    public void leastRecentlyUsed_isEvicted() {
+        AgentProjectionCache cache = new AgentProjectionCache(3);
+        for (int i = 1; i <= 3; i++) cache.put(agent(i), cache.getGeneration());
+        assertNotNull(cache.getByCodename("agent-1"));     // agent-2 is now eldest
+
+        cache.put(agent(4), cache.getGeneration());
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.getByCodename("agent-2"));
+        assertNull(cache.getByID("AGENT-2"));
+        assertNotNull(cache.getByID("AGENT-1"));
+    }
+
+    @Test
+    public void loadRacingAnInvalidation_isNotCached() {
+        AgentProjectionCache cache = new AgentProjectionCache(8);
+        long generation = cache.getGeneration();
+        cache.invalidateCodename("agent-1");     // A write commits while the row is being read
+
+        Agent returned = cache.put(agent(1), generation);
+        assertEquals("agent-1", returned.getCodename());
+        assertNull(cache.getByCodename("agent-1"));
+    }
+
+    @Test
+    public void invalidation_byEitherKey_dropsBoth() {
+        AgentProjectionCache cache = new AgentProjectionCache(8);
+        cache.put(agent(1), cache.getGeneration());
+        cache.put(agent(2), cache.getGeneration());
+
+        cache.invalidateAgentID("AGENT-1");
+        cache.invalidateCodename("agent-2");
+        assertNull(cache.getByCodename("agent-1"));
+        assertNull(cache.getByID("AGENT-2"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void renamedAgent_replacesOldIDMapping() {
+        AgentProjectionCache cache = new AgentProjectionCache(8);
+        cache.put(agent(1), cache.getGeneration());
+        Agent renamed = agent(1);
+        renamed.setCodename("raven");
+        cache.invalidateCodename("agent-1");
+        cache.put(renamed, cache.getGeneration());
+
+        assertEquals("raven", cache.getByID("AGENT-1").getCodename());
+        assertNull(cache.getByCodename("agent-1"));
+    }
+}
\ No newline at end of file
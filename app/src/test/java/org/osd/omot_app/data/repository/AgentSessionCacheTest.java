@@ -0,0 +1,79 @@
+package org.osd.omot_app.data.repository;
+
+import org.junit.Test;
+import org.osd.omot_app.data.model.AgentSession;
+import org.osd.omot_app.data.model.ClearanceLevel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Expiry, invalidation and hit/miss accounting of the session cache.
+ */
+public class AgentSessionCacheTest {
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(5_000 * MS);
+    private final AgentSessionCache cache = new AgentSessionCache(1_000, clock::get);
+
+    private static AgentSession session(String agentID, String codename) {
+        return new AgentSession(agentID, codename, ClearanceLevel.BETA, false, 0);
+    }
+
+    @Test
+    public void storedSession_isReturnedUntilTtl() {
+        AgentSession raven = session("AGENT-001", "raven");
+        cache.put(raven);
+        assertSame(raven, cache.get("raven"));
+        assertSame(raven, cache.getCurrent());
+
+        clock.addAndGet(999 * MS);
+        assertSame(raven, cache.get("raven"));
+        clock.addAndGet(MS);
+        assertNull(cache.get("raven"));
+        assertNull(cache.getCurrent());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void hitsAndMisses_areCounted() {
+        assertNull(cache.get("raven"));
+        cache.put(session("AGENT-001", "raven"));
+        for (int i = 0; i < 5; i++) assertNotNull(cache.get("raven"));
+        assertEquals(5, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void invalidateByCodenameOrID_dropsOnlyThatAgent() {
+        cache.put(session("AGENT-001", "raven"));
+        cache.put(session("AGENT-002", "falcon"));
+        cache.put(session("AGENT-003", "heron"));
+
+        cache.invalidate("raven");
+        cache.invalidateAgentID("AGENT-002");
+        assertNull(cache.get("raven"));
+        assertNull(cache.get("falcon"));
+        assertNotNull(cache.get("heron"));
+    }
+
+    @Test
+    public void currentSession_followsLatestLogin_andClearsOnInvalidateAll() {
+        cache.put(session("AGENT-001", "raven"));
+        cache.put(session("AGENT-002", "falcon"));
+        assertEquals("falcon", cache.getCurrent().getCodename());
+
+        cache.invalidateAll();
+        assertNull(cache.getCurrent());
+        assertNull(cache.get("raven"));
+    }
+
+    @Test
+    public void expiredEntries_arePurgedOnPut() {
+        for (int i = 0; i < 16; i++) cache.put(session("AGENT-" + i, "agent-" + i));
+        clock.addAndGet(2_000 * MS);
+        cache.put(session("AGENT-100", "raven"));
+        assertEquals(1, cache.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package org.osd.omot_app.data.repository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Membership guarantees and false positive rate of the codename filter.
+ */
+public class CodenameFilterTest {
+    private static final int ENTRIES = 100_000;
+    private static final int PROBES = 200_000;
+
+    private static CodenameFilter readyFilter(int entries) {
+        CodenameFilter filter = new CodenameFilter(entries,
+                CodenameFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        filter.markReady();
+        return filter;
+    }
+
+    @Test
+    public void addedCodenames_areNeverMissed() {
+        CodenameFilter filter = readyFilter(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) filter.add("agent-" + i);
+        for (int i = 0; i < ENTRIES; i++) {
+            assertTrue("agent-" + i, filter.mightContain("agent-" + i));
+        }
+    }
+
+    @Test
+    public void falsePositiveRate_staysNearTarget() {
+        CodenameFilter filter = readyFilter(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) filter.add("agent-" + i);
+
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (filter.mightContain("unknown-" + i)) falsePositives++;
+        }
+        double rate = (double) falsePositives / PROBES;
+        assertTrue("FPR " + rate + " with " + filter.getMemoryBytes() / 1024 + " KiB",
+                rate < CodenameFilter.DEFAULT_FALSE_POSITIVE_RATE * 2);
+    }
+
+    @Test
+    public void removedCodename_isMissedAgain_othersKept() {
+        CodenameFilter filter = readyFilter(1000);
+        for (int i = 0; i < 1000; i++) filter.add("agent-" + i);
+        for (int i = 0; i < 1000; i += 2) filter.remove("agent-" + i);
+
+        for (int i = 1; i < 1000; i += 2) assertTrue(filter.mightContain("agent-" + i));
+        int stillPresent = 0;
+        for (int i = 0; i < 1000; i += 2) {
+            if (filter.mightContain("agent-" + i)) stillPresent++;
+        }
+        assertTrue("removed but still present: " + stillPresent, stillPresent < 50);
+        assertEquals(500, filter.size());
+    }
+
+    @Test
+    public void removingUnknownCodename_keepsOthers() {
+        CodenameFilter filter = readyFilter(1000);
+        filter.add("raven");
+        for (int i = 0; i < 10_000; i++) filter.remove("unknown-" + i);
+        assertTrue(filter.mightContain("raven"));
+    }
+
+    @Test
+    public void notReady_answersTrueAndIgnoresRemovals() {
+        CodenameFilter filter = new CodenameFilter(1000,
+                CodenameFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        assertTrue(filter.mightContain("anything"));
+
+        // A delete seen before the scan reached the codename must not clear anything
+        filter.remove("raven");
+        filter.add("raven");
+        filter.markReady();
+        assertTrue(filter.mightContain("raven"));
+        assertFalse(filter.mightContain("unknown"));
+    }
+
+    @Test
+    public void saturatedCounters_neverDropToZero() {
+        CodenameFilter filter = readyFilter(1000);
+        for (int i = 0; i < 20; i++) filter.add("raven");
+        for (int i = 0; i < 20; i++) filter.remove("raven");
+        assertTrue(filter.mightContain("raven"));
+    }
+
+    @Test
+    public void overCapacity_isReported() {
+        CodenameFilter filter = readyFilter(1024);
+        for (int i = 0; i < 1024; i++) filter.add("agent-" + i);
+        assertFalse(filter.isOverCapacity());
+        filter.add("one-more");
+        assertTrue(filter.isOverCapacity());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+package org.osd.omot_app.data.repository;
+
+import org.junit.Test;
+import org.osd.omot_app.data.model.Mission;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Property test: random inserts, status changes and deletes are applied both to the board and
+ * to a brute-force list model, and every query must agree after each step.
+ */
+public class MissionBoardTest {
+    private static final int OPERATIONS = 5_000;
+    private static final int LARGE_BOARD = 50_000;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static final Comparator<Mission> BY_START = Comparator
+            .comparingLong(Mission::getStartDate).thenComparing(Mission::getMissionID);
+    private static final Comparator<Mission> BY_END = Comparator
+            .comparingLong(Mission::getEndDate).thenComparing(Mission::getMissionID);
+
+    /**
+     * @param openEndedOneIn One mission in this many has no end date.
+     * @param maxDays Bounded missions last 0 to maxDays - 1 days.
+     */
+    private static Mission randomMission(Random random, String missionID, int openEndedOneIn,
+                                         int maxDays) {
+        Mission.Status[] statuses = Mission.Status.values();
+        Mission.Priority[] priorities = Mission.Priority.values();
+        long start = random.nextInt(365) * DAY_MS;
+        Long end = random.nextInt(openEndedOneIn) == 0
+                ? null : start + random.nextInt(maxDays) * DAY_MS;
+        return new Mission(missionID, "Operation " + missionID,
+                statuses[random.nextInt(statuses.length)],
+                priorities[random.nextInt(priorities.length)], start, end, null);
+    }
+
+    @Test
+    public void randomOperations_matchBruteForce() {
+        Random random = new Random(42);
+        MissionBoard board = new MissionBoard();
+        Map<String, Mission> model = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+
+        for (int op = 0; op < OPERATIONS; op++) {
+            int kind = random.nextInt(10);
+            if (kind < 5 || ids.isEmpty()) {
+                String id = String.format(Locale.US, "M-%05d", op);
+                Mission mission = randomMission(random, id, 10, 60);
+                board.onMissionInserted(mission);
+                model.put(id, mission);
+                ids.add(id);
+            } else if (kind < 8) {
+                String id = ids.get(random.nextInt(ids.size()));
+                Mission.Status status = Mission.Status.values()[random.nextInt(4)];
+                board.onMissionStatusChanged(id, status);
+                model.get(id).setStatus(status);
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                board.onMissionDeleted(id);
+                model.remove(id);
+            }
+
+            if (op % 50 == 0) assertMatches(board, model, random);
+        }
+        assertMatches(board, model, random);
+    }
+
+    @Test
+    public void statusChange_movesMissionOutOfDeadlines() {
+        MissionBoard board = new MissionBoard();
+        board.onMissionInserted(new Mission("M-1", "Nightfall", Mission.Status.ACTIVE,
+                Mission.Priority.HIGH, 0, 10L, null));
+        assertEquals(1, board.getUpcomingDeadlines(5, 10).size());
+
+        board.onMissionStatusChanged("M-1", Mission.Status.COMPLETED);
+        assertTrue(board.getUpcomingDeadlines(5, 10).isEmpty());
+        assertEquals(1, board.getCount(Mission.Status.COMPLETED));
+        assertEquals(0, board.getCount(Mission.Status.ACTIVE));
+    }
+
+    @Test
+    public void returnedMissions_areCopies() {
+        MissionBoard board = new MissionBoard();
+        board.onMissionInserted(new Mission("M-1", "Nightfall", Mission.Status.ACTIVE,
+                Mission.Priority.HIGH, 0, 10L, null));
+        board.getMission("M-1").setStatus(Mission.Status.DEACTIVATED);
+        assertEquals(Mission.Status.ACTIVE, board.getMission("M-1").getStatus());
+    }
+
+    @Test
+    public void queriesOnLargeBoard_areSubMillisecond() {
+        // A year of missions lasting up to two weeks, a few still open-ended
+        Random random = new Random(7);
+        MissionBoard board = new MissionBoard();
+        for (int i = 0; i < LARGE_BOARD; i++) {
+            board.onMissionInserted(randomMission(random,
+                    String.format(Locale.US, "M-%05d", i), 100, 14));
+        }
+
+        int iterations = 2_000;
+        long countNanos = 0;
+        long deadlineNanos = 0;
+        long rangeNanos = 0;
+        long rangeResults = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            board.getCount(Mission.Status.ACTIVE, Mission.Priority.HIGH);
+            board.getCount(Mission.Status.PENDING);
+            long afterCounts = System.nanoTime();
+            board.getUpcomingDeadlines(random.nextInt(365) * DAY_MS, 10);
+            long afterDeadlines = System.nanoTime();
+            long from = random.nextInt(365) * DAY_MS;
+            rangeResults += board.getMissionsInRange(from, from + DAY_MS).size();
+            long end = System.nanoTime();
+
+            countNanos += afterCounts - start;
+            deadlineNanos += afterDeadlines - afterCounts;
+            rangeNanos += end - afterDeadlines;
+        }
+        double countMicros = countNanos / 1e3 / iterations;
+        double deadlineMicros = deadlineNanos / 1e3 / iterations;
+        double rangeMicros = rangeNanos / 1e3 / iterations;
+        // The timed ranges must actually have matched missions
+        assertTrue(rangeResults / iterations + " missions per range", rangeResults > 0);
+        assertTrue(countMicros + " us", countMicros < 1000);
+        assertTrue(deadlineMicros + " us", deadlineMicros < 1000);
+        assertTrue(rangeMicros + " us", rangeMicros < 1000);
+    }
+
+    @Test
+    public void oneVeryLongMission_doesNotSlowRangeQueries() {
+        Random random = new Random(11);
+        MissionBoard board = new MissionBoard();
+        Map<String, Mission> model = new HashMap<>();
+        for (int i = 0; i < LARGE_BOARD; i++) {
+            Mission mission = randomMission(random, String.format(Locale.US, "M-%05d", i), 100, 14);
+            board.onMissionInserted(mission);
+            model.put(mission.getMissionID(), mission);
+        }
+        Mission campaign = new Mission("M-LONG", "Long Winter", Mission.Status.ACTIVE,
+                Mission.Priority.LOW, 0, 10 * 365 * DAY_MS, null);
+        board.onMissionInserted(campaign);
+        model.put(campaign.getMissionID(), campaign);
+
+        int iterations = 2_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long from = random.nextInt(365) * DAY_MS;
+            List<Mission> missions = board.getMissionsInRange(from, from + DAY_MS);
+            assertTrue(missions.stream().anyMatch(m -> m.getMissionID().equals("M-LONG")));
+        }
+        double rangeMicros = (System.nanoTime() - start) / 1e3 / iterations;
+        assertTrue(rangeMicros + " us", rangeMicros < 1000);
+
+        for (int i = 0; i < 20; i++) assertMatches(board, model, random);
+        board.onMissionDeleted("M-LONG");
+        model.remove("M-LONG");
+        for (int i = 0; i < 20; i++) assertMatches(board, model, random);
+    }
+
+    private static void assertMatches(MissionBoard board, Map<String, Mission> model,
+                                      Random random) {
+        assertEquals(model.size(), board.size());
+        for (Mission.Status status : Mission.Status.values()) {
+            assertEquals(count(model, status, null), board.getCount(status));
+            for (Mission.Priority priority : Mission.Priority.values()) {
+                assertEquals(count(model, status, priority), board.getCount(status, priority));
+            }
+        }
+        for (Mission.Priority priority : Mission.Priority.values()) {
+            assertEquals(count(model, null, priority), board.getCount(priority));
+        }
+
+        long now = random.nextInt(400) * DAY_MS;
+        List<Mission> expectedDeadlines = new ArrayList<>();
+        for (Mission mission : model.values()) {
+            boolean open = mission.getStatus() == Mission.Status.ACTIVE
+                    || mission.getStatus() == Mission.Status.PENDING;
+            if (open && mission.getEndDate() != null && mission.getEndDate() >= now) {
+                expectedDeadlines.add(mission);
+            }
+        }
+        expectedDeadlines.sort(BY_END);
+        assertSameIDs(expectedDeadlines.subList(0, Math.min(20, expectedDeadlines.size())),
+                board.getUpcomingDeadlines(now, 20));
+
+        long from = random.nextInt(400) * DAY_MS - 20 * DAY_MS;
+        long to = from + random.nextInt(30) * DAY_MS;
+        List<Mission> expectedRange = new ArrayList<>();
+        for (Mission mission : model.values()) {
+            if (mission.getStartDate() <= to
+                    && (mission.getEndDate() == null || mission.getEndDate() >= from)) {
+                expectedRange.add(mission);
+            }
+        }
+        expectedRange.sort(BY_START);
+        assertSameIDs(expectedRange, board.getMissionsInRange(from, to));
+    }
+
+    private static int count(Map<String, Mission> model, Mission.Status status,
+                             Mission.Priority priority) {
+        int count = 0;
+        for (Mission mission : model.values()) {
+            if ((status == null || mission.getStatus() == status)
+                    && (priority == null || mission.getPriority() == priority)) count++;
+        }
+        return count;
+    }
+
+    private static void assertSameIDs(List<Mission> expected, List<Mission> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Position " + i, expected.get(i).getMissionID(),
+                    actual.get(i).getMissionID());
+        }
+    }
+}
\ No newline at end of file
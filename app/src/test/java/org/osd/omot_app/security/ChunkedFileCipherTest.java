@@ -0,0 +1,259 @@
+package org.osd.omot_app.security;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips, random access and tamper detection of the chunked file format, using a software
+ * key wrapper in place of the KeyStore.
+ */
+public class ChunkedFileCipherTest {
+    private static final int CHUNK = ChunkedCipherFormat.MIN_CHUNK_SIZE;
+
+    private final Random random = new Random(23);
+    private ChunkedFileCipher cipher;
+    private File plainFile;
+    private File encryptedFile;
+    private File decryptedFile;
+
+    @Before
+    public void setUp() throws IOException {
+        cipher = new ChunkedFileCipher(new SoftwareKeyWrapper(), CHUNK);
+        plainFile = File.createTempFile("briefing", ".txt");
+        encryptedFile = File.createTempFile("briefing", ".enc");
+        decryptedFile = File.createTempFile("briefing", ".out");
+    }
+
+    @After
+    public void tearDown() {
+        plainFile.delete();
+        encryptedFile.delete();
+        decryptedFile.delete();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private byte[] encrypt(byte[] plaintext) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encrypting = cipher.newEncryptingStream(out)) {
+            // Uneven writes so chunk boundaries fall mid-write
+            int offset = 0;
+            while (offset < plaintext.length) {
+                int n = Math.min(plaintext.length - offset, 1 + random.nextInt(CHUNK + CHUNK / 2));
+                encrypting.write(plaintext, offset, n);
+                offset += n;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] decrypt(byte[] encrypted) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = cipher.newDecryptingStream(new ByteArrayInputStream(encrypted))) {
+            byte[] buffer = new byte[777];
+            int n;
+            while ((n = in.read(buffer)) >= 0) out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private void writeFile(File file, byte[] bytes) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    public void streamRoundTrip_acrossChunkBoundaries() throws IOException {
+        int[] sizes = {0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 3 * CHUNK, 5 * CHUNK + 123};
+        for (int size : sizes) {
+            byte[] plaintext = randomBytes(size);
+            byte[] encrypted = encrypt(plaintext);
+            assertArrayEquals("size " + size, plaintext, decrypt(encrypted));
+        }
+    }
+
+    @Test
+    public void sameInput_encryptsUnderDifferentKeys() throws IOException {
+        byte[] plaintext = randomBytes(CHUNK);
+        assertFalse(Arrays.equals(encrypt(plaintext), encrypt(plaintext)));
+    }
+
+    @Test
+    public void fileRoundTrip() throws IOException {
+        byte[] plaintext = randomBytes(7 * CHUNK + 5);
+        writeFile(plainFile, plaintext);
+        cipher.encryptFile(plainFile, encryptedFile);
+        cipher.decryptFile(encryptedFile, decryptedFile);
+
+        try (RandomAccessFile file = new RandomAccessFile(decryptedFile, "r")) {
+            byte[] decrypted = new byte[(int) file.length()];
+            file.readFully(decrypted);
+            assertArrayEquals(plaintext, decrypted);
+        }
+    }
+
+    @Test
+    public void reader_randomAccessMatchesPlaintext() throws IOException {
+        byte[] plaintext = randomBytes(9 * CHUNK + 321);
+        writeFile(encryptedFile, encrypt(plaintext));
+
+        try (EncryptedFileChannelReader reader = cipher.newReader(encryptedFile)) {
+            assertEquals(plaintext.length, reader.size());
+            assertEquals(10, reader.getChunkCount());
+
+            for (int i = 0; i < 200; i++) {
+                int position = random.nextInt(plaintext.length);
+                int length = random.nextInt(3 * CHUNK);
+                ByteBuffer dst = ByteBuffer.allocate(length);
+                int read = reader.read(dst, position);
+                int expected = Math.min(length, plaintext.length - position);
+                assertEquals(expected, read);
+                assertArrayEquals(Arrays.copyOfRange(plaintext, position, position + expected),
+                        Arrays.copyOf(dst.array(), read));
+            }
+            assertEquals(-1, reader.read(ByteBuffer.allocate(1), plaintext.length));
+
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+            assertEquals(321, reader.readChunk(9, chunk));
+            assertArrayEquals(Arrays.copyOfRange(plaintext, 9 * CHUNK, plaintext.length),
+                    Arrays.copyOf(chunk.array(), 321));
+        }
+    }
+
+    @Test
+    public void mappedReader_matchesPlaintextAcrossWindows() throws IOException {
+        // Enough chunks to span several mapped windows
+        byte[] plaintext = randomBytes(300 * CHUNK + 17);
+        writeFile(encryptedFile, encrypt(plaintext));
+
+        try (EncryptedFileChannelReader reader = cipher.newReader(encryptedFile, true)) {
+            assertTrue(reader.isMemoryMapped());
+            assertEquals(plaintext.length, reader.size());
+            for (int i = 0; i < 200; i++) {
+                int position = random.nextInt(plaintext.length);
+                ByteBuffer dst = ByteBuffer.allocate(random.nextInt(3 * CHUNK));
+                int read = reader.read(dst, position);
+                assertArrayEquals(Arrays.copyOfRange(plaintext, position, position + read),
+                        Arrays.copyOf(dst.array(), read));
+            }
+            ByteBuffer tail = ByteBuffer.allocate(17);
+            assertEquals(17, reader.read(tail, 300L * CHUNK));
+            assertArrayEquals(Arrays.copyOfRange(plaintext, 300 * CHUNK, plaintext.length),
+                    tail.array());
+        }
+    }
+
+    @Test
+    public void reader_exactMultipleOfChunkSize() throws IOException {
+        byte[] plaintext = randomBytes(2 * CHUNK);
+        writeFile(encryptedFile, encrypt(plaintext));
+
+        try (EncryptedFileChannelReader reader = cipher.newReader(encryptedFile)) {
+            assertEquals(2 * CHUNK, reader.size());
+            // Two full chunks plus the empty final one
+            assertEquals(3, reader.getChunkCount());
+            ByteBuffer dst = ByteBuffer.allocate(10);
+            assertEquals(10, reader.read(dst, 2 * CHUNK - 10));
+        }
+    }
+
+    @Test
+    public void flippedByte_failsAuthentication() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(3 * CHUNK));
+        encrypted[encrypted.length - CHUNK] ^= 1;
+        assertThrows(IOException.class, () -> decrypt(encrypted));
+    }
+
+    @Test
+    public void modifiedHeader_failsAuthentication() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(CHUNK));
+        // Last byte of the wrapped key
+        int headerLength = ChunkedCipherFormat.FIXED_HEADER_BYTES
+                + ((encrypted[9] & 0xFF) << 8 | (encrypted[10] & 0xFF));
+        encrypted[headerLength - 1] ^= 1;
+        assertThrows(IOException.class, () -> decrypt(encrypted));
+    }
+
+    @Test
+    public void truncationAtChunkBoundary_isDetected() throws IOException {
+        byte[] plaintext = randomBytes(3 * CHUNK + 100);
+        byte[] encrypted = encrypt(plaintext);
+        // Drop the whole final chunk, leaving three well-formed full chunks
+        byte[] truncated = Arrays.copyOf(encrypted,
+                encrypted.length - (100 + ChunkedCipherFormat.TAG_BYTES));
+
+        assertThrows(IOException.class, () -> decrypt(truncated));
+
+        writeFile(encryptedFile, truncated);
+        try (EncryptedFileChannelReader reader = cipher.newReader(encryptedFile)) {
+            assertThrows(IOException.class,
+                    () -> reader.read(ByteBuffer.allocate(CHUNK), 2L * CHUNK));
+        }
+    }
+
+    @Test
+    public void swappedChunks_areDetected() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(4 * CHUNK));
+        int sealedChunk = CHUNK + ChunkedCipherFormat.TAG_BYTES;
+        int body = encrypted.length - 4 * sealedChunk - ChunkedCipherFormat.TAG_BYTES;
+        byte[] swapped = encrypted.clone();
+        System.arraycopy(encrypted, body, swapped, body + sealedChunk, sealedChunk);
+        System.arraycopy(encrypted, body + sealedChunk, swapped, body, sealedChunk);
+        assertThrows(IOException.class, () -> decrypt(swapped));
+    }
+
+    @Test
+    public void failedDecryptFile_removesPartialOutput() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(4 * CHUNK));
+        encrypted[encrypted.length - 20] ^= 1;
+        writeFile(encryptedFile, encrypted);
+        assertThrows(IOException.class, () -> cipher.decryptFile(encryptedFile, decryptedFile));
+        assertFalse(decryptedFile.exists());
+    }
+
+    @Test
+    public void notAnEncryptedFile_isRejected() {
+        assertThrows(IOException.class, () -> decrypt(randomBytes(CHUNK)));
+    }
+
+    @Test
+    public void failedKeyWrap_removesTruncatedTarget() throws IOException {
+        writeFile(plainFile, randomBytes(CHUNK));
+        writeFile(encryptedFile, randomBytes(CHUNK));
+        ChunkedFileCipher failing = new ChunkedFileCipher(new DataKeyWrapper() {
+            @Override
+            public byte[] wrapKey(byte[] dataKey) throws GeneralSecurityException {
+                throw new GeneralSecurityException("KeyStore unavailable");
+            }
+
+            @Override
+            public byte[] unwrapKey(byte[] wrappedKey) throws GeneralSecurityException {
+                throw new GeneralSecurityException("KeyStore unavailable");
+            }
+        }, CHUNK);
+
+        assertThrows(IOException.class, () -> failing.encryptFile(plainFile, encryptedFile));
+        assertFalse(encryptedFile.exists());
+    }
+}
\ No newline at end of file
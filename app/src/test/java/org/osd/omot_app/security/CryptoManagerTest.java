@@ -0,0 +1,80 @@
+package org.osd.omot_app.security;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.*;
+
+/**
+ * Field encryption with a software AES key standing in for the KeyStore one, counting key
+ * lookups: one per manager rather than one per field, as the original code did.
+ */
+public class CryptoManagerTest {
+    private static final int FIELDS = 2_000;
+
+    private CountingKeySource keySource;
+    private CryptoManager cryptoManager;
+
+    @Before
+    public void setUp() {
+        keySource = new CountingKeySource();
+        cryptoManager = new CryptoManager(keySource);
+    }
+
+    @Test
+    public void blobs_roundTrip() {
+        String[] plaintexts = {"Favourite cipher?", "", null, "Vigen\u00e8re"};
+        byte[][] blobs = cryptoManager.encryptToBlobs(plaintexts);
+
+        assertNull(blobs[2]);
+        assertEquals(0, blobs[1].length);
+        assertArrayEquals(plaintexts, cryptoManager.decryptBlobs(blobs));
+    }
+
+    @Test
+    public void keyIsResolvedOnce_acrossFields() {
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(cryptoManager.encryptBytes(new byte[]{(byte) i}));
+        }
+        assertEquals(1, keySource.loads);
+    }
+
+    @Test
+    public void perFieldCalls_lookUpKeyOnce_notPerField() {
+        String[] fields = new String[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = String.format(Locale.US, "security-answer-%04d", i);
+        }
+        for (String field : fields) {
+            assertNotNull(cryptoManager.encryptToBlobs(new String[]{field})[0]);
+        }
+        assertEquals(1, keySource.loads);
+
+        // A fresh manager per field has no cached key, which is how every call used to behave
+        CountingKeySource uncached = new CountingKeySource();
+        for (String field : fields) {
+            assertNotNull(new CryptoManager(uncached).encryptToBlobs(new String[]{field})[0]);
+        }
+        assertEquals(FIELDS, uncached.loads);
+    }
+
+    private static class CountingKeySource implements CryptoManager.KeySource {
+        private final SecretKey key = new SecretKeySpec(new byte[32], "AES");
+        int loads;
+
+        @Override
+        public SecretKey loadOrGenerate() {
+            loads++;
+            return key;
+        }
+
+        @Override
+        public void delete() {
+        }
+    }
+}
\ No newline at end of file
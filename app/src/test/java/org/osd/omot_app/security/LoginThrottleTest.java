@@ -0,0 +1,146 @@
+package org.osd.omot_app.security;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Token bucket semantics of the login throttle, including under heavy contention.
+ */
+public class LoginThrottleTest {
+    private static final long MS = 1_000_000L;
+    private static final int THREADS = 8;
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MS);
+
+    private LoginThrottle throttle(int burst, long refillMillis, int maxTracked) {
+        return new LoginThrottle(burst, refillMillis, maxTracked, clock::get);
+    }
+
+    @Test
+    public void burstIsAllowed_thenThrottled() {
+        LoginThrottle throttle = throttle(5, 1_000, 64);
+        for (int i = 0; i < 5; i++) assertTrue(throttle.tryAcquire("raven"));
+        assertFalse(throttle.tryAcquire("raven"));
+        assertEquals(1_000, throttle.getRetryAfterMillis("raven"));
+
+        // Other codenames have their own bucket
+        assertTrue(throttle.tryAcquire("falcon"));
+    }
+
+    @Test
+    public void tokensRefillAtConfiguredRate() {
+        LoginThrottle throttle = throttle(2, 1_000, 64);
+        assertTrue(throttle.tryAcquire("raven"));
+        assertTrue(throttle.tryAcquire("raven"));
+        assertFalse(throttle.tryAcquire("raven"));
+
+        clock.addAndGet(999 * MS);
+        assertFalse(throttle.tryAcquire("raven"));
+        clock.addAndGet(MS);
+        assertTrue(throttle.tryAcquire("raven"));
+        assertFalse(throttle.tryAcquire("raven"));
+
+        // A long idle period refills only up to the burst size
+        clock.addAndGet(60_000 * MS);
+        assertTrue(throttle.tryAcquire("raven"));
+        assertTrue(throttle.tryAcquire("raven"));
+        assertFalse(throttle.tryAcquire("raven"));
+    }
+
+    @Test
+    public void trackedCodenames_areBounded() {
+        LoginThrottle throttle = throttle(1, 1_000, 256);
+        for (int i = 0; i < 100_000; i++) throttle.tryAcquire("agent-" + i);
+        assertTrue("tracked " + throttle.size(), throttle.size() <= 256);
+    }
+
+    @Test
+    public void recentlyUsedCodename_survivesEviction() {
+        LoginThrottle throttle = throttle(1, 60_000, 32);
+        assertTrue(throttle.tryAcquire("raven"));
+        for (int i = 0; i < 10_000; i++) {
+            throttle.tryAcquire("agent-" + i);
+            // Keep raven hot; each stripe evicts its least recently used codename
+            assertFalse(throttle.tryAcquire("raven"));
+        }
+    }
+
+    @Test
+    public void peekingUnknownCodenames_tracksNothing() {
+        LoginThrottle throttle = throttle(1, 60_000, 32);
+        assertTrue(throttle.tryAcquire("raven"));
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, throttle.getRetryAfterMillis("agent-" + i));
+        }
+        assertEquals(1, throttle.size());
+        assertEquals(60_000, throttle.getRetryAfterMillis("raven"));
+    }
+
+    @Test
+    public void concurrentAttempts_neverExceedBurst() throws Exception {
+        int burst = 50;
+        int attemptsPerThread = 10_000;
+        LoginThrottle throttle = throttle(burst, 60_000, 64);   // Frozen clock: no refill
+        AtomicInteger accepted = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < attemptsPerThread; i++) {
+                if (throttle.tryAcquire("raven")) accepted.incrementAndGet();
+            }
+        });
+        assertEquals(burst, accepted.get());
+    }
+
+    @Test
+    public void concurrentAttempts_withRefill_matchElapsedTime() throws Exception {
+        int burst = 10;
+        long refillMillis = 10;
+        LoginThrottle throttle = throttle(burst, refillMillis, 1024);
+        AtomicInteger accepted = new AtomicInteger();
+        long startNanos = clock.get();
+
+        // Threads advance the shared clock while racing on a few hot codenames and many cold ones
+        runConcurrently(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                clock.addAndGet(MS / 10);
+                if (throttle.tryAcquire("raven")) accepted.incrementAndGet();
+                throttle.tryAcquire("cold-" + (i % 5_000));
+            }
+        });
+
+        long elapsedMillis = (clock.get() - startNanos) / MS;
+        long maxAllowed = burst + elapsedMillis / refillMillis;
+        assertTrue(accepted.get() + " > " + maxAllowed, accepted.get() <= maxAllowed);
+        assertTrue("accepted only " + accepted.get(), accepted.get() >= maxAllowed * 9 / 10);
+        assertTrue(throttle.size() <= 1024);
+    }
+
+    private static void runConcurrently(Runnable work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    work.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) result.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
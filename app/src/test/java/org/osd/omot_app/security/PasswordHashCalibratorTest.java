@@ -0,0 +1,71 @@
+package org.osd.omot_app.security;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Calibration bounds, and the linear cost-vs-latency relation calibration relies on, measured for
+ * PBKDF2 on the build machine's JVM. Device numbers differ, which is why the app calibrates on
+ * first use instead of hardcoding them.
+ */
+public class PasswordHashCalibratorTest {
+    private static final int[] BENCHMARK_COSTS = {10_000, 50_000, 100_000, 200_000, 400_000};
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    @Test
+    public void calibratedCostLandsNearTheBudget() throws Exception {
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher();
+        long targetMillis = 100;
+        int cost = PasswordHashCalibrator.calibrate(hasher, targetMillis, 1, Integer.MAX_VALUE);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            bestNanos = Math.min(bestNanos, PasswordHashCalibrator.measureNanos(hasher, cost));
+        }
+        long millis = bestNanos / 1_000_000;
+        // Generous bounds: this only has to catch a badly wrong extrapolation, not a noisy runner
+        assertTrue("took " + millis + " ms at cost " + cost, millis >= targetMillis / 4);
+        assertTrue("took " + millis + " ms at cost " + cost, millis <= targetMillis * 4);
+    }
+
+    @Test
+    public void costIsClampedToBounds() throws Exception {
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher();
+        assertEquals(5_000, PasswordHashCalibrator.calibrate(hasher, 1, 5_000, 10_000));
+        assertEquals(2_000, PasswordHashCalibrator.calibrate(hasher, 60_000, 1_000, 2_000));
+    }
+
+    @Test
+    public void latencyScalesLinearlyWithCost() throws Exception {
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher();
+        PasswordHashCalibrator.calibrate(hasher, 50, 1, Integer.MAX_VALUE);   // Warm up the JIT
+
+        // Rounds go over every cost in turn, so a late JIT or a busy runner can't skew just one
+        long[] bestNanos = new long[BENCHMARK_COSTS.length];
+        Arrays.fill(bestNanos, Long.MAX_VALUE);
+        for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            for (int c = 0; c < BENCHMARK_COSTS.length; c++) {
+                bestNanos[c] = Math.min(bestNanos[c],
+                        PasswordHashCalibrator.measureNanos(hasher, BENCHMARK_COSTS[c]));
+            }
+        }
+        double[] nanosPerIteration = new double[BENCHMARK_COSTS.length];
+        for (int c = 0; c < BENCHMARK_COSTS.length; c++) {
+            nanosPerIteration[c] = (double) bestNanos[c] / BENCHMARK_COSTS[c];
+        }
+        // Calibration extrapolates linearly from one measurement, so every cost must take about
+        // the same time per iteration as the largest one
+        double reference = nanosPerIteration[nanosPerIteration.length - 1];
+        for (int c = 0; c < BENCHMARK_COSTS.length; c++) {
+            String message = String.format(Locale.US, "%.1f ns/iteration at cost %d, %.1f at %d",
+                    nanosPerIteration[c], BENCHMARK_COSTS[c], reference,
+                    BENCHMARK_COSTS[BENCHMARK_COSTS.length - 1]);
+            assertTrue(message, nanosPerIteration[c] <= reference * 4);
+            assertTrue(message, nanosPerIteration[c] >= reference / 4);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package org.osd.omot_app.security;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the hand-rolled PBKDF2 against published vectors and the JVM's own implementation.
+ */
+public class Pbkdf2PasswordHasherTest {
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(i * 2, i * 2 + 2), 16);
+        }
+        return out;
+    }
+
+    @Test
+    public void matchesRfc7914Vector() throws Exception {
+        // RFC 7914 section 11: PBKDF2-HMAC-SHA256, P="passwd", S="salt", c=1, dkLen=64
+        byte[] expected = hex("55ac046e56e3089fec1691c22544b605f94185216dde0465e68b9d57c20dacbc"
+                + "49ca9cccf179b645991664b39d77ef317c71b845b1e30bd509112041d3a19783");
+        byte[] derived = new Pbkdf2PasswordHasher(64).derive(utf8("passwd"), utf8("salt"), 1);
+        assertArrayEquals(expected, derived);
+    }
+
+    @Test
+    public void matchesJvmImplementationAcrossCosts() throws Exception {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        byte[] salt = utf8("0123456789abcdef");
+        for (int cost : new int[]{1, 2, 1000, 4096}) {
+            byte[] expected = factory.generateSecret(new PBEKeySpec(
+                    "correct horse".toCharArray(), salt, cost, 256)).getEncoded();
+            byte[] derived = new Pbkdf2PasswordHasher().derive(utf8("correct horse"), salt, cost);
+            assertArrayEquals("cost " + cost, expected, derived);
+        }
+    }
+
+    @Test
+    public void emptyPasswordIsAccepted() throws Exception {
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher();
+        byte[] empty = hasher.derive(new byte[0], utf8("salt"), 10);
+        assertEquals(32, empty.length);
+        assertFalse(MessageDigest.isEqual(empty, hasher.derive(utf8("x"), utf8("salt"), 10)));
+    }
+
+    @Test
+    public void costChangesTheHash() throws Exception {
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher();
+        assertFalse(MessageDigest.isEqual(hasher.derive(utf8("pw"), utf8("salt"), 100),
+                hasher.derive(utf8("pw"), utf8("salt"), 101)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package org.osd.omot_app.security;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES-GCM under a fixed in-memory key, standing in for the KeyStore key in JVM tests.
+ */
+public class SoftwareKeyWrapper implements DataKeyWrapper {
+    private final SecretKeySpec key = new SecretKeySpec(new byte[32], "AES");
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public byte[] wrapKey(byte[] dataKey) throws GeneralSecurityException {
+        byte[] iv = new byte[12];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] sealed = cipher.doFinal(dataKey);
+        byte[] wrapped = Arrays.copyOf(iv, iv.length + sealed.length);
+        System.arraycopy(sealed, 0, wrapped, iv.length, sealed.length);
+        return wrapped;
+    }
+
+    @Override
+    public byte[] unwrapKey(byte[] wrappedKey) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, wrappedKey, 0, 12));
+        return cipher.doFinal(wrappedKey, 12, wrappedKey.length - 12);
+    }
+}
\ No newline at end of file